@@ -131,6 +131,11 @@ public interface MetricsDatabase {
      */
     long lastUpdate(String metricType);
 
+    /**
+     * Closes the database and releases its backing storage.
+     */
+    void close();
+
     /**
      * A builder of MetricsDatabase.
      */
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.cpman.impl;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.onosproject.cpman.ControlLoadSnapshot;
+
+/**
+ * Kryo Serializer for {@link ControlLoadSnapshot}. The historical values are
+ * written as variable-length deltas, which keeps a day of per-minute samples
+ * to a few bytes per sample when fetched from a remote node.
+ */
+final class ControlLoadSnapshotSerializer extends Serializer<ControlLoadSnapshot> {
+
+    /**
+     * Creates {@link ControlLoadSnapshot} serializer instance.
+     */
+    ControlLoadSnapshotSerializer() {
+        // non-null, immutable
+        super(false, true);
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output, ControlLoadSnapshot object) {
+        output.writeVarLong(object.latest(), false);
+        output.writeVarLong(object.average(), false);
+        output.writeVarLong(object.time(), true);
+
+        long[] recent = object.recent();
+        if (recent == null) {
+            output.writeVarInt(0, true);
+            return;
+        }
+        output.writeVarInt(recent.length + 1, true);
+        long previous = 0;
+        for (long value : recent) {
+            output.writeVarLong(value - previous, false);
+            previous = value;
+        }
+    }
+
+    @Override
+    public ControlLoadSnapshot read(Kryo kryo, Input input, Class<ControlLoadSnapshot> type) {
+        long latest = input.readVarLong(false);
+        long average = input.readVarLong(false);
+        long time = input.readVarLong(true);
+
+        int length = input.readVarInt(true) - 1;
+        if (length < 0) {
+            return new ControlLoadSnapshot(latest, average, time);
+        }
+        long[] recent = new long[length];
+        long previous = 0;
+        for (int i = 0; i < length; i++) {
+            previous += input.readVarLong(false);
+            recent[i] = previous;
+        }
+        return new ControlLoadSnapshot(latest, average, time, recent);
+    }
+}
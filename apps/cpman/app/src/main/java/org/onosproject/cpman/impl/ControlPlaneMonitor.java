@@ -20,6 +20,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.onlab.util.KryoNamespace;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.cpman.ControlLoad;
@@ -36,33 +37,57 @@ import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.cluster.messaging.MessageSubject;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.Serializer;
+import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Dictionary;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static org.onlab.util.Tools.get;
+import static org.onlab.util.Tools.getIntegerProperty;
 import static org.onosproject.cpman.ControlResource.CONTROL_MESSAGE_METRICS;
 import static org.onosproject.cpman.ControlResource.CPU_METRICS;
 import static org.onosproject.cpman.ControlResource.DISK_METRICS;
 import static org.onosproject.cpman.ControlResource.MEMORY_METRICS;
 import static org.onosproject.cpman.ControlResource.NETWORK_METRICS;
 import static org.onosproject.cpman.ControlResource.Type;
+import static org.onosproject.cpman.impl.OsgiPropertyConstants.MAX_PERSISTED_DATABASES;
+import static org.onosproject.cpman.impl.OsgiPropertyConstants.MAX_PERSISTED_DATABASES_DEFAULT;
+import static org.onosproject.cpman.impl.OsgiPropertyConstants.PERSIST_METRICS;
+import static org.onosproject.cpman.impl.OsgiPropertyConstants.PERSIST_METRICS_DEFAULT;
 
 /**
  * Control plane monitoring service class.
  */
-@Component(immediate = true, service = ControlPlaneMonitorService.class)
+@Component(
+        immediate = true,
+        service = ControlPlaneMonitorService.class,
+        property = {
+                PERSIST_METRICS + ":Boolean=" + PERSIST_METRICS_DEFAULT,
+                MAX_PERSISTED_DATABASES + ":Integer=" + MAX_PERSISTED_DATABASES_DEFAULT,
+        }
+)
 public class ControlPlaneMonitor implements ControlPlaneMonitorService {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
@@ -78,6 +103,20 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected ClusterCommunicationService communicationService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    protected ComponentConfigService cfgService;
+
+    /** Store the metrics history in memory-mapped files that survive restarts. */
+    private boolean persistMetrics = PERSIST_METRICS_DEFAULT;
+
+    /** Maximum number of metrics databases kept on disk; further ones are kept in memory. */
+    private int maxPersistedDatabases = MAX_PERSISTED_DATABASES_DEFAULT;
+
+    private static final Path STORAGE_DIRECTORY =
+            Paths.get(System.getProperty("karaf.data", "."), "cpman");
+
+    private final AtomicInteger persistedDatabases = new AtomicInteger();
+
     private static final String DEFAULT_RESOURCE = "default";
 
     private static final Set RESOURCE_TYPE_SET =
@@ -106,14 +145,20 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
                     .register(KryoNamespaces.API)
                     .register(ControlMetricsRequest.class)
                     .register(ControlResourceRequest.class)
-                    .register(ControlLoadSnapshot.class)
+                    .register(new ControlLoadSnapshotSerializer(), ControlLoadSnapshot.class)
                     .register(ControlMetricType.class)
                     .register(ControlResource.Type.class)
                     .register(TimeUnit.class)
                     .nextId(KryoNamespaces.BEGIN_USER_CUSTOM_ID).build());
 
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
+        cfgService.registerProperties(getClass());
+        readComponentConfiguration(context);
+        if (persistMetrics) {
+            pruneStorage();
+        }
+
         cpuMetrics = genMDbBuilder(DEFAULT_RESOURCE, Type.CPU, CPU_METRICS);
         memoryMetrics = genMDbBuilder(DEFAULT_RESOURCE, Type.MEMORY, MEMORY_METRICS);
         controlMessageMap = Maps.newConcurrentMap();
@@ -140,8 +185,15 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
 
     @Deactivate
     public void deactivate() {
+        cfgService.unregisterProperties(getClass(), false);
+
+        cpuMetrics.close();
+        memoryMetrics.close();
+        controlMessageMap.values().forEach(MetricsDatabase::close);
+        diskMetricsMap.values().forEach(MetricsDatabase::close);
+        networkMetricsMap.values().forEach(MetricsDatabase::close);
+        persistedDatabases.set(0);
 
-        // TODO: need to handle the mdb close.
         cpuBuf.clear();
         memoryBuf.clear();
         diskBuf.clear();
@@ -154,6 +206,51 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
         log.info("Stopped");
     }
 
+    @Modified
+    protected void modified(ComponentContext context) {
+        int previousMaxPersistedDatabases = maxPersistedDatabases;
+        // only applies to the databases created from now on
+        readComponentConfiguration(context);
+        if (persistMetrics && maxPersistedDatabases != previousMaxPersistedDatabases) {
+            pruneStorage();
+        }
+    }
+
+    private void readComponentConfiguration(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+
+        String s = get(properties, PERSIST_METRICS);
+        persistMetrics = s == null ? PERSIST_METRICS_DEFAULT : Boolean.parseBoolean(s.trim());
+        maxPersistedDatabases = getIntegerProperty(properties, MAX_PERSISTED_DATABASES,
+                MAX_PERSISTED_DATABASES_DEFAULT);
+        log.info("Settings: {}={}, {}={}", PERSIST_METRICS, persistMetrics,
+                MAX_PERSISTED_DATABASES, maxPersistedDatabases);
+    }
+
+    /**
+     * Removes the least recently updated database files above the maximum
+     * number of persisted databases, so that disk usage stays bounded.
+     */
+    private void pruneStorage() {
+        if (!Files.isDirectory(STORAGE_DIRECTORY)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(STORAGE_DIRECTORY)) {
+            List<Path> dbFiles = files.sorted(Comparator.comparing(
+                    (Path file) -> file.toFile().lastModified()).reversed())
+                    .collect(Collectors.toList());
+            for (Path file : dbFiles.subList(Math.min(maxPersistedDatabases, dbFiles.size()),
+                                             dbFiles.size())) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to prune metrics storage {}", STORAGE_DIRECTORY, e);
+        }
+    }
+
     @Override
     public void updateMetric(ControlMetric cm, int updateIntervalInMinutes,
                              Optional<DeviceId> deviceId) {
@@ -319,10 +416,14 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
     private MetricsDatabase genMDbBuilder(String resourceName,
                                           Type resourceType,
                                           Set<ControlMetricType> metricTypes) {
-        MetricsDatabase.Builder builder = new DefaultMetricsDatabase.Builder();
+        DefaultMetricsDatabase.Builder builder = new DefaultMetricsDatabase.Builder();
         builder.withMetricName(resourceType.toString());
         builder.withResourceName(resourceName);
         metricTypes.forEach(type -> builder.addMetricType(type.toString()));
+        if (persistMetrics &&
+                persistedDatabases.getAndIncrement() < maxPersistedDatabases) {
+            builder.withStorageDirectory(STORAGE_DIRECTORY);
+        }
         return builder.build();
     }
 
@@ -404,14 +505,13 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
             load = getLocalLoad(request.getType(), request.getDeviceId());
         }
 
-        long average;
+        // the recent values are sent along in a single, compact response
+        ControlLoadSnapshot resp;
         if (request.getUnit() != null) {
-            average = load.average(request.getDuration(), request.getUnit());
+            resp = snapshot(load, request.getDuration(), request.getUnit());
         } else {
-            average = load.average();
+            resp = snapshot(load);
         }
-        ControlLoadSnapshot resp =
-                new ControlLoadSnapshot(load.latest(), average, load.time());
         return CompletableFuture.completedFuture(resp);
     }
 
@@ -30,6 +30,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -53,10 +55,11 @@ public final class DefaultMetricsDatabase implements MetricsDatabase {
     private Sample sample;
     private static final long SECONDS_OF_DAY = 60L * 60L * 24L;
     private static final long SECONDS_OF_MINUTE = 60L;
+    private static final long SECONDS_OF_RETENTION = SECONDS_OF_DAY * 30L;
     private static final ConsolFun CONSOL_FUNCTION = ConsolFun.LAST;
     private static final String NON_EXIST_METRIC = "Non-existing metric type.";
     private static final String INSUFFICIENT_DURATION = "Given duration less than one minute.";
-    private static final String EXCEEDED_DURATION = "Given duration exceeds a day time.";
+    private static final String EXCEEDED_DURATION = "Given duration exceeds the retention time.";
 
     /**
      * Constructs a metrics database using the given metric name and
@@ -218,13 +221,22 @@ public final class DefaultMetricsDatabase implements MetricsDatabase {
         }
     }
 
+    @Override
+    public void close() {
+        try {
+            rrdDb.close();
+        } catch (IOException e) {
+            log.warn("Failed to close round-robin database due to {}", e);
+        }
+    }
+
     // try to check whether projected time range is within a day
     private boolean checkTimeRange(long startTime, long endTime) {
         // check whether the given startTime and endTime larger than 1 minute
         checkArgument(endTime - startTime >= SECONDS_OF_MINUTE, INSUFFICIENT_DURATION);
 
-        // check whether the given start time and endTime smaller than 1 day
-        checkArgument(endTime - startTime <= SECONDS_OF_DAY, EXCEEDED_DURATION);
+        // check whether the given start time and endTime within the retention
+        checkArgument(endTime - startTime <= SECONDS_OF_RETENTION, EXCEEDED_DURATION);
         return true;
     }
 
@@ -250,6 +262,9 @@ public final class DefaultMetricsDatabase implements MetricsDatabase {
     public static final class Builder implements MetricsDatabase.Builder {
         private static final int RESOLUTION_IN_SECOND = 60;
         private static final String STORING_METHOD = "MEMORY";
+        private static final RrdBackendFactory PERSISTENT_BACKEND_FACTORY =
+                new MappedRrdBackendFactory();
+        private static final String FILE_EXTENSION = ".rrd";
         private static final DsType SOURCE_TYPE = DsType.GAUGE;
         private static final String DB_PATH = "CPMAN";
         private static final ConsolFun CONSOL_FUNCTION = ConsolFun.LAST;
@@ -258,6 +273,13 @@ public final class DefaultMetricsDatabase implements MetricsDatabase {
         private static final double XFF_VALUE = 0.2;
         private static final int STEP_VALUE = 1;
         private static final int ROW_VALUE = 60 * 24;
+        // consolidated archives keep a coarser history for longer; each one
+        // holds a spare day so that whole-week and whole-month queries are
+        // served by a single archive
+        private static final int WEEK_STEP_VALUE = 5;
+        private static final int WEEK_ROW_VALUE = 12 * 24 * 8;
+        private static final int MONTH_STEP_VALUE = 60;
+        private static final int MONTH_ROW_VALUE = 24 * 31;
         private static final String METRIC_NAME_MSG = "Must specify a metric name.";
         private static final String RESOURCE_NAME_MSG = "Must specify a resource name.";
         private static final String METRIC_TYPE_MSG = "Must supply at least a metric type.";
@@ -268,6 +290,7 @@ public final class DefaultMetricsDatabase implements MetricsDatabase {
         private List<DsDef> dsDefs;
         private String metricName;
         private String resourceName;
+        private Path storageDirectory;
 
         public Builder() {
             // initialize data source definition list
@@ -286,6 +309,19 @@ public final class DefaultMetricsDatabase implements MetricsDatabase {
             return this;
         }
 
+        /**
+         * Stores the metrics in a memory-mapped file under the given
+         * directory rather than on heap. If a database file for the same
+         * metric and resource already exists, its history is kept.
+         *
+         * @param directory storage directory
+         * @return builder object
+         */
+        public Builder withStorageDirectory(Path directory) {
+            this.storageDirectory = directory;
+            return this;
+        }
+
         @Override
         public Builder addMetricType(String metricType) {
             dsDefs.add(defineSchema(metricType));
@@ -298,9 +334,13 @@ public final class DefaultMetricsDatabase implements MetricsDatabase {
             checkNotNull(resourceName, RESOURCE_NAME_MSG);
             checkArgument(!dsDefs.isEmpty(), METRIC_TYPE_MSG);
 
+            String dbName = DB_PATH + SPLITTER + metricName + SPLITTER + resourceName;
+            Path dbFile = storageDirectory == null ? null :
+                    storageDirectory.resolve(fileName(dbName));
+
             // define the resolution of monitored metrics
-            rrdDef = new RrdDef(DB_PATH + SPLITTER + metricName +
-                     SPLITTER + resourceName, RESOLUTION_IN_SECOND);
+            rrdDef = new RrdDef(dbFile == null ? dbName : dbFile.toString(),
+                    RESOLUTION_IN_SECOND);
 
             try {
                 DsDef[] dsDefArray = new DsDef[dsDefs.size()];
@@ -313,9 +353,20 @@ public final class DefaultMetricsDatabase implements MetricsDatabase {
                 ArcDef rawArchive = new ArcDef(CONSOL_FUNCTION, XFF_VALUE,
                         STEP_VALUE, ROW_VALUE);
                 rrdDef.addArchive(rawArchive);
-
-                // always store the metric data in memory...
-                rrdDb = new RrdDb(rrdDef, RrdBackendFactory.getFactory(STORING_METHOD));
+                rrdDef.addArchive(CONSOL_FUNCTION, XFF_VALUE, WEEK_STEP_VALUE, WEEK_ROW_VALUE);
+                rrdDef.addArchive(CONSOL_FUNCTION, XFF_VALUE, MONTH_STEP_VALUE, MONTH_ROW_VALUE);
+
+                if (dbFile == null) {
+                    // store the metric data in memory...
+                    rrdDb = new RrdDb(rrdDef, RrdBackendFactory.getFactory(STORING_METHOD));
+                } else {
+                    // ...or in a memory-mapped file of fixed size
+                    Files.createDirectories(storageDirectory);
+                    rrdDb = openExisting(dbFile, PERSISTENT_BACKEND_FACTORY);
+                    if (rrdDb == null) {
+                        rrdDb = new RrdDb(rrdDef, PERSISTENT_BACKEND_FACTORY);
+                    }
+                }
             } catch (IOException e) {
                 log.warn("Failed to create a new round-robin database due to {}", e);
             }
@@ -323,6 +374,35 @@ public final class DefaultMetricsDatabase implements MetricsDatabase {
             return new DefaultMetricsDatabase(metricName, resourceName, rrdDb);
         }
 
+        // opens an existing database file if it holds all the metric types
+        // and archives
+        private RrdDb openExisting(Path dbFile, RrdBackendFactory factory) {
+            if (!Files.exists(dbFile)) {
+                return null;
+            }
+            try {
+                RrdDb existing = new RrdDb(dbFile.toString(), factory);
+                if (existing.getArcCount() != rrdDef.getArcCount()) {
+                    existing.close();
+                    return null;
+                }
+                for (DsDef dsDef : dsDefs) {
+                    if (!existing.containsDs(dsDef.getDsName())) {
+                        existing.close();
+                        return null;
+                    }
+                }
+                return existing;
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Discarding unreadable metrics database {}", dbFile);
+                return null;
+            }
+        }
+
+        private String fileName(String dbName) {
+            return dbName.replaceAll("[^A-Za-z0-9._-]", SPLITTER) + FILE_EXTENSION;
+        }
+
         private DsDef defineSchema(String metricType) {
             return new DsDef(metricType, SOURCE_TYPE, RESOLUTION_IN_SECOND,
                     MIN_VALUE, MAX_VALUE);
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.cpman.impl;
+
+import org.rrd4j.core.RrdBackend;
+import org.rrd4j.core.RrdFileBackend;
+import org.rrd4j.core.RrdFileBackendFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Factory of round-robin database backends that keep their data in
+ * memory-mapped files. Unlike the NIO backend bundled with rrd4j, the
+ * mapping is released by the garbage collector on close, which keeps it
+ * usable on recent JDKs.
+ */
+final class MappedRrdBackendFactory extends RrdFileBackendFactory {
+
+    private static final String NAME = "CPMAN_MAPPED";
+
+    @Override
+    protected RrdBackend open(String path, boolean readOnly) throws IOException {
+        return new MappedRrdBackend(path, readOnly);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    private static final class MappedRrdBackend extends RrdFileBackend {
+
+        private final FileChannel channel;
+        private MappedByteBuffer buffer;
+
+        private MappedRrdBackend(String path, boolean readOnly) throws IOException {
+            super(path, readOnly);
+            channel = readOnly ? FileChannel.open(Paths.get(path), READ) :
+                    FileChannel.open(Paths.get(path), CREATE, READ, WRITE);
+            if (channel.size() > 0) {
+                map(channel.size());
+            }
+        }
+
+        private void map(long length) throws IOException {
+            buffer = channel.map(readOnly ? FileChannel.MapMode.READ_ONLY :
+                                         FileChannel.MapMode.READ_WRITE, 0, length);
+        }
+
+        @Override
+        protected synchronized void setLength(long length) throws IOException {
+            if (channel.size() > length) {
+                channel.truncate(length);
+            }
+            map(length);
+        }
+
+        @Override
+        protected synchronized void write(long offset, byte[] bytes) throws IOException {
+            ByteBuffer view = buffer.duplicate();
+            view.position((int) offset);
+            view.put(bytes);
+        }
+
+        @Override
+        protected synchronized void read(long offset, byte[] bytes) throws IOException {
+            ByteBuffer view = buffer.duplicate();
+            view.position((int) offset);
+            view.get(bytes);
+        }
+
+        @Override
+        public synchronized long getLength() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            try {
+                if (buffer != null && !readOnly) {
+                    buffer.force();
+                }
+                buffer = null;
+                channel.close();
+            } finally {
+                super.close();
+            }
+        }
+    }
+}
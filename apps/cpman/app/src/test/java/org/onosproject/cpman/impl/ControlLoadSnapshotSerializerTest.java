@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.cpman.impl;
+
+import org.junit.Test;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.cpman.ControlLoadSnapshot;
+import org.onosproject.store.service.Serializer;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the compact control load snapshot serializer.
+ */
+public class ControlLoadSnapshotSerializerTest {
+
+    private static final Serializer SERIALIZER = Serializer
+            .using(new KryoNamespace.Builder()
+                    .register(new ControlLoadSnapshotSerializer(), ControlLoadSnapshot.class)
+                    .build());
+
+    /**
+     * Tests that snapshots survive a round trip through the serializer.
+     */
+    @Test
+    public void testRoundTrip() {
+        ControlLoadSnapshot plain = new ControlLoadSnapshot(10, 5, 1000L);
+        assertThat(SERIALIZER.decode(SERIALIZER.encode(plain)), is(plain));
+
+        long[] recent = new long[60 * 24];
+        for (int i = 0; i < recent.length; i++) {
+            recent[i] = 100_000 + (i % 7) * 3 - i;
+        }
+        ControlLoadSnapshot withHistory =
+                new ControlLoadSnapshot(20, 15, System.currentTimeMillis(), recent);
+        byte[] encoded = SERIALIZER.encode(withHistory);
+        assertThat(SERIALIZER.decode(encoded), is(withHistory));
+
+        // small deltas take a byte or two per sample rather than eight
+        assertThat(encoded.length, lessThan(recent.length * 2));
+    }
+}
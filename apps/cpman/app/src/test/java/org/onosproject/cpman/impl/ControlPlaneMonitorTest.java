@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableSet;
 import org.junit.Before;
 import org.junit.Test;
 import org.onlab.packet.IpAddress;
+import org.onosproject.cfg.ComponentConfigAdapter;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.cluster.NodeId;
@@ -79,7 +80,9 @@ public class ControlPlaneMonitorTest {
                 .andReturn(mockControllerNode).anyTimes();
         replay(mockClusterService);
 
-        monitor.activate();
+        monitor.cfgService = new ComponentConfigAdapter();
+
+        monitor.activate(null);
     }
 
     /**
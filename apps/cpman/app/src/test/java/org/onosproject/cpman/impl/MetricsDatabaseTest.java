@@ -25,11 +25,16 @@ import org.onosproject.cpman.ControlResource;
 import org.onosproject.cpman.MetricsDatabase;
 import org.onosproject.net.DeviceId;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
@@ -100,13 +105,22 @@ public class MetricsDatabaseTest {
         assertThat(mdb.metrics(CPU_LOAD, startTime, endTime).length, is(5));
     }
 
+    /**
+     * Test the projection of a time range longer than a day.
+     */
+    @Test
+    public void testRetainedTimeRange() {
+        // query 7 days time range, served by a consolidated archive
+        assertThat(mdb.recentMetrics(CPU_LOAD, 7, TimeUnit.DAYS).length, greaterThan(0));
+    }
+
     /**
      * Test the projected time range.
      */
     @Test(expected = IllegalArgumentException.class)
     public void testExceededTimeRange() {
-        // query 25 hours time range
-        assertThat(mdb.recentMetrics(CPU_LOAD, 25, TimeUnit.HOURS).length, is(60 * 24));
+        // query 31 days time range
+        assertThat(mdb.recentMetrics(CPU_LOAD, 31, TimeUnit.DAYS).length, is(60 * 24));
     }
 
     /**
@@ -180,6 +194,40 @@ public class MetricsDatabaseTest {
         );
     }
 
+    /**
+     * Tests that a file-backed database keeps its metrics when reopened.
+     */
+    @Test
+    public void testPersistentDatabase() throws IOException {
+        Path directory = Files.createTempDirectory("cpman");
+        try {
+            MetricsDatabase fileMdb = new DefaultMetricsDatabase.Builder()
+                    .withStorageDirectory(directory)
+                    .withMetricName(CPU_METRIC)
+                    .withResourceName("of:0000000000000001")
+                    .addMetricType(CPU_LOAD)
+                    .build();
+            long currentTime = System.currentTimeMillis() / 1000L;
+            fileMdb.updateMetric(CPU_LOAD, 30, currentTime);
+            fileMdb.close();
+
+            MetricsDatabase reopened = new DefaultMetricsDatabase.Builder()
+                    .withStorageDirectory(directory)
+                    .withMetricName(CPU_METRIC)
+                    .withResourceName("of:0000000000000001")
+                    .addMetricType(CPU_LOAD)
+                    .build();
+            assertThat(30D, is(reopened.recentMetric(CPU_LOAD)));
+            assertThat(currentTime, is(reopened.lastUpdate(CPU_LOAD)));
+            reopened.close();
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                files.forEach(file -> file.toFile().delete());
+            }
+            Files.delete(directory);
+        }
+    }
+
     private MetricsDatabase.Builder genMDbBuilder(ControlResource.Type resourceType,
                                           Set<ControlMetricType> metricTypes) {
         MetricsDatabase.Builder builder = new DefaultMetricsDatabase.Builder();
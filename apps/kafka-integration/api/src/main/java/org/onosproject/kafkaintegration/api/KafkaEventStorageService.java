@@ -17,6 +17,8 @@ package org.onosproject.kafkaintegration.api;
 
 import org.onosproject.kafkaintegration.api.dto.OnosEvent;
 
+import java.util.List;
+
 /**
  * APIs to insert and delete into a local store. This store is used to keep
  * track of events that are being published.
@@ -24,16 +26,36 @@ import org.onosproject.kafkaintegration.api.dto.OnosEvent;
 public interface KafkaEventStorageService {
 
     /**
-     * Inserts the Onos Event into Distributed Work Queue.
+     * Appends the Onos Event to the local event spool.
      *
      * @param event the ONOS Event
      */
     void publishEvent(OnosEvent event);
 
     /**
-     * Removes the Onos Event from the Distributed Work Queue.
+     * Removes the oldest Onos Event from the local event spool.
      *
-     * @return the Onos Event
+     * @return the Onos Event, or null if there is none
      */
     OnosEvent consumeEvent();
+
+    /**
+     * Returns the oldest Onos Events from the local event spool without
+     * removing them. The same events are returned again until they are
+     * committed.
+     *
+     * @param maxEvents maximum number of events to return
+     * @return list of events, oldest first
+     */
+    List<OnosEvent> peekEvents(int maxEvents);
+
+    /**
+     * Removes the given number of oldest Onos Events from the local event
+     * spool, once they have been exported. Events peeked but not committed,
+     * e.g. because their export failed, are exported again, so that export
+     * is at-least-once.
+     *
+     * @param count number of events to remove
+     */
+    void commitEvents(int count);
 }
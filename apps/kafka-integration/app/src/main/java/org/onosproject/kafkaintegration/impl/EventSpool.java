@@ -0,0 +1,194 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.kafkaintegration.impl;
+
+import com.google.common.collect.ImmutableList;
+import org.onosproject.kafkaintegration.api.dto.OnosEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only spool of ONOS events backed by a memory-mapped file.
+ * <p>
+ * The file starts with a single long holding both the read and the write
+ * position, so that the two always change atomically. Every record is laid
+ * out as its payload length, the event type ordinal and the payload itself.
+ * Records are only made visible once fully written, and the read position
+ * only moves forward on {@link #commit(int)}, so uncommitted events survive
+ * a restart of the controller.
+ */
+final class EventSpool {
+
+    private static final int HEADER_SIZE = Long.BYTES;
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES + Byte.BYTES;
+    private static final OnosEvent.Type[] TYPES = OnosEvent.Type.values();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    private int readPos;
+    private int writePos;
+
+    /**
+     * Opens, or creates, the spool backed by the given file.
+     *
+     * @param file     spool file
+     * @param capacity size of the spool in bytes
+     * @throws IOException if the file cannot be mapped
+     */
+    EventSpool(Path file, int capacity) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.capacity = capacity;
+        this.channel = FileChannel.open(file, CREATE, READ, WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+
+        long header = buffer.getLong(0);
+        readPos = (int) (header >>> Integer.SIZE);
+        writePos = (int) header;
+        if (readPos < HEADER_SIZE || writePos < readPos || writePos > capacity) {
+            // New or unusable file; start from scratch
+            readPos = HEADER_SIZE;
+            writePos = HEADER_SIZE;
+            writeHeader();
+        }
+    }
+
+    /**
+     * Appends an event to the spool.
+     *
+     * @param event the event
+     * @return false if the spool is full and the event was dropped
+     */
+    synchronized boolean append(OnosEvent event) {
+        byte[] payload = event.subject();
+        int size = RECORD_HEADER_SIZE + payload.length;
+        if (writePos + size > capacity && !compact(size)) {
+            return false;
+        }
+        buffer.putInt(writePos, payload.length);
+        buffer.put(writePos + Integer.BYTES, (byte) event.type().ordinal());
+        at(writePos + RECORD_HEADER_SIZE).put(payload);
+        writePos += size;
+        writeHeader();
+        return true;
+    }
+
+    /**
+     * Returns up to the given number of events starting at the read position,
+     * without consuming them.
+     *
+     * @param maxEvents maximum number of events to return
+     * @return list of events, in spool order
+     */
+    synchronized List<OnosEvent> peek(int maxEvents) {
+        ImmutableList.Builder<OnosEvent> events = ImmutableList.builder();
+        int pos = readPos;
+        for (int i = 0; i < maxEvents && pos < writePos; i++) {
+            int length = buffer.getInt(pos);
+            OnosEvent.Type type = TYPES[buffer.get(pos + Integer.BYTES)];
+            byte[] payload = new byte[length];
+            at(pos + RECORD_HEADER_SIZE).get(payload);
+            events.add(new OnosEvent(type, payload));
+            pos += RECORD_HEADER_SIZE + length;
+        }
+        return events.build();
+    }
+
+    /**
+     * Consumes the given number of events from the read position and flushes
+     * the new position to the backing file.
+     *
+     * @param count number of events to consume
+     */
+    synchronized void commit(int count) {
+        for (int i = 0; i < count && readPos < writePos; i++) {
+            readPos += RECORD_HEADER_SIZE + buffer.getInt(readPos);
+        }
+        if (readPos == writePos) {
+            // Drained; rewind so that the spool is reused from the start
+            readPos = HEADER_SIZE;
+            writePos = HEADER_SIZE;
+        }
+        writeHeader();
+        buffer.force();
+    }
+
+    /**
+     * Returns the number of bytes held by uncommitted events.
+     *
+     * @return pending bytes
+     */
+    synchronized int pendingBytes() {
+        return writePos - readPos;
+    }
+
+    /**
+     * Returns true if there are no uncommitted events.
+     *
+     * @return true if the spool is empty
+     */
+    synchronized boolean isEmpty() {
+        return readPos == writePos;
+    }
+
+    /**
+     * Flushes and closes the spool.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    // Moves the pending records to the start of the spool to make room for
+    // a new record. Only done when source and destination do not overlap so
+    // that a crash half way leaves the old records intact.
+    private boolean compact(int size) {
+        int pending = writePos - readPos;
+        if (HEADER_SIZE + pending + size > capacity || readPos - HEADER_SIZE < pending) {
+            return false;
+        }
+        ByteBuffer records = at(readPos);
+        records.limit(writePos);
+        at(HEADER_SIZE).put(records);
+        readPos = HEADER_SIZE;
+        writePos = HEADER_SIZE + pending;
+        writeHeader();
+        return true;
+    }
+
+    private ByteBuffer at(int position) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        return view;
+    }
+
+    private void writeHeader() {
+        buffer.putLong(0, ((long) readPos << Integer.SIZE) | writePos);
+    }
+}
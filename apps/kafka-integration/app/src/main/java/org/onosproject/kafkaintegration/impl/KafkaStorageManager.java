@@ -17,77 +17,87 @@ package org.onosproject.kafkaintegration.impl;
 
 import org.onosproject.kafkaintegration.api.KafkaEventStorageService;
 import org.onosproject.kafkaintegration.api.dto.OnosEvent;
-import org.onosproject.store.serializers.KryoNamespaces;
-import org.onosproject.store.service.Serializer;
-import org.onosproject.store.service.StorageService;
-import org.onosproject.store.service.Task;
-import org.onosproject.store.service.WorkQueue;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
-import org.osgi.service.component.annotations.Reference;
-import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Event storage backed by a local, memory-mapped spool. Events are kept on
+ * the node that captured them until the exporter commits them, so that
+ * pending events survive a restart without adding load to the cluster store.
+ */
 @Component(service = KafkaEventStorageService.class)
 public class KafkaStorageManager implements KafkaEventStorageService {
 
-    @Reference(cardinality = ReferenceCardinality.MANDATORY)
-    protected StorageService storageService;
-
     private final Logger log = LoggerFactory.getLogger(getClass());
 
-    private static final String KAFKA_WORK_QUEUE = "Kafka-Work-Queue";
+    private static final Path SPOOL_FILE =
+            Paths.get(System.getProperty("karaf.data", "."), "kafka-integration", "events.spool");
+    private static final int SPOOL_SIZE = 64 * 1024 * 1024;
 
-    private WorkQueue<OnosEvent> queue;
+    private EventSpool spool;
+    private final AtomicLong dropped = new AtomicLong();
 
     @Activate
     protected void activate() {
-        queue = storageService.<OnosEvent>getWorkQueue(KAFKA_WORK_QUEUE,
-                                                       Serializer.using(KryoNamespaces.API,
-                                                                        OnosEvent.class,
-                                                                        OnosEvent.Type.class));
-
-        log.info("Started");
+        try {
+            spool = new EventSpool(SPOOL_FILE, SPOOL_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open event spool " + SPOOL_FILE, e);
+        }
+        log.info("Started with {} bytes of pending events", spool.pendingBytes());
     }
 
     @Deactivate
     protected void deactivate() {
-        queue = null;
+        try {
+            spool.close();
+        } catch (IOException e) {
+            log.warn("Unable to close event spool", e);
+        }
+        spool = null;
         log.info("Stopped");
     }
 
     @Override
     public void publishEvent(OnosEvent e) {
-        queue.addOne(e);
-        log.debug("Published {} Event to Distributed Work Queue", e.type());
+        if (spool.append(e)) {
+            log.debug("Published {} Event to event spool", e.type());
+        } else {
+            long count = dropped.incrementAndGet();
+            if (count % 1000 == 1) {
+                log.warn("Event spool is full, {} events dropped so far", count);
+            }
+        }
     }
 
     @Override
     public OnosEvent consumeEvent() {
-        Task<OnosEvent> task = null;
-
-        CompletableFuture<Task<OnosEvent>> future = queue.take();
-        try {
-            task = future.get();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        } catch (ExecutionException e) {
-            log.warn("consumeEvent()", e);
-        }
-
-        if (task != null) {
-            queue.complete(task.taskId());
-            log.debug("Consumed {} Event from Distributed Work Queue with id {}",
-                     task.payload().type(), task.taskId());
-            return task.payload();
+        List<OnosEvent> events = spool.peek(1);
+        if (events.isEmpty()) {
+            return null;
         }
+        spool.commit(1);
+        log.debug("Consumed {} Event from event spool", events.get(0).type());
+        return events.get(0);
+    }
 
-        return null;
+    @Override
+    public List<OnosEvent> peekEvents(int maxEvents) {
+        return spool.peek(maxEvents);
     }
 
+    @Override
+    public void commitEvents(int count) {
+        spool.commit(count);
+    }
 }
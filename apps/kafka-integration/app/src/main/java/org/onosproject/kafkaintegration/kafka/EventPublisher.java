@@ -15,15 +15,16 @@
  */
 package org.onosproject.kafkaintegration.kafka;
 
+import org.onosproject.cfg.ComponentConfigService;
+import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.apache.kafka.clients.producer.ProducerRecord;
-import org.onosproject.cluster.ClusterService;
-import org.onosproject.cluster.LeadershipService;
-import org.onosproject.cluster.NodeId;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.onosproject.kafkaintegration.api.KafkaConfigService;
 import org.onosproject.kafkaintegration.api.KafkaPublisherService;
 import org.onosproject.kafkaintegration.api.KafkaEventStorageService;
@@ -31,22 +32,48 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.onosproject.kafkaintegration.api.dto.OnosEvent;
 
-import java.util.Objects;
+import java.util.Dictionary;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
-@Component(immediate = true)
+import static org.onlab.util.Tools.getIntegerProperty;
+import static org.onlab.util.Tools.groupedThreads;
+import static org.onosproject.kafkaintegration.kafka.OsgiPropertyConstants.EXPORT_BATCH_SIZE;
+import static org.onosproject.kafkaintegration.kafka.OsgiPropertyConstants.EXPORT_BATCH_SIZE_DEFAULT;
+import static org.onosproject.kafkaintegration.kafka.OsgiPropertyConstants.EXPORT_LINGER_MS;
+import static org.onosproject.kafkaintegration.kafka.OsgiPropertyConstants.EXPORT_LINGER_MS_DEFAULT;
+
+/**
+ * Exports the events of the local event spool to Kafka in batches.
+ * <p>
+ * Only the leader spools events, but every node exports its own spool, so
+ * that the events spooled by a node before it lost the leadership are still
+ * exported. Around a leadership change, the events of the former and of the
+ * new leader may hence reach Kafka interleaved. The events of a node which
+ * is down are exported once it is back, as the spool is kept on disk.
+ * <p>
+ * Events are removed from the spool only once Kafka has acknowledged them,
+ * and in spool order. When an event of a batch fails, it is sent again with
+ * all the events after it, including those Kafka had already acknowledged;
+ * the export is thus at-least-once and Kafka consumers may see duplicates.
+ */
+@Component(immediate = true,
+        property = {
+                EXPORT_BATCH_SIZE + ":Integer=" + EXPORT_BATCH_SIZE_DEFAULT,
+                EXPORT_LINGER_MS + ":Integer=" + EXPORT_LINGER_MS_DEFAULT,
+        }
+)
 public class EventPublisher {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
-    protected LeadershipService leadershipService;
-
-    @Reference(cardinality = ReferenceCardinality.MANDATORY)
-    protected ClusterService clusterService;
+    protected ComponentConfigService componentConfigService;
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected KafkaConfigService kafkaConfigService;
@@ -57,38 +84,54 @@ public class EventPublisher {
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected KafkaPublisherService kafkaPublisher;
 
-    protected ScheduledExecutorService exService;
+    /** Maximum number of events sent to Kafka in a single batch. */
+    protected int exportBatchSize = EXPORT_BATCH_SIZE_DEFAULT;
 
-    private static final String SUBSCRIBER_TOPIC = "WORK_QUEUE_SUBSCRIBER";
+    /** Time in ms that spooled events may wait before being exported. */
+    protected int exportLingerMs = EXPORT_LINGER_MS_DEFAULT;
 
-    private NodeId localNodeId;
-
-    // Thread Scheduler Parameters
-    private final long delay = 0;
-    private final long period = 1;
-
-    private EventCollector eventCollector;
+    protected ScheduledExecutorService exService;
 
     @Activate
-    protected void activate() {
-
-        leadershipService.runForLeadership(SUBSCRIBER_TOPIC);
-
-        localNodeId = clusterService.getLocalNode().id();
+    protected void activate(ComponentContext context) {
+        componentConfigService.registerProperties(getClass());
+        readComponentConfiguration(context);
 
         startCollector();
 
         log.info("Started");
     }
 
+    @Modified
+    protected void modified(ComponentContext context) {
+        int oldLingerMs = exportLingerMs;
+        readComponentConfiguration(context);
+        if (oldLingerMs != exportLingerMs) {
+            stopCollector();
+            startCollector();
+        }
+    }
+
+    private void readComponentConfiguration(ComponentContext context) {
+        Dictionary<?, ?> properties = context != null ? context.getProperties() : null;
+        exportBatchSize = Math.max(1, getIntegerProperty(properties, EXPORT_BATCH_SIZE,
+                                                         EXPORT_BATCH_SIZE_DEFAULT));
+        exportLingerMs = Math.max(1, getIntegerProperty(properties, EXPORT_LINGER_MS,
+                                                        EXPORT_LINGER_MS_DEFAULT));
+        log.info("Settings: {}={}, {}={}", EXPORT_BATCH_SIZE, exportBatchSize,
+                 EXPORT_LINGER_MS, exportLingerMs);
+    }
+
     private void startCollector() {
-        exService = Executors.newSingleThreadScheduledExecutor();
-        eventCollector = new EventCollector();
-        exService.scheduleAtFixedRate(eventCollector, delay, period, TimeUnit.SECONDS);
+        exService = Executors.newSingleThreadScheduledExecutor(
+                groupedThreads("onos/kafka-export", "export-%d", log));
+        exService.scheduleWithFixedDelay(new EventCollector(), exportLingerMs,
+                                         exportLingerMs, TimeUnit.MILLISECONDS);
     }
 
     @Deactivate
     protected void deactivate() {
+        componentConfigService.unregisterProperties(getClass(), false);
         stopCollector();
         log.info("Stopped");
     }
@@ -101,30 +144,46 @@ public class EventPublisher {
 
         @Override
         public void run() {
-
-            // do not allow to proceed without leadership
-            NodeId leaderNodeId = leadershipService.getLeader(SUBSCRIBER_TOPIC);
-            if (!Objects.equals(localNodeId, leaderNodeId)) {
-                log.debug("Not a Leader so cannot consume event");
-                return;
-            }
-
+            // The spool is drained whether or not this node is the leader
             try {
-                OnosEvent onosEvent = kafkaStore.consumeEvent();
-
-                if (onosEvent != null) {
-                    kafkaPublisher.send(new ProducerRecord<>(onosEvent.type().toString(),
-                                                            onosEvent.subject())).get();
-
-                    log.info("Event Type - {}, Subject {} sent successfully.",
-                             onosEvent.type(), onosEvent.subject());
+                List<OnosEvent> events = kafkaStore.peekEvents(exportBatchSize);
+                while (!events.isEmpty()) {
+                    int sent = send(events);
+                    kafkaStore.commitEvents(sent);
+                    if (sent < events.size()) {
+                        // Retry the rest of the batch on the next run
+                        return;
+                    }
+                    events = kafkaStore.peekEvents(exportBatchSize);
                 }
             } catch (InterruptedException e1) {
                 log.error("Thread interupted");
                 Thread.currentThread().interrupt();
-            } catch (ExecutionException e2) {
-                log.error("Cannot publish data to Kafka - {}", e2);
+            } catch (RuntimeException e2) {
+                // Keep the collector scheduled, e.g. if the producer is not started yet
+                log.error("Cannot publish data to Kafka", e2);
+            }
+        }
+
+        // Sends the batch and returns how many events, from the start of the
+        // batch, have been acknowledged by Kafka; events acknowledged after a
+        // failed one are not counted and will be sent again
+        private int send(List<OnosEvent> events) throws InterruptedException {
+            List<Future<RecordMetadata>> futures = events.stream()
+                    .map(e -> kafkaPublisher.send(new ProducerRecord<>(e.type().toString(), e.subject())))
+                    .collect(Collectors.toList());
+            int acked = 0;
+            for (Future<RecordMetadata> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    log.error("Cannot publish data to Kafka - {}", e.getMessage());
+                    break;
+                }
+                acked++;
             }
+            log.debug("{} of {} events sent successfully", acked, events.size());
+            return acked;
         }
     }
 
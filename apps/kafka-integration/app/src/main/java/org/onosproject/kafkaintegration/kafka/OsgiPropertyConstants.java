@@ -41,4 +41,10 @@ public final class OsgiPropertyConstants {
     static final String VALUE_SERIALIZER = "valueSerializer";
     static final String VALUE_SERIALIZER_DEFAULT = "org.apache.kafka.common.serialization.ByteArraySerializer";
 
+    static final String EXPORT_BATCH_SIZE = "exportBatchSize";
+    static final int EXPORT_BATCH_SIZE_DEFAULT = 500;
+
+    static final String EXPORT_LINGER_MS = "exportLingerMs";
+    static final int EXPORT_LINGER_MS_DEFAULT = 100;
+
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.kafkaintegration.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.kafkaintegration.api.dto.OnosEvent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the memory-mapped event spool.
+ */
+public class EventSpoolTest {
+
+    private static final int CAPACITY = 128;
+
+    private Path file;
+    private EventSpool spool;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("events", ".spool");
+        Files.delete(file);
+        spool = new EventSpool(file, CAPACITY);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        spool.close();
+        Files.deleteIfExists(file);
+    }
+
+    private static OnosEvent event(OnosEvent.Type type, int value) {
+        return new OnosEvent(type, new byte[]{(byte) value, (byte) (value + 1)});
+    }
+
+    /**
+     * Tests that events are only removed once committed.
+     */
+    @Test
+    public void testPeekAndCommit() {
+        assertTrue(spool.isEmpty());
+        assertTrue(spool.append(event(OnosEvent.Type.DEVICE, 1)));
+        assertTrue(spool.append(event(OnosEvent.Type.LINK, 2)));
+        assertTrue(spool.append(event(OnosEvent.Type.HOST, 3)));
+
+        List<OnosEvent> events = spool.peek(2);
+        assertEquals(2, events.size());
+        assertEquals(OnosEvent.Type.DEVICE, events.get(0).type());
+        assertArrayEquals(new byte[]{1, 2}, events.get(0).subject());
+        assertEquals(OnosEvent.Type.LINK, events.get(1).type());
+        assertEquals(events.get(0).type(), spool.peek(1).get(0).type());
+
+        spool.commit(2);
+        events = spool.peek(10);
+        assertEquals(1, events.size());
+        assertEquals(OnosEvent.Type.HOST, events.get(0).type());
+        assertArrayEquals(new byte[]{3, 4}, events.get(0).subject());
+
+        spool.commit(1);
+        assertTrue(spool.isEmpty());
+        assertTrue(spool.peek(10).isEmpty());
+    }
+
+    /**
+     * Tests that uncommitted events survive reopening the spool.
+     */
+    @Test
+    public void testReopen() throws IOException {
+        spool.append(event(OnosEvent.Type.DEVICE, 1));
+        spool.append(event(OnosEvent.Type.HOST, 5));
+        spool.commit(1);
+        spool.close();
+
+        spool = new EventSpool(file, CAPACITY);
+        List<OnosEvent> events = spool.peek(10);
+        assertEquals(1, events.size());
+        assertEquals(OnosEvent.Type.HOST, events.get(0).type());
+        assertArrayEquals(new byte[]{5, 6}, events.get(0).subject());
+    }
+
+    /**
+     * Tests that a full spool drops new events and reclaims committed space.
+     */
+    @Test
+    public void testFullSpool() {
+        // 8 byte header plus 7 byte records
+        int appended = 0;
+        while (spool.append(event(OnosEvent.Type.LINK, appended))) {
+            appended++;
+        }
+        assertEquals((CAPACITY - 8) / 7, appended);
+        assertFalse(spool.append(event(OnosEvent.Type.LINK, 0)));
+
+        // Committed space is reused once the pending records can be moved
+        spool.commit(appended - 2);
+        assertTrue(spool.append(event(OnosEvent.Type.DEVICE, 42)));
+        List<OnosEvent> events = spool.peek(10);
+        assertEquals(3, events.size());
+        assertArrayEquals(new byte[]{(byte) (appended - 2), (byte) (appended - 1)},
+                          events.get(0).subject());
+        assertEquals(OnosEvent.Type.DEVICE, events.get(2).type());
+        assertArrayEquals(new byte[]{42, 43}, events.get(2).subject());
+    }
+}
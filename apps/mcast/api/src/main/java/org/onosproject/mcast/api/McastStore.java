@@ -16,10 +16,12 @@
 package org.onosproject.mcast.api;
 
 import com.google.common.annotations.Beta;
+import org.onlab.packet.IpAddress;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.HostId;
 import org.onosproject.store.Store;
 
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -147,6 +149,24 @@ public interface McastStore extends Store<McastEvent, McastStoreDelegate> {
      */
     void removeSinks(McastRoute route, Set<ConnectPoint> sinks);
 
+    /**
+     * Updates the store with the sinks of several hosts for a given route
+     * in a single operation.
+     *
+     * @param route a Multicast route
+     * @param sinks the sink connect points, keyed by host
+     */
+    void addSinks(McastRoute route, Map<HostId, Set<ConnectPoint>> sinks);
+
+    /**
+     * Removes from the store the sinks of several hosts for a given route
+     * in a single operation.
+     *
+     * @param route a Multicast route
+     * @param sinks the sink connect points to remove, keyed by host
+     */
+    void removeSinks(McastRoute route, Map<HostId, Set<ConnectPoint>> sinks);
+
     /**
      * Obtains the sources for a Multicast route.
      *
@@ -195,4 +215,28 @@ public interface McastStore extends Store<McastEvent, McastStoreDelegate> {
      * @return set of Multicast routes.
      */
     McastRouteData getRouteData(McastRoute route);
+
+    /**
+     * Gets the set of Multicast routes for a given group.
+     *
+     * @param group the group address
+     * @return set of Multicast routes
+     */
+    Set<McastRoute> getRoutes(IpAddress group);
+
+    /**
+     * Gets the set of Multicast routes for which the given host is a source.
+     *
+     * @param hostId the host
+     * @return set of Multicast routes
+     */
+    Set<McastRoute> routesForSource(HostId hostId);
+
+    /**
+     * Gets the set of Multicast routes for which the given host is a sink.
+     *
+     * @param hostId the host
+     * @return set of Multicast routes
+     */
+    Set<McastRoute> routesForSink(HostId hostId);
 }
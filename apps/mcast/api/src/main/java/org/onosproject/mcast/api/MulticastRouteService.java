@@ -21,6 +21,7 @@ import org.onosproject.event.ListenerService;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.HostId;
 
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -182,6 +183,23 @@ public interface MulticastRouteService
      */
     void removeSinks(McastRoute route, Set<ConnectPoint> sink);
 
+    /**
+     * Adds the sinks of several hosts to the route in a single update.
+     * Meant for bursts of joins towards the same route.
+     *
+     * @param route a Multicast route
+     * @param sinks the sink connect points, keyed by sink host
+     */
+    void addSinks(McastRoute route, Map<HostId, Set<ConnectPoint>> sinks);
+
+    /**
+     * Removes the sinks of several hosts from the route in a single update.
+     *
+     * @param route a Multicast route
+     * @param sinks the sink connect points to remove, keyed by sink host
+     */
+    void removeSinks(McastRoute route, Map<HostId, Set<ConnectPoint>> sinks);
+
     /**
      * Return the Multicast data for this route.
      *
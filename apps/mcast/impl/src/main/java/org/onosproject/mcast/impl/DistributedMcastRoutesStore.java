@@ -16,7 +16,10 @@
 package org.onosproject.mcast.impl;
 
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import org.onlab.packet.IpAddress;
 import org.onlab.util.KryoNamespace;
 import org.onosproject.mcast.api.McastEvent;
 import org.onosproject.mcast.api.McastRoute;
@@ -41,9 +44,10 @@ import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.slf4j.Logger;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
@@ -71,6 +75,16 @@ public class DistributedMcastRoutesStore
     private MapEventListener<McastRoute, McastRouteData> mcastRouteListener =
             new McastRouteListener();
 
+    // Local indexes over the rib, kept up to date by the map listener
+    private final Map<IpAddress, Set<McastRoute>> routesByGroup = new ConcurrentHashMap<>();
+    private final Map<HostId, Set<McastRoute>> routesBySource = new ConcurrentHashMap<>();
+    private final Map<HostId, Set<McastRoute>> routesBySink = new ConcurrentHashMap<>();
+    // Serialises the index updates of the listener with the initial seeding
+    private final Object indexLock = new Object();
+    // Events received while seeding the indexes, replayed on top of the seed;
+    // null once the indexes have been seeded
+    private List<MapEvent<McastRoute, McastRouteData>> pendingIndexEvents;
+
     @Activate
     public void activate() {
         mcastRib = storageService.<McastRoute, McastRouteData>consistentMapBuilder()
@@ -86,7 +100,11 @@ public class DistributedMcastRoutesStore
                 .build();
 
         mcastRoutes = mcastRib.asJavaMap();
+        synchronized (indexLock) {
+            pendingIndexEvents = Lists.newArrayList();
+        }
         mcastRib.addListener(mcastRouteListener);
+        seedIndexes(ImmutableList.copyOf(mcastRib.entrySet()));
 
         log.info("Started");
     }
@@ -95,6 +113,9 @@ public class DistributedMcastRoutesStore
     public void deactivate() {
         mcastRib.removeListener(mcastRouteListener);
         mcastRib.destroy();
+        routesByGroup.clear();
+        routesBySource.clear();
+        routesBySink.clear();
         log.info("Stopped");
     }
 
@@ -209,6 +230,22 @@ public class DistributedMcastRoutesStore
         });
     }
 
+    @Override
+    public void addSinks(McastRoute route, Map<HostId, Set<ConnectPoint>> sinks) {
+        mcastRoutes.compute(route, (k, v) -> {
+            sinks.forEach(v::addSinks);
+            return v;
+        });
+    }
+
+    @Override
+    public void removeSinks(McastRoute route, Map<HostId, Set<ConnectPoint>> sinks) {
+        mcastRoutes.compute(route, (k, v) -> {
+            sinks.forEach(v::removeSinks);
+            return v;
+        });
+    }
+
     @Override
     public Set<ConnectPoint> sourcesFor(McastRoute route) {
         McastRouteData data = mcastRoutes.getOrDefault(route, null);
@@ -245,14 +282,103 @@ public class DistributedMcastRoutesStore
         return mcastRoutes.get(route);
     }
 
+    @Override
+    public Set<McastRoute> getRoutes(IpAddress group) {
+        return indexLookup(routesByGroup, group);
+    }
+
+    @Override
+    public Set<McastRoute> routesForSource(HostId hostId) {
+        return indexLookup(routesBySource, hostId);
+    }
+
+    @Override
+    public Set<McastRoute> routesForSink(HostId hostId) {
+        return indexLookup(routesBySink, hostId);
+    }
+
+    private static <K> Set<McastRoute> indexLookup(Map<K, Set<McastRoute>> index, K key) {
+        Set<McastRoute> routes = index.get(key);
+        return routes == null ? ImmutableSet.of() : ImmutableSet.copyOf(routes);
+    }
+
+    // Updates the local indexes with the difference between old and new route data
+    /**
+     * Seeds the indexes from a snapshot of the rib, then replays the events
+     * received since the listener was added. Events may predate the snapshot;
+     * replaying them in order still leaves each route indexed as per the
+     * latest event touching it, or as per the snapshot if there is none.
+     */
+    private void seedIndexes(Collection<Map.Entry<McastRoute, Versioned<McastRouteData>>> snapshot) {
+        synchronized (indexLock) {
+            snapshot.forEach(entry -> updateIndexes(entry.getKey(), null, entry.getValue().value()));
+            final List<MapEvent<McastRoute, McastRouteData>> pending = pendingIndexEvents;
+            pendingIndexEvents = null;
+            pending.forEach(this::updateIndexes);
+        }
+    }
+
+    private void updateIndexes(MapEvent<McastRoute, McastRouteData> event) {
+        synchronized (indexLock) {
+            if (pendingIndexEvents != null) {
+                pendingIndexEvents.add(event);
+                return;
+            }
+            updateIndexes(event.key(), value(event.oldValue()), value(event.newValue()));
+        }
+    }
+
+    private static McastRouteData value(Versioned<McastRouteData> versioned) {
+        return versioned == null ? null : versioned.value();
+    }
+
+    private void updateIndexes(McastRoute route, McastRouteData oldData, McastRouteData newData) {
+        if (oldData == null && newData != null) {
+            addToIndex(routesByGroup, route.group(), route);
+        } else if (oldData != null && newData == null) {
+            removeFromIndex(routesByGroup, route.group(), route);
+        }
+        updateHostIndex(routesBySource, route,
+                        oldData == null ? ImmutableSet.of() : oldData.sources().keySet(),
+                        newData == null ? ImmutableSet.of() : newData.sources().keySet());
+        updateHostIndex(routesBySink, route,
+                        oldData == null ? ImmutableSet.of() : oldData.sinks().keySet(),
+                        newData == null ? ImmutableSet.of() : newData.sinks().keySet());
+    }
+
+    private static void updateHostIndex(Map<HostId, Set<McastRoute>> index, McastRoute route,
+                                        Set<HostId> oldHosts, Set<HostId> newHosts) {
+        // Non host bound connect points are never looked up by host
+        oldHosts.stream()
+                .filter(hostId -> !HostId.NONE.equals(hostId) && !newHosts.contains(hostId))
+                .forEach(hostId -> removeFromIndex(index, hostId, route));
+        newHosts.stream()
+                .filter(hostId -> !HostId.NONE.equals(hostId) && !oldHosts.contains(hostId))
+                .forEach(hostId -> addToIndex(index, hostId, route));
+    }
+
+    private static <K> void addToIndex(Map<K, Set<McastRoute>> index, K key, McastRoute route) {
+        index.compute(key, (k, routes) -> {
+            Set<McastRoute> updated = routes == null ? ConcurrentHashMap.newKeySet() : routes;
+            updated.add(route);
+            return updated;
+        });
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<McastRoute>> index, K key, McastRoute route) {
+        index.computeIfPresent(key, (k, routes) -> {
+            routes.remove(route);
+            return routes.isEmpty() ? null : routes;
+        });
+    }
+
     private class McastRouteListener implements MapEventListener<McastRoute, McastRouteData> {
         @Override
         public void event(MapEvent<McastRoute, McastRouteData> event) {
             final McastRoute route = event.key();
-            final McastRouteData newData =
-                    Optional.ofNullable(event.newValue()).map(Versioned::value).orElse(null);
-            final McastRouteData oldData =
-                    Optional.ofNullable(event.oldValue()).map(Versioned::value).orElse(null);
+            final McastRouteData newData = value(event.newValue());
+            final McastRouteData oldData = value(event.oldValue());
+            updateIndexes(event);
 
             switch (event.type()) {
                 case INSERT:
@@ -15,7 +15,6 @@
  */
 package org.onosproject.mcast.impl;
 
-import com.google.common.base.Objects;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import org.onlab.packet.IpAddress;
@@ -41,8 +40,9 @@ import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.slf4j.Logger;
 
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -113,11 +113,11 @@ public class MulticastRouteManager
 
     @Override
     public Set<McastRoute> getRoute(IpAddress groupIp, IpAddress sourceIp) {
-        // Let's transform it into an optional
-        final Optional<IpAddress> source = Optional.ofNullable(sourceIp);
-        return store.getRoutes().stream()
-                .filter(route -> route.group().equals(groupIp) &&
-                        Objects.equal(route.source(), source))
+        // Look up the route of each type in the store rather than in its
+        // group index, so that a route is found as soon as it is stored
+        return Arrays.stream(McastRoute.Type.values())
+                .map(type -> new McastRoute(sourceIp, groupIp, type))
+                .filter(route -> store.getRouteData(route) != null)
                 .collect(Collectors.toSet());
     }
 
@@ -245,6 +245,24 @@ public class MulticastRouteManager
         }
     }
 
+    @Override
+    public void addSinks(McastRoute route, Map<HostId, Set<ConnectPoint>> sinks) {
+        checkNotNull(route, "Route cannot be null");
+        checkNotNull(sinks, "Sinks cannot be null");
+        if (checkRoute(route)) {
+            store.addSinks(route, sinks);
+        }
+    }
+
+    @Override
+    public void removeSinks(McastRoute route, Map<HostId, Set<ConnectPoint>> sinks) {
+        checkNotNull(route, "Route cannot be null");
+        checkNotNull(sinks, "Sinks cannot be null");
+        if (checkRoute(route)) {
+            store.removeSinks(route, sinks);
+        }
+    }
+
     @Override
     public McastRouteData routeData(McastRoute route) {
         checkNotNull(route, "Route cannot be null");
@@ -290,7 +308,7 @@ public class MulticastRouteManager
     }
 
     private boolean checkRoute(McastRoute route) {
-        if (store.getRoutes().contains(route)) {
+        if (store.getRouteData(route) != null) {
             return true;
         } else {
             log.warn("Route {} is not present in the store, please add it", route);
@@ -365,15 +383,12 @@ public class MulticastRouteManager
 
     //Finds the route for which a host is source
     private Set<McastRoute> routesForSource(HostId hostId) {
-        // Filter by host id
-        return store.getRoutes().stream().filter(mcastRoute -> store.getRouteData(mcastRoute)
-                .sources().containsKey(hostId)).collect(Collectors.toSet());
+        return store.routesForSource(hostId);
     }
 
     //Finds the route for which a host is sink
     private Set<McastRoute> routesForSink(HostId hostId) {
-        return store.getRoutes().stream().filter(mcastRoute -> store.getRouteData(mcastRoute)
-                .sinks().containsKey(hostId)).collect(Collectors.toSet());
+        return store.routesForSink(hostId);
     }
 
     //Removes sources for a given host event
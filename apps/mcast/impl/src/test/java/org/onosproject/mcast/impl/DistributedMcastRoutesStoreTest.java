@@ -0,0 +1,185 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.mcast.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onosproject.mcast.api.McastRoute;
+import org.onosproject.mcast.api.McastRouteData;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.HostId;
+import org.onosproject.store.service.AsyncConsistentMap;
+import org.onosproject.store.service.ConsistentMap;
+import org.onosproject.store.service.ConsistentMapAdapter;
+import org.onosproject.store.service.ConsistentMapBuilder;
+import org.onosproject.store.service.MapEventListener;
+import org.onosproject.store.service.TestConsistentMap;
+import org.onosproject.store.service.TestStorageService;
+import org.onosproject.store.service.Versioned;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit tests for the indexes of the distributed multicast route store.
+ */
+public class DistributedMcastRoutesStoreTest {
+
+    private static final IpAddress GROUP = IpAddress.valueOf("224.0.1.1");
+    private static final IpAddress OTHER_GROUP = IpAddress.valueOf("224.0.1.2");
+    private static final McastRoute ROUTE_1 = new McastRoute(
+            IpAddress.valueOf("10.0.0.1"), GROUP, McastRoute.Type.STATIC);
+    private static final McastRoute ROUTE_2 = new McastRoute(
+            IpAddress.valueOf("10.0.0.2"), GROUP, McastRoute.Type.STATIC);
+    private static final McastRoute ROUTE_3 = new McastRoute(
+            null, OTHER_GROUP, McastRoute.Type.IGMP);
+    private static final HostId SOURCE = HostId.hostId("00:00:00:00:00:01/None");
+    private static final HostId SINK = HostId.hostId("00:00:00:00:00:02/None");
+    private static final Set<ConnectPoint> POINTS = ImmutableSet.of(
+            ConnectPoint.deviceConnectPoint("of:0000000000000001/1"));
+
+    private final SnapshotConsistentMap rib = new SnapshotConsistentMap();
+    private DistributedMcastRoutesStore store;
+
+    @Before
+    public void setUp() {
+        store = new DistributedMcastRoutesStore();
+        store.storageService = new TestStorageService() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> ConsistentMapBuilder<K, V> consistentMapBuilder() {
+                return (ConsistentMapBuilder<K, V>) new ConsistentMapBuilder<McastRoute, McastRouteData>() {
+                    @Override
+                    public ConsistentMap<McastRoute, McastRouteData> build() {
+                        rib.delegate = new TestConsistentMap.Builder<McastRoute, McastRouteData>()
+                                .withName(name())
+                                .withSerializer(serializer())
+                                .build();
+                        return rib;
+                    }
+
+                    @Override
+                    public AsyncConsistentMap<McastRoute, McastRouteData> buildAsyncMap() {
+                        return null;
+                    }
+                };
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        store.deactivate();
+    }
+
+    /**
+     * Tests that the indexes follow the updates of the routes.
+     */
+    @Test
+    public void testIndexUpdates() {
+        store.activate();
+        store.storeRoute(ROUTE_1);
+        store.storeRoute(ROUTE_2);
+        store.storeRoute(ROUTE_3);
+        assertThat(store.getRoutes(GROUP), is(ImmutableSet.of(ROUTE_1, ROUTE_2)));
+        assertThat(store.getRoutes(OTHER_GROUP), is(ImmutableSet.of(ROUTE_3)));
+
+        store.storeSource(ROUTE_1, SOURCE, POINTS);
+        store.addSink(ROUTE_1, SINK, POINTS);
+        store.addSinks(ROUTE_3, ImmutableMap.of(SINK, POINTS));
+        assertThat(store.routesForSource(SOURCE), is(ImmutableSet.of(ROUTE_1)));
+        assertThat(store.routesForSink(SINK), is(ImmutableSet.of(ROUTE_1, ROUTE_3)));
+
+        // Sinks not bound to a host are not indexed.
+        store.addSinks(ROUTE_2, POINTS);
+        assertThat(store.routesForSink(HostId.NONE), is(empty()));
+
+        store.removeSink(ROUTE_1, SINK);
+        assertThat(store.routesForSink(SINK), is(ImmutableSet.of(ROUTE_3)));
+
+        store.removeRoute(ROUTE_1);
+        assertThat(store.getRoutes(GROUP), is(ImmutableSet.of(ROUTE_2)));
+        assertThat(store.routesForSource(SOURCE), is(empty()));
+    }
+
+    /**
+     * Tests that the indexes are seeded from the existing routes, and that
+     * updates racing with the seeding are not overridden by it.
+     */
+    @Test
+    public void testIndexSeeding() {
+        rib.beforeActivate = () -> {
+            McastRouteData data = McastRouteData.empty();
+            data.addSinks(SINK, POINTS);
+            rib.delegate.put(ROUTE_1, data);
+            rib.delegate.put(ROUTE_2, McastRouteData.empty());
+        };
+        // Routes changed after the seed snapshot was taken.
+        rib.afterSnapshot = () -> {
+            rib.delegate.remove(ROUTE_1);
+            rib.delegate.put(ROUTE_3, McastRouteData.empty());
+        };
+        store.activate();
+
+        assertThat(store.getRoutes(GROUP), is(ImmutableSet.of(ROUTE_2)));
+        assertThat(store.getRoutes(OTHER_GROUP), is(ImmutableSet.of(ROUTE_3)));
+        assertThat(store.routesForSink(SINK), is(empty()));
+    }
+
+    /**
+     * Consistent map taking a snapshot of its entries, as the distributed
+     * one does, and running hooks to mutate the map around it.
+     */
+    private static final class SnapshotConsistentMap
+            extends ConsistentMapAdapter<McastRoute, McastRouteData> {
+
+        private ConsistentMap<McastRoute, McastRouteData> delegate;
+        private Runnable beforeActivate = () -> { };
+        private Runnable afterSnapshot = () -> { };
+
+        @Override
+        public Map<McastRoute, McastRouteData> asJavaMap() {
+            beforeActivate.run();
+            return delegate.asJavaMap();
+        }
+
+        @Override
+        public Set<Map.Entry<McastRoute, Versioned<McastRouteData>>> entrySet() {
+            Set<Map.Entry<McastRoute, Versioned<McastRouteData>>> snapshot =
+                    ImmutableSet.copyOf(delegate.entrySet());
+            afterSnapshot.run();
+            return snapshot;
+        }
+
+        @Override
+        public void addListener(MapEventListener<McastRoute, McastRouteData> listener) {
+            delegate.addListener(listener);
+        }
+
+        @Override
+        public void removeListener(MapEventListener<McastRoute, McastRouteData> listener) {
+            delegate.removeListener(listener);
+        }
+    }
+}
@@ -21,6 +21,8 @@ import org.onosproject.net.DeviceId;
 import org.onosproject.net.flow.TrafficSelector;
 import org.onosproject.net.flow.TrafficTreatment;
 
+import java.util.concurrent.Executor;
+
 /**
  * Service for setting flow rules.
  *
@@ -61,4 +63,43 @@ public interface OpenstackFlowRuleService {
      * @param toTable table number of table B
      */
     void connectTables(DeviceId deviceId, int fromTable, int toTable);
+
+    /**
+     * Opens a flow rule batch on the calling thread. Rules set from this
+     * thread are accumulated until the matching {@link #commitBatch()} and
+     * are then submitted together. Batches may be nested, in which case only
+     * the outermost commit submits the rules.
+     * <p>
+     * The rules of each device are submitted separately from those of other
+     * devices, and a later operation on a rule already in the batch is only
+     * submitted once the earlier one completed. A rule rejected by a device
+     * may thus fail the other rules submitted to that device along with it,
+     * but it does not hold back the rules of other devices nor the later
+     * operations on the device.
+     */
+    void beginBatch();
+
+    /**
+     * Closes the flow rule batch opened on the calling thread and submits
+     * the rules accumulated since {@link #beginBatch()}.
+     */
+    void commitBatch();
+
+    /**
+     * Runs the given task on the given executor, submitting the flow rules
+     * set by the task as a single batch.
+     *
+     * @param executor executor to run the task on
+     * @param task     task setting flow rules
+     */
+    default void runInBatch(Executor executor, Runnable task) {
+        executor.execute(() -> {
+            beginBatch();
+            try {
+                task.run();
+            } finally {
+                commitBatch();
+            }
+        });
+    }
 }
@@ -16,6 +16,11 @@
 
 package org.onosproject.openstacknetworking.impl;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.LeadershipService;
 import org.onosproject.cluster.NodeId;
@@ -28,6 +33,7 @@ import org.onosproject.net.flow.DefaultFlowRule;
 import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
 import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleOperation;
 import org.onosproject.net.flow.FlowRuleOperations;
 import org.onosproject.net.flow.FlowRuleOperationsContext;
 import org.onosproject.net.flow.FlowRuleService;
@@ -44,11 +50,20 @@ import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.openstacknetworking.api.Constants.OPENSTACK_NETWORKING_APP_ID;
@@ -68,6 +83,10 @@ public class OpenstackFlowRuleManager implements OpenstackFlowRuleService {
     private static final int MID_PRIORITY = 20000;
     private static final int HIGH_PRIORITY = 30000;
     private static final int TIMEOUT_SNAT_RULE = 60;
+    private static final int MAX_BATCH_SIZE = 5000;
+
+    private static final String METRIC_COMPONENT = "OpenstackFlowRule";
+    private static final String METRIC_FEATURE = "batch";
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected FlowRuleService flowRuleService;
@@ -87,24 +106,45 @@ public class OpenstackFlowRuleManager implements OpenstackFlowRuleService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected DeviceService deviceService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL,
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile MetricsService metricsService;
+
     private final ExecutorService deviceEventExecutor =
             Executors.newSingleThreadExecutor(groupedThreads(
                     getClass().getSimpleName(), "device-event"));
     private final OpenstackNodeListener internalNodeListener =
                                         new InternalOpenstackNodeListener();
 
+    // Rule batch opened by the current thread, if any
+    private final ThreadLocal<RuleBatch> batches = new ThreadLocal<>();
+
     private ApplicationId appId;
     private NodeId localNodeId;
 
+    private Histogram batchSizeHistogram;
+    private Timer batchLatencyTimer;
+
     @Activate
     protected void activate() {
+        if (metricsService != null) {
+            MetricsComponent component = metricsService.registerComponent(METRIC_COMPONENT);
+            MetricsFeature feature = component.registerFeature(METRIC_FEATURE);
+            batchSizeHistogram = metricsService.createHistogram(component, feature, "size");
+            batchLatencyTimer = metricsService.createTimer(component, feature, "latency");
+        }
         appId = coreService.registerApplication(OPENSTACK_NETWORKING_APP_ID);
         coreService.registerApplication(OPENSTACK_NETWORKING_APP_ID);
         osNodeService.addListener(internalNodeListener);
         localNodeId = clusterService.getLocalNode().id();
         leadershipService.runForLeadership(appId.name());
-        osNodeService.completeNodes(COMPUTE)
-                .forEach(node -> initializePipeline(node.intgBridge()));
+        beginBatch();
+        try {
+            osNodeService.completeNodes(COMPUTE)
+                    .forEach(node -> initializePipeline(node.intgBridge()));
+        } finally {
+            commitBatch();
+        }
 
         log.info("Started");
     }
@@ -184,24 +224,128 @@ public class OpenstackFlowRuleManager implements OpenstackFlowRuleService {
         applyRule(flowRule, true);
     }
 
+    @Override
+    public void beginBatch() {
+        RuleBatch batch = batches.get();
+        if (batch == null) {
+            batches.set(new RuleBatch());
+        } else {
+            batch.depth++;
+        }
+    }
+
+    @Override
+    public void commitBatch() {
+        RuleBatch batch = batches.get();
+        if (batch == null) {
+            log.warn("No flow rule batch to commit");
+            return;
+        }
+        if (--batch.depth == 0) {
+            batches.remove();
+            batch.flush();
+        }
+    }
+
     private void applyRule(FlowRule flowRule, boolean install) {
+        FlowRuleOperation.Type type = install ? FlowRuleOperation.Type.ADD :
+                FlowRuleOperation.Type.REMOVE;
+        RuleBatch batch = batches.get();
+        if (batch != null) {
+            batch.add(new FlowRuleOperation(flowRule, type));
+            return;
+        }
+
         FlowRuleOperations.Builder flowOpsBuilder = FlowRuleOperations.builder();
+        submit(flowOpsBuilder.operation(new FlowRuleOperation(flowRule, type)), 1, () -> { });
+    }
 
-        flowOpsBuilder = install ? flowOpsBuilder.add(flowRule) : flowOpsBuilder.remove(flowRule);
+    private void submit(FlowRuleOperations.Builder flowOpsBuilder, int size, Runnable next) {
+        if (batchSizeHistogram != null) {
+            batchSizeHistogram.update(size);
+        }
+        Timer.Context timer = batchLatencyTimer == null ? null : batchLatencyTimer.time();
 
         flowRuleService.apply(flowOpsBuilder.build(new FlowRuleOperationsContext() {
             @Override
             public void onSuccess(FlowRuleOperations ops) {
+                stopTimer();
                 log.debug("Provisioned vni or forwarding table");
+                next.run();
             }
 
             @Override
             public void onError(FlowRuleOperations ops) {
+                stopTimer();
                 log.debug("Failed to provision vni or forwarding table");
+                next.run();
+            }
+
+            private void stopTimer() {
+                if (timer != null) {
+                    timer.stop();
+                }
             }
         }));
     }
 
+    /**
+     * Flow rule operations accumulated between beginBatch and commitBatch.
+     * Operations on distinct rules share a stage; a further operation on a
+     * rule already in the batch goes to a later stage so that the order of
+     * the operations on that rule is kept. On flush, each stage of each device
+     * is submitted on its own, once the previous stage of that device has
+     * completed, so that a failure neither holds back other devices nor the
+     * later stages of the failing device.
+     */
+    private final class RuleBatch {
+        private final List<Set<FlowRuleOperation>> stages = new ArrayList<>();
+        private final Map<FlowRule, Integer> ruleStages = new HashMap<>();
+        private int depth = 1;
+        private int size;
+
+        private void add(FlowRuleOperation operation) {
+            Integer previous = ruleStages.get(operation.rule());
+            int stage = previous == null ? 0 : previous + 1;
+            if (stage == stages.size()) {
+                stages.add(new HashSet<>());
+            }
+            stages.get(stage).add(operation);
+            ruleStages.put(operation.rule(), stage);
+            if (++size >= MAX_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (size == 0) {
+                return;
+            }
+            Map<DeviceId, List<List<FlowRuleOperation>>> deviceStages = new HashMap<>();
+            for (Set<FlowRuleOperation> stage : stages) {
+                stage.stream()
+                        .collect(Collectors.groupingBy(op -> op.rule().deviceId()))
+                        .forEach((deviceId, ops) -> deviceStages
+                                .computeIfAbsent(deviceId, id -> new ArrayList<>())
+                                .add(ops));
+            }
+            deviceStages.values().forEach(ds -> submitStages(ds.iterator()));
+            stages.clear();
+            ruleStages.clear();
+            size = 0;
+        }
+
+        private void submitStages(Iterator<List<FlowRuleOperation>> deviceStages) {
+            if (!deviceStages.hasNext()) {
+                return;
+            }
+            List<FlowRuleOperation> ops = deviceStages.next();
+            FlowRuleOperations.Builder flowOpsBuilder = FlowRuleOperations.builder();
+            ops.forEach(flowOpsBuilder::operation);
+            submit(flowOpsBuilder, ops.size(), () -> submitStages(deviceStages));
+        }
+    }
+
     protected void initializePipeline(DeviceId deviceId) {
         // for inbound table transition
         connectTables(deviceId, Constants.STAT_INBOUND_TABLE, Constants.VTAP_INBOUND_TABLE);
@@ -317,7 +461,12 @@ public class OpenstackFlowRuleManager implements OpenstackFlowRuleService {
                             return;
                         }
 
-                        initializePipeline(osNode.intgBridge());
+                        beginBatch();
+                        try {
+                            initializePipeline(osNode.intgBridge());
+                        } finally {
+                            commitBatch();
+                        }
                     });
                     break;
                 case OPENSTACK_NODE_CREATED:
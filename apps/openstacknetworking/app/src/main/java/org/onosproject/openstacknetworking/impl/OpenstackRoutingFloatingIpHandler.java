@@ -673,16 +673,16 @@ public class OpenstackRoutingFloatingIpHandler {
         public void event(OpenstackRouterEvent event) {
             switch (event.type()) {
                 case OPENSTACK_FLOATING_IP_ASSOCIATED:
-                    eventExecutor.execute(() -> processFloatingIpAssociation(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processFloatingIpAssociation(event));
                     break;
                 case OPENSTACK_FLOATING_IP_DISASSOCIATED:
-                    eventExecutor.execute(() -> processFloatingIpDisassociation(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processFloatingIpDisassociation(event));
                     break;
                 case OPENSTACK_FLOATING_IP_CREATED:
-                    eventExecutor.execute(() -> processFloatingIpCreation(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processFloatingIpCreation(event));
                     break;
                 case OPENSTACK_FLOATING_IP_REMOVED:
-                    eventExecutor.execute(() -> processFloatingIpRemoval(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processFloatingIpRemoval(event));
                     break;
                 case OPENSTACK_FLOATING_IP_UPDATED:
                 default:
@@ -776,7 +776,7 @@ public class OpenstackRoutingFloatingIpHandler {
 
             switch (event.type()) {
                 case OPENSTACK_NODE_COMPLETE:
-                    eventExecutor.execute(() -> processNodeCompletion(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processNodeCompletion(event));
                     break;
                 case OPENSTACK_NODE_INCOMPLETE:
                 default:
@@ -879,13 +879,13 @@ public class OpenstackRoutingFloatingIpHandler {
         public void event(InstancePortEvent event) {
             switch (event.type()) {
                 case OPENSTACK_INSTANCE_PORT_DETECTED:
-                    eventExecutor.execute(() -> processInstancePortDetection(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processInstancePortDetection(event));
                     break;
                 case OPENSTACK_INSTANCE_MIGRATION_STARTED:
-                    eventExecutor.execute(() -> processInstanceMigrationStart(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processInstanceMigrationStart(event));
                     break;
                 case OPENSTACK_INSTANCE_MIGRATION_ENDED:
-                    eventExecutor.execute(() -> processInstanceMigrationEnd(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processInstanceMigrationEnd(event));
                     break;
                 default:
                     break;
@@ -1012,10 +1012,10 @@ public class OpenstackRoutingFloatingIpHandler {
 
             switch (event.type()) {
                 case OPENSTACK_PORT_PRE_REMOVE:
-                    eventExecutor.execute(() -> processPortPreRemoval(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processPortPreRemoval(event));
                     break;
                 case EXTERNAL_PEER_ROUTER_MAC_UPDATED:
-                    eventExecutor.execute(() -> processExternalPeerRouterMacUpdate(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processExternalPeerRouterMacUpdate(event));
                     break;
                 default:
                     break;
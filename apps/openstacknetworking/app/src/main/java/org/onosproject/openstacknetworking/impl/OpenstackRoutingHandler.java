@@ -617,22 +617,22 @@ public class OpenstackRoutingHandler {
         public void event(OpenstackRouterEvent event) {
             switch (event.type()) {
                 case OPENSTACK_ROUTER_CREATED:
-                    eventExecutor.execute(() -> processRouterCreation(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processRouterCreation(event));
                     break;
                 case OPENSTACK_ROUTER_UPDATED:
-                    eventExecutor.execute(() -> processRouterUpdate(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processRouterUpdate(event));
                     break;
                 case OPENSTACK_ROUTER_REMOVED:
-                    eventExecutor.execute(() -> processRouterRemoval(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processRouterRemoval(event));
                     break;
                 case OPENSTACK_ROUTER_INTERFACE_ADDED:
-                    eventExecutor.execute(() -> processRouterIntfCreation(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processRouterIntfCreation(event));
                     break;
                 case OPENSTACK_ROUTER_INTERFACE_UPDATED:
-                    eventExecutor.execute(() -> processRouterIntfUpdate(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processRouterIntfUpdate(event));
                     break;
                 case OPENSTACK_ROUTER_INTERFACE_REMOVED:
-                    eventExecutor.execute(() -> processRouterIntfRemoval(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processRouterIntfRemoval(event));
                     break;
                 case OPENSTACK_ROUTER_GATEWAY_ADDED:
                     log.debug("Router external gateway {} added",
@@ -730,7 +730,7 @@ public class OpenstackRoutingHandler {
                 case OPENSTACK_NODE_COMPLETE:
                 case OPENSTACK_NODE_UPDATED:
                 case OPENSTACK_NODE_REMOVED:
-                    eventExecutor.execute(() -> {
+                    osFlowRuleService.runInBatch(eventExecutor, () -> {
                         if (!isRelevantHelper()) {
                             return;
                         }
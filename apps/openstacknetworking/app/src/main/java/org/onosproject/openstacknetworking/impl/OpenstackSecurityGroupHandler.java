@@ -855,13 +855,13 @@ public class OpenstackSecurityGroupHandler {
                 case OPENSTACK_INSTANCE_PORT_UPDATED:
                 case OPENSTACK_INSTANCE_PORT_DETECTED:
                 case OPENSTACK_INSTANCE_MIGRATION_STARTED:
-                    eventExecutor.execute(() -> processInstanceMigrationStart(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processInstanceMigrationStart(event));
                     break;
                 case OPENSTACK_INSTANCE_PORT_VANISHED:
-                    eventExecutor.execute(() -> processInstancePortVanish(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processInstancePortVanish(event));
                     break;
                 case OPENSTACK_INSTANCE_MIGRATION_ENDED:
-                    eventExecutor.execute(() -> processInstanceMigrationEnd(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processInstanceMigrationEnd(event));
                     break;
                 default:
                     break;
@@ -907,7 +907,7 @@ public class OpenstackSecurityGroupHandler {
             log.debug("Instance port detected/updated MAC:{} IP:{}",
                     instPort.macAddress(),
                     instPort.ipAddress());
-            eventExecutor.execute(() ->
+            osFlowRuleService.runInBatch(eventExecutor, () ->
                     setSecurityGroupRules(instPort,
                             osNetService.port(event.subject().portId()), true));
         }
@@ -1005,7 +1005,7 @@ public class OpenstackSecurityGroupHandler {
             log.debug("openstack port event received {}", event);
 
             if (event.type() == OPENSTACK_PORT_PRE_REMOVE) {
-                eventExecutor.execute(() -> processPortPreRemove(event));
+                osFlowRuleService.runInBatch(eventExecutor, () -> processPortPreRemove(event));
             }
         }
 
@@ -1051,10 +1051,10 @@ public class OpenstackSecurityGroupHandler {
 
             switch (event.type()) {
                 case OPENSTACK_PORT_SECURITY_GROUP_ADDED:
-                    eventExecutor.execute(() -> processPortSgAdd(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processPortSgAdd(event));
                     break;
                 case OPENSTACK_PORT_SECURITY_GROUP_REMOVED:
-                    eventExecutor.execute(() -> processPortSgRemove(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processPortSgRemove(event));
                     break;
                 default:
                     // do nothing for the other events
@@ -1108,10 +1108,10 @@ public class OpenstackSecurityGroupHandler {
         public void event(OpenstackSecurityGroupEvent event) {
             switch (event.type()) {
                 case OPENSTACK_SECURITY_GROUP_RULE_CREATED:
-                    eventExecutor.execute(() -> processSgRuleCreate(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processSgRuleCreate(event));
                     break;
                 case OPENSTACK_SECURITY_GROUP_RULE_REMOVED:
-                    eventExecutor.execute(() -> processSgRuleRemove(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processSgRuleRemove(event));
                     break;
                 case OPENSTACK_SECURITY_GROUP_REMOVED:
                 case OPENSTACK_SECURITY_GROUP_CREATED:
@@ -1157,7 +1157,7 @@ public class OpenstackSecurityGroupHandler {
         public void event(OpenstackNodeEvent event) {
             switch (event.type()) {
                 case OPENSTACK_NODE_COMPLETE:
-                    eventExecutor.execute(() -> processNodeComplete(event.subject()));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processNodeComplete(event.subject()));
                     break;
                 case OPENSTACK_NODE_CREATED:
                 case OPENSTACK_NODE_REMOVED:
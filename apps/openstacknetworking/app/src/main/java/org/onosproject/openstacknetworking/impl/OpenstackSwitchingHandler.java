@@ -525,19 +525,19 @@ public class OpenstackSwitchingHandler {
                 case OPENSTACK_INSTANCE_PORT_UPDATED:
                 case OPENSTACK_INSTANCE_MIGRATION_STARTED:
                 case OPENSTACK_INSTANCE_RESTARTED:
-                    eventExecutor.execute(() ->
+                    osFlowRuleService.runInBatch(eventExecutor, () ->
                                     processInstanceDetection(event, instPort));
                     break;
                 case OPENSTACK_INSTANCE_TERMINATED:
-                    eventExecutor.execute(() ->
+                    osFlowRuleService.runInBatch(eventExecutor, () ->
                                     processInstanceTermination(event, instPort));
                     break;
                 case OPENSTACK_INSTANCE_PORT_VANISHED:
-                    eventExecutor.execute(() ->
+                    osFlowRuleService.runInBatch(eventExecutor, () ->
                                     processInstanceRemoval(event, instPort));
                     break;
                 case OPENSTACK_INSTANCE_MIGRATION_ENDED:
-                    eventExecutor.execute(() ->
+                    osFlowRuleService.runInBatch(eventExecutor, () ->
                                     processInstanceMigrationEnd(event, instPort));
                     break;
                 default:
@@ -740,17 +740,17 @@ public class OpenstackSwitchingHandler {
             switch (event.type()) {
                 case OPENSTACK_NETWORK_CREATED:
                 case OPENSTACK_NETWORK_UPDATED:
-                    eventExecutor.execute(() -> processNetworkAddition(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processNetworkAddition(event));
                     break;
                 case OPENSTACK_NETWORK_PRE_REMOVED:
-                    eventExecutor.execute(() -> processNetworkRemoval(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processNetworkRemoval(event));
                     break;
                 case OPENSTACK_PORT_CREATED:
                 case OPENSTACK_PORT_UPDATED:
-                    eventExecutor.execute(() -> processPortAddition(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processPortAddition(event));
                     break;
                 case OPENSTACK_PORT_REMOVED:
-                    eventExecutor.execute(() -> processPortRemoval(event));
+                    osFlowRuleService.runInBatch(eventExecutor, () -> processPortRemoval(event));
                     break;
                 default:
                     break;
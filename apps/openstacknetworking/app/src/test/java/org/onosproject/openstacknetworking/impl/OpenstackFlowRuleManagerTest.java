@@ -73,10 +73,12 @@ public class OpenstackFlowRuleManagerTest {
     private static final int DROP_PRIORITY = 0;
 
     private static final DeviceId DEVICE_ID = DeviceId.deviceId("of:000000000000000a");
+    private static final DeviceId OTHER_DEVICE_ID = DeviceId.deviceId("of:000000000000000b");
 
     private OpenstackFlowRuleManager target;
 
     private Set<FlowRuleOperation> fros;
+    private List<FlowRuleOperations> appliedOps = Lists.newArrayList();
 
     /**
      * Initial setup for this unit test.
@@ -214,6 +216,69 @@ public class OpenstackFlowRuleManagerTest {
         });
     }
 
+    /**
+     * Tests whether rules set within a batch are submitted together on commit.
+     */
+    @Test
+    public void testBatch() {
+        fros = Sets.newConcurrentHashSet();
+        appliedOps.clear();
+
+        target.beginBatch();
+        target.connectTables(DEVICE_ID, 1, 2);
+        target.beginBatch();
+        target.setUpTableMissEntry(DEVICE_ID, 3);
+        target.commitBatch();
+        // the same rule again goes to a later stage
+        target.connectTables(DEVICE_ID, 1, 2);
+        assertEquals("Rules were applied before commit", 0, appliedOps.size());
+
+        target.commitBatch();
+        assertEquals("Batch was not applied once", 1, appliedOps.size());
+        assertEquals("First stage size did not match", 2, appliedOps.get(0).stages().get(0).size());
+
+        // the later stage is applied once the first one completed
+        FlowRuleOperations first = appliedOps.get(0);
+        first.callback().onSuccess(first);
+        assertEquals("Second stage was not applied", 2, appliedOps.size());
+        assertEquals("Second stage size did not match", 1, appliedOps.get(1).stages().get(0).size());
+
+        // outside of a batch rules are applied right away
+        target.setUpTableMissEntry(DEVICE_ID, 4);
+        assertEquals("Rule was not applied", 3, appliedOps.size());
+    }
+
+    /**
+     * Tests whether a failed operation of a batch neither holds back the
+     * rules of other devices nor the later operations on the failing device.
+     */
+    @Test
+    public void testBatchFailure() {
+        fros = Sets.newConcurrentHashSet();
+        appliedOps.clear();
+
+        target.beginBatch();
+        target.connectTables(DEVICE_ID, 1, 2);
+        target.connectTables(OTHER_DEVICE_ID, 1, 2);
+        target.connectTables(DEVICE_ID, 1, 2);
+        target.commitBatch();
+
+        assertEquals("Devices were not applied separately", 2, appliedOps.size());
+        appliedOps.forEach(ops -> assertEquals("Stage count did not match", 1, ops.stages().size()));
+
+        FlowRuleOperations failed = appliedOps.stream()
+                .filter(ops -> deviceOf(ops).equals(DEVICE_ID))
+                .findFirst().orElseThrow(AssertionError::new);
+        failed.callback().onError(failed);
+
+        assertEquals("Later stage was not applied after failure", 3, appliedOps.size());
+        assertEquals("Later stage device did not match", DEVICE_ID, deviceOf(appliedOps.get(2)));
+    }
+
+    private DeviceId deviceOf(FlowRuleOperations ops) {
+        return ops.stages().get(0).iterator().next().rule().deviceId();
+    }
+
     private void validateFlowRule(FlowRule ref) {
         assertEquals("Flow Rule size was not match", 1, fros.size());
         List<FlowRuleOperation> froList = Lists.newArrayList();
@@ -246,6 +311,7 @@ public class OpenstackFlowRuleManagerTest {
     private class TestFlowRuleService extends FlowRuleServiceAdapter {
         @Override
         public void apply(FlowRuleOperations ops) {
+            appliedOps.add(ops);
             fros.addAll(ops.stages().get(0));
         }
     }
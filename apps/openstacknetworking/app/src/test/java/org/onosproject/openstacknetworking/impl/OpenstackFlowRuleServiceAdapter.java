@@ -40,4 +40,14 @@ public class OpenstackFlowRuleServiceAdapter implements OpenstackFlowRuleService
     public void connectTables(DeviceId deviceId, int fromTable, int toTable) {
 
     }
+
+    @Override
+    public void beginBatch() {
+
+    }
+
+    @Override
+    public void commitBatch() {
+
+    }
 }
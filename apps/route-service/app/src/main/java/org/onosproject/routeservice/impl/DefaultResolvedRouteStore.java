@@ -16,16 +16,11 @@
 
 package org.onosproject.routeservice.impl;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
-import com.googlecode.concurrenttrees.common.KeyValuePair;
-import com.googlecode.concurrenttrees.radix.node.concrete.DefaultByteArrayNodeFactory;
-import com.googlecode.concurrenttrees.radixinverted.ConcurrentInvertedRadixTree;
-import com.googlecode.concurrenttrees.radixinverted.InvertedRadixTree;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.IpPrefix;
-import org.onlab.util.GuavaCollectors;
-import org.onlab.util.Tools;
 import org.onosproject.routeservice.ResolvedRoute;
 import org.onosproject.routeservice.RouteEvent;
 import org.onosproject.routeservice.RouteTableId;
@@ -37,8 +32,6 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
-import static org.onosproject.routeservice.RouteTools.createBinaryString;
-
 /**
  * Stores routes that have been resolved.
  */
@@ -111,15 +104,14 @@ public class DefaultResolvedRouteStore implements ResolvedRouteStore {
      * Route table into which routes can be placed.
      */
     private class RouteTable {
-        private final InvertedRadixTree<ResolvedRoute> routeTable;
+        private final MultibitTrie<ResolvedRoute> routeTable;
         private final Map<IpPrefix, Set<ResolvedRoute>> alternativeRoutes;
 
         /**
          * Creates a new route table.
          */
         public RouteTable() {
-            routeTable = new ConcurrentInvertedRadixTree<>(
-                    new DefaultByteArrayNodeFactory());
+            routeTable = new MultibitTrie<>();
 
             alternativeRoutes = Maps.newHashMap();
         }
@@ -134,7 +126,7 @@ public class DefaultResolvedRouteStore implements ResolvedRouteStore {
             Set<ResolvedRoute> immutableAlternatives = checkAlternatives(route, alternatives);
 
             synchronized (this) {
-                ResolvedRoute oldRoute = routeTable.put(createBinaryString(route.prefix()), route);
+                ResolvedRoute oldRoute = routeTable.put(route.prefix(), route);
                 Set<ResolvedRoute> oldRoutes = alternativeRoutes.put(route.prefix(), immutableAlternatives);
 
                 if (!route.equals(oldRoute)) {
@@ -182,13 +174,10 @@ public class DefaultResolvedRouteStore implements ResolvedRouteStore {
          */
         public RouteEvent remove(IpPrefix prefix) {
             synchronized (this) {
-                String key = createBinaryString(prefix);
-
-                ResolvedRoute route = routeTable.getValueForExactKey(key);
+                ResolvedRoute route = routeTable.remove(prefix);
                 Set<ResolvedRoute> alternatives = alternativeRoutes.remove(prefix);
 
                 if (route != null) {
-                    routeTable.remove(key);
                     return new RouteEvent(RouteEvent.Type.ROUTE_REMOVED, route, alternatives);
                 }
                 return null;
@@ -201,9 +190,7 @@ public class DefaultResolvedRouteStore implements ResolvedRouteStore {
          * @return all routes
          */
         public Collection<ResolvedRoute> getRoutes() {
-            return Tools.stream(routeTable.getKeyValuePairsForKeysStartingWith(""))
-                    .map(KeyValuePair::getValue)
-                    .collect(GuavaCollectors.toImmutableList());
+            return ImmutableList.copyOf(routeTable.values());
         }
 
         /**
@@ -213,7 +200,7 @@ public class DefaultResolvedRouteStore implements ResolvedRouteStore {
          * @return best route
          */
         public Optional<ResolvedRoute> getRoute(IpPrefix prefix) {
-            return Optional.ofNullable(routeTable.getValueForExactKey(createBinaryString(prefix)));
+            return Optional.ofNullable(routeTable.get(prefix));
         }
 
         public Collection<ResolvedRoute> getAllRoutes(IpPrefix prefix) {
@@ -227,8 +214,7 @@ public class DefaultResolvedRouteStore implements ResolvedRouteStore {
          * @return most specific prefix containing the given
          */
         public Optional<ResolvedRoute> longestPrefixMatch(IpAddress ip) {
-            return Tools.stream(routeTable.getValuesForKeysPrefixing(createBinaryString(ip.toIpPrefix())))
-                    .reduce((a, b) -> b); // reduces to the last element in the stream
+            return Optional.ofNullable(routeTable.longestPrefixMatch(ip));
         }
     }
 }
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.routeservice.impl;
+
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Longest prefix match table of IP prefixes of the same address family,
+ * implemented as a multibit trie with a stride of 8 bits.
+ * <p>
+ * Each trie node covers one octet of the address and holds, for each of the
+ * 256 values of that octet, the value of the longest prefix ending in the
+ * node that covers it (i.e. prefixes are expanded within the node), and a
+ * reference to the child node. A lookup hence visits at most one node per
+ * octet, 4 for IPv4 and 16 for IPv6, without allocating keys.
+ * <p>
+ * Lookups are lock-free and can be performed concurrently with updates,
+ * which are serialized. Exact-match lookups are served by a hash map.
+ *
+ * @param <V> type of values
+ */
+final class MultibitTrie<V> {
+
+    private static final int STRIDE = Byte.SIZE;
+    private static final int FANOUT = 1 << STRIDE;
+
+    private final Map<IpPrefix, V> prefixes = new ConcurrentHashMap<>();
+    private final Node<V> root = new Node<>();
+    // Value of the zero-length prefix.
+    private volatile V defaultValue;
+
+    /**
+     * Returns the value of the given prefix.
+     *
+     * @param prefix IP prefix
+     * @return value, or null if the prefix is not in the table
+     */
+    V get(IpPrefix prefix) {
+        return prefixes.get(prefix);
+    }
+
+    /**
+     * Returns the values of all prefixes in the table.
+     *
+     * @return unmodifiable collection of values
+     */
+    Collection<V> values() {
+        return Collections.unmodifiableCollection(prefixes.values());
+    }
+
+    /**
+     * Returns the number of prefixes in the table.
+     *
+     * @return number of prefixes
+     */
+    int size() {
+        return prefixes.size();
+    }
+
+    /**
+     * Returns the value of the longest prefix containing the given address.
+     *
+     * @param ip IP address
+     * @return value, or null if no prefix contains the address
+     */
+    V longestPrefixMatch(IpAddress ip) {
+        final byte[] octets = ip.toOctets();
+        V best = defaultValue;
+        Node<V> node = root;
+        for (int i = 0; node != null && i < octets.length; i++) {
+            final int slot = octets[i] & 0xff;
+            final V value = node.values.get(slot);
+            if (value != null) {
+                best = value;
+            }
+            final AtomicReferenceArray<Node<V>> children = node.children;
+            node = children == null ? null : children.get(slot);
+        }
+        return best;
+    }
+
+    /**
+     * Adds the given prefix to the table, or updates its value.
+     *
+     * @param prefix IP prefix
+     * @param value  value
+     * @return previous value of the prefix, or null
+     */
+    synchronized V put(IpPrefix prefix, V value) {
+        final V oldValue = prefixes.put(prefix, value);
+        final int length = prefix.prefixLength();
+        if (length == 0) {
+            defaultValue = value;
+            return oldValue;
+        }
+        final byte[] octets = prefix.address().toOctets();
+        final int depth = (length - 1) / STRIDE;
+        Node<V> node = root;
+        for (int i = 0; i < depth; i++) {
+            node = node.getOrCreateChild(octets[i] & 0xff);
+        }
+        if (oldValue == null) {
+            node.prefixCount++;
+        }
+        // Expand the prefix over the slots it covers, unless already covered
+        // by a longer prefix.
+        final int localLength = length - depth * STRIDE;
+        final int first = firstSlot(octets[depth], localLength);
+        final int last = first + (1 << (STRIDE - localLength));
+        for (int slot = first; slot < last; slot++) {
+            if (node.lengths[slot] <= localLength) {
+                node.lengths[slot] = (byte) localLength;
+                node.values.set(slot, value);
+            }
+        }
+        return oldValue;
+    }
+
+    /**
+     * Removes the given prefix from the table.
+     *
+     * @param prefix IP prefix
+     * @return value of the removed prefix, or null if it was not in the table
+     */
+    synchronized V remove(IpPrefix prefix) {
+        final V oldValue = prefixes.remove(prefix);
+        if (oldValue == null) {
+            return null;
+        }
+        final int length = prefix.prefixLength();
+        if (length == 0) {
+            defaultValue = null;
+            return oldValue;
+        }
+        final byte[] octets = prefix.address().toOctets();
+        final int depth = (length - 1) / STRIDE;
+        final Node<?>[] path = new Node<?>[depth + 1];
+        Node<V> node = root;
+        for (int i = 0; i < depth; i++) {
+            path[i] = node;
+            node = node.children.get(octets[i] & 0xff);
+        }
+        path[depth] = node;
+        // Slots covered by the removed prefix fall back to the longest
+        // shorter prefix ending in the same node, if any.
+        final int localLength = length - depth * STRIDE;
+        int fallbackLength = localLength - 1;
+        V fallback = null;
+        for (; fallbackLength > 0; fallbackLength--) {
+            fallback = prefixes.get(IpPrefix.valueOf(
+                    prefix.address(), depth * STRIDE + fallbackLength));
+            if (fallback != null) {
+                break;
+            }
+        }
+        final int first = firstSlot(octets[depth], localLength);
+        final int last = first + (1 << (STRIDE - localLength));
+        for (int slot = first; slot < last; slot++) {
+            if (node.lengths[slot] == localLength) {
+                node.lengths[slot] = (byte) fallbackLength;
+                node.values.set(slot, fallback);
+            }
+        }
+        node.prefixCount--;
+        // Prune nodes left empty.
+        for (int i = depth; i > 0 && path[i].isEmpty(); i--) {
+            path[i - 1].removeChild(octets[i - 1] & 0xff);
+        }
+        return oldValue;
+    }
+
+    private static int firstSlot(byte octet, int localLength) {
+        final int mask = (FANOUT - 1) << (STRIDE - localLength);
+        return octet & mask & 0xff;
+    }
+
+    /**
+     * Trie node covering one octet of the address.
+     *
+     * @param <V> type of values
+     */
+    private static final class Node<V> {
+        // Value of the longest prefix ending in this node covering each slot,
+        // and its length relative to the node (0 if none). Lengths are only
+        // accessed by writers.
+        private final AtomicReferenceArray<V> values = new AtomicReferenceArray<>(FANOUT);
+        private final byte[] lengths = new byte[FANOUT];
+        // Created with the first child.
+        private volatile AtomicReferenceArray<Node<V>> children;
+        private int prefixCount;
+        private int childCount;
+
+        private Node<V> getOrCreateChild(int slot) {
+            if (children == null) {
+                children = new AtomicReferenceArray<>(FANOUT);
+            }
+            Node<V> child = children.get(slot);
+            if (child == null) {
+                child = new Node<>();
+                children.set(slot, child);
+                childCount++;
+            }
+            return child;
+        }
+
+        private void removeChild(int slot) {
+            children.set(slot, null);
+            if (--childCount == 0) {
+                children = null;
+            }
+        }
+
+        private boolean isEmpty() {
+            return prefixCount == 0 && childCount == 0;
+        }
+    }
+}
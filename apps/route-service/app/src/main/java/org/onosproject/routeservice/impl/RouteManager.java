@@ -16,7 +16,11 @@
 
 package org.onosproject.routeservice.impl;
 
+import com.codahale.metrics.Timer;
 import com.google.common.collect.ImmutableList;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.IpPrefix;
 import org.onosproject.cluster.ClusterService;
@@ -42,6 +46,7 @@ import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,17 +54,23 @@ import javax.annotation.concurrent.GuardedBy;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.onlab.util.Tools.groupedThreads;
 
@@ -71,6 +82,11 @@ public class RouteManager implements RouteService, RouteAdminService {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    private static final int RESOLVER_THREADS = 4;
+
+    private static final String METRIC_COMPONENT = "RouteService";
+    private static final String METRIC_FEATURE = "resolver";
+
     private RouteStoreDelegate delegate = new InternalRouteStoreDelegate();
     private InternalHostListener hostListener = new InternalHostListener();
 
@@ -86,6 +102,10 @@ public class RouteManager implements RouteService, RouteAdminService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected StorageService storageService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL,
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile MetricsService metricsService;
+
     private ResolvedRouteStore resolvedRouteStore;
 
     private RouteMonitor routeMonitor;
@@ -98,24 +118,38 @@ public class RouteManager implements RouteService, RouteAdminService {
     protected Executor hostEventExecutor = newSingleThreadExecutor(
         groupedThreads("rm-event-host", "%d", log));
 
+    // Used to re-resolve routes of different route tables in parallel.
+    private ExecutorService resolverExecutor;
+
+    private Timer routeResolutionTimer;
+    private Timer hostResolutionTimer;
+
     @Activate
     protected void activate() {
         routeMonitor = new RouteMonitor(this, clusterService, storageService);
         threadFactory = groupedThreads("onos/route", "listener-%d", log);
+        resolverExecutor = newFixedThreadPool(
+                RESOLVER_THREADS, groupedThreads("onos/route", "resolver-%d", log));
+        if (metricsService != null) {
+            MetricsComponent component = metricsService.registerComponent(METRIC_COMPONENT);
+            MetricsFeature feature = component.registerFeature(METRIC_FEATURE);
+            routeResolutionTimer = metricsService.createTimer(component, feature, "route");
+            hostResolutionTimer = metricsService.createTimer(component, feature, "host");
+        }
 
         resolvedRouteStore = new DefaultResolvedRouteStore();
 
         routeStore.setDelegate(delegate);
         hostService.addListener(hostListener);
 
-        routeStore.getRouteTables().stream()
-                .flatMap(id -> routeStore.getRoutes(id).stream())
-                .forEach(this::resolve);
+        resolveByTable(routeStore.getRouteTables().stream()
+                .flatMap(id -> routeStore.getRoutes(id).stream()));
     }
 
     @Deactivate
     protected void deactivate() {
         routeMonitor.shutdown();
+        resolverExecutor.shutdown();
         synchronized (this) {
             listeners.values().forEach(ListenerQueue::stop);
         }
@@ -277,6 +311,17 @@ public class RouteManager implements RouteService, RouteAdminService {
             // The routes were removed before we got to them, nothing to do
             return;
         }
+        Timer.Context timer = routeResolutionTimer == null ? null : routeResolutionTimer.time();
+        try {
+            doResolve(routes);
+        } finally {
+            if (timer != null) {
+                timer.stop();
+            }
+        }
+    }
+
+    private void doResolve(RouteSet routes) {
         Set<ResolvedRoute> resolvedRoutes = routes.routes().stream()
                 .map(this::resolve)
                 .filter(Objects::nonNull)
@@ -301,11 +346,45 @@ public class RouteManager implements RouteService, RouteAdminService {
     }
 
     private void hostChanged(Host host) {
-        synchronized (this) {
-            host.ipAddresses().stream()
+        Timer.Context timer = hostResolutionTimer == null ? null : hostResolutionTimer.time();
+        try {
+            resolveByTable(host.ipAddresses().stream()
                     .flatMap(ip -> routeStore.getRoutesForNextHop(ip).stream())
-                    .map(route -> routeStore.getRoutes(route.prefix()))
-                    .forEach(this::resolve);
+                    .map(Route::prefix)
+                    .distinct()
+                    .map(routeStore::getRoutes)
+                    .filter(Objects::nonNull));
+        } finally {
+            if (timer != null) {
+                timer.stop();
+            }
+        }
+    }
+
+    /**
+     * Resolves the given route sets, in parallel for different route tables
+     * and sequentially within the same table, and waits for completion.
+     *
+     * @param routeSets route sets to resolve
+     */
+    private void resolveByTable(Stream<RouteSet> routeSets) {
+        Map<RouteTableId, List<RouteSet>> byTable = routeSets
+                .collect(Collectors.groupingBy(RouteSet::tableId));
+        if (byTable.size() == 1) {
+            // No need to hand off to another thread.
+            byTable.values().iterator().next().forEach(this::resolve);
+            return;
+        }
+        try {
+            CompletableFuture.allOf(byTable.values().stream()
+                    .map(sets -> CompletableFuture.runAsync(
+                            () -> sets.forEach(this::resolve), resolverExecutor))
+                    .toArray(CompletableFuture[]::new))
+                    .join();
+        } catch (RejectedExecutionException e) {
+            log.debug("Route manager is shutting down, skipping route resolution");
+        } catch (CompletionException e) {
+            log.warn("Exception while resolving routes", e.getCause());
         }
     }
 
@@ -64,6 +64,10 @@ public class DefaultRouteTable implements RouteTable {
 
     private final Consumer<DistributedPrimitive.Status> statusChangeListener;
 
+    // Local index of the routes by next hop, built and updated on the
+    // executor only, so that snapshots and route events are serialised.
+    private volatile NextHopIndex<RawRoute> nextHopIndex = new NextHopIndex<>();
+
     /**
      * Creates a new route table.
      *
@@ -86,12 +90,22 @@ public class DefaultRouteTable implements RouteTable {
         };
         routes.addStatusChangeListener(statusChangeListener);
 
-        notifyExistingRoutes();
-
+        // The listener goes first so that no route event is missed between
+        // the snapshot and the registration; events delivered after the
+        // snapshot but reflecting earlier changes are idempotent.
         routes.addListener(listener, executor);
+        executor.execute(this::notifyExistingRoutes);
     }
 
+    // Runs on the executor, as the route listener does.
     private void notifyExistingRoutes() {
+        // Rebuild the index in case we missed events, e.g. while inactive.
+        NextHopIndex<RawRoute> index = new NextHopIndex<>();
+        routes.stream()
+            .map(Map.Entry::getValue)
+            .forEach(r -> index.add(IpAddress.valueOf(r.nextHop()), r));
+        nextHopIndex = index;
+
         getRoutes().forEach(routeSet -> delegate.notify(
             new InternalRouteEvent(InternalRouteEvent.Type.ROUTE_ADDED, routeSet)));
     }
@@ -173,9 +187,7 @@ public class DefaultRouteTable implements RouteTable {
 
     @Override
     public Collection<Route> getRoutesForNextHop(IpAddress nextHop) {
-        return routes.stream()
-            .map(Map.Entry::getValue)
-            .filter(r -> IpAddress.valueOf(r.nextHop()).equals(nextHop))
+        return nextHopIndex.get(nextHop).stream()
             .map(RawRoute::route)
             .collect(Collectors.toSet());
     }
@@ -197,9 +209,11 @@ public class DefaultRouteTable implements RouteTable {
             InternalRouteEvent ire = null;
             switch (event.type()) {
             case INSERT:
+                nextHopIndex.add(IpAddress.valueOf(event.newValue().nextHop()), event.newValue());
                 ire = createRouteEvent(InternalRouteEvent.Type.ROUTE_ADDED, event);
                 break;
             case REMOVE:
+                nextHopIndex.remove(IpAddress.valueOf(event.oldValue().nextHop()), event.oldValue());
                 ire = createRouteEvent(InternalRouteEvent.Type.ROUTE_REMOVED, event);
                 break;
             default:
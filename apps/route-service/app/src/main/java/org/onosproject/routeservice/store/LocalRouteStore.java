@@ -130,6 +130,7 @@ public class LocalRouteStore extends AbstractStore<InternalRouteEvent, RouteStor
     private class RouteTable {
         private final InvertedRadixTree<Route> routeTable;
         private final Map<IpPrefix, Route> routes = new ConcurrentHashMap<>();
+        private final NextHopIndex<Route> nextHops = new NextHopIndex<>();
         private final RouteTableId id;
 
         /**
@@ -156,6 +157,10 @@ public class LocalRouteStore extends AbstractStore<InternalRouteEvent, RouteStor
                 }
 
                 routeTable.put(RouteTools.createBinaryString(route.prefix()), route);
+                if (oldRoute != null) {
+                    nextHops.remove(oldRoute.nextHop(), oldRoute);
+                }
+                nextHops.add(route.nextHop(), route);
 
                 notifyDelegate(new InternalRouteEvent(
                         InternalRouteEvent.Type.ROUTE_ADDED, singletonRouteSet(route)));
@@ -173,6 +178,7 @@ public class LocalRouteStore extends AbstractStore<InternalRouteEvent, RouteStor
                 routeTable.remove(RouteTools.createBinaryString(route.prefix()));
 
                 if (removed != null) {
+                    nextHops.remove(removed.nextHop(), removed);
                     notifyDelegate(new InternalRouteEvent(
                             InternalRouteEvent.Type.ROUTE_REMOVED, emptyRouteSet(route.prefix())));
                 }
@@ -193,10 +199,7 @@ public class LocalRouteStore extends AbstractStore<InternalRouteEvent, RouteStor
          * @return routes for the next hop
          */
         public Collection<Route> getRoutesForNextHop(IpAddress ip) {
-            return routes.values()
-                    .stream()
-                    .filter(route -> route.nextHop().equals(ip))
-                    .collect(Collectors.toSet());
+            return nextHops.get(ip);
         }
 
         public RouteSet getRoutes(IpPrefix prefix) {
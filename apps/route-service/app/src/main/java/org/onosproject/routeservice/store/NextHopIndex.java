@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.routeservice.store;
+
+import com.google.common.collect.ImmutableSet;
+import org.onlab.packet.IpAddress;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the routes of a route table by next hop, maintained by the route
+ * table as routes are added and removed.
+ *
+ * @param <R> type of routes
+ */
+final class NextHopIndex<R> {
+
+    private final Map<IpAddress, Set<R>> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a route to the index.
+     *
+     * @param nextHop next hop of the route
+     * @param route   route
+     */
+    void add(IpAddress nextHop, R route) {
+        routes.compute(nextHop, (ip, set) -> {
+            Set<R> result = set == null ? ConcurrentHashMap.newKeySet() : set;
+            result.add(route);
+            return result;
+        });
+    }
+
+    /**
+     * Removes a route from the index.
+     *
+     * @param nextHop next hop of the route
+     * @param route   route
+     */
+    void remove(IpAddress nextHop, R route) {
+        routes.computeIfPresent(nextHop, (ip, set) -> {
+            set.remove(route);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * Returns the routes with the given next hop.
+     *
+     * @param nextHop next hop IP address
+     * @return immutable set of routes
+     */
+    Set<R> get(IpAddress nextHop) {
+        Set<R> set = routes.get(nextHop);
+        return set == null ? ImmutableSet.of() : ImmutableSet.copyOf(set);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.routeservice.impl;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for the multibit trie.
+ */
+public class MultibitTrieTest {
+
+    private static final IpPrefix P0 = IpPrefix.valueOf("0.0.0.0/0");
+    private static final IpPrefix P8 = IpPrefix.valueOf("10.0.0.0/8");
+    private static final IpPrefix P12 = IpPrefix.valueOf("10.16.0.0/12");
+    private static final IpPrefix P14 = IpPrefix.valueOf("10.16.0.0/14");
+    private static final IpPrefix P24 = IpPrefix.valueOf("10.17.1.0/24");
+    private static final IpPrefix P32 = IpPrefix.valueOf("10.17.1.1/32");
+
+    private final MultibitTrie<IpPrefix> trie = new MultibitTrie<>();
+
+    @Test
+    public void testLongestPrefixMatch() {
+        trie.put(P8, P8);
+        trie.put(P14, P14);
+        trie.put(P12, P12);
+        trie.put(P32, P32);
+
+        assertNull(trie.longestPrefixMatch(IpAddress.valueOf("11.0.0.1")));
+        assertEquals(P8, trie.longestPrefixMatch(IpAddress.valueOf("10.0.0.1")));
+        assertEquals(P12, trie.longestPrefixMatch(IpAddress.valueOf("10.20.0.1")));
+        assertEquals(P14, trie.longestPrefixMatch(IpAddress.valueOf("10.17.1.2")));
+        assertEquals(P32, trie.longestPrefixMatch(IpAddress.valueOf("10.17.1.1")));
+
+        trie.put(P0, P0);
+        trie.put(P24, P24);
+        assertEquals(P0, trie.longestPrefixMatch(IpAddress.valueOf("11.0.0.1")));
+        assertEquals(P24, trie.longestPrefixMatch(IpAddress.valueOf("10.17.1.2")));
+        assertEquals(5 + 1, trie.size());
+    }
+
+    @Test
+    public void testRemove() {
+        trie.put(P8, P8);
+        trie.put(P12, P12);
+        trie.put(P14, P14);
+        trie.put(P24, P24);
+
+        assertEquals(P14, trie.remove(P14));
+        assertNull(trie.remove(P14));
+        assertEquals(P12, trie.longestPrefixMatch(IpAddress.valueOf("10.17.0.1")));
+        assertEquals(P24, trie.longestPrefixMatch(IpAddress.valueOf("10.17.1.1")));
+
+        assertEquals(P24, trie.remove(P24));
+        assertEquals(P12, trie.longestPrefixMatch(IpAddress.valueOf("10.17.1.1")));
+        assertEquals(P12, trie.remove(P12));
+        assertEquals(P8, trie.longestPrefixMatch(IpAddress.valueOf("10.17.1.1")));
+        assertEquals(P8, trie.remove(P8));
+        assertNull(trie.longestPrefixMatch(IpAddress.valueOf("10.17.1.1")));
+        assertEquals(0, trie.size());
+    }
+
+    @Test
+    public void testRandomIp4() {
+        checkRandom(IpAddress.Version.INET, 32);
+    }
+
+    @Test
+    public void testRandomIp6() {
+        checkRandom(IpAddress.Version.INET6, 128);
+    }
+
+    /**
+     * Checks lookups against a linear scan of the prefixes, after random
+     * insertions and removals.
+     */
+    private void checkRandom(IpAddress.Version version, int maxLength) {
+        final Random random = new Random(42);
+        final List<IpPrefix> prefixes = Lists.newArrayList();
+        // Few short base addresses, to get many overlapping prefixes.
+        final List<byte[]> bases = Lists.newArrayList();
+        for (int i = 0; i < 8; i++) {
+            bases.add(randomOctets(random, version));
+        }
+        for (int i = 0; i < 2000; i++) {
+            final byte[] octets = bases.get(random.nextInt(bases.size())).clone();
+            octets[octets.length - 1 - random.nextInt(octets.length)] ^= (byte) random.nextInt(256);
+            final IpPrefix prefix = IpPrefix.valueOf(
+                    IpAddress.valueOf(version, octets), random.nextInt(maxLength + 1));
+            trie.put(prefix, prefix);
+            prefixes.add(prefix);
+        }
+        for (int i = 0; i < 500; i++) {
+            final IpPrefix prefix = prefixes.remove(random.nextInt(prefixes.size()));
+            trie.remove(prefix);
+            prefixes.removeIf(prefix::equals);
+        }
+        assertEquals(prefixes.stream().distinct().count(), trie.size());
+        for (int i = 0; i < 5000; i++) {
+            final byte[] octets = bases.get(random.nextInt(bases.size())).clone();
+            octets[octets.length - 1 - random.nextInt(octets.length)] ^= (byte) random.nextInt(256);
+            final IpAddress ip = IpAddress.valueOf(version, octets);
+            final IpPrefix expected = prefixes.stream()
+                    .filter(p -> p.contains(ip))
+                    .max((a, b) -> Integer.compare(a.prefixLength(), b.prefixLength()))
+                    .orElse(null);
+            assertEquals(expected, trie.longestPrefixMatch(ip));
+        }
+    }
+
+    private static byte[] randomOctets(Random random, IpAddress.Version version) {
+        final byte[] octets = new byte[IpAddress.byteLength(version)];
+        random.nextBytes(octets);
+        return octets;
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.routeservice.store;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+import org.onosproject.routeservice.Route;
+import org.onosproject.routeservice.RouteTableId;
+import org.onosproject.store.service.ConsistentMultimap;
+import org.onosproject.store.service.ConsistentMultimapBuilder;
+import org.onosproject.store.service.DistributedPrimitive;
+import org.onosproject.store.service.MultimapEvent;
+import org.onosproject.store.service.MultimapEventListener;
+import org.onosproject.store.service.TestConsistentMultimap;
+import org.onosproject.store.service.TestStorageService;
+import org.onosproject.store.service.Versioned;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+/**
+ * Unit tests for the next hop index kept by the default route table.
+ */
+public class DefaultRouteTableTest {
+
+    private static final IpAddress NH1 = IpAddress.valueOf("10.0.0.1");
+    private static final IpAddress NH2 = IpAddress.valueOf("10.0.0.2");
+    private static final Route R1 = new Route(Route.Source.STATIC, IpPrefix.valueOf("1.1.1.0/24"), NH1);
+    private static final Route R2 = new Route(Route.Source.STATIC, IpPrefix.valueOf("2.2.2.0/24"), NH2);
+
+    private final ManualExecutor executor = new ManualExecutor();
+    private EventMultimap<Object, Object> routes;
+    private DefaultRouteTable table;
+
+    @Before
+    public void setUp() {
+        routes = new EventMultimap<>();
+        table = createTable(routes);
+    }
+
+    private DefaultRouteTable createTable(EventMultimap<Object, Object> map) {
+        return new DefaultRouteTable(new RouteTableId("test"), event -> { },
+                                     new TestStorageService() {
+                                         @Override
+                                         public <K, V> ConsistentMultimapBuilder<K, V>
+                                                 consistentMultimapBuilder() {
+                                             return new MultimapBuilder<>(map);
+                                         }
+                                     }, executor);
+    }
+
+    /**
+     * Tests that the index follows the routes added and removed.
+     */
+    @Test
+    public void testIndexUpdates() {
+        table.update(R1);
+        table.update(R2);
+        executor.runAll();
+        assertThat(table.getRoutesForNextHop(NH1), contains(R1));
+        assertThat(table.getRoutesForNextHop(NH2), contains(R2));
+
+        table.remove(R1);
+        executor.runAll();
+        assertThat(table.getRoutesForNextHop(NH1), empty());
+        assertThat(table.getRoutesForNextHop(NH2), contains(R2));
+    }
+
+    /**
+     * Tests that routes changed while the index is being rebuilt are not lost.
+     */
+    @Test
+    public void testChangeDuringRebuild() {
+        table.update(R1);
+        executor.runAll();
+
+        routes.duringNextSnapshot(() -> {
+            table.update(R2);
+            table.remove(R1);
+        });
+        routes.statusListener.accept(DistributedPrimitive.Status.ACTIVE);
+        executor.runAll();
+
+        assertThat(table.getRoutesForNextHop(NH1), empty());
+        assertThat(table.getRoutesForNextHop(NH2), contains(R2));
+    }
+
+    /**
+     * Tests that routes changed while the initial index is built are not lost.
+     */
+    @Test
+    public void testChangeDuringInitialBuild() {
+        // stored form of R2, as written by another node
+        table.update(R2);
+        executor.runAll();
+        Map.Entry<Object, Object> stored = routes.map.entries().iterator().next();
+
+        EventMultimap<Object, Object> otherRoutes = new EventMultimap<>();
+        otherRoutes.duringNextSnapshot(() -> otherRoutes.put(stored.getKey(), stored.getValue()));
+        DefaultRouteTable otherTable = createTable(otherRoutes);
+        executor.runAll();
+
+        assertThat(otherTable.getRoutesForNextHop(NH2), contains(R2));
+    }
+
+    // Executor running the submitted tasks on demand, in order.
+    private static final class ManualExecutor extends AbstractExecutorService {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return ImmutableList.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+
+    // Multimap notifying its listener of changes, the way the distributed one does.
+    private static final class EventMultimap<K, V> extends TestConsistentMultimap<K, V> {
+        private final Multimap<K, V> map = HashMultimap.create();
+        private MultimapEventListener<K, V> listener;
+        private Executor listenerExecutor;
+        private Consumer<DistributedPrimitive.Status> statusListener;
+        private Runnable snapshotHook;
+
+        void duringNextSnapshot(Runnable hook) {
+            snapshotHook = hook;
+        }
+
+        private void notify(K key, V newValue, V oldValue) {
+            if (listener != null) {
+                MultimapEvent<K, V> event = new MultimapEvent<>("test", key, newValue, oldValue);
+                listenerExecutor.execute(() -> listener.event(event));
+            }
+        }
+
+        @Override
+        public boolean put(K key, V value) {
+            boolean added = map.put(key, value);
+            if (added) {
+                notify(key, value, null);
+            }
+            return added;
+        }
+
+        @Override
+        public boolean remove(K key, V value) {
+            boolean removed = map.remove(key, value);
+            if (removed) {
+                notify(key, null, value);
+            }
+            return removed;
+        }
+
+        @Override
+        public Versioned<Collection<? extends V>> get(K key) {
+            return map.containsKey(key) ? new Versioned<>(ImmutableSet.copyOf(map.get(key)), 1) : null;
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            Iterator<Map.Entry<K, V>> snapshot = ImmutableList.copyOf(map.entries()).iterator();
+            if (snapshotHook != null) {
+                Runnable hook = snapshotHook;
+                snapshotHook = null;
+                hook.run();
+            }
+            return snapshot;
+        }
+
+        @Override
+        public void addListener(MultimapEventListener<K, V> listener, Executor executor) {
+            this.listener = listener;
+            this.listenerExecutor = executor;
+        }
+
+        @Override
+        public void removeListener(MultimapEventListener<K, V> listener) {
+            this.listener = null;
+        }
+
+        @Override
+        public void addStatusChangeListener(Consumer<DistributedPrimitive.Status> listener) {
+            statusListener = listener;
+        }
+    }
+
+    private static final class MultimapBuilder<K, V> extends TestConsistentMultimap.Builder<K, V> {
+        private final ConsistentMultimap<K, V> map;
+
+        @SuppressWarnings("unchecked")
+        MultimapBuilder(ConsistentMultimap<?, ?> map) {
+            this.map = (ConsistentMultimap<K, V>) map;
+        }
+
+        @Override
+        public ConsistentMultimap<K, V> build() {
+            return map;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.routeservice.store;
+
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+
+/**
+ * Unit tests for the next hop index.
+ */
+public class NextHopIndexTest {
+
+    private static final IpAddress NH1 = IpAddress.valueOf("10.0.0.1");
+    private static final IpAddress NH2 = IpAddress.valueOf("10.0.0.2");
+
+    private final NextHopIndex<String> index = new NextHopIndex<>();
+
+    @Test
+    public void testAddRemove() {
+        index.add(NH1, "a");
+        index.add(NH1, "b");
+        index.add(NH2, "c");
+        // adding twice, as a replayed event does, is harmless
+        index.add(NH1, "a");
+
+        assertThat(index.get(NH1), containsInAnyOrder("a", "b"));
+        assertThat(index.get(NH2), containsInAnyOrder("c"));
+
+        index.remove(NH1, "a");
+        index.remove(NH2, "c");
+        index.remove(NH2, "c");
+        assertThat(index.get(NH1), containsInAnyOrder("b"));
+        assertThat(index.get(NH2), empty());
+    }
+}
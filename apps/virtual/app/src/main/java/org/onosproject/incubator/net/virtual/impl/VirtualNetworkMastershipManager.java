@@ -30,6 +30,7 @@ import org.onosproject.incubator.net.virtual.VirtualNetworkMastershipStore;
 import org.onosproject.incubator.net.virtual.VirtualNetworkService;
 import org.onosproject.incubator.net.virtual.event.AbstractVirtualListenerManager;
 import org.onosproject.mastership.MastershipAdminService;
+import org.onosproject.mastership.MastershipBalancingPlan;
 import org.onosproject.mastership.MastershipEvent;
 import org.onosproject.mastership.MastershipInfo;
 import org.onosproject.mastership.MastershipListener;
@@ -43,7 +44,10 @@ import org.slf4j.Logger;
 import com.codahale.metrics.Timer;
 
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
@@ -182,16 +186,7 @@ public class VirtualNetworkMastershipManager
 
     @Override
     public void balanceRoles() {
-        //FIXME: More advanced logic for balancing virtual network roles.
-        List<ControllerNode> nodes = clusterService.getNodes().stream()
-                .filter(n -> clusterService.getState(n.id())
-                        .equals(ControllerNode.State.ACTIVE))
-                .collect(Collectors.toList());
-
-        nodes.sort(Comparator.comparing(ControllerNode::id));
-
-        //Pick a node using network Id,
-        NodeId masterNode = nodes.get((int) ((networkId.id() - 1) % nodes.size())).id();
+        NodeId masterNode = balancedMaster();
 
         List<CompletableFuture<Void>> setRoleFutures = Lists.newLinkedList();
         for (VirtualDevice device : manager.getVirtualDevices(networkId)) {
@@ -204,6 +199,43 @@ public class VirtualNetworkMastershipManager
         Futures.getUnchecked(balanceRolesFuture);
     }
 
+    @Override
+    public MastershipBalancingPlan planBalanceRoles() {
+        NodeId masterNode = balancedMaster();
+
+        Map<DeviceId, NodeId> moves = new LinkedHashMap<>();
+        Map<NodeId, Double> loadBefore = new HashMap<>();
+        double deviceCount = 0;
+        for (VirtualDevice device : manager.getVirtualDevices(networkId)) {
+            deviceCount++;
+            NodeId master = getMasterFor(device.id());
+            if (master != null) {
+                loadBefore.merge(master, 1.0, Double::sum);
+            }
+            if (!masterNode.equals(master)) {
+                moves.put(device.id(), masterNode);
+            }
+        }
+        Map<NodeId, Double> loadAfter = new HashMap<>();
+        loadBefore.keySet().forEach(nodeId -> loadAfter.put(nodeId, 0.0));
+        loadAfter.put(masterNode, deviceCount);
+        return new MastershipBalancingPlan(moves, loadBefore, loadAfter);
+    }
+
+    // Picks the node mastering all devices of this virtual network.
+    private NodeId balancedMaster() {
+        //FIXME: More advanced logic for balancing virtual network roles.
+        List<ControllerNode> nodes = clusterService.getNodes().stream()
+                .filter(n -> clusterService.getState(n.id())
+                        .equals(ControllerNode.State.ACTIVE))
+                .collect(Collectors.toList());
+
+        nodes.sort(Comparator.comparing(ControllerNode::id));
+
+        //Pick a node using network Id,
+        return nodes.get((int) ((networkId.id() - 1) % nodes.size())).id();
+    }
+
     public class InternalDelegate implements MastershipStoreDelegate {
         @Override
         public void notify(MastershipEvent event) {
@@ -16,8 +16,10 @@
 package org.onosproject.cli;
 
 import org.apache.karaf.shell.api.action.Command;
+import org.apache.karaf.shell.api.action.Option;
 import org.apache.karaf.shell.api.action.lifecycle.Service;
 import org.onosproject.mastership.MastershipAdminService;
+import org.onosproject.mastership.MastershipBalancingPlan;
 
 /**
  * Forces device mastership rebalancing.
@@ -27,8 +29,27 @@ import org.onosproject.mastership.MastershipAdminService;
         description = "Forces device mastership rebalancing")
 public class BalanceMastersCommand extends AbstractShellCommand {
 
+    @Option(name = "-d", aliases = "--dry-run",
+            description = "Print the balancing plan without applying it",
+            required = false, multiValued = false)
+    private boolean dryRun = false;
+
     @Override
     protected void doExecute() {
+        if (dryRun) {
+            MastershipBalancingPlan plan;
+            try {
+                plan = get(MastershipAdminService.class).planBalanceRoles();
+            } catch (IllegalStateException e) {
+                error("%s", e.getMessage());
+                return;
+            }
+            plan.loadBefore().forEach((nodeId, load) ->
+                    print("%s: load=%.2f, projected=%.2f", nodeId, load,
+                          plan.loadAfter().getOrDefault(nodeId, load)));
+            plan.moves().forEach((deviceId, nodeId) -> print("  %s -> %s", deviceId, nodeId));
+            return;
+        }
         get(MastershipAdminService.class).balanceRoles();
     }
 
@@ -20,6 +20,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Strings;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.apache.commons.lang.StringUtils;
@@ -37,6 +38,7 @@ import org.onosproject.net.flow.criteria.Criterion;
 import org.onosproject.net.intent.ConnectivityIntent;
 import org.onosproject.net.intent.HostToHostIntent;
 import org.onosproject.net.intent.Intent;
+import org.onosproject.net.intent.IntentData;
 import org.onosproject.net.intent.IntentService;
 import org.onosproject.net.intent.IntentState;
 import org.onosproject.net.intent.LinkCollectionIntent;
@@ -163,6 +165,11 @@ public class IntentsListCommand extends AbstractShellCommand {
             required = false, multiValued = false)
     private boolean pending = false;
 
+    @Option(name = "-S", aliases = "--state",
+            description = "Show only intents currently in the given state",
+            required = false, multiValued = true)
+    private List<String> states = new ArrayList<>();
+
     @Option(name = "-d", aliases = "--details",
             description = "Show details for intents, filtered by ID",
             required = false, multiValued = true)
@@ -196,6 +203,11 @@ public class IntentsListCommand extends AbstractShellCommand {
         Iterable<Intent> intents;
         if (pending) {
             intents = service.getPending();
+        } else if (!states.isEmpty()) {
+            intents = intentsInStates();
+            if (intents == null) {
+                return;
+            }
         } else {
             intents = service.getIntents();
         }
@@ -257,6 +269,27 @@ public class IntentsListCommand extends AbstractShellCommand {
         }
     }
 
+    /**
+     * Returns the intents currently in any of the requested states.
+     *
+     * @return intents in the requested states; null if a state is not valid
+     */
+    private Iterable<Intent> intentsInStates() {
+        List<Iterable<Intent>> intents = new ArrayList<>();
+        for (String state : states) {
+            IntentState intentState;
+            try {
+                intentState = IntentState.valueOf(state.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                error("Invalid intent state %s", state);
+                return null;
+            }
+            intents.add(Iterables.transform(service.getIntentDataByState(intentState),
+                                            IntentData::intent));
+        }
+        return Iterables.concat(intents);
+    }
+
     /**
      * Filter a given list of intents based on the existing content filter.
      *
@@ -15,10 +15,12 @@
  */
 package org.onosproject.codec;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -40,6 +42,23 @@ public abstract class JsonCodec<T> {
         throw new UnsupportedOperationException("encode() not supported");
     }
 
+    /**
+     * Encodes the specified entity directly onto the given JSON generator.
+     * By default this writes the tree built by {@link #encode(Object, CodecContext)};
+     * codecs may override it to skip the intermediate tree altogether.
+     *
+     * @param entity    entity to encode
+     * @param generator JSON generator to write to
+     * @param context   encoding context
+     * @throws IOException if the entity could not be written
+     * @throws java.lang.UnsupportedOperationException if the codec does not
+     *                                                 support encode operations
+     */
+    public void encode(T entity, JsonGenerator generator, CodecContext context)
+            throws IOException {
+        context.mapper().writeTree(generator, encode(entity, context));
+    }
+
     /**
      * Decodes the specified entity from JSON.
      *
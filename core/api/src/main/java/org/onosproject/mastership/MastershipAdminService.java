@@ -58,4 +58,17 @@ public interface MastershipAdminService {
      */
     void balanceRoles();
 
+    /**
+     * Computes, without applying it, the set of mastership moves that
+     * {@link #balanceRoles()} would perform, along with the projected per-node
+     * load before and after the moves. The load is measured the same way the
+     * balancing does, i.e. either as weighted device load or as the number of
+     * mastered devices.
+     *
+     * @return mastership balancing plan
+     * @throws IllegalStateException if the configured balancing cannot be
+     *                               planned in advance
+     */
+    MastershipBalancingPlan planBalanceRoles();
+
 }
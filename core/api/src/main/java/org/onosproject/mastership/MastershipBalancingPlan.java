@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.mastership;
+
+import com.google.common.collect.ImmutableMap;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.net.DeviceId;
+
+import java.util.Map;
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Set of mastership moves computed by the balancing process, along with the
+ * projected per-node load before and after the moves are carried out.
+ */
+public final class MastershipBalancingPlan {
+    private final ImmutableMap<DeviceId, NodeId> moves;
+    private final ImmutableMap<NodeId, Double> loadBefore;
+    private final ImmutableMap<NodeId, Double> loadAfter;
+
+    /**
+     * Creates a new balancing plan.
+     *
+     * @param moves      devices mapped to their new master, in move order
+     * @param loadBefore per-node load prior to the moves
+     * @param loadAfter  projected per-node load after the moves
+     */
+    public MastershipBalancingPlan(Map<DeviceId, NodeId> moves,
+                                   Map<NodeId, Double> loadBefore,
+                                   Map<NodeId, Double> loadAfter) {
+        this.moves = ImmutableMap.copyOf(moves);
+        this.loadBefore = ImmutableMap.copyOf(loadBefore);
+        this.loadAfter = ImmutableMap.copyOf(loadAfter);
+    }
+
+    /**
+     * Returns the devices to be moved, mapped to their new master.
+     *
+     * @return immutable map of device moves, in move order
+     */
+    public Map<DeviceId, NodeId> moves() {
+        return moves;
+    }
+
+    /**
+     * Returns the per-node load prior to the moves.
+     *
+     * @return immutable map of node loads, either normalized by node capacity
+     *         or as the number of mastered devices
+     */
+    public Map<NodeId, Double> loadBefore() {
+        return loadBefore;
+    }
+
+    /**
+     * Returns the projected per-node load after the moves.
+     *
+     * @return immutable map of node loads, either normalized by node capacity
+     *         or as the number of mastered devices
+     */
+    public Map<NodeId, Double> loadAfter() {
+        return loadAfter;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(moves, loadBefore, loadAfter);
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (object instanceof MastershipBalancingPlan) {
+            MastershipBalancingPlan that = (MastershipBalancingPlan) object;
+            return Objects.equals(this.moves, that.moves)
+                && Objects.equals(this.loadBefore, that.loadBefore)
+                && Objects.equals(this.loadAfter, that.loadAfter);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+            .add("moves", moves)
+            .add("loadBefore", loadBefore)
+            .add("loadAfter", loadAfter)
+            .toString();
+    }
+}
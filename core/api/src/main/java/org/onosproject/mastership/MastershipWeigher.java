@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.mastership;
+
+import org.onosproject.cluster.NodeId;
+import org.onosproject.net.DeviceId;
+
+/**
+ * Abstraction of an entity capable of assessing the load a device places
+ * on its master and the capacity of controller nodes to absorb such load.
+ * Used for load-aware balancing of device mastership.
+ */
+public interface MastershipWeigher {
+
+    /**
+     * Returns the weight, i.e. the expected load, of mastering the given device.
+     *
+     * @param deviceId device identifier
+     * @return non-negative device weight
+     */
+    double weight(DeviceId deviceId);
+
+    /**
+     * Returns the relative capacity of the given controller node. Loads of
+     * nodes are compared after being divided by their capacity.
+     *
+     * @param nodeId controller node identifier
+     * @return positive node capacity; 1.0 by default
+     */
+    default double capacity(NodeId nodeId) {
+        return 1.0;
+    }
+}
@@ -20,6 +20,8 @@ import org.onosproject.core.ApplicationId;
 import org.onosproject.event.ListenerService;
 import org.onosproject.net.DeviceId;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Service for injecting flow rules into the environment and for obtaining
  * information about flow rules already in the environment. This implements
@@ -179,4 +181,17 @@ public interface FlowRuleService
     default long getActiveFlowRuleCount(DeviceId deviceId) {
         return 0;
     }
+
+    /**
+     * Returns a future completed once the flow table of the given device is
+     * active in the given mastership term, that is once the master elected
+     * in that term has synchronized the flows held by its predecessors.
+     *
+     * @param deviceId device identifier
+     * @param term     mastership term
+     * @return future completed when the flow table is active in the term
+     */
+    default CompletableFuture<Void> awaitFlowTableActive(DeviceId deviceId, long term) {
+        return CompletableFuture.completedFuture(null);
+    }
 }
@@ -21,6 +21,7 @@ import org.onosproject.net.flow.oldbatch.FlowRuleBatchOperation;
 import org.onosproject.store.Store;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Manages inventory of flow rules; not intended for direct use.
@@ -169,4 +170,17 @@ public interface FlowRuleStore extends Store<FlowRuleBatchEvent, FlowRuleStoreDe
      */
     @Deprecated
     long getActiveFlowRuleCount(DeviceId deviceId);
+
+    /**
+     * Returns a future completed once the flow table of the given device is
+     * active in the given mastership term, that is once the master elected
+     * in that term has synchronized the flows held by its predecessors.
+     *
+     * @param deviceId device identifier
+     * @param term     mastership term
+     * @return future completed when the flow table is active in the term
+     */
+    default CompletableFuture<Void> awaitFlowTableActive(DeviceId deviceId, long term) {
+        return CompletableFuture.completedFuture(null);
+    }
 }
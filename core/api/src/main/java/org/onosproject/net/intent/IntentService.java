@@ -17,9 +17,18 @@ package org.onosproject.net.intent;
 
 
 import com.google.common.annotations.Beta;
+import org.onlab.util.Tools;
+import org.onosproject.core.ApplicationId;
 import org.onosproject.event.ListenerService;
+import org.onosproject.net.NetworkResource;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
 
 /**
  * Service for application submitting or withdrawing their intents.
@@ -89,6 +98,62 @@ public interface IntentService
      */
     Iterable<IntentData> getIntentData();
 
+    /**
+     * Returns an iterable of intent data objects currently in the given state.
+     *
+     * @param state intent state
+     * @return iterable of intent data objects in the given state
+     */
+    default Iterable<IntentData> getIntentDataByState(IntentState state) {
+        return Tools.stream(getIntentData())
+                .filter(data -> data.state() == state)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns an iterable of the intents submitted by the given application.
+     *
+     * @param appId application identifier
+     * @return iterable of the application's intents
+     */
+    default Iterable<Intent> getIntentsByAppId(ApplicationId appId) {
+        return Tools.stream(getIntents())
+                .filter(intent -> Objects.equals(appId, intent.appId()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns an iterable of the intent data objects whose intent or
+     * installable intents use the given network resource.
+     *
+     * @param resource network resource, such as a link
+     * @return iterable of intent data objects using the resource
+     */
+    default Iterable<IntentData> getIntentDataByResource(NetworkResource resource) {
+        return Tools.stream(getIntentData())
+                .filter(data -> Stream.concat(Stream.of(data.intent()), data.installables().stream())
+                        .anyMatch(i -> i.resources() != null && i.resources().contains(resource)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns a page of the intents currently in the system, ordered by the
+     * fingerprint of their identifier.
+     *
+     * @param after identifier of the intent the page starts after; from the
+     *              first intent if null
+     * @param limit maximum number of intents to return
+     * @return list of at most limit intents
+     */
+    default List<Intent> getIntentsPage(IntentId after, int limit) {
+        checkArgument(limit > 0, "Limit must be positive");
+        return Tools.stream(getIntents())
+                .filter(intent -> after == null || intent.id().fingerprint() > after.fingerprint())
+                .sorted(Comparator.comparingLong(intent -> intent.id().fingerprint()))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Returns the number of intents currently in the system.
      *
@@ -16,9 +16,19 @@
 package org.onosproject.net.intent;
 
 import com.google.common.annotations.Beta;
+import org.onlab.util.Tools;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.net.NetworkResource;
 import org.onosproject.store.Store;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
 
 /**
  * Manages inventory of end-station intents; not intended for direct use.
@@ -51,6 +61,73 @@ public interface IntentStore extends Store<IntentEvent, IntentStoreDelegate> {
      */
     Iterable<IntentData> getIntentData(boolean localOnly, long olderThan);
 
+    /**
+     * Returns an iterable of the intent data objects whose current state is
+     * any of the given states. Stores maintaining a state index may evaluate
+     * the returned iterable lazily.
+     *
+     * @param states    intent states of interest
+     * @param localOnly should only intents for which this instance is master
+     *                  be returned
+     * @param olderThan specified duration in milliseconds (0 for "now")
+     * @return iterable of matching intent data objects
+     */
+    default Iterable<IntentData> getIntentDataByState(Set<IntentState> states,
+                                                      boolean localOnly, long olderThan) {
+        return Tools.stream(getIntentData(localOnly, olderThan))
+                .filter(data -> states.contains(data.state()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns an iterable of the intent data objects submitted by the given
+     * application. Stores maintaining an application index may evaluate the
+     * returned iterable lazily.
+     *
+     * @param appId application identifier
+     * @return iterable of matching intent data objects
+     */
+    default Iterable<IntentData> getIntentDataByAppId(ApplicationId appId) {
+        return Tools.stream(getIntentData(false, 0))
+                .filter(data -> Objects.equals(appId, data.intent().appId()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns an iterable of the intent data objects whose intent or
+     * installable intents use the given network resource. Stores maintaining
+     * a resource index may evaluate the returned iterable lazily.
+     *
+     * @param resource network resource, such as a link
+     * @return iterable of matching intent data objects
+     */
+    default Iterable<IntentData> getIntentDataByResource(NetworkResource resource) {
+        return Tools.stream(getIntentData(false, 0))
+                .filter(data -> Stream.concat(Stream.of(data.intent()), data.installables().stream())
+                        .anyMatch(i -> i.resources() != null && i.resources().contains(resource)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns a page of the intent data objects, ordered by the fingerprint
+     * of their intent identifier. Stores maintaining an identifier index may
+     * answer without visiting the intents outside of the page.
+     *
+     * @param after identifier of the intent the page starts after; from the
+     *              first intent if null
+     * @param limit maximum number of intent data objects to return
+     * @return list of at most limit intent data objects
+     */
+    default List<IntentData> getIntentDataPage(IntentId after, int limit) {
+        checkArgument(limit > 0, "Limit must be positive");
+        return Tools.stream(getIntentData(false, 0))
+                .filter(data -> after == null
+                        || data.intent().id().fingerprint() > after.fingerprint())
+                .sorted(Comparator.comparingLong(data -> data.intent().id().fingerprint()))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Returns the state of the specified intent.
      *
@@ -15,6 +15,7 @@
  */
 package org.onosproject.rest;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -23,11 +24,27 @@ import org.onosproject.codec.CodecContext;
 import org.onosproject.codec.CodecService;
 import org.onosproject.codec.JsonCodec;
 
+import javax.ws.rs.core.StreamingOutput;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * Abstract REST resource.
  */
 public class AbstractWebResource extends BaseResource implements CodecContext {
 
+    /**
+     * Name of the field holding the cursor of the next page of a paginated
+     * array response.
+     */
+    public static final String NEXT_CURSOR = "nextCursor";
+
     private final ObjectMapper mapper = new ObjectMapper();
 
     @Override
@@ -63,6 +80,97 @@ public class AbstractWebResource extends BaseResource implements CodecContext {
         return result;
     }
 
+    /**
+     * Returns a streaming JSON object wrapping the array encoding of the
+     * specified items. Items are encoded one at a time straight onto the
+     * response stream, so memory use does not depend on their number.
+     *
+     * @param codecClass codec item class
+     * @param field      field holding the array
+     * @param items      items to be encoded into array
+     * @param <T>        item type
+     * @return streaming JSON object
+     */
+    protected <T> StreamingOutput encodeArrayStream(Class<T> codecClass, String field,
+                                                    Iterable<T> items) {
+        return encodeArrayStream(codecClass, field, items, 0, item -> null);
+    }
+
+    /**
+     * Returns a streaming JSON object wrapping the array encoding of a page
+     * of the specified items. At most limit items are written; if more items
+     * remain, the cursor of the last item written is written into the
+     * {@value #NEXT_CURSOR} field, from which the next page starts.
+     * <p>
+     * A cursor is an opaque position in the listing order rather than a
+     * count of items, so that it stays valid when items are added or removed
+     * between two requests. The items given must hence be ordered by their
+     * cursor and start after the cursor of the requested page, as returned
+     * by {@link #itemsAfter(Iterable, Function, Comparable)}.
+     * <p>
+     * As the response status is sent before the items are encoded, an error
+     * raised while encoding them can no longer turn the response into an
+     * error response; the response is cut short instead, leaving a JSON
+     * document which is not terminated.
+     *
+     * @param codecClass codec item class
+     * @param field      field holding the array
+     * @param items      items to be encoded into array, ordered by cursor
+     * @param limit      maximum number of items to write; 0 for no limit
+     * @param cursorOf   function returning the cursor of an item
+     * @param <T>        item type
+     * @return streaming JSON object
+     */
+    protected <T> StreamingOutput encodeArrayStream(Class<T> codecClass, String field,
+                                                    Iterable<T> items, int limit,
+                                                    Function<? super T, String> cursorOf) {
+        checkArgument(limit >= 0, "Limit must not be negative");
+        JsonCodec<T> codec = codec(codecClass);
+        return output -> {
+            JsonGenerator generator = mapper.getFactory().createGenerator(output);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart(field);
+            Iterator<T> iterator = items.iterator();
+            T last = null;
+            int written = 0;
+            while ((limit == 0 || written < limit) && iterator.hasNext()) {
+                last = iterator.next();
+                codec.encode(last, generator, this);
+                written++;
+            }
+            generator.writeEndArray();
+            if (limit != 0 && last != null && iterator.hasNext()) {
+                generator.writeStringField(NEXT_CURSOR, cursorOf.apply(last));
+            }
+            generator.writeEndObject();
+            // leaves the response stream open for the container
+            generator.flush();
+        };
+    }
+
+    /**
+     * Returns the items whose key follows the given cursor, sorted by key.
+     * Listing items in key order and using the key of the last item of a
+     * page as the cursor of the next one yields pages that neither repeat
+     * nor miss items present across requests.
+     *
+     * @param items  items to be paginated
+     * @param key    function returning the key of an item
+     * @param cursor key after which the items start; null to start with the
+     *               first item
+     * @param <T>    item type
+     * @param <K>    key type
+     * @return items following the cursor, in key order
+     */
+    protected static <T, K extends Comparable<? super K>> List<T> itemsAfter(Iterable<T> items,
+                                                                          Function<? super T, K> key,
+                                                                          K cursor) {
+        return StreamSupport.stream(items.spliterator(), false)
+                .filter(item -> cursor == null || key.apply(item).compareTo(cursor) > 0)
+                .sorted(Comparator.comparing(key))
+                .collect(Collectors.toList());
+    }
+
     @Override
     public <T> T getService(Class<T> serviceClass) {
         return get(serviceClass);
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.cluster.impl;
+
+import com.codahale.metrics.Timer;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.net.DeviceId;
+import org.slf4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.BiFunction;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Pipelines mastership hand-offs, keeping at most a window of them in
+ * flight. A hand-off holds its slot until the new master has activated
+ * the device flow table, or until it times out, so that the term change,
+ * flow sync and audits of one device do not pile up with the next ones.
+ */
+final class MastershipHandoffScheduler {
+
+    private final Logger log = getLogger(getClass());
+
+    private final BiFunction<NodeId, DeviceId, CompletableFuture<Void>> handoffFunction;
+    private final ScheduledExecutorService executor;
+    private final Timer handoffTimer;
+
+    private final Queue<Handoff> pending = new ArrayDeque<>();
+    private final Set<Handoff> inFlight = Sets.newHashSet();
+    private boolean closed;
+
+    private volatile int window;
+    private volatile long timeoutMillis;
+
+    /**
+     * Creates a new hand-off scheduler.
+     *
+     * @param handoffFunction function handing the given device off to the given node, completed once the
+     *                        new master is ready; cancelled when the hand-off times out
+     * @param executor        executor used to time out hand-offs
+     * @param handoffTimer    timer tracking hand-off latency and rate; may be null
+     */
+    MastershipHandoffScheduler(BiFunction<NodeId, DeviceId, CompletableFuture<Void>> handoffFunction,
+                               ScheduledExecutorService executor, Timer handoffTimer) {
+        this.handoffFunction = handoffFunction;
+        this.executor = executor;
+        this.handoffTimer = handoffTimer;
+    }
+
+    /**
+     * Sets the maximum number of concurrent hand-offs.
+     *
+     * @param window maximum number of hand-offs in flight; 0 for no limit
+     */
+    void setWindow(int window) {
+        this.window = window;
+        drain();
+    }
+
+    /**
+     * Sets the time after which a hand-off gives up waiting for the new
+     * master and releases its slot.
+     *
+     * @param timeoutMillis timeout in milliseconds; 0 for no timeout
+     */
+    void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Queues the hand-off of the given device to the given node.
+     *
+     * @param nodeId   new master
+     * @param deviceId device identifier
+     * @return future completed when the hand-off is done
+     */
+    CompletableFuture<Void> submit(NodeId nodeId, DeviceId deviceId) {
+        Handoff handoff = new Handoff(nodeId, deviceId);
+        synchronized (this) {
+            if (closed) {
+                handoff.future.cancel(false);
+                return handoff.future;
+            }
+            pending.add(handoff);
+        }
+        drain();
+        return handoff.future;
+    }
+
+    /**
+     * Cancels all queued and in-flight hand-offs; later submissions are
+     * cancelled right away.
+     */
+    void shutdown() {
+        List<Handoff> cancelled = Lists.newArrayList();
+        synchronized (this) {
+            closed = true;
+            cancelled.addAll(pending);
+            cancelled.addAll(inFlight);
+            pending.clear();
+            inFlight.clear();
+        }
+        cancelled.forEach(Handoff::cancel);
+    }
+
+    /**
+     * Returns the number of hand-offs waiting for a slot.
+     *
+     * @return number of queued hand-offs
+     */
+    synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Returns the number of slots currently in use.
+     *
+     * @return number of hand-offs in flight
+     */
+    synchronized int inFlightCount() {
+        return inFlight.size();
+    }
+
+    // Starts as many queued hand-offs as the window allows.
+    private void drain() {
+        List<Handoff> ready = Lists.newArrayList();
+        synchronized (this) {
+            while (!pending.isEmpty() && (window <= 0 || inFlight.size() < window)) {
+                Handoff handoff = pending.remove();
+                inFlight.add(handoff);
+                ready.add(handoff);
+            }
+        }
+        ready.forEach(this::start);
+    }
+
+    private void start(Handoff handoff) {
+        Timer.Context context = startTimer(handoffTimer);
+        handoff.operation = handoffFunction.apply(handoff.nodeId, handoff.deviceId);
+        long timeout = timeoutMillis;
+        if (timeout > 0 && !handoff.operation.isDone()) {
+            handoff.timeout = executor.schedule(() -> expire(handoff, timeout), timeout, MILLISECONDS);
+        }
+        handoff.operation.whenComplete((r, e) -> {
+            if (e != null) {
+                if (handoff.future.completeExceptionally(e)) {
+                    log.warn("Failed to hand off {} to {}", handoff.deviceId, handoff.nodeId, e);
+                    release(handoff);
+                }
+            } else if (handoff.future.complete(null)) {
+                stopTimer(context);
+                release(handoff);
+                log.debug("Handed off {} to {}; {} in flight, {} queued",
+                          handoff.deviceId, handoff.nodeId, inFlightCount(), pendingCount());
+            }
+        });
+    }
+
+    private void expire(Handoff handoff, long timeout) {
+        if (handoff.future.complete(null)) {
+            log.warn("{} did not activate the flow table of {} within {} ms; releasing its slot",
+                     handoff.nodeId, handoff.deviceId, timeout);
+            handoff.operation.cancel(false);
+            release(handoff);
+        }
+    }
+
+    private void release(Handoff handoff) {
+        if (handoff.timeout != null) {
+            handoff.timeout.cancel(false);
+        }
+        synchronized (this) {
+            inFlight.remove(handoff);
+        }
+        drain();
+    }
+
+    private static final class Handoff {
+        private final NodeId nodeId;
+        private final DeviceId deviceId;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private volatile CompletableFuture<Void> operation;
+        private volatile ScheduledFuture<?> timeout;
+
+        private Handoff(NodeId nodeId, DeviceId deviceId) {
+            this.nodeId = nodeId;
+            this.deviceId = deviceId;
+        }
+
+        private void cancel() {
+            future.cancel(false);
+            if (operation != null) {
+                operation.cancel(false);
+            }
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+        }
+    }
+}
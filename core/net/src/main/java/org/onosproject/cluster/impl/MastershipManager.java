@@ -30,6 +30,7 @@ import org.onosproject.cluster.RoleInfo;
 import org.onosproject.core.MetricsHelper;
 import org.onosproject.event.AbstractListenerManager;
 import org.onosproject.mastership.MastershipAdminService;
+import org.onosproject.mastership.MastershipBalancingPlan;
 import org.onosproject.mastership.MastershipEvent;
 import org.onosproject.mastership.MastershipInfo;
 import org.onosproject.mastership.MastershipListener;
@@ -38,8 +39,11 @@ import org.onosproject.mastership.MastershipStore;
 import org.onosproject.mastership.MastershipStoreDelegate;
 import org.onosproject.mastership.MastershipTerm;
 import org.onosproject.mastership.MastershipTermService;
+import org.onosproject.mastership.MastershipWeigher;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.MastershipRole;
+import org.onosproject.net.device.DeviceService;
+import org.onosproject.net.flow.FlowRuleService;
 import org.onosproject.net.region.Region;
 import org.onosproject.net.region.RegionService;
 import org.onosproject.upgrade.UpgradeEvent;
@@ -51,6 +55,7 @@ import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.slf4j.Logger;
 
 import java.util.ArrayList;
@@ -60,14 +65,20 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BiFunction;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Lists.newArrayList;
 import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static org.onlab.util.Tools.groupedThreads;
 import static org.onlab.metrics.MetricsUtil.startTimer;
 import static org.onlab.metrics.MetricsUtil.stopTimer;
 import static org.onosproject.net.MastershipRole.MASTER;
@@ -91,7 +102,12 @@ import static org.onosproject.net.OsgiPropertyConstants.*;
         },
         property = {
                 USE_REGION_FOR_BALANCE_ROLES + ":Boolean=" + USE_REGION_FOR_BALANCE_ROLES_DEFAULT,
-                REBALANCE_ROLES_ON_UPGRADE + ":Boolean=" + REBALANCE_ROLES_ON_UPGRADE_DEFAULT
+                REBALANCE_ROLES_ON_UPGRADE + ":Boolean=" + REBALANCE_ROLES_ON_UPGRADE_DEFAULT,
+                USE_LOAD_FOR_BALANCE_ROLES + ":Boolean=" + USE_LOAD_FOR_BALANCE_ROLES_DEFAULT,
+                BALANCE_ROLES_MAX_MOVES + ":Integer=" + BALANCE_ROLES_MAX_MOVES_DEFAULT,
+                BALANCE_ROLES_LOAD_THRESHOLD + ":Integer=" + BALANCE_ROLES_LOAD_THRESHOLD_DEFAULT,
+                BALANCE_ROLES_HANDOFF_WINDOW + ":Integer=" + BALANCE_ROLES_HANDOFF_WINDOW_DEFAULT,
+                BALANCE_ROLES_HANDOFF_TIMEOUT + ":Integer=" + BALANCE_ROLES_HANDOFF_TIMEOUT_DEFAULT
         }
 )
 public class MastershipManager
@@ -126,8 +142,22 @@ public class MastershipManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected UpgradeService upgradeService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL,
+               policy = ReferencePolicy.DYNAMIC)
+    protected volatile MastershipWeigher weigher;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL,
+               policy = ReferencePolicy.DYNAMIC)
+    protected volatile FlowRuleService flowRuleService;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL,
+               policy = ReferencePolicy.DYNAMIC)
+    protected volatile DeviceService deviceService;
+
     private NodeId localNodeId;
     private Timer requestRoleTimer;
+    private ScheduledExecutorService handoffExecutor;
+    private MastershipHandoffScheduler handoffScheduler;
 
     /** Use Regions for balancing roles. */
     protected boolean useRegionForBalanceRoles = USE_REGION_FOR_BALANCE_ROLES_DEFAULT;
@@ -135,8 +165,27 @@ public class MastershipManager
     /** Automatically rebalance roles following an upgrade. */
     protected boolean rebalanceRolesOnUpgrade = REBALANCE_ROLES_ON_UPGRADE_DEFAULT;
 
+    /** Use device load rather than device count for balancing roles. */
+    protected boolean useLoadForBalanceRoles = USE_LOAD_FOR_BALANCE_ROLES_DEFAULT;
+
+    /** Maximum number of devices moved by a load-aware balancing; 0 for no limit. */
+    protected int balanceRolesMaxMoves = BALANCE_ROLES_MAX_MOVES_DEFAULT;
+
+    /** Load spread, in percent of the average node load, tolerated by load-aware balancing. */
+    protected int balanceRolesLoadThreshold = BALANCE_ROLES_LOAD_THRESHOLD_DEFAULT;
+
+    /** Maximum number of concurrent mastership hand-offs while balancing roles; 0 for no limit. */
+    protected int balanceRolesHandoffWindow = BALANCE_ROLES_HANDOFF_WINDOW_DEFAULT;
+
+    /** Time in millis a hand-off waits for the new master to activate the device flow table; 0 for no limit. */
+    protected int balanceRolesHandoffTimeoutMillis = BALANCE_ROLES_HANDOFF_TIMEOUT_DEFAULT;
+
     @Activate
     public void activate() {
+        handoffExecutor = newSingleThreadScheduledExecutor(groupedThreads("onos/mastership", "handoff", log));
+        handoffScheduler = new MastershipHandoffScheduler(this::transferMastership,
+                                                          handoffExecutor,
+                                                          createTimer("Mastership", "balanceRoles", "handoff"));
         cfgService.registerProperties(getClass());
         modified();
 
@@ -157,9 +206,21 @@ public class MastershipManager
                     useRegionForBalanceRoles = property.asBoolean();
                 } else if (REBALANCE_ROLES_ON_UPGRADE.equals(property.name())) {
                     rebalanceRolesOnUpgrade = property.asBoolean();
+                } else if (USE_LOAD_FOR_BALANCE_ROLES.equals(property.name())) {
+                    useLoadForBalanceRoles = property.asBoolean();
+                } else if (BALANCE_ROLES_MAX_MOVES.equals(property.name())) {
+                    balanceRolesMaxMoves = property.asInteger();
+                } else if (BALANCE_ROLES_LOAD_THRESHOLD.equals(property.name())) {
+                    balanceRolesLoadThreshold = property.asInteger();
+                } else if (BALANCE_ROLES_HANDOFF_WINDOW.equals(property.name())) {
+                    balanceRolesHandoffWindow = property.asInteger();
+                } else if (BALANCE_ROLES_HANDOFF_TIMEOUT.equals(property.name())) {
+                    balanceRolesHandoffTimeoutMillis = property.asInteger();
                 }
             }
         }
+        handoffScheduler.setTimeoutMillis(balanceRolesHandoffTimeoutMillis);
+        handoffScheduler.setWindow(balanceRolesHandoffWindow);
     }
 
     @Deactivate
@@ -167,6 +228,8 @@ public class MastershipManager
         eventDispatcher.removeSink(MastershipEvent.class);
         upgradeService.removeListener(upgradeEventListener);
         store.unsetDelegate(delegate);
+        handoffScheduler.shutdown();
+        handoffExecutor.shutdown();
         log.info("Stopped");
         cfgService.unregisterProperties(getClass(), false);
     }
@@ -268,9 +331,76 @@ public class MastershipManager
 
     @Override
     public void balanceRoles() {
-        List<ControllerNode> nodes = newArrayList(clusterService.getNodes());
         Map<ControllerNode, Set<DeviceId>> controllerDevices = new HashMap<>();
         Set<DeviceId> orphanedDevices = Sets.newHashSet();
+        int deviceCount = collectDevices(controllerDevices, orphanedDevices);
+
+        if (useRegionForBalanceRoles && balanceRolesUsingRegions(controllerDevices)) {
+            return;
+        }
+
+        if (useLoadForBalanceRoles) {
+            balanceRolesUsingLoad(controllerDevices, orphanedDevices);
+            return;
+        }
+
+        List<CompletableFuture<Void>> balanceBucketsFutures = Lists.newLinkedList();
+
+        // First re-balance the buckets until they are roughly even.
+        balanceControllerNodes(controllerDevices, deviceCount, balanceBucketsFutures, this::handoff);
+
+        // Then attempt to distribute any orphaned devices among the buckets.
+        distributeOrphanedDevices(controllerDevices, orphanedDevices, balanceBucketsFutures, this::handoff);
+
+        CompletableFuture<Void> balanceRolesFuture =
+                allOf(balanceBucketsFutures.toArray(new CompletableFuture[balanceBucketsFutures.size()]));
+
+        Futures.getUnchecked(balanceRolesFuture);
+    }
+
+    @Override
+    public MastershipBalancingPlan planBalanceRoles() {
+        checkPermission(CLUSTER_READ);
+        Map<ControllerNode, Set<DeviceId>> controllerDevices = new HashMap<>();
+        Set<DeviceId> orphanedDevices = Sets.newHashSet();
+        int deviceCount = collectDevices(controllerDevices, orphanedDevices);
+
+        // Region balancing reads back the outcome of each region's moves,
+        // so it cannot be planned without carrying them out.
+        checkState(!useRegionForBalanceRoles || regionService.getRegions().isEmpty(),
+                   "Region-based balancing cannot be planned in advance");
+
+        if (useLoadForBalanceRoles) {
+            Map<NodeId, Set<DeviceId>> nodeDevices = new HashMap<>();
+            controllerDevices.forEach((node, devices) -> nodeDevices.put(node.id(), devices));
+            return weightedBalancer().plan(nodeDevices, orphanedDevices);
+        }
+
+        // Replay the count-based balancing, recording the moves instead of
+        // carrying them out; the load is the number of mastered devices.
+        Map<NodeId, Double> loadBefore = deviceCounts(controllerDevices);
+        Map<DeviceId, NodeId> moves = new LinkedHashMap<>();
+        BiFunction<NodeId, DeviceId, CompletableFuture<Void>> recorder = (nodeId, deviceId) -> {
+            moves.put(deviceId, nodeId);
+            return CompletableFuture.completedFuture(null);
+        };
+        List<CompletableFuture<Void>> futures = Lists.newLinkedList();
+        balanceControllerNodes(controllerDevices, deviceCount, futures, recorder);
+        distributeOrphanedDevices(controllerDevices, orphanedDevices, futures, recorder);
+        return new MastershipBalancingPlan(moves, loadBefore, deviceCounts(controllerDevices));
+    }
+
+    /**
+     * Fills the given buckets with the devices mastered by each active node
+     * and collects the devices mastered by inactive nodes as orphaned.
+     *
+     * @param controllerDevices controller nodes to devices map to fill
+     * @param orphanedDevices   set of orphaned devices to fill
+     * @return number of devices mastered by active nodes
+     */
+    private int collectDevices(Map<ControllerNode, Set<DeviceId>> controllerDevices,
+                               Set<DeviceId> orphanedDevices) {
+        List<ControllerNode> nodes = newArrayList(clusterService.getNodes());
         int deviceCount = 0;
 
         // Create buckets reflecting current ownership; do this irrespective of
@@ -283,26 +413,135 @@ public class MastershipManager
                 controllerDevices.put(node, devicesOf);
             } else if (!devicesOf.isEmpty()) {
                 log.warn("Inactive node {} has {} orphaned devices.", node.id(), devicesOf.size());
-                orphanedDevices.addAll(getDevicesOf(node.id()));
+                orphanedDevices.addAll(devicesOf);
             }
         }
+        return deviceCount;
+    }
 
-        if (useRegionForBalanceRoles && balanceRolesUsingRegions(controllerDevices)) {
-            return;
-        }
+    // Produces the number of devices in each bucket.
+    private Map<NodeId, Double> deviceCounts(Map<ControllerNode, Set<DeviceId>> controllerDevices) {
+        Map<NodeId, Double> counts = new HashMap<>();
+        controllerDevices.forEach((node, devices) -> counts.put(node.id(), (double) devices.size()));
+        return counts;
+    }
 
-        List<CompletableFuture<Void>> balanceBucketsFutures = Lists.newLinkedList();
+    /**
+     * Balances the nodes specified in controllerDevices according to the
+     * load of their devices, also distributing the orphaned devices.
+     *
+     * @param controllerDevices controller nodes to devices map
+     * @param orphanedDevices   set of orphaned devices without an active master
+     */
+    private void balanceRolesUsingLoad(Map<ControllerNode, Set<DeviceId>> controllerDevices,
+                                       Set<DeviceId> orphanedDevices) {
+        Map<NodeId, Set<DeviceId>> nodeDevices = new HashMap<>();
+        controllerDevices.forEach((node, devices) -> nodeDevices.put(node.id(), devices));
+        MastershipBalancingPlan plan = weightedBalancer().plan(nodeDevices, orphanedDevices);
+        log.info("Moving {} devices; projected load {} -> {}",
+                 plan.moves().size(), plan.loadBefore(), plan.loadAfter());
 
-        // First re-balance the buckets until they are roughly even.
-        balanceControllerNodes(controllerDevices, deviceCount, balanceBucketsFutures);
+        List<CompletableFuture<Void>> setRoleFutures = Lists.newLinkedList();
+        plan.moves().forEach((deviceId, nodeId) -> setRoleFutures.add(handoff(nodeId, deviceId)));
 
-        // Then attempt to distribute any orphaned devices among the buckets.
-        distributeOrphanedDevices(controllerDevices, orphanedDevices, balanceBucketsFutures);
+        awaitHandoffs(setRoleFutures);
+    }
 
-        CompletableFuture<Void> balanceRolesFuture =
-                allOf(balanceBucketsFutures.toArray(new CompletableFuture[balanceBucketsFutures.size()]));
+    /**
+     * Queues the hand-off of the given device to the given node, so that
+     * only a bounded number of hand-offs run concurrently.
+     *
+     * @param nodeId   new master
+     * @param deviceId device identifier
+     * @return future that is completed when the role is set
+     */
+    private CompletableFuture<Void> handoff(NodeId nodeId, DeviceId deviceId) {
+        log.info("Setting {} as the master for {}", nodeId, deviceId);
+        return handoffScheduler.submit(nodeId, deviceId);
+    }
 
-        Futures.getUnchecked(balanceRolesFuture);
+    /**
+     * Makes the given node the master of the given device and waits for it
+     * to activate the device flow table in its new term.
+     *
+     * @param nodeId   new master
+     * @param deviceId device identifier
+     * @return future completed once the flow table is active; cancelling it stops the wait
+     */
+    private CompletableFuture<Void> transferMastership(NodeId nodeId, DeviceId deviceId) {
+        CompletableFuture<Void> transfer = new CompletableFuture<>();
+        CompletableFuture<Long> mastered = awaitMaster(nodeId, deviceId);
+        transfer.whenComplete((r, e) -> mastered.cancel(false));
+        setRole(nodeId, deviceId, MASTER)
+                .thenCompose(v -> mastered)
+                .thenCompose(term -> {
+                    FlowRuleService service = flowRuleService;
+                    if (service == null) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    CompletableFuture<Void> active = service.awaitFlowTableActive(deviceId, term);
+                    transfer.whenComplete((r, e) -> active.cancel(false));
+                    return active;
+                })
+                .whenComplete((r, e) -> {
+                    if (e != null) {
+                        transfer.completeExceptionally(e);
+                    } else {
+                        transfer.complete(null);
+                    }
+                });
+        return transfer;
+    }
+
+    /**
+     * Returns a future completed with the term in which the given node
+     * becomes the master of the given device.
+     *
+     * @param nodeId   node identifier
+     * @param deviceId device identifier
+     * @return future completed with the mastership term
+     */
+    private CompletableFuture<Long> awaitMaster(NodeId nodeId, DeviceId deviceId) {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        MastershipListener listener = event -> {
+            if (event.type() == MastershipEvent.Type.MASTER_CHANGED && event.subject().equals(deviceId)
+                    && nodeId.equals(event.mastershipInfo().master().orElse(null))) {
+                future.complete(event.mastershipInfo().term());
+            }
+        };
+        addListener(listener);
+        future.whenComplete((r, e) -> removeListener(listener));
+        MastershipTerm term = store.getTermFor(deviceId);
+        if (term != null && nodeId.equals(term.master())) {
+            future.complete(term.termNumber());
+        }
+        return future;
+    }
+
+    /**
+     * Waits for the given hand-offs to complete and reports the throughput.
+     *
+     * @param futures hand-off futures
+     */
+    private void awaitHandoffs(List<CompletableFuture<Void>> futures) {
+        long start = System.currentTimeMillis();
+        Futures.getUnchecked(allOf(futures.toArray(new CompletableFuture[futures.size()])));
+        long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+        if (!futures.isEmpty()) {
+            log.info("Completed {} mastership hand-offs in {} ms ({} hand-offs/s)",
+                     futures.size(), elapsed, futures.size() * 1000 / elapsed);
+        }
+    }
+
+    // Produces a balancer using the registered weigher, if any, and the
+    // device statistics otherwise.
+    private WeightedRoleBalancer weightedBalancer() {
+        MastershipWeigher activeWeigher = weigher;
+        if (activeWeigher == null) {
+            activeWeigher = new StatisticsMastershipWeigher(flowRuleService, deviceService);
+        }
+        return new WeightedRoleBalancer(activeWeigher, balanceRolesMaxMoves,
+                                        balanceRolesLoadThreshold / 100.0);
     }
 
     /**
@@ -311,17 +550,19 @@ public class MastershipManager
      * @param controllerDevices controller nodes to devices map
      * @param deviceCount       number of devices mastered by controller nodes
      * @param futures           list of setRole futures for "moved" devices
+     * @param mover             function handing a device off to its new master
      */
     private void balanceControllerNodes(Map<ControllerNode, Set<DeviceId>> controllerDevices,
                                         int deviceCount,
-                                        List<CompletableFuture<Void>> futures) {
+                                        List<CompletableFuture<Void>> futures,
+                                        BiFunction<NodeId, DeviceId, CompletableFuture<Void>> mover) {
         // Now re-balance the buckets until they are roughly even.
         int rounds = controllerDevices.keySet().size();
         for (int i = 0; i < rounds; i++) {
             // Iterate over the buckets and find the smallest and the largest.
             ControllerNode smallest = findBucket(true, controllerDevices);
             ControllerNode largest = findBucket(false, controllerDevices);
-            futures.add(balanceBuckets(smallest, largest, controllerDevices, deviceCount));
+            futures.add(balanceBuckets(smallest, largest, controllerDevices, deviceCount, mover));
         }
     }
 
@@ -331,16 +572,18 @@ public class MastershipManager
      * @param controllerDevices controller nodes to devices map
      * @param orphanedDevices   set of orphaned devices without an active master
      * @param futures           list of completable future to track the progress of the balancing operation
+     * @param mover             function handing a device off to its new master
      */
     private void distributeOrphanedDevices(Map<ControllerNode, Set<DeviceId>> controllerDevices,
                                            Set<DeviceId> orphanedDevices,
-                                           List<CompletableFuture<Void>> futures) {
+                                           List<CompletableFuture<Void>> futures,
+                                           BiFunction<NodeId, DeviceId, CompletableFuture<Void>> mover) {
         // Now re-distribute the orphaned devices into buckets until they are roughly even.
         while (!orphanedDevices.isEmpty()) {
             // Iterate over the buckets and find the smallest bucket.
             ControllerNode smallest = findBucket(true, controllerDevices);
             changeMastership(smallest, controllerDevices.get(smallest),
-                             orphanedDevices, 1, futures);
+                             orphanedDevices, 1, futures, mover);
         }
     }
 
@@ -373,11 +616,13 @@ public class MastershipManager
      * @param largest           node that is master of the largest number of devices
      * @param controllerDevices controller nodes to devices map
      * @param deviceCount       number of devices mastered by controller nodes
+     * @param mover             function handing a device off to its new master
      * @return list of setRole futures for "moved" devices
      */
     private CompletableFuture<Void> balanceBuckets(ControllerNode smallest, ControllerNode largest,
                                                    Map<ControllerNode, Set<DeviceId>> controllerDevices,
-                                                   int deviceCount) {
+                                                   int deviceCount,
+                                                   BiFunction<NodeId, DeviceId, CompletableFuture<Void>> mover) {
         Collection<DeviceId> minBucket = controllerDevices.get(smallest);
         Collection<DeviceId> maxBucket = controllerDevices.get(largest);
         int bucketCount = controllerDevices.keySet().size();
@@ -390,7 +635,7 @@ public class MastershipManager
         if (delta > 0) {
             log.info("Attempting to move {} nodes from {} to {}...", delta,
                      largest.id(), smallest.id());
-            changeMastership(smallest, minBucket, maxBucket, delta, setRoleFutures);
+            changeMastership(smallest, minBucket, maxBucket, delta, setRoleFutures, mover);
         }
 
         return allOf(setRoleFutures.toArray(new CompletableFuture[setRoleFutures.size()]));
@@ -406,16 +651,17 @@ public class MastershipManager
      * @param fromBucket source bucket
      * @param count      number of devices
      * @param futures    futures for tracking operation progress
+     * @param mover      function handing a device off to its new master
      */
     private void changeMastership(ControllerNode toNode, Collection<DeviceId> toBucket,
                                   Collection<DeviceId> fromBucket, int count,
-                                  List<CompletableFuture<Void>> futures) {
+                                  List<CompletableFuture<Void>> futures,
+                                  BiFunction<NodeId, DeviceId, CompletableFuture<Void>> mover) {
         int i = 0;
         Iterator<DeviceId> it = fromBucket.iterator();
         while (it.hasNext() && i < count) {
             DeviceId deviceId = it.next();
-            log.info("Setting {} as the master for {}", toNode.id(), deviceId);
-            futures.add(setRole(toNode.id(), deviceId, MASTER));
+            futures.add(mover.apply(toNode.id(), deviceId));
             toBucket.add(deviceId);
             it.remove();
             i++;
@@ -453,7 +699,8 @@ public class MastershipManager
             }
             // Now re-balance the buckets until they are roughly even.
             List<CompletableFuture<Void>> balanceBucketsFutures = Lists.newArrayList();
-            balanceControllerNodes(controllerDevicesNotInRegions, deviceCount, balanceBucketsFutures);
+            balanceControllerNodes(controllerDevicesNotInRegions, deviceCount, balanceBucketsFutures,
+                                   this::handoff);
 
             CompletableFuture<Void> balanceRolesFuture = allOf(
                     balanceBucketsFutures.toArray(new CompletableFuture[balanceBucketsFutures.size()]));
@@ -495,7 +742,8 @@ public class MastershipManager
 
         // Now re-balance the buckets until they are roughly even.
         List<CompletableFuture<Void>> balanceBucketsFutures = Lists.newArrayList();
-        balanceControllerNodes(regionalControllerDevices, devicesInMasters.size(), balanceBucketsFutures);
+        balanceControllerNodes(regionalControllerDevices, devicesInMasters.size(), balanceBucketsFutures,
+                               this::handoff);
 
         // Handle devices that are not currently mastered by the master node set
         Set<DeviceId> devicesNotMasteredWithControllers = Sets.difference(devicesInRegion, devicesInMasters);
@@ -507,7 +755,7 @@ public class MastershipManager
             int deviceIndex = 0;
             for (DeviceId deviceId : devicesNotMasteredWithControllers) {
                 ControllerNode cnode = sorted.get(deviceIndex % sorted.size());
-                balanceBucketsFutures.add(setRole(cnode.id(), deviceId, MASTER));
+                balanceBucketsFutures.add(handoff(cnode.id(), deviceId));
                 regionalControllerDevices.get(cnode).add(deviceId);
                 deviceIndex++;
             }
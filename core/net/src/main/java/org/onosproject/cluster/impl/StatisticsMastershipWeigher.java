@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.cluster.impl;
+
+import org.onosproject.mastership.MastershipWeigher;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.device.DeviceService;
+import org.onosproject.net.flow.FlowRuleService;
+
+/**
+ * Mastership weigher deriving the load of a device from the number of flow
+ * rules it holds and the number of ports whose statistics get polled.
+ * Services which are not available do not contribute to the weight.
+ */
+final class StatisticsMastershipWeigher implements MastershipWeigher {
+
+    private static final double DEVICE_WEIGHT = 1.0;
+    private static final double FLOW_WEIGHT = 0.01;
+    private static final double PORT_WEIGHT = 0.1;
+
+    private final FlowRuleService flowRuleService;
+    private final DeviceService deviceService;
+
+    /**
+     * Creates a new weigher backed by the given services.
+     *
+     * @param flowRuleService flow rule service; may be null
+     * @param deviceService   device service; may be null
+     */
+    StatisticsMastershipWeigher(FlowRuleService flowRuleService, DeviceService deviceService) {
+        this.flowRuleService = flowRuleService;
+        this.deviceService = deviceService;
+    }
+
+    @Override
+    public double weight(DeviceId deviceId) {
+        double weight = DEVICE_WEIGHT;
+        if (flowRuleService != null) {
+            weight += FLOW_WEIGHT * flowRuleService.getFlowRuleCount(deviceId);
+        }
+        if (deviceService != null) {
+            weight += PORT_WEIGHT * deviceService.getPorts(deviceId).size();
+        }
+        return weight;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.cluster.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.mastership.MastershipBalancingPlan;
+import org.onosproject.mastership.MastershipWeigher;
+import org.onosproject.net.DeviceId;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes mastership moves that even out the weighted load of controller
+ * nodes. Moves are only planned while the spread between the most and the
+ * least loaded node exceeds a threshold, and their number is bounded.
+ */
+final class WeightedRoleBalancer {
+
+    private static final double MIN_CAPACITY = 0.001;
+
+    private final MastershipWeigher weigher;
+    private final int maxMoves;
+    private final double threshold;
+
+    /**
+     * Creates a new balancer.
+     *
+     * @param weigher   device weight and node capacity model
+     * @param maxMoves  maximum number of devices to move; 0 for no limit
+     * @param threshold tolerated load spread, as a fraction of the average
+     *                  node load
+     */
+    WeightedRoleBalancer(MastershipWeigher weigher, int maxMoves, double threshold) {
+        this.weigher = weigher;
+        this.maxMoves = maxMoves;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Plans the moves balancing the given node buckets. Orphaned devices
+     * are always placed, heaviest first, on the least loaded nodes and do
+     * not count towards the move limit.
+     *
+     * @param nodeDevices     active nodes mapped to the devices they master
+     * @param orphanedDevices devices without an active master
+     * @return balancing plan
+     */
+    MastershipBalancingPlan plan(Map<NodeId, Set<DeviceId>> nodeDevices,
+                                 Set<DeviceId> orphanedDevices) {
+        Map<DeviceId, Double> weights = Maps.newHashMap();
+        Map<DeviceId, NodeId> owners = Maps.newHashMap();
+        Map<NodeId, List<DeviceId>> buckets = Maps.newTreeMap(Comparator.comparing(NodeId::id));
+        Map<NodeId, Double> capacities = Maps.newHashMap();
+        Map<NodeId, Double> loads = Maps.newHashMap();
+
+        nodeDevices.forEach((node, devices) -> {
+            capacities.put(node, Math.max(weigher.capacity(node), MIN_CAPACITY));
+            double load = 0;
+            for (DeviceId deviceId : devices) {
+                load += weights.computeIfAbsent(deviceId, this::weight);
+                owners.put(deviceId, node);
+            }
+            loads.put(node, load);
+            buckets.put(node, Lists.newArrayList(devices));
+        });
+
+        Map<NodeId, Double> loadBefore = normalize(loads, capacities);
+        Map<DeviceId, NodeId> moves = Maps.newLinkedHashMap();
+        if (buckets.isEmpty()) {
+            return new MastershipBalancingPlan(moves, loadBefore, loadBefore);
+        }
+
+        // Place the orphans first, heaviest to lightest.
+        List<DeviceId> orphans = Lists.newArrayList(orphanedDevices);
+        orphans.forEach(d -> weights.computeIfAbsent(d, this::weight));
+        orphans.sort(Comparator.comparing(weights::get).reversed());
+        for (DeviceId deviceId : orphans) {
+            NodeId node = findBucket(true, buckets.keySet(), loads, capacities);
+            buckets.get(node).add(deviceId);
+            loads.merge(node, weights.get(deviceId), Double::sum);
+            moves.put(deviceId, node);
+        }
+
+        // Then move devices from the most to the least loaded node, one at a time.
+        int limit = maxMoves > 0 ? maxMoves : weights.size();
+        int moved = 0;
+        while (moved < limit) {
+            NodeId largest = findBucket(false, buckets.keySet(), loads, capacities);
+            NodeId smallest = findBucket(true, buckets.keySet(), loads, capacities);
+            double spread = load(largest, loads, capacities) - load(smallest, loads, capacities);
+            if (largest.equals(smallest) || spread <= 0 ||
+                    spread <= threshold * averageLoad(loads, capacities)) {
+                break;
+            }
+
+            // Weight which, once moved, would equalize the two nodes; any
+            // device lighter than twice that amount reduces the spread.
+            double target = spread / (1 / capacities.get(largest) + 1 / capacities.get(smallest));
+            DeviceId candidate = null;
+            double bestDistance = Double.MAX_VALUE;
+            for (DeviceId deviceId : buckets.get(largest)) {
+                double weight = weights.get(deviceId);
+                double distance = Math.abs(weight - target);
+                if (weight > 0 && weight < 2 * target && distance < bestDistance) {
+                    candidate = deviceId;
+                    bestDistance = distance;
+                }
+            }
+            if (candidate == null) {
+                break;
+            }
+
+            double weight = weights.get(candidate);
+            buckets.get(largest).remove(candidate);
+            buckets.get(smallest).add(candidate);
+            loads.merge(largest, -weight, Double::sum);
+            loads.merge(smallest, weight, Double::sum);
+            if (smallest.equals(owners.get(candidate))) {
+                moves.remove(candidate);
+            } else {
+                moves.put(candidate, smallest);
+            }
+            moved++;
+        }
+
+        return new MastershipBalancingPlan(moves, loadBefore, normalize(loads, capacities));
+    }
+
+    private double weight(DeviceId deviceId) {
+        return Math.max(weigher.weight(deviceId), 0);
+    }
+
+    // Finds the node with the minimum/maximum load relative to its capacity.
+    private static NodeId findBucket(boolean min, Set<NodeId> nodes,
+                                     Map<NodeId, Double> loads, Map<NodeId, Double> capacities) {
+        NodeId xNode = null;
+        double xLoad = min ? Double.MAX_VALUE : -1;
+        for (NodeId node : nodes) {
+            double load = load(node, loads, capacities);
+            if ((min && load < xLoad) || (!min && load > xLoad)) {
+                xLoad = load;
+                xNode = node;
+            }
+        }
+        return xNode;
+    }
+
+    private static double load(NodeId node, Map<NodeId, Double> loads, Map<NodeId, Double> capacities) {
+        return loads.get(node) / capacities.get(node);
+    }
+
+    private static double averageLoad(Map<NodeId, Double> loads, Map<NodeId, Double> capacities) {
+        return loads.keySet().stream()
+                .mapToDouble(node -> load(node, loads, capacities))
+                .average().orElse(0);
+    }
+
+    private static Map<NodeId, Double> normalize(Map<NodeId, Double> loads,
+                                                 Map<NodeId, Double> capacities) {
+        Map<NodeId, Double> normalized = Maps.newHashMap();
+        loads.keySet().forEach(node -> normalized.put(node, load(node, loads, capacities)));
+        return normalized;
+    }
+}
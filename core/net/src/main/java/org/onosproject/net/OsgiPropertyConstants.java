@@ -26,6 +26,21 @@ public final class OsgiPropertyConstants {
     public static final String REBALANCE_ROLES_ON_UPGRADE = "rebalanceRolesOnUpgrade";
     public static final boolean REBALANCE_ROLES_ON_UPGRADE_DEFAULT = true;
 
+    public static final String USE_LOAD_FOR_BALANCE_ROLES = "useLoadForBalanceRoles";
+    public static final boolean USE_LOAD_FOR_BALANCE_ROLES_DEFAULT = false;
+
+    public static final String BALANCE_ROLES_MAX_MOVES = "balanceRolesMaxMoves";
+    public static final int BALANCE_ROLES_MAX_MOVES_DEFAULT = 0;
+
+    public static final String BALANCE_ROLES_LOAD_THRESHOLD = "balanceRolesLoadThreshold";
+    public static final int BALANCE_ROLES_LOAD_THRESHOLD_DEFAULT = 10;
+
+    public static final String BALANCE_ROLES_HANDOFF_WINDOW = "balanceRolesHandoffWindow";
+    public static final int BALANCE_ROLES_HANDOFF_WINDOW_DEFAULT = 0;
+
+    public static final String BALANCE_ROLES_HANDOFF_TIMEOUT = "balanceRolesHandoffTimeoutMillis";
+    public static final int BALANCE_ROLES_HANDOFF_TIMEOUT_DEFAULT = 30000;
+
     public static final String SHARED_THREAD_POOL_SIZE = "sharedThreadPoolSize";
     public static final int SHARED_THREAD_POOL_SIZE_DEFAULT = 30;
 
@@ -15,34 +15,49 @@
  */
 package org.onosproject.net.driver.impl;
 
+import com.codahale.metrics.Gauge;
+import com.google.common.collect.Maps;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.ItemNotFoundException;
 import org.onosproject.net.AbstractProjectableModel;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
+import org.onosproject.net.config.NetworkConfigEvent;
+import org.onosproject.net.config.NetworkConfigListener;
 import org.onosproject.net.config.NetworkConfigService;
 import org.onosproject.net.config.basics.BasicDeviceConfig;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.device.DeviceListener;
 import org.onosproject.net.device.DeviceService;
 import org.onosproject.net.driver.Behaviour;
 import org.onosproject.net.driver.DefaultDriverData;
 import org.onosproject.net.driver.DefaultDriverHandler;
 import org.onosproject.net.driver.Driver;
+import org.onosproject.net.driver.DriverEvent;
 import org.onosproject.net.driver.DriverHandler;
 import org.onosproject.net.driver.DriverListener;
 import org.onosproject.net.driver.DriverRegistry;
 import org.onosproject.net.driver.DriverService;
 import org.onosproject.net.pi.model.PiPipeconfId;
+import org.onosproject.net.pi.service.PiPipeconfEvent;
+import org.onosproject.net.pi.service.PiPipeconfListener;
 import org.onosproject.net.pi.service.PiPipeconfService;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static org.onlab.util.Tools.nullIsNotFound;
@@ -65,6 +80,12 @@ public class DriverManager implements DriverService {
     private static final String NO_DRIVER = "Driver not found";
     private static final String NO_DEVICE = "Device not found";
 
+    private static final String METRIC_COMPONENT = "DriverManager";
+    private static final String METRIC_FEATURE = "deviceDrivers";
+    private static final String CACHE_HITS = "cacheHits";
+    private static final String CACHE_MISSES = "cacheMisses";
+    private static final String CACHE_INVALIDATIONS = "cacheInvalidations";
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected DriverRegistry registry;
 
@@ -77,8 +98,38 @@ public class DriverManager implements DriverService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected PiPipeconfService pipeconfService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL,
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile MetricsService metricsService;
+
+    // Drivers resolved for devices; entries are dropped whenever any of the
+    // inputs of the resolution changes.
+    private final Map<DeviceId, ResolvedDriver> resolvedDrivers = Maps.newConcurrentMap();
+
+    // Bumped on every invalidation so that a resolution racing with it does
+    // not leave a stale entry behind.
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong cacheInvalidations = new AtomicLong();
+
+    private final DriverListener driverListener = new InternalDriverListener();
+    private final NetworkConfigListener networkConfigListener = new InternalNetworkConfigListener();
+    private final DeviceListener deviceListener = new InternalDeviceListener();
+    private final PiPipeconfListener pipeconfListener = new InternalPipeconfListener();
+
+    private MetricsService registeredMetricsService;
+    private MetricsComponent metricsComponent;
+    private MetricsFeature metricsFeature;
+
     @Activate
     protected void activate() {
+        registry.addListener(driverListener);
+        networkConfigService.addListener(networkConfigListener);
+        deviceService.addListener(deviceListener);
+        pipeconfService.addListener(pipeconfListener);
+        registerMetrics();
         AbstractProjectableModel.setDriverService(null, this);
         log.info("Started");
     }
@@ -86,9 +137,73 @@ public class DriverManager implements DriverService {
     @Deactivate
     protected void deactivate() {
         AbstractProjectableModel.setDriverService(this, null);
+        unregisterMetrics();
+        pipeconfService.removeListener(pipeconfListener);
+        deviceService.removeListener(deviceListener);
+        networkConfigService.removeListener(networkConfigListener);
+        registry.removeListener(driverListener);
+        resolvedDrivers.clear();
         log.info("Stopped");
     }
 
+    /**
+     * Returns the number of device driver lookups served from the cache.
+     *
+     * @return number of cache hits
+     */
+    public long cacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Returns the number of device driver lookups that had to resolve the
+     * driver afresh.
+     *
+     * @return number of cache misses
+     */
+    public long cacheMisses() {
+        return cacheMisses.get();
+    }
+
+    /**
+     * Returns the number of times cached device drivers were invalidated.
+     *
+     * @return number of cache invalidations
+     */
+    public long cacheInvalidations() {
+        return cacheInvalidations.get();
+    }
+
+    private void registerMetrics() {
+        MetricsService metrics = metricsService;
+        if (metrics == null) {
+            return;
+        }
+        metricsComponent = metrics.registerComponent(METRIC_COMPONENT);
+        metricsFeature = metricsComponent.registerFeature(METRIC_FEATURE);
+        registerGauge(metrics, CACHE_HITS, cacheHits);
+        registerGauge(metrics, CACHE_MISSES, cacheMisses);
+        registerGauge(metrics, CACHE_INVALIDATIONS, cacheInvalidations);
+        registeredMetricsService = metrics;
+    }
+
+    private void registerGauge(MetricsService metrics, String name, AtomicLong counter) {
+        metrics.removeMetric(metricsComponent, metricsFeature, name);
+        metrics.registerMetric(metricsComponent, metricsFeature, name,
+                               (Gauge<Long>) counter::get);
+    }
+
+    private void unregisterMetrics() {
+        MetricsService metrics = registeredMetricsService;
+        if (metrics == null) {
+            return;
+        }
+        metrics.removeMetric(metricsComponent, metricsFeature, CACHE_HITS);
+        metrics.removeMetric(metricsComponent, metricsFeature, CACHE_MISSES);
+        metrics.removeMetric(metricsComponent, metricsFeature, CACHE_INVALIDATIONS);
+        registeredMetricsService = null;
+    }
+
     @Override
     public Set<Driver> getDrivers() {
         checkPermission(DRIVER_READ);
@@ -119,14 +234,36 @@ public class DriverManager implements DriverService {
     public Driver getDriver(DeviceId deviceId) {
         checkPermission(DRIVER_READ);
 
+        // The pipeconf binding is not evented, hence it is checked on every
+        // lookup rather than relied upon for invalidation.
+        PiPipeconfId pipeconfId = pipeconfService.ofDevice(deviceId).orElse(null);
+        ResolvedDriver resolved = resolvedDrivers.get(deviceId);
+        if (resolved != null && Objects.equals(resolved.pipeconfId, pipeconfId)) {
+            cacheHits.incrementAndGet();
+            return resolved.driver;
+        }
+        cacheMisses.incrementAndGet();
+
+        long observed = generation.get();
+        Driver driver = resolveDriver(deviceId, pipeconfId);
+        ResolvedDriver entry = new ResolvedDriver(pipeconfId, driver);
+        resolvedDrivers.put(deviceId, entry);
+        if (generation.get() != observed) {
+            resolvedDrivers.remove(deviceId, entry);
+        }
+        return driver;
+    }
+
+    // Resolves the driver of the given device from scratch.
+    private Driver resolveDriver(DeviceId deviceId, PiPipeconfId pipeconfId) {
         Driver driver;
 
         // Special processing for devices with pipeconf.
-        if (pipeconfService.ofDevice(deviceId).isPresent()) {
+        if (pipeconfId != null) {
             // No fallback for pipeconf merged drivers.
             // Throws exception if pipeconf driver does not exist.
             return nullIsNotFound(
-                    getPipeconfMergedDriver(deviceId),
+                    getPipeconfMergedDriver(deviceId, pipeconfId),
                     "Device is pipeconf-capable but a " +
                             "pipeconf-merged driver was not found");
         }
@@ -161,13 +298,7 @@ public class DriverManager implements DriverService {
         return deviceDriverNameMap;
     }
 
-    private Driver getPipeconfMergedDriver(DeviceId deviceId) {
-        PiPipeconfId pipeconfId = pipeconfService.ofDevice(deviceId).orElse(null);
-        if (pipeconfId == null) {
-            log.warn("Missing pipeconf for {}, cannot produce a pipeconf merged driver",
-                      deviceId);
-            return null;
-        }
+    private Driver getPipeconfMergedDriver(DeviceId deviceId, PiPipeconfId pipeconfId) {
         String mergedDriverName = pipeconfService.getMergedDriver(deviceId, pipeconfId);
         if (mergedDriverName == null) {
             log.warn("Unable to get pipeconf merged driver for {} and {}",
@@ -210,4 +341,77 @@ public class DriverManager implements DriverService {
     public void removeListener(DriverListener listener) {
         registry.removeListener(listener);
     }
+
+    // Drops the cached driver of the given device.
+    private void invalidate(DeviceId deviceId) {
+        generation.incrementAndGet();
+        if (resolvedDrivers.remove(deviceId) != null) {
+            cacheInvalidations.incrementAndGet();
+        }
+    }
+
+    // Drops the cached drivers of all devices.
+    private void invalidateAll() {
+        generation.incrementAndGet();
+        if (!resolvedDrivers.isEmpty()) {
+            resolvedDrivers.clear();
+            cacheInvalidations.incrementAndGet();
+        }
+    }
+
+    // Driver resolved for a device along with the pipeconf it was bound to.
+    private static final class ResolvedDriver {
+        private final PiPipeconfId pipeconfId;
+        private final Driver driver;
+
+        private ResolvedDriver(PiPipeconfId pipeconfId, Driver driver) {
+            this.pipeconfId = pipeconfId;
+            this.driver = driver;
+        }
+    }
+
+    // Any driver being added or removed may change the resolution outcome.
+    private class InternalDriverListener implements DriverListener {
+        @Override
+        public void event(DriverEvent event) {
+            invalidateAll();
+        }
+    }
+
+    // Drops the cached driver of devices whose basic configuration changes.
+    private class InternalNetworkConfigListener implements NetworkConfigListener {
+        @Override
+        public boolean isRelevant(NetworkConfigEvent event) {
+            return event.configClass() == BasicDeviceConfig.class &&
+                    event.subject() instanceof DeviceId;
+        }
+
+        @Override
+        public void event(NetworkConfigEvent event) {
+            invalidate((DeviceId) event.subject());
+        }
+    }
+
+    // Drops the cached driver of devices whose description changes.
+    private class InternalDeviceListener implements DeviceListener {
+        @Override
+        public boolean isRelevant(DeviceEvent event) {
+            return event.type() == DeviceEvent.Type.DEVICE_ADDED ||
+                    event.type() == DeviceEvent.Type.DEVICE_UPDATED ||
+                    event.type() == DeviceEvent.Type.DEVICE_REMOVED;
+        }
+
+        @Override
+        public void event(DeviceEvent event) {
+            invalidate(event.subject().id());
+        }
+    }
+
+    // Merged drivers follow the set of registered pipeconfs.
+    private class InternalPipeconfListener implements PiPipeconfListener {
+        @Override
+        public void event(PiPipeconfEvent event) {
+            invalidateAll();
+        }
+    }
 }
@@ -46,6 +46,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static org.onlab.util.Tools.get;
@@ -99,10 +101,11 @@ public class DriverRegistryManager extends DefaultDriverProvider implements Driv
     private Set<String> requiredDriverSet;
 
     private Set<DriverProvider> providers = Sets.newConcurrentHashSet();
-    private Map<String, Driver> driverByKey = Maps.newConcurrentMap();
+    private Map<String, DriverMatcher> driverByKey = Maps.newConcurrentMap();
     private Map<String, Class<? extends Behaviour>> classes = Maps.newConcurrentMap();
 
-    private ListenerRegistry<DriverEvent, DriverListener> listenerRegistry;
+    private final ListenerRegistry<DriverEvent, DriverListener> listenerRegistry =
+            new ListenerRegistry<>();
 
 
     private boolean isStarted = false;
@@ -110,7 +113,6 @@ public class DriverRegistryManager extends DefaultDriverProvider implements Driv
     @Activate
     protected void activate(ComponentContext context) {
         componentConfigService.registerProperties(getClass());
-        listenerRegistry = new ListenerRegistry<>();
         eventDispatcher.addSink(DriverEvent.class, listenerRegistry);
         modified(context);
         log.info("Started");
@@ -149,7 +151,7 @@ public class DriverRegistryManager extends DefaultDriverProvider implements Driv
             Driver d = addDriver(driver);
             driverByKey.put(key(driver.manufacturer(),
                                 driver.hwVersion(),
-                                driver.swVersion()), d);
+                                driver.swVersion()), new DriverMatcher(d));
             d.behaviours().forEach(b -> {
                 Class<? extends Behaviour> implementation = d.implementation(b);
                 classes.put(b.getName(), b);
@@ -216,15 +218,17 @@ public class DriverRegistryManager extends DefaultDriverProvider implements Driv
         checkPermission(DRIVER_READ);
 
         // First attempt a literal search.
-        Driver driver = driverByKey.get(key(mfr, hw, sw));
-        if (driver != null) {
-            return driver;
+        DriverMatcher matcher = driverByKey.get(key(mfr, hw, sw));
+        if (matcher != null) {
+            return matcher.driver;
         }
 
         // Otherwise, sweep through the key space and attempt to match using
-        // regular expression matching.
+        // the pre-compiled regular expressions.
         Optional<Driver> optional = driverByKey.values().stream()
-                .filter(d -> matches(d, mfr, hw, sw)).findFirst();
+                .filter(m -> m.matches(mfr, hw, sw))
+                .map(m -> m.driver)
+                .findFirst();
 
         // If no matching driver is found, return default.
         return optional.orElse(drivers.get(DEFAULT));
@@ -236,12 +240,43 @@ public class DriverRegistryManager extends DefaultDriverProvider implements Driv
         return nullIsNotFound(drivers.get(driverName), NO_DRIVER);
     }
 
-    // Matches the given driver using ERE matching against the given criteria.
-    private boolean matches(Driver d, String mfr, String hw, String sw) {
-        // TODO: consider pre-compiling the expressions in the future
-        return mfr.matches(d.manufacturer()) &&
-                hw.matches(d.hwVersion()) &&
-                sw.matches(d.swVersion());
+    // Driver paired with the pre-compiled expressions of its match criteria.
+    private final class DriverMatcher {
+        private final Driver driver;
+        private final Pattern mfr;
+        private final Pattern hw;
+        private final Pattern sw;
+
+        private DriverMatcher(Driver driver) {
+            this.driver = driver;
+            this.mfr = compile(driver, driver.manufacturer());
+            this.hw = compile(driver, driver.hwVersion());
+            this.sw = compile(driver, driver.swVersion());
+        }
+
+        // Matches the driver using ERE matching against the given criteria.
+        private boolean matches(String mfr, String hw, String sw) {
+            return matches(this.mfr, mfr) && matches(this.hw, hw) && matches(this.sw, sw);
+        }
+
+        private boolean matches(Pattern pattern, String value) {
+            return pattern != null && value != null && pattern.matcher(value).matches();
+        }
+    }
+
+    // Compiles the given driver criterion; malformed expressions are matched
+    // literally and missing ones never match.
+    private Pattern compile(Driver driver, String expression) {
+        if (expression == null) {
+            return null;
+        }
+        try {
+            return Pattern.compile(expression);
+        } catch (PatternSyntaxException e) {
+            log.warn("Driver {} has malformed match expression {}; matching it literally",
+                     driver.name(), expression);
+            return Pattern.compile(Pattern.quote(expression));
+        }
     }
 
     // Produces a composite driver key using the specified components.
@@ -77,6 +77,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -825,6 +826,13 @@ public class FlowRuleManager
         return store.getActiveFlowRuleCount(deviceId);
     }
 
+    @Override
+    public CompletableFuture<Void> awaitFlowTableActive(DeviceId deviceId, long term) {
+        checkPermission(FLOWRULE_READ);
+        checkNotNull(deviceId, DEVICE_ID_NULL);
+        return store.awaitFlowTableActive(deviceId, term);
+    }
+
     private class InternalDeviceListener implements DeviceListener {
         @Override
         public void event(DeviceEvent event) {
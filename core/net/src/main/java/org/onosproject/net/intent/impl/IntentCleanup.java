@@ -20,6 +20,7 @@ import org.onosproject.net.intent.IntentData;
 import org.onosproject.net.intent.IntentEvent;
 import org.onosproject.net.intent.IntentListener;
 import org.onosproject.net.intent.IntentService;
+import org.onosproject.net.intent.IntentState;
 import org.onosproject.net.intent.IntentStore;
 import org.onosproject.net.intent.Key;
 import org.onosproject.store.service.WallClockTimestamp;
@@ -33,7 +34,9 @@ import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.slf4j.Logger;
 
 import java.util.Dictionary;
+import java.util.EnumSet;
 import java.util.Properties;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ExecutorService;
@@ -74,6 +77,11 @@ public class IntentCleanup implements Runnable, IntentListener {
     // Logical timeout for stuck Intents in INSTALLING or WITHDRAWING. The unit is seconds
     private static final int INSTALLING_WITHDRAWING_PERIOD = 120;
 
+    // States of intents which may need to be resubmitted
+    private static final Set<IntentState> CLEANUP_STATES =
+            EnumSet.of(IntentState.FAILED, IntentState.CORRUPT,
+                       IntentState.INSTALLING, IntentState.WITHDRAWING);
+
     private long periodMs;
     private long periodMsForStuck;
 
@@ -235,7 +243,7 @@ public class IntentCleanup implements Runnable, IntentListener {
             pendingCount++;
         }
 
-        for (IntentData intentData : store.getIntentData(true, periodMs)) {
+        for (IntentData intentData : store.getIntentDataByState(CLEANUP_STATES, true, periodMs)) {
             IntentData pendingIntentData = store.getPendingData(intentData.key());
             if (pendingIntentData != null) {
                 continue;
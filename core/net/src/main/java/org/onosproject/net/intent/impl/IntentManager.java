@@ -15,12 +15,20 @@
  */
 package org.onosproject.net.intent.impl;
 
+import com.codahale.metrics.Timer;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
+import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
 import org.onosproject.core.IdGenerator;
+import org.onosproject.core.MetricsHelper;
 import org.onosproject.event.AbstractListenerManager;
 import org.onosproject.net.DeviceId;
+import org.onosproject.net.NetworkResource;
 import org.onosproject.net.config.NetworkConfigService;
 import org.onosproject.net.domain.DomainIntentService;
 import org.onosproject.net.flow.FlowRuleService;
@@ -33,6 +41,7 @@ import org.onosproject.net.intent.IntentCompiler;
 import org.onosproject.net.intent.IntentData;
 import org.onosproject.net.intent.IntentEvent;
 import org.onosproject.net.intent.IntentExtensionService;
+import org.onosproject.net.intent.IntentId;
 import org.onosproject.net.intent.IntentInstallCoordinator;
 import org.onosproject.net.intent.IntentInstaller;
 import org.onosproject.net.intent.IntentListener;
@@ -58,6 +67,7 @@ import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.slf4j.Logger;
 
 import java.util.Collection;
@@ -68,6 +78,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -108,7 +119,7 @@ import static org.slf4j.LoggerFactory.getLogger;
 )
 public class IntentManager
         extends AbstractListenerManager<IntentEvent, IntentListener>
-        implements IntentService, IntentExtensionService, IntentInstallCoordinator {
+        implements IntentService, IntentExtensionService, IntentInstallCoordinator, MetricsHelper {
 
     private static final Logger log = getLogger(IntentManager.class);
 
@@ -156,6 +167,10 @@ public class IntentManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     private NetworkConfigService networkConfigService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL,
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile MetricsService metricsService;
+
     private ExecutorService batchExecutor;
     private ExecutorService workerExecutor;
 
@@ -171,6 +186,11 @@ public class IntentManager
 
     private final IntentAccumulator accumulator = new IntentAccumulator(batchDelegate);
 
+    // Start times of topology-triggered recompilations, used to measure how
+    // long intents take to converge after a topology change.
+    private final Map<Key, Long> recompileStartTimes = Maps.newConcurrentMap();
+    private Timer convergenceTimer;
+
     @Activate
     public void activate() {
         configService.registerProperties(getClass());
@@ -187,6 +207,7 @@ public class IntentManager
         Intent.unbindIdGenerator(idGenerator);
         Intent.bindIdGenerator(idGenerator);
         installCoordinator = new InstallCoordinator(installerRegistry, store);
+        convergenceTimer = createTimer("Intent", "topologyChange", "convergence");
         log.info("Started");
     }
 
@@ -203,6 +224,7 @@ public class IntentManager
         batchExecutor.shutdown();
         workerExecutor.shutdown();
         Intent.unbindIdGenerator(idGenerator);
+        recompileStartTimes.clear();
         log.info("Stopped");
     }
 
@@ -241,6 +263,11 @@ public class IntentManager
         }
     }
 
+    @Override
+    public MetricsService metricsService() {
+        return metricsService;
+    }
+
     private void logConfig(String prefix) {
         log.info("{} with skipReleaseResourcesOnWithdrawal = {}", prefix, skipReleaseResourcesOnWithdrawal);
     }
@@ -304,6 +331,30 @@ public class IntentManager
         return store.getIntentData(false, 0);
     }
 
+    @Override
+    public Iterable<IntentData> getIntentDataByState(IntentState state) {
+        checkPermission(INTENT_READ);
+        return store.getIntentDataByState(EnumSet.of(state), false, 0);
+    }
+
+    @Override
+    public Iterable<Intent> getIntentsByAppId(ApplicationId appId) {
+        checkPermission(INTENT_READ);
+        return Iterables.transform(store.getIntentDataByAppId(appId), IntentData::intent);
+    }
+
+    @Override
+    public Iterable<IntentData> getIntentDataByResource(NetworkResource resource) {
+        checkPermission(INTENT_READ);
+        return store.getIntentDataByResource(resource);
+    }
+
+    @Override
+    public List<Intent> getIntentsPage(IntentId after, int limit) {
+        checkPermission(INTENT_READ);
+        return Lists.transform(store.getIntentDataPage(after, limit), IntentData::intent);
+    }
+
     @Override
     public long getIntentCount() {
         checkPermission(INTENT_READ);
@@ -390,6 +441,7 @@ public class IntentManager
         @Override
         public void notify(IntentEvent event) {
             post(event);
+            recordConvergence(event);
             switch (event.type()) {
                 case WITHDRAWN:
                     if (!skipReleaseResourcesOnWithdrawal) {
@@ -465,6 +517,28 @@ public class IntentManager
         @Override
         public void notify(IntentEvent event) {
             post(event);
+            recordConvergence(event);
+        }
+    }
+
+    // Records the time an intent recompiled after a topology change took to
+    // settle into either the installed or the failed state.
+    private void recordConvergence(IntentEvent event) {
+        switch (event.type()) {
+            case INSTALLED:
+            case FAILED:
+                Long start = recompileStartTimes.remove(event.subject().key());
+                Timer timer = convergenceTimer;
+                if (start != null && timer != null) {
+                    timer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+                break;
+            case WITHDRAWN:
+            case PURGED:
+                recompileStartTimes.remove(event.subject().key());
+                break;
+            default:
+                break;
         }
     }
 
@@ -482,6 +556,7 @@ public class IntentManager
             if (store.getPendingData(key) != null) {
                 continue;
             }
+            recompileStartTimes.putIfAbsent(key, System.nanoTime());
             submit(intent);
         }
 
@@ -15,10 +15,13 @@
  */
 package org.onosproject.net.intent.impl;
 
-import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ConcurrentHashMultiset;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Sets;
 import org.onosproject.event.Event;
+import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.ElementId;
 import org.onosproject.net.HostId;
@@ -60,6 +63,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
@@ -68,7 +72,6 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.Multimaps.synchronizedSetMultimap;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.onlab.util.Tools.groupedThreads;
@@ -89,12 +92,16 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
 
     private final Logger log = getLogger(getClass());
 
-    private final SetMultimap<LinkKey, Key> intentsByLink =
-            //TODO this could be slow as a point of synchronization
-            synchronizedSetMultimap(HashMultimap.<LinkKey, Key>create());
+    // Reverse indexes from tracked resources to the keys of the intents
+    // using them; the per-resource sets are concurrent so that lookups on
+    // topology changes never block intent tracking.
+    private final Map<LinkKey, Set<Key>> intentsByLink = Maps.newConcurrentMap();
 
-    private final SetMultimap<ElementId, Key> intentsByDevice =
-            synchronizedSetMultimap(HashMultimap.<ElementId, Key>create());
+    private final Map<ElementId, Set<Key>> intentsByDevice = Maps.newConcurrentMap();
+
+    // Link end-points are shared by both directions of a link, hence the
+    // port index counts how many tracked links reference each intent.
+    private final Map<ConnectPoint, Multiset<Key>> intentsByPort = Maps.newConcurrentMap();
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected TopologyService topologyService;
@@ -206,9 +213,13 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
                                     Collection<NetworkResource> resources) {
         for (NetworkResource resource : resources) {
             if (resource instanceof Link) {
-                intentsByLink.put(linkKey((Link) resource), intentKey);
+                LinkKey linkKey = linkKey((Link) resource);
+                if (index(intentsByLink, linkKey, intentKey)) {
+                    indexPort(linkKey.src(), intentKey);
+                    indexPort(linkKey.dst(), intentKey);
+                }
             } else if (resource instanceof ElementId) {
-                intentsByDevice.put((ElementId) resource, intentKey);
+                index(intentsByDevice, (ElementId) resource, intentKey);
             }
         }
     }
@@ -218,13 +229,61 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
                                        Collection<NetworkResource> resources) {
         for (NetworkResource resource : resources) {
             if (resource instanceof Link) {
-                intentsByLink.remove(linkKey((Link) resource), intentKey);
+                LinkKey linkKey = linkKey((Link) resource);
+                if (unindex(intentsByLink, linkKey, intentKey)) {
+                    unindexPort(linkKey.src(), intentKey);
+                    unindexPort(linkKey.dst(), intentKey);
+                }
             } else if (resource instanceof ElementId) {
-                intentsByDevice.remove(resource, intentKey);
+                unindex(intentsByDevice, (ElementId) resource, intentKey);
             }
         }
     }
 
+    // Adds the intent key under the given resource; returns true if it was
+    // not indexed there yet.
+    private static <K> boolean index(Map<K, Set<Key>> index, K resource, Key intentKey) {
+        boolean[] added = new boolean[1];
+        index.compute(resource, (k, keys) -> {
+            Set<Key> updated = keys == null ? Sets.newConcurrentHashSet() : keys;
+            added[0] = updated.add(intentKey);
+            return updated;
+        });
+        return added[0];
+    }
+
+    // Removes the intent key from the given resource, dropping the resource
+    // once no intent uses it; returns true if the key was indexed there.
+    private static <K> boolean unindex(Map<K, Set<Key>> index, K resource, Key intentKey) {
+        boolean[] removed = new boolean[1];
+        index.computeIfPresent(resource, (k, keys) -> {
+            removed[0] = keys.remove(intentKey);
+            return keys.isEmpty() ? null : keys;
+        });
+        return removed[0];
+    }
+
+    private void indexPort(ConnectPoint port, Key intentKey) {
+        intentsByPort.compute(port, (cp, keys) -> {
+            Multiset<Key> updated = keys == null ? ConcurrentHashMultiset.create() : keys;
+            updated.add(intentKey);
+            return updated;
+        });
+    }
+
+    private void unindexPort(ConnectPoint port, Key intentKey) {
+        intentsByPort.computeIfPresent(port, (cp, keys) -> {
+            keys.remove(intentKey);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    // Returns a snapshot of the intents tracked under the given resource.
+    private static <K> Set<Key> tracked(Map<K, ? extends Collection<Key>> index, K resource) {
+        Collection<Key> keys = index.get(resource);
+        return keys == null ? ImmutableSet.of() : ImmutableSet.copyOf(keys);
+    }
+
     @Override
     public void trackIntent(IntentData intentData) {
 
@@ -241,7 +300,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
         if (log.isTraceEnabled()) {
             log.trace("intent {}, old: {}, new: {}, installableCount: {}, resourceCount: {}",
                       key,
-                      intentsByDevice.values().contains(key),
+                      intentsByDevice.values().stream().anyMatch(keys -> keys.contains(key)),
                       isLocal && isInstalled,
                       installables.size(),
                       intent.resources().size() +
@@ -306,12 +365,10 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
                     if (reason instanceof LinkEvent) {
                         LinkEvent linkEvent = (LinkEvent) reason;
                         final LinkKey linkKey = linkKey(linkEvent.subject());
-                        synchronized (intentsByLink) {
-                            Set<Key> intentKeys = intentsByLink.get(linkKey);
-                            log.debug("recompile triggered by LinkEvent {} ({}) for {}",
-                                    linkKey, linkEvent.type(), intentKeys);
-                            intentsToRecompile.addAll(intentKeys);
-                        }
+                        Set<Key> intentKeys = tracked(intentsByLink, linkKey);
+                        log.debug("recompile triggered by LinkEvent {} ({}) for {}",
+                                linkKey, linkEvent.type(), intentKeys);
+                        intentsToRecompile.addAll(intentKeys);
                         dontRecompileAllFailedIntents = dontRecompileAllFailedIntents &&
                                 (linkEvent.type() == LINK_REMOVED ||
                                 (linkEvent.type() == LINK_UPDATED &&
@@ -362,11 +419,34 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
 
             // TODO should we recompile on available==true?
 
-            final ImmutableSet<Key> snapshot;
-            synchronized (intentsByDevice) {
-                snapshot = ImmutableSet.copyOf(intentsByDevice.get(id));
+            delegate.triggerCompile(tracked(intentsByDevice, id), available);
+        }
+    }
+
+    /*
+     * Re-dispatcher of port down events; lets intents crossing the port be
+     * rerouted without waiting for the link to be removed from topology.
+     */
+    private class PortDownHandler implements Runnable {
+
+        private final ConnectPoint port;
+
+        PortDownHandler(ConnectPoint port) {
+            this.port = checkNotNull(port);
+        }
+
+        @Override
+        public void run() {
+            // If there is no delegate, why bother? Just bail.
+            if (delegate == null) {
+                return;
+            }
+
+            Set<Key> snapshot = tracked(intentsByPort, port);
+            if (!snapshot.isEmpty()) {
+                log.debug("recompile triggered by port {} down for {}", port, snapshot);
+                delegate.triggerCompile(snapshot, false);
             }
-            delegate.triggerCompile(snapshot, available);
         }
     }
 
@@ -388,12 +468,18 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
                         type == DeviceEvent.Type.DEVICE_UPDATED);
                 executorService.execute(new DeviceAvailabilityHandler(id, available));
                 break;
-            case PORT_ADDED:
             case PORT_REMOVED:
             case PORT_UPDATED:
+                if (event.port() != null &&
+                        (type == DeviceEvent.Type.PORT_REMOVED || !event.port().isEnabled())) {
+                    ConnectPoint port = new ConnectPoint(event.subject().id(), event.port().number());
+                    executorService.execute(new PortDownHandler(port));
+                }
+                break;
+            case PORT_ADDED:
             case PORT_STATS_UPDATED:
             default:
-                // Don't handle port events for now
+                // Port additions are handled once the link is discovered
                 break;
             }
         }
@@ -18,8 +18,10 @@ package org.onosproject.net.intent.impl.compiler;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.onlab.graph.DefaultEdgeWeigher;
 import org.onlab.graph.ScalarWeight;
 import org.onlab.graph.Weight;
@@ -48,7 +50,9 @@ import org.onosproject.net.resource.ResourceService;
 import org.onosproject.net.resource.Resources;
 import org.onosproject.net.topology.LinkWeigher;
 import org.onosproject.net.topology.PathService;
+import org.onosproject.net.topology.Topology;
 import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyService;
 import org.onosproject.net.topology.TopologyVertex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,8 +61,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
@@ -84,6 +90,18 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected ResourceService resourceService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL,
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile TopologyService topologyService;
+
+    private static final int MAX_CACHED_PATHS = 10_000;
+
+    // Shortest paths between devices computed against a single topology
+    // snapshot; lets intents sharing end-points, e.g. when bulk recompiled
+    // after a topology change, reuse a single path computation.
+    private final AtomicReference<PathCache> pathCache =
+            new AtomicReference<>(new PathCache(null));
+
     /**
      * Returns an edge-weight capable of evaluating links on the basis of the
      * specified constraints.
@@ -95,6 +113,65 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
         return new ConstraintBasedLinkWeigher(constraints);
     }
 
+    /**
+     * Returns the paths between two elements, weighed using the constraints
+     * of the given intent. Paths between two distinct devices weighed with
+     * the default hop count are memoized per topology snapshot, since they do
+     * not depend on the resource availability consulted by the constraints.
+     *
+     * @param intent intent on which behalf paths are being computed
+     * @param one    start of the path
+     * @param two    end of the path
+     * @return set of paths between the two
+     */
+    protected Set<Path> paths(ConnectivityIntent intent, ElementId one, ElementId two) {
+        TopologyService topologies = topologyService;
+        if (topologies == null || !usesHopWeight(intent.constraints())
+                || !(one instanceof DeviceId) || !(two instanceof DeviceId) || one.equals(two)) {
+            return pathService.getPaths(one, two, weigher(intent.constraints()));
+        }
+
+        Topology topology = topologies.currentTopology();
+        PathCache cache = pathCache.get();
+        if (cache.topology != topology) {
+            PathCache fresh = new PathCache(topology);
+            cache = pathCache.compareAndSet(cache, fresh) ? fresh : pathCache.get();
+        }
+
+        List<DeviceId> key = ImmutableList.of((DeviceId) one, (DeviceId) two);
+        Set<Path> paths = cache.paths.get(key);
+        if (paths == null) {
+            // Computed outside of the map so lookups of other pairs do not
+            // wait on this one, and against the captured topology so the
+            // result can only ever land in the cache of that topology.
+            paths = topologies.getPaths(topology, (DeviceId) one, (DeviceId) two,
+                                        weigher(intent.constraints()));
+            if (cache.topology == topology && cache.paths.size() < MAX_CACHED_PATHS) {
+                Set<Path> raced = cache.paths.putIfAbsent(key, paths);
+                paths = raced != null ? raced : paths;
+            }
+        }
+        return paths;
+    }
+
+    // Paths memoized for one topology snapshot; replaced wholesale when the
+    // current topology changes, so no entry outlives the snapshot it was
+    // computed against.
+    private static final class PathCache {
+        private final Topology topology;
+        private final Map<List<DeviceId>, Set<Path>> paths = Maps.newConcurrentMap();
+
+        private PathCache(Topology topology) {
+            this.topology = topology;
+        }
+    }
+
+    // Returns true if none of the constraints contribute to link weights.
+    private static boolean usesHopWeight(List<Constraint> constraints) {
+        return constraints == null || constraints.stream()
+                .allMatch(c -> c instanceof MarkerConstraint || c instanceof PathViabilityConstraint);
+    }
+
     /**
      * Validates the specified path against the given constraints.
      *
@@ -144,7 +221,7 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
      */
     protected Path getPath(ConnectivityIntent intent,
                            ElementId one, ElementId two) {
-        Set<Path> paths = pathService.getPaths(one, two, weigher(intent.constraints()));
+        Set<Path> paths = paths(intent, one, two);
         final List<Constraint> constraints = intent.constraints();
         ImmutableList<Path> filtered = FluentIterable.from(paths)
                 .filter(path -> checkPath(path, constraints))
@@ -170,7 +247,7 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
      */
     protected List<Path> getPaths(ConnectivityIntent intent,
                            ElementId one, ElementId two) {
-        Set<Path> paths = pathService.getPaths(one, two, weigher(intent.constraints()));
+        Set<Path> paths = paths(intent, one, two);
         final List<Constraint> constraints = intent.constraints();
         ImmutableList<Path> filtered = FluentIterable.from(paths)
                 .filter(path -> checkPath(path, constraints))
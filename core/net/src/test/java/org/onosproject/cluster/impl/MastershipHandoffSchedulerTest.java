@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.cluster.impl;
+
+import com.google.common.collect.Maps;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.net.DeviceId;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onlab.junit.TestTools.assertAfter;
+
+/**
+ * Unit tests for the mastership hand-off scheduler.
+ */
+public class MastershipHandoffSchedulerTest {
+
+    private static final NodeId NID = new NodeId("n1");
+
+    private final Map<DeviceId, CompletableFuture<Void>> started = Maps.newConcurrentMap();
+    private ScheduledExecutorService executor;
+    private MastershipHandoffScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+        scheduler = new MastershipHandoffScheduler((nodeId, deviceId) -> {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            started.put(deviceId, future);
+            return future;
+        }, executor, null);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testWindow() {
+        scheduler.setWindow(2);
+        CompletableFuture<Void> f1 = scheduler.submit(NID, DeviceId.deviceId("of:1"));
+        scheduler.submit(NID, DeviceId.deviceId("of:2"));
+        scheduler.submit(NID, DeviceId.deviceId("of:3"));
+
+        assertEquals(2, started.size());
+        assertEquals(2, scheduler.inFlightCount());
+        assertEquals(1, scheduler.pendingCount());
+
+        started.get(DeviceId.deviceId("of:1")).complete(null);
+        assertTrue(f1.isDone());
+        assertEquals(3, started.size());
+        assertEquals(0, scheduler.pendingCount());
+    }
+
+    @Test
+    public void testUnbounded() {
+        scheduler.setWindow(0);
+        for (int i = 0; i < 10; i++) {
+            scheduler.submit(NID, DeviceId.deviceId("of:" + i));
+        }
+        assertEquals(10, started.size());
+    }
+
+    @Test
+    public void testTimeout() {
+        scheduler.setWindow(1);
+        scheduler.setTimeoutMillis(50);
+        CompletableFuture<Void> f1 = scheduler.submit(NID, DeviceId.deviceId("of:1"));
+        CompletableFuture<Void> f2 = scheduler.submit(NID, DeviceId.deviceId("of:2"));
+        assertFalse(started.containsKey(DeviceId.deviceId("of:2")));
+
+        // A hand-off whose new master never gets ready gives up its slot
+        assertAfter(500, () -> assertTrue(started.containsKey(DeviceId.deviceId("of:2"))));
+        assertTrue(f1.isDone());
+        assertTrue(started.get(DeviceId.deviceId("of:1")).isCancelled());
+        assertFalse(f2.isDone());
+    }
+
+    @Test
+    public void testShutdown() {
+        scheduler.setWindow(1);
+        CompletableFuture<Void> f1 = scheduler.submit(NID, DeviceId.deviceId("of:1"));
+        CompletableFuture<Void> f2 = scheduler.submit(NID, DeviceId.deviceId("of:2"));
+
+        scheduler.shutdown();
+        assertTrue(f1.isCancelled());
+        assertTrue(f2.isCancelled());
+        assertTrue(started.get(DeviceId.deviceId("of:1")).isCancelled());
+        assertEquals(0, scheduler.inFlightCount());
+        assertEquals(0, scheduler.pendingCount());
+
+        assertTrue(scheduler.submit(NID, DeviceId.deviceId("of:3")).isCancelled());
+        assertFalse(started.containsKey(DeviceId.deviceId("of:2")));
+        assertFalse(started.containsKey(DeviceId.deviceId("of:3")));
+    }
+}
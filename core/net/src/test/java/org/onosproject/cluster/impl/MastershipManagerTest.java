@@ -17,9 +17,11 @@ package org.onosproject.cluster.impl;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.easymock.EasyMock;
 import org.junit.After;
@@ -33,11 +35,13 @@ import org.onosproject.cluster.ControllerNode;
 import org.onosproject.cluster.DefaultControllerNode;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.common.event.impl.TestEventDispatcher;
+import org.onosproject.mastership.MastershipBalancingPlan;
 import org.onosproject.mastership.MastershipService;
 import org.onosproject.mastership.MastershipStore;
 import org.onosproject.mastership.MastershipTermService;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.config.NetworkConfigServiceAdapter;
+import org.onosproject.net.flow.FlowRuleServiceAdapter;
 import org.onosproject.net.region.Region;
 import org.onosproject.net.region.RegionId;
 import org.onosproject.net.region.RegionStore;
@@ -245,6 +249,59 @@ public class MastershipManagerTest {
         assertEquals("incorrect balance for node 3", 3, mgr.getDevicesOf(NID3).size());
     }
 
+    @Test
+    public void planBalanceWithOrphans() {
+        testClusterService.put(CNODE1, ControllerNode.State.ACTIVE);
+        testClusterService.put(CNODE2, ControllerNode.State.INACTIVE);
+        testClusterService.put(CNODE3, ControllerNode.State.ACTIVE);
+
+        assignRoles(NID1, ImmutableSet.of(DID1, DID2, DID3, DID4));
+        assignRoles(NID2, ImmutableSet.of(DID5));
+        assignRoles(NID3, ImmutableSet.of(DID6));
+
+        // The dry run follows the count-based balancing without applying it
+        MastershipBalancingPlan plan = mgr.planBalanceRoles();
+        assertEquals("incorrect load before", ImmutableMap.of(NID1, 4.0, NID3, 1.0), plan.loadBefore());
+        assertEquals("incorrect load after", ImmutableMap.of(NID1, 3.0, NID3, 3.0), plan.loadAfter());
+        assertEquals("incorrect number of moves", 2, plan.moves().size());
+        assertEquals("orphan not moved", NID3, plan.moves().get(DID5));
+        assertEquals("plan was applied", 4, mgr.getDevicesOf(NID1).size());
+
+        mgr.balanceRoles();
+        plan.moves().forEach((deviceId, nodeId) ->
+                assertEquals("balancing deviates from plan", nodeId, mgr.getMasterFor(deviceId)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void planBalanceWithRegion() {
+        regionManager.createRegion(RID1, "R1", METRO, ImmutableList.of(ImmutableSet.of(NID1)));
+        testClusterService.put(CNODE1, ControllerNode.State.ACTIVE);
+        mgr.useRegionForBalanceRoles = true;
+        mgr.planBalanceRoles();
+    }
+
+    @Test
+    public void transferWaitsForFlowTable() {
+        TestFlowRuleService flowRuleService = new TestFlowRuleService();
+        mgr.flowRuleService = flowRuleService;
+        mgr.setRole(NID_LOCAL, DEV_MASTER, MASTER);
+
+        CompletableFuture<Void> transfer = TestUtils.callMethod(mgr, "transferMastership",
+                new Class<?>[] {NodeId.class, DeviceId.class}, NID_OTHER, DEV_MASTER);
+        assertEquals("wrong master:", NID_OTHER, mgr.getMasterFor(DEV_MASTER));
+        assertEquals("wrong term:", mgr.getMastershipTerm(DEV_MASTER).termNumber(), flowRuleService.term);
+        assertFalse(transfer.isDone());
+
+        flowRuleService.active.complete(null);
+        assertTrue(transfer.isDone());
+
+        // Giving up on a transfer stops waiting for the flow table
+        transfer = TestUtils.callMethod(mgr, "transferMastership",
+                new Class<?>[] {NodeId.class, DeviceId.class}, NID_LOCAL, DEV_MASTER);
+        transfer.cancel(false);
+        assertTrue(flowRuleService.active.isCancelled());
+    }
+
     private void assignRoles(NodeId nid, Set<DeviceId> deviceIds) {
         Set<DeviceId> all = ImmutableSet.of(DID1, DID2, DID3, DID4, DID5, DID6);
         for (DeviceId did : all) {
@@ -384,6 +441,18 @@ public class MastershipManagerTest {
         }
     }
 
+    private static final class TestFlowRuleService extends FlowRuleServiceAdapter {
+        private long term;
+        private CompletableFuture<Void> active;
+
+        @Override
+        public CompletableFuture<Void> awaitFlowTableActive(DeviceId deviceId, long term) {
+            this.term = term;
+            active = new CompletableFuture<>();
+            return active;
+        }
+    }
+
     private final class TestClusterService extends StaticClusterService {
 
         ControllerNode local = new DefaultControllerNode(NID_LOCAL, LOCALHOST);
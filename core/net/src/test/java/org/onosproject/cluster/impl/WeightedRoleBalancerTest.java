@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.cluster.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.mastership.MastershipBalancingPlan;
+import org.onosproject.mastership.MastershipWeigher;
+import org.onosproject.net.DeviceId;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the weighted mastership role balancer.
+ */
+public class WeightedRoleBalancerTest {
+
+    private static final NodeId N1 = new NodeId("n1");
+    private static final NodeId N2 = new NodeId("n2");
+
+    private static final DeviceId SPINE = DeviceId.deviceId("of:1");
+    private static final DeviceId LEAF1 = DeviceId.deviceId("of:2");
+    private static final DeviceId LEAF2 = DeviceId.deviceId("of:3");
+    private static final DeviceId LEAF3 = DeviceId.deviceId("of:4");
+    private static final DeviceId ORPHAN = DeviceId.deviceId("of:5");
+
+    private static final Map<DeviceId, Double> WEIGHTS =
+            ImmutableMap.of(SPINE, 10.0, LEAF1, 1.0, LEAF2, 1.0, LEAF3, 1.0, ORPHAN, 4.0);
+
+    private final MastershipWeigher weigher = WEIGHTS::get;
+
+    @Test
+    public void testBalancedByLoad() {
+        // Equal device count, but n1 carries the spine
+        Map<NodeId, Set<DeviceId>> buckets = ImmutableMap.of(
+                N1, ImmutableSet.of(SPINE, LEAF1),
+                N2, ImmutableSet.of(LEAF2, LEAF3));
+
+        MastershipBalancingPlan plan = new WeightedRoleBalancer(weigher, 0, 0.1)
+                .plan(buckets, ImmutableSet.of());
+
+        assertEquals(11.0, plan.loadBefore().get(N1), 0.001);
+        assertEquals(2.0, plan.loadBefore().get(N2), 0.001);
+        assertEquals(ImmutableMap.of(LEAF1, N2), plan.moves());
+        assertEquals(10.0, plan.loadAfter().get(N1), 0.001);
+        assertEquals(3.0, plan.loadAfter().get(N2), 0.001);
+    }
+
+    @Test
+    public void testOrphansAndMoveLimit() {
+        Map<NodeId, Set<DeviceId>> buckets = ImmutableMap.of(
+                N1, ImmutableSet.of(LEAF1, LEAF2, LEAF3),
+                N2, ImmutableSet.of());
+
+        MastershipBalancingPlan plan = new WeightedRoleBalancer(weigher, 1, 0.1)
+                .plan(buckets, ImmutableSet.of(ORPHAN));
+
+        // The orphan lands on the empty node and does not count as a move
+        assertEquals(N2, plan.moves().get(ORPHAN));
+        assertEquals(1, plan.moves().size());
+    }
+
+    @Test
+    public void testHysteresis() {
+        Map<NodeId, Set<DeviceId>> buckets = ImmutableMap.of(
+                N1, ImmutableSet.of(LEAF1, LEAF2),
+                N2, ImmutableSet.of(LEAF3));
+
+        // Spread of 1 is within 100% of the average load of 1.5
+        MastershipBalancingPlan plan = new WeightedRoleBalancer(weigher, 0, 1.0)
+                .plan(buckets, ImmutableSet.of());
+        assertTrue(plan.moves().isEmpty());
+    }
+
+    @Test
+    public void testNodeCapacity() {
+        MastershipWeigher capacityWeigher = new MastershipWeigher() {
+            @Override
+            public double weight(DeviceId deviceId) {
+                return 1.0;
+            }
+
+            @Override
+            public double capacity(NodeId nodeId) {
+                return N1.equals(nodeId) ? 3.0 : 1.0;
+            }
+        };
+        Map<NodeId, Set<DeviceId>> buckets = ImmutableMap.of(
+                N1, ImmutableSet.of(),
+                N2, ImmutableSet.of(SPINE, LEAF1, LEAF2, LEAF3));
+
+        MastershipBalancingPlan plan = new WeightedRoleBalancer(capacityWeigher, 0, 0.1)
+                .plan(buckets, ImmutableSet.of());
+
+        assertEquals(3, plan.moves().size());
+        assertEquals(1.0, plan.loadAfter().get(N1), 0.001);
+        assertEquals(1.0, plan.loadAfter().get(N2), 0.001);
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.driver.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.cfg.ComponentConfigAdapter;
+import org.onosproject.common.event.impl.TestEventDispatcher;
+import org.onosproject.component.ComponentService;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.net.Annotations;
+import org.onosproject.net.DefaultAnnotations;
+import org.onosproject.net.DefaultDevice;
+import org.onosproject.net.Device;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.config.NetworkConfigEvent;
+import org.onosproject.net.config.NetworkConfigListener;
+import org.onosproject.net.config.NetworkConfigServiceAdapter;
+import org.onosproject.net.config.basics.BasicDeviceConfig;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.device.DeviceListener;
+import org.onosproject.net.device.DeviceServiceAdapter;
+import org.onosproject.net.driver.DefaultDriver;
+import org.onosproject.net.driver.DefaultDriverProvider;
+import org.onosproject.net.pi.PiPipeconfServiceAdapter;
+import org.onosproject.net.provider.ProviderId;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.onosproject.net.AnnotationKeys.DRIVER;
+import static org.onosproject.net.config.NetworkConfigEvent.Type.CONFIG_ADDED;
+import static org.onosproject.net.device.DeviceEvent.Type.DEVICE_UPDATED;
+import static org.onosproject.net.device.DeviceEvent.Type.PORT_STATS_UPDATED;
+import static org.onosproject.net.driver.DefaultDriverTest.HW;
+import static org.onosproject.net.driver.DefaultDriverTest.MFR;
+import static org.onosproject.net.driver.DefaultDriverTest.SW;
+
+/**
+ * Suite of tests for the device driver resolution cache.
+ */
+public class DriverManagerTest {
+
+    private static final ProviderId PID = new ProviderId("of", "foo");
+    private static final DeviceId DID = DeviceId.deviceId("of:001");
+
+    private DriverRegistryManager registry;
+    private DriverManager mgr;
+    private TestDeviceService deviceService = new TestDeviceService();
+    private TestNetworkConfigService networkConfigService = new TestNetworkConfigService();
+
+    private DefaultDriver fallback = driver("default", MFR);
+    private DefaultDriver other = driver("other", "other");
+
+    @Before
+    public void setUp() {
+        registry = new DriverRegistryManager();
+        registry.deviceService = new DeviceServiceAdapter();
+        registry.componentConfigService = new ComponentConfigAdapter();
+        registry.eventDispatcher = new TestEventDispatcher();
+        registry.componentService = new TestComponentService();
+        registry.activate(null);
+
+        DefaultDriverProvider provider = new DefaultDriverProvider();
+        provider.addDriver(fallback);
+        provider.addDriver(other);
+        registry.registerProvider(provider);
+
+        deviceService.device = device(DefaultAnnotations.EMPTY);
+
+        mgr = new DriverManager();
+        mgr.registry = registry;
+        mgr.deviceService = deviceService;
+        mgr.networkConfigService = networkConfigService;
+        mgr.pipeconfService = new PiPipeconfServiceAdapter();
+        mgr.activate();
+    }
+
+    @After
+    public void tearDown() {
+        mgr.deactivate();
+        registry.deactivate();
+    }
+
+    @Test
+    public void cachedLookups() {
+        assertSame("wrong driver", fallback, mgr.getDriver(DID));
+        assertSame("wrong driver", fallback, mgr.getDriver(DID));
+        assertSame("wrong driver", fallback, mgr.getDriver(DID));
+        assertEquals("wrong number of misses", 1, mgr.cacheMisses());
+        assertEquals("wrong number of hits", 2, mgr.cacheHits());
+    }
+
+    @Test
+    public void deviceUpdateInvalidates() {
+        assertSame("wrong driver", fallback, mgr.getDriver(DID));
+
+        deviceService.device = device(DefaultAnnotations.builder().set(DRIVER, "other").build());
+        deviceService.listener.event(new DeviceEvent(DEVICE_UPDATED, deviceService.device));
+        assertEquals("wrong number of invalidations", 1, mgr.cacheInvalidations());
+        assertSame("stale driver", other, mgr.getDriver(DID));
+        assertEquals("wrong number of misses", 2, mgr.cacheMisses());
+    }
+
+    @Test
+    public void irrelevantEventsKeepCache() {
+        assertSame("wrong driver", fallback, mgr.getDriver(DID));
+
+        DeviceEvent event = new DeviceEvent(PORT_STATS_UPDATED, deviceService.device);
+        if (deviceService.listener.isRelevant(event)) {
+            deviceService.listener.event(event);
+        }
+        assertSame("wrong driver", fallback, mgr.getDriver(DID));
+        assertEquals("wrong number of invalidations", 0, mgr.cacheInvalidations());
+        assertEquals("wrong number of hits", 1, mgr.cacheHits());
+    }
+
+    @Test
+    public void networkConfigInvalidates() {
+        assertSame("wrong driver", fallback, mgr.getDriver(DID));
+
+        NetworkConfigEvent event = new NetworkConfigEvent(CONFIG_ADDED, DID, BasicDeviceConfig.class);
+        if (networkConfigService.listener.isRelevant(event)) {
+            networkConfigService.listener.event(event);
+        }
+        assertEquals("wrong number of invalidations", 1, mgr.cacheInvalidations());
+        assertSame("wrong driver", fallback, mgr.getDriver(DID));
+        assertEquals("wrong number of misses", 2, mgr.cacheMisses());
+    }
+
+    @Test
+    public void driverRegistrationInvalidates() {
+        assertSame("wrong driver", fallback, mgr.getDriver(DID));
+
+        DefaultDriverProvider provider = new DefaultDriverProvider();
+        provider.addDriver(driver("extra", "extra"));
+        registry.registerProvider(provider);
+        assertEquals("wrong number of invalidations", 1, mgr.cacheInvalidations());
+        assertSame("wrong driver", fallback, mgr.getDriver(DID));
+        assertEquals("wrong number of misses", 2, mgr.cacheMisses());
+    }
+
+    private static DefaultDriver driver(String name, String mfr) {
+        return new DefaultDriver(name, Lists.newArrayList(), mfr, HW, SW,
+                                 ImmutableMap.of(), ImmutableMap.of());
+    }
+
+    private static Device device(Annotations annotations) {
+        return new DefaultDevice(PID, DID, Device.Type.SWITCH, MFR, HW, SW,
+                                 "", null, annotations);
+    }
+
+    private static class TestDeviceService extends DeviceServiceAdapter {
+        private Device device;
+        private DeviceListener listener;
+
+        @Override
+        public Device getDevice(DeviceId deviceId) {
+            return deviceId.equals(DID) ? device : null;
+        }
+
+        @Override
+        public void addListener(DeviceListener listener) {
+            this.listener = listener;
+        }
+    }
+
+    private static class TestNetworkConfigService extends NetworkConfigServiceAdapter {
+        private NetworkConfigListener listener;
+
+        @Override
+        public void addListener(NetworkConfigListener listener) {
+            this.listener = listener;
+        }
+    }
+
+    private static class TestComponentService implements ComponentService {
+        @Override
+        public void activate(ApplicationId appId, String name) {
+        }
+
+        @Override
+        public void deactivate(ApplicationId appId, String name) {
+        }
+    }
+}
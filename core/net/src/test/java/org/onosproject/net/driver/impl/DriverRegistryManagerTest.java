@@ -122,7 +122,34 @@ public class DriverRegistryManagerTest {
                      mgr.getBehaviourClass("org.onosproject.net.driver.TestBehaviourImpl"));
     }
 
-    // TODO: add tests for REGEX matching and for driver inheritance
+    @Test
+    public void regexQueries() {
+        DefaultDriverProvider mockProvider = new DefaultDriverProvider();
+        DefaultDriver fallback = new DefaultDriver("default", Lists.newArrayList(),
+                                                   MFR, HW, SW,
+                                                   ImmutableMap.of(), ImmutableMap.of());
+        DefaultDriver wildcard = new DefaultDriver("wildcard", Lists.newArrayList(),
+                                                   "Acme.*", "1\\.[0-9]+", ".*",
+                                                   ImmutableMap.of(), ImmutableMap.of());
+        DefaultDriver malformed = new DefaultDriver("malformed", Lists.newArrayList(),
+                                                    "Bad[", ".*", SW,
+                                                    ImmutableMap.of(), ImmutableMap.of());
+        mockProvider.addDriver(fallback);
+        mockProvider.addDriver(wildcard);
+        mockProvider.addDriver(malformed);
+        mgr.registerProvider(mockProvider);
+
+        assertSame("regex driver not matched", wildcard,
+                   mgr.getDriver("Acme Inc.", "1.12", "any"));
+        assertSame("regex driver wrongly matched", fallback,
+                   mgr.getDriver("Acme Inc.", "2.0", "any"));
+        assertSame("malformed expression not matched literally", malformed,
+                   mgr.getDriver("Bad[", "hw2", SW));
+        assertSame("default driver not returned", fallback,
+                   mgr.getDriver("Other", HW, SW));
+    }
+
+    // TODO: add tests for driver inheritance
 
     private class TestEventListener implements DriverListener {
         private DriverEvent event;
@@ -23,6 +23,7 @@ import org.junit.Test;
 import org.onlab.junit.TestUtils;
 import org.onlab.junit.TestUtils.TestUtilsException;
 import org.onosproject.event.Event;
+import org.onosproject.net.DefaultPort;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.Link;
@@ -216,6 +217,36 @@ public class ObjectiveTrackerTest extends AbstractIntentTest {
                    equalTo("0x333"));
     }
 
+    /**
+     * Tests that a port going down recompiles the intents crossing it, and
+     * that the port stays tracked while another link still uses it.
+     *
+     * @throws InterruptedException if the latch wait fails.
+     */
+    @Test
+    public void testEventPortDownMatch() throws Exception {
+        final Device device = device("src");
+        final Link link = link("src", 1, "dst", 2);
+        final Link reverse = link("dst", 2, "src", 1);
+
+        final Key key = Key.of(0x333L, APP_ID);
+        tracker.addTrackedResources(key, ImmutableSet.of(link, reverse));
+        tracker.removeTrackedResources(key, ImmutableSet.of(reverse));
+
+        final DeviceEvent deviceEvent =
+                new DeviceEvent(DeviceEvent.Type.PORT_UPDATED, device,
+                                new DefaultPort(device, PortNumber.portNumber(1), false));
+        deviceListener.event(deviceEvent);
+        assertThat(
+                delegate.latch.await(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS),
+                is(true));
+
+        assertThat(delegate.intentIdsFromEvent, hasSize(1));
+        assertThat(delegate.compileAllFailedFromEvent, is(false));
+        assertThat(delegate.intentIdsFromEvent.get(0).toString(),
+                   equalTo("0x333"));
+    }
+
     /**
      * Tests a resource available event.
      *
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl.compiler;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.FilteredConnectPoint;
+import org.onosproject.net.Path;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.intent.AbstractIntentTest;
+import org.onosproject.net.intent.Intent;
+import org.onosproject.net.intent.PointToPointIntent;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.net.topology.LinkWeigher;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyServiceAdapter;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.onosproject.net.NetTestTools.APP_ID;
+import static org.onosproject.net.NetTestTools.connectPoint;
+import static org.onosproject.net.NetTestTools.createPath;
+import static org.onosproject.net.NetTestTools.did;
+
+/**
+ * Unit tests for the path memoization of the connectivity intent compilers.
+ */
+public class ConnectivityIntentCompilerTest extends AbstractIntentTest {
+
+    private static final DeviceId ONE = did("one");
+    private static final DeviceId TWO = did("two");
+
+    private final TestTopology t1 = new TestTopology();
+    private final TestTopology t2 = new TestTopology();
+    private final Path p1 = createPath("one", "mid1", "two");
+    private final Path p2 = createPath("one", "mid2", "two");
+
+    private TestTopologyService topologyService;
+    private TestCompiler compiler;
+    private PointToPointIntent intent;
+
+    @Before
+    public void setUp() {
+        super.setUp();
+        topologyService = new TestTopologyService();
+        compiler = new TestCompiler();
+        compiler.topologyService = topologyService;
+        intent = PointToPointIntent.builder()
+                .appId(APP_ID)
+                .selector(DefaultTrafficSelector.emptySelector())
+                .treatment(DefaultTrafficTreatment.emptyTreatment())
+                .filteredIngressPoint(new FilteredConnectPoint(connectPoint("one", 1)))
+                .filteredEgressPoint(new FilteredConnectPoint(connectPoint("two", 1)))
+                .build();
+    }
+
+    /**
+     * Tests that paths are computed once per topology and end-point pair.
+     */
+    @Test
+    public void testPathsMemoized() {
+        topologyService.current = t1;
+        assertThat(compiler.paths(intent, ONE, TWO), is(ImmutableSet.of(p1)));
+        assertThat(compiler.paths(intent, ONE, TWO), is(ImmutableSet.of(p1)));
+        assertThat(topologyService.computations, is(1));
+    }
+
+    /**
+     * Tests that a topology change invalidates the memoized paths, and that
+     * paths computed against a topology which changed while they were being
+     * computed are never handed out for the new one.
+     */
+    @Test
+    public void testTopologyChange() {
+        topologyService.current = t1;
+        assertThat(compiler.paths(intent, ONE, TWO), is(ImmutableSet.of(p1)));
+
+        topologyService.current = t2;
+        assertThat(compiler.paths(intent, ONE, TWO), is(ImmutableSet.of(p2)));
+        assertThat(topologyService.computations, is(2));
+
+        // The topology moves on while paths for the old one are computed.
+        topologyService.current = t1;
+        topologyService.onCompute = () -> topologyService.current = t2;
+        assertThat(compiler.paths(intent, ONE, TWO), is(ImmutableSet.of(p1)));
+        topologyService.onCompute = null;
+        assertThat(compiler.paths(intent, ONE, TWO), is(ImmutableSet.of(p2)));
+    }
+
+    private final class TestTopologyService extends TopologyServiceAdapter {
+        private volatile Topology current;
+        private Runnable onCompute;
+        private int computations;
+
+        @Override
+        public Topology currentTopology() {
+            return current;
+        }
+
+        @Override
+        public Set<Path> getPaths(Topology topology, DeviceId src, DeviceId dst,
+                                  LinkWeigher weigher) {
+            computations++;
+            if (onCompute != null) {
+                onCompute.run();
+            }
+            return ImmutableSet.of(topology == t1 ? p1 : p2);
+        }
+    }
+
+    private static final class TestCompiler
+            extends ConnectivityIntentCompiler<PointToPointIntent> {
+        @Override
+        public List<Intent> compile(PointToPointIntent intent, List<Intent> installable) {
+            return ImmutableList.of();
+        }
+    }
+
+    private static final class TestTopology implements Topology {
+        @Override
+        public long time() {
+            return 0;
+        }
+
+        @Override
+        public long creationTime() {
+            return 0;
+        }
+
+        @Override
+        public long computeCost() {
+            return 0;
+        }
+
+        @Override
+        public int clusterCount() {
+            return 0;
+        }
+
+        @Override
+        public int deviceCount() {
+            return 0;
+        }
+
+        @Override
+        public int linkCount() {
+            return 0;
+        }
+
+        @Override
+        public ProviderId providerId() {
+            return ProviderId.NONE;
+        }
+    }
+}
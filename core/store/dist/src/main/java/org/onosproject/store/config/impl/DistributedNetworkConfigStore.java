@@ -29,6 +29,7 @@ import com.fasterxml.jackson.databind.node.ShortNode;
 import com.fasterxml.jackson.databind.node.TextNode;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.onlab.util.KryoNamespace;
 import org.onosproject.net.config.Config;
 import org.onosproject.net.config.ConfigApplyDelegate;
@@ -91,6 +92,7 @@ public class DistributedNetworkConfigStore
     private final ObjectMapper mapper = new ObjectMapper();
     private final ConfigApplyDelegate applyDelegate = new InternalApplyDelegate();
     private final MapEventListener<ConfigKey, JsonNode> listener = new InternalMapListener();
+    private final ConfigKeyIndex index = new ConfigKeyIndex();
 
     @Activate
     public void activate() {
@@ -108,12 +110,14 @@ public class DistributedNetworkConfigStore
                 .withRelaxedReadConsistency()
                 .build();
         configs.addListener(listener);
+        configs.keySet().forEach(index::add);
         log.info("Started");
     }
 
     @Deactivate
     public void deactivate() {
         configs.removeListener(listener);
+        index.clear();
         log.info("Stopped");
     }
 
@@ -132,6 +136,7 @@ public class DistributedNetworkConfigStore
                     isAssignableFrom(configFactory, k)) {
                 // Prune whether valid or not
                 Versioned<JsonNode> versioned = configs.remove(k);
+                reindex(k);
                 // Allow for the value to be processed by another node already
                 if (versioned != null) {
                     validateConfig(k, configFactory, versioned.value());
@@ -156,7 +161,9 @@ public class DistributedNetworkConfigStore
         Config config = createConfig(subject, configFactory.configClass(), json);
         try {
             checkArgument(config.isValid(), INVALID_CONFIG_JSON);
-            configs.putAndGet(key(subject, configFactory.configClass()), json);
+            ConfigKey validKey = key(subject, configFactory.configClass());
+            configs.putAndGet(validKey, json);
+            reindex(validKey);
         } catch (Exception e) {
             log.warn("Failed to validate pending {} configuration for {}: {}",
                      key.configKey, key.subject, json);
@@ -176,9 +183,12 @@ public class DistributedNetworkConfigStore
         configs.keySet().forEach(k -> {
             if (Objects.equals(configFactory.configClass().getName(), k.configClass)) {
                 Versioned<JsonNode> remove = configs.remove(k);
+                reindex(k);
                 if (remove != null) {
                     JsonNode json = remove.value();
-                    configs.put(key(k.subject, configFactory.configKey()), json);
+                    ConfigKey pendingKey = key(k.subject, configFactory.configKey());
+                    configs.put(pendingKey, json);
+                    reindex(pendingKey);
                     log.debug("Set config pending: {}, {}", k.subject, k.configClass);
                 }
             }
@@ -195,9 +205,9 @@ public class DistributedNetworkConfigStore
     @SuppressWarnings("unchecked")
     public <S> Set<S> getSubjects(Class<S> subjectClass) {
         ImmutableSet.Builder<S> builder = ImmutableSet.builder();
-        configs.keySet().forEach(k -> {
-            if (subjectClass.isInstance(k.subject)) {
-                builder.add((S) k.subject);
+        index.subjectsByClass.forEach((c, subjects) -> {
+            if (subjectClass.isAssignableFrom(c)) {
+                subjects.forEach(s -> builder.add((S) s));
             }
         });
         return builder.build();
@@ -207,12 +217,14 @@ public class DistributedNetworkConfigStore
     @SuppressWarnings("unchecked")
     public <S, C extends Config<S>> Set<S> getSubjects(Class<S> subjectClass, Class<C> configClass) {
         ImmutableSet.Builder<S> builder = ImmutableSet.builder();
-        String cName = configClass.getName();
-        configs.keySet().forEach(k -> {
-            if (subjectClass.isInstance(k.subject) && Objects.equals(cName, k.configClass)) {
-                builder.add((S) k.subject);
-            }
-        });
+        Set<Object> subjects = index.subjectsByConfigClass.get(configClass.getName());
+        if (subjects != null) {
+            subjects.forEach(s -> {
+                if (subjectClass.isInstance(s)) {
+                    builder.add((S) s);
+                }
+            });
+        }
         return builder.build();
     }
 
@@ -220,8 +232,8 @@ public class DistributedNetworkConfigStore
     @SuppressWarnings("unchecked")
     public <S> Set<Class<? extends Config<S>>> getConfigClasses(S subject) {
         ImmutableSet.Builder<Class<? extends Config<S>>> builder = ImmutableSet.builder();
-        configs.keySet().forEach(k -> {
-            if (Objects.equals(subject, k.subject) && k.configClass != null && delegate != null) {
+        index.keys(subject).forEach(k -> {
+            if (k.configClass != null && delegate != null) {
                 ConfigFactory<S, ? extends Config<S>> configFactory = factoriesByConfig.get(k.configClass);
                 if (configFactory == null) {
                     log.warn("Found config but no config factory: subject={}, configClass={}",
@@ -244,10 +256,12 @@ public class DistributedNetworkConfigStore
     @Override
     public <S, C extends Config<S>> C createConfig(S subject, Class<C> configClass) {
         ConfigFactory<S, C> factory = getConfigFactory(configClass);
-        Versioned<JsonNode> json = configs.computeIfAbsent(key(subject, configClass),
+        ConfigKey key = key(subject, configClass);
+        Versioned<JsonNode> json = configs.computeIfAbsent(key,
                                                              k -> factory.isList() ?
                                                                      mapper.createArrayNode() :
                                                                      mapper.createObjectNode());
+        reindex(key);
         return createConfig(subject, configClass, json.value());
     }
 
@@ -268,7 +282,9 @@ public class DistributedNetworkConfigStore
         }
 
         // Insert the validated configuration and get it back.
-        Versioned<JsonNode> versioned = configs.putAndGet(key(subject, configClass), json);
+        ConfigKey key = key(subject, configClass);
+        Versioned<JsonNode> versioned = configs.putAndGet(key, json);
+        reindex(key);
 
         // Re-create the config if for some reason what we attempted to put
         // was supplanted by someone else already.
@@ -277,24 +293,26 @@ public class DistributedNetworkConfigStore
 
     @Override
     public <S> void queueConfig(S subject, String configKey, JsonNode json) {
-        configs.put(key(subject, configKey), json);
+        ConfigKey key = key(subject, configKey);
+        configs.put(key, json);
+        reindex(key);
     }
 
     @Override
     public <S, C extends Config<S>> void clearConfig(S subject, Class<C> configClass) {
-        configs.remove(key(subject, configClass));
+        removeConfig(key(subject, configClass));
     }
 
     @Override
     public <S> void clearQueuedConfig(S subject, String configKey) {
-        configs.remove(key(subject, configKey));
+        removeConfig(key(subject, configKey));
     }
 
     @Override
     public <S> void clearConfig(S subject) {
-        configs.keySet().forEach(k -> {
-            if (Objects.equals(subject, k.subject) && delegate != null) {
-                configs.remove(k);
+        index.keys(subject).forEach(k -> {
+            if (delegate != null) {
+                removeConfig(k);
             }
         });
     }
@@ -303,11 +321,30 @@ public class DistributedNetworkConfigStore
     public <S> void clearConfig() {
         configs.keySet().forEach(k -> {
             if (delegate != null) {
-                configs.remove(k);
+                removeConfig(k);
             }
         });
     }
 
+    // Removes the configuration under the given key and drops it from the index.
+    private void removeConfig(ConfigKey key) {
+        configs.remove(key);
+        reindex(key);
+    }
+
+    // Brings the index entry of the given key in line with the map after a
+    // local update. Map events of concurrent remote updates may be applied
+    // to the index in the meantime, in which case membership is re-checked
+    // so that a stale local view never overrides them.
+    private void reindex(ConfigKey key) {
+        long mark;
+        boolean present;
+        do {
+            mark = index.mark();
+            present = configs.containsKey(key);
+        } while (!index.update(key, present, mark));
+    }
+
     /**
      * Produces a config from the specified subject, config class and raw JSON.
      *
@@ -384,7 +421,9 @@ public class DistributedNetworkConfigStore
     private class InternalApplyDelegate implements ConfigApplyDelegate {
         @Override
         public void onApply(Config config) {
-            configs.put(key(config.subject(), config.getClass()), config.node());
+            ConfigKey key = key(config.subject(), config.getClass());
+            configs.put(key, config.node());
+            reindex(key);
         }
     }
 
@@ -439,9 +478,93 @@ public class DistributedNetworkConfigStore
         }
     }
 
+    // Local indexes over the configuration keys, so that subject queries
+    // do not have to sweep through the entire configuration map.
+    // Updates are serialized; lookups read the concurrent sets directly.
+    private static final class ConfigKeyIndex {
+        private final Map<Object, Set<ConfigKey>> keysBySubject = Maps.newConcurrentMap();
+        private final Map<Class<?>, Set<Object>> subjectsByClass = Maps.newConcurrentMap();
+        private final Map<String, Set<Object>> subjectsByConfigClass = Maps.newConcurrentMap();
+        private long updates; // guarded by this
+
+        // Returns a snapshot of all keys, pending or not, of the given subject.
+        Set<ConfigKey> keys(Object subject) {
+            Set<ConfigKey> keys = keysBySubject.get(subject);
+            return keys != null ? ImmutableSet.copyOf(keys) : ImmutableSet.of();
+        }
+
+        // Returns a mark to be passed to update(), identifying the current
+        // state of the index.
+        synchronized long mark() {
+            return updates;
+        }
+
+        // Adds or removes the key, provided that the index was not updated
+        // since the given mark was taken; returns false otherwise.
+        synchronized boolean update(ConfigKey key, boolean present, long mark) {
+            if (mark != updates) {
+                return false;
+            }
+            if (present) {
+                add(key);
+            } else {
+                remove(key);
+            }
+            return true;
+        }
+
+        synchronized void add(ConfigKey key) {
+            updates++;
+            keysBySubject.computeIfAbsent(key.subject, s -> Sets.newConcurrentHashSet()).add(key);
+            subjectsByClass.computeIfAbsent(key.subject.getClass(), c -> Sets.newConcurrentHashSet())
+                    .add(key.subject);
+            if (key.configClass != null) {
+                subjectsByConfigClass.computeIfAbsent(key.configClass, c -> Sets.newConcurrentHashSet())
+                        .add(key.subject);
+            }
+        }
+
+        synchronized void remove(ConfigKey key) {
+            updates++;
+            Set<ConfigKey> keys = keysBySubject.get(key.subject);
+            if (keys == null || !keys.remove(key)) {
+                return;
+            }
+            if (key.configClass != null) {
+                removeFrom(subjectsByConfigClass, key.configClass, key.subject);
+            }
+            if (keys.isEmpty()) {
+                keysBySubject.remove(key.subject);
+                removeFrom(subjectsByClass, key.subject.getClass(), key.subject);
+            }
+        }
+
+        synchronized void clear() {
+            keysBySubject.clear();
+            subjectsByClass.clear();
+            subjectsByConfigClass.clear();
+        }
+
+        private static <K> void removeFrom(Map<K, Set<Object>> map, K key, Object subject) {
+            Set<Object> subjects = map.get(key);
+            if (subjects != null) {
+                subjects.remove(subject);
+                if (subjects.isEmpty()) {
+                    map.remove(key);
+                }
+            }
+        }
+    }
+
     private class InternalMapListener implements MapEventListener<ConfigKey, JsonNode> {
         @Override
         public void event(MapEvent<ConfigKey, JsonNode> event) {
+            if (event.type() == MapEvent.Type.REMOVE) {
+                index.remove(event.key());
+            } else {
+                index.add(event.key());
+            }
+
             // Do not delegate pending configs.
             if (event.key().configClass == null) {
                 return;
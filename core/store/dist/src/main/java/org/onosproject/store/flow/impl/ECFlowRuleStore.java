@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -911,6 +912,28 @@ public class ECFlowRuleStore
             .sum();
     }
 
+    @Override
+    public CompletableFuture<Void> awaitFlowTableActive(DeviceId deviceId, long term) {
+        // Masters record the term in which they activated the flow table once they synchronized it
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        MapEventListener<DeviceId, Long> listener = event -> {
+            if (event.key().equals(deviceId) && event.newValue() != null && event.newValue().value() >= term) {
+                future.complete(null);
+            }
+        };
+        mastershipTermLifecycles.addListener(listener)
+            .thenCompose(v -> mastershipTermLifecycles.get(deviceId))
+            .whenComplete((activeTerm, error) -> {
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else if (activeTerm != null && activeTerm.value() >= term) {
+                    future.complete(null);
+                }
+            });
+        future.whenComplete((r, e) -> mastershipTermLifecycles.removeListener(listener));
+        return future;
+    }
+
     private class InternalTableStatsListener
         implements EventuallyConsistentMapListener<DeviceId, List<TableStatisticsEntry>> {
         @Override
@@ -16,6 +16,8 @@
 package org.onosproject.store.intent.impl;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import org.apache.commons.lang.math.RandomUtils;
 import org.onlab.util.Backtrace;
 import org.onlab.util.KryoNamespace;
@@ -23,9 +25,12 @@ import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.cluster.NodeId;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.net.NetworkResource;
 import org.onosproject.net.intent.Intent;
 import org.onosproject.net.intent.IntentData;
 import org.onosproject.net.intent.IntentEvent;
+import org.onosproject.net.intent.IntentId;
 import org.onosproject.net.intent.IntentState;
 import org.onosproject.net.intent.IntentStore;
 import org.onosproject.net.intent.IntentStoreDelegate;
@@ -53,12 +58,15 @@ import org.slf4j.Logger;
 import java.util.Collection;
 import java.util.Dictionary;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static org.onlab.util.Tools.get;
@@ -94,6 +102,9 @@ public class GossipIntentStore
     // Map of intent key => pending intent operation
     private EventuallyConsistentMap<Key, IntentData> pendingMap;
 
+    // Local indexes of the current map
+    private final IntentDataIndex currentIndex = new IntentDataIndex();
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected ComponentConfigService configService;
 
@@ -191,6 +202,7 @@ public class GossipIntentStore
 
         currentMap.addListener(mapCurrentListener);
         pendingMap.addListener(mapPendingListener);
+        currentMap.values().forEach(currentIndex::update);
 
         log.info("Started");
     }
@@ -206,6 +218,7 @@ public class GossipIntentStore
         pendingMap.removeListener(mapPendingListener);
         currentMap.destroy();
         pendingMap.destroy();
+        currentIndex.clear();
 
         log.info("Stopped");
     }
@@ -277,6 +290,59 @@ public class GossipIntentStore
         return currentMap.values();
     }
 
+    @Override
+    public Iterable<IntentData> getIntentDataByState(Set<IntentState> states,
+                                                     boolean localOnly, long olderThan) {
+        // The index trails the current map, so the state is checked again.
+        Iterable<IntentData> data = Iterables.filter(lookup(currentIndex.keysByState(states)),
+                                                     d -> states.contains(d.state()));
+        if (localOnly || olderThan > 0) {
+            long now = System.currentTimeMillis();
+            final WallClockTimestamp time = new WallClockTimestamp(now - olderThan);
+            return Iterables.filter(data, d -> d.version().isOlderThan(time) &&
+                    (!localOnly || isMaster(d.key())));
+        }
+        return data;
+    }
+
+    @Override
+    public Iterable<IntentData> getIntentDataByAppId(ApplicationId appId) {
+        // The index trails the current map, so the application is checked again.
+        return Iterables.filter(lookup(currentIndex.keysByAppId(appId)),
+                                d -> Objects.equals(appId, d.intent().appId()));
+    }
+
+    @Override
+    public Iterable<IntentData> getIntentDataByResource(NetworkResource resource) {
+        // The index trails the current map, so the resources are checked again.
+        return Iterables.filter(lookup(currentIndex.keysByResource(resource)),
+                                d -> IntentDataIndex.resources(d).contains(resource));
+    }
+
+    @Override
+    public List<IntentData> getIntentDataPage(IntentId after, int limit) {
+        checkArgument(limit > 0, "Limit must be positive");
+        List<IntentData> page = Lists.newArrayList();
+        for (Map.Entry<Long, Key> entry : currentIndex.keysAfter(after).entrySet()) {
+            IntentData data = currentMap.get(entry.getValue());
+            // The index trails the current map, so the identifier is checked
+            // again; a resubmitted intent is listed at its new identifier.
+            if (data != null && data.intent().id().fingerprint() == entry.getKey()) {
+                page.add(data);
+                if (page.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+
+    // Lazily resolves the given keys against the current map, skipping
+    // intents removed since the keys were looked up.
+    private Iterable<IntentData> lookup(Set<Key> keys) {
+        return Iterables.filter(Iterables.transform(keys, currentMap::get), Objects::nonNull);
+    }
+
     @Override
     public IntentState getIntentState(Key intentKey) {
         IntentData data = currentMap.get(intentKey);
@@ -462,6 +528,7 @@ public class GossipIntentStore
         public void event(EventuallyConsistentMapEvent<Key, IntentData> event) {
             IntentData intentData = event.value();
             if (event.type() == EventuallyConsistentMapEvent.Type.PUT) {
+                currentIndex.update(intentData);
                 // The current intents map has been updated. If we are master for
                 // this intent's partition, notify the Manager that it should
                 // emit notifications about updated tracked resources.
@@ -469,6 +536,8 @@ public class GossipIntentStore
                     delegate.onUpdate(IntentData.copy(intentData)); // copy for safety, likely unnecessary
                 }
                 IntentEvent.getEvent(intentData).ifPresent(e -> notifyDelegate(e));
+            } else if (event.type() == EventuallyConsistentMapEvent.Type.REMOVE) {
+                currentIndex.remove(event.key());
             }
         }
     }
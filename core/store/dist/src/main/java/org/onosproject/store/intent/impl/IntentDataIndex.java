@@ -0,0 +1,195 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.intent.impl;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.net.NetworkResource;
+import org.onosproject.net.intent.Intent;
+import org.onosproject.net.intent.IntentData;
+import org.onosproject.net.intent.IntentId;
+import org.onosproject.net.intent.IntentState;
+import org.onosproject.net.intent.Key;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Local secondary indexes of the current intent map, by intent state,
+ * application, network resource used by the intent or its installables, and
+ * intent identifier. The indexes are maintained from map events and may
+ * trail the map, hence matches must be checked again against the current
+ * data.
+ */
+final class IntentDataIndex {
+
+    private final Map<Key, Entry> entries = Maps.newConcurrentMap();
+    private final Map<IntentState, Set<Key>> keysByState = Maps.newConcurrentMap();
+    private final Map<ApplicationId, Set<Key>> keysByAppId = Maps.newConcurrentMap();
+    private final Map<NetworkResource, Set<Key>> keysByResource = Maps.newConcurrentMap();
+    // Ordered by intent identifier, for paged listings
+    private final NavigableMap<Long, Key> keysById = new ConcurrentSkipListMap<>();
+
+    /**
+     * Indexes the given intent data, replacing any prior entry for its key.
+     *
+     * @param data intent data
+     */
+    synchronized void update(IntentData data) {
+        Entry entry = new Entry(data);
+        Entry prior = entries.put(data.key(), entry);
+        if (prior != null) {
+            unindex(data.key(), prior);
+        }
+        add(keysByState, entry.state, data.key());
+        add(keysByAppId, entry.appId, data.key());
+        entry.resources.forEach(r -> add(keysByResource, r, data.key()));
+        keysById.put(entry.id, data.key());
+    }
+
+    /**
+     * Removes the entry for the given intent key.
+     *
+     * @param key intent key
+     */
+    synchronized void remove(Key key) {
+        Entry prior = entries.remove(key);
+        if (prior != null) {
+            unindex(key, prior);
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    synchronized void clear() {
+        entries.clear();
+        keysByState.clear();
+        keysByAppId.clear();
+        keysByResource.clear();
+        keysById.clear();
+    }
+
+    /**
+     * Returns the keys of intents in any of the given states.
+     *
+     * @param states intent states
+     * @return snapshot of matching intent keys
+     */
+    Set<Key> keysByState(Set<IntentState> states) {
+        ImmutableSet.Builder<Key> builder = ImmutableSet.builder();
+        states.forEach(state -> builder.addAll(keysByState.getOrDefault(state, ImmutableSet.of())));
+        return builder.build();
+    }
+
+    /**
+     * Returns the keys of intents submitted by the given application.
+     *
+     * @param appId application identifier
+     * @return snapshot of matching intent keys
+     */
+    Set<Key> keysByAppId(ApplicationId appId) {
+        return ImmutableSet.copyOf(keysByAppId.getOrDefault(appId, ImmutableSet.of()));
+    }
+
+    /**
+     * Returns the keys of intents using the given resource, either directly
+     * or through their installable intents.
+     *
+     * @param resource network resource
+     * @return snapshot of matching intent keys
+     */
+    Set<Key> keysByResource(NetworkResource resource) {
+        return ImmutableSet.copyOf(keysByResource.getOrDefault(resource, ImmutableSet.of()));
+    }
+
+    /**
+     * Returns the intent keys by intent identifier, for the identifiers
+     * following the given one. The returned view is weakly consistent and
+     * ordered by the identifier fingerprint.
+     *
+     * @param after identifier to start after; from the first if null
+     * @return view of intent keys by identifier fingerprint
+     */
+    NavigableMap<Long, Key> keysAfter(IntentId after) {
+        return after == null ? keysById : keysById.tailMap(after.fingerprint(), false);
+    }
+
+    private void unindex(Key key, Entry entry) {
+        remove(keysByState, entry.state, key);
+        remove(keysByAppId, entry.appId, key);
+        entry.resources.forEach(r -> remove(keysByResource, r, key));
+        keysById.remove(entry.id, key);
+    }
+
+    private static <K> void add(Map<K, Set<Key>> index, K indexKey, Key key) {
+        if (indexKey != null) {
+            index.computeIfAbsent(indexKey, k -> Sets.newConcurrentHashSet()).add(key);
+        }
+    }
+
+    private static <K> void remove(Map<K, Set<Key>> index, K indexKey, Key key) {
+        if (indexKey == null) {
+            return;
+        }
+        Set<Key> keys = index.get(indexKey);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                index.remove(indexKey);
+            }
+        }
+    }
+
+    // Indexed attributes of an intent; retained to unindex the prior value.
+    private static final class Entry {
+        private final IntentState state;
+        private final ApplicationId appId;
+        private final Set<NetworkResource> resources;
+        private final long id;
+
+        private Entry(IntentData data) {
+            this.state = data.state();
+            this.appId = data.intent().appId();
+            this.resources = resources(data);
+            this.id = data.intent().id().fingerprint();
+        }
+    }
+
+    /**
+     * Returns the network resources used by the intent of the given data or
+     * by its installable intents.
+     *
+     * @param data intent data
+     * @return network resources
+     */
+    static Set<NetworkResource> resources(IntentData data) {
+        ImmutableSet.Builder<NetworkResource> builder = ImmutableSet.builder();
+        addResources(builder, data.intent());
+        data.installables().forEach(i -> addResources(builder, i));
+        return builder.build();
+    }
+
+    private static void addResources(ImmutableSet.Builder<NetworkResource> builder, Intent intent) {
+        if (intent.resources() != null) {
+            builder.addAll(intent.resources());
+        }
+    }
+}
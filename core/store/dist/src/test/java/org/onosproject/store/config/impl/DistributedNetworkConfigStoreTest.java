@@ -235,4 +235,37 @@ public class DistributedNetworkConfigStoreTest {
 
         assertThat(newConfig1, notNullValue());
     }
+
+    /**
+     * Tests that the subject indexes track additions and removals of
+     * both registered and pending configurations.
+     */
+    @Test
+    public void testSubjectIndex() {
+        configStore.addConfigFactory(new MockConfigFactory(BasicConfig.class, "config1"));
+        configStore.addConfigFactory(new MockIntConfigFactory(BasicIntConfig.class, "config3"));
+
+        configStore.applyConfig("subject1", BasicConfig.class, new ObjectMapper().createObjectNode());
+        configStore.applyConfig("subject2", BasicConfig.class, new ObjectMapper().createObjectNode());
+        configStore.applyConfig(123, BasicIntConfig.class, new ObjectMapper().createObjectNode());
+        configStore.queueConfig("subject1", "config2", new ObjectMapper().createObjectNode());
+
+        assertThat(configStore.getSubjects(String.class, BasicConfig.class), hasSize(2));
+        assertThat(configStore.getSubjects(String.class), hasSize(2));
+        assertThat(configStore.getSubjects(Integer.class), hasSize(1));
+        assertThat(configStore.getSubjects(Object.class), hasSize(3));
+
+        configStore.clearConfig("subject1", BasicConfig.class);
+        assertThat(configStore.getSubjects(String.class, BasicConfig.class), hasSize(1));
+        assertThat(configStore.getConfigClasses("subject1"), hasSize(0));
+        // subject1 still has a pending configuration
+        assertThat(configStore.getSubjects(String.class), hasSize(2));
+
+        configStore.clearConfig("subject1");
+        assertThat(configStore.getSubjects(String.class), hasSize(1));
+
+        configStore.clearConfig(123);
+        assertThat(configStore.getSubjects(Integer.class), hasSize(0));
+        assertThat(configStore.getSubjects(Object.class), hasSize(1));
+    }
 }
@@ -17,7 +17,9 @@ package org.onosproject.store.flow.impl;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -47,11 +49,18 @@ import org.onosproject.store.service.AsyncConsistentMap;
 import org.onosproject.store.service.AsyncConsistentMapAdapter;
 import org.onosproject.store.service.ConsistentMap;
 import org.onosproject.store.service.ConsistentMapBuilder;
+import org.onosproject.store.service.MapEvent;
+import org.onosproject.store.service.MapEventListener;
 import org.onosproject.store.service.TestStorageService;
+import org.onosproject.store.service.Versioned;
 
 import org.onlab.packet.Ip4Address;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import org.osgi.service.component.ComponentContext;
 
@@ -310,4 +319,57 @@ public class ECFlowRuleStoreTest {
         }
         assertThat(sum3, is(0));
     }
+
+    /**
+     * Tests waiting for the flow table of a device to be active in a term.
+     */
+    @Test
+    public void testAwaitFlowTableActive() {
+        TermMap terms = new TermMap();
+        flowStoreImpl.mastershipTermLifecycles = terms;
+
+        CompletableFuture<Void> active = flowStoreImpl.awaitFlowTableActive(deviceId, 2);
+        assertThat(active.isDone(), is(false));
+        terms.activate(deviceId, 1);
+        assertThat(active.isDone(), is(false));
+        terms.activate(deviceId, 2);
+        assertThat(active.isDone(), is(true));
+        assertThat(terms.listeners.isEmpty(), is(true));
+
+        // Terms activated earlier are reported right away
+        assertThat(flowStoreImpl.awaitFlowTableActive(deviceId, 2).isDone(), is(true));
+
+        // Cancelled waits stop listening
+        flowStoreImpl.awaitFlowTableActive(deviceId, 3).cancel(false);
+        assertThat(terms.listeners.isEmpty(), is(true));
+    }
+
+    // Map of activated terms notifying its listeners synchronously.
+    private static final class TermMap extends AsyncConsistentMapAdapter<DeviceId, Long> {
+        private final Map<DeviceId, Versioned<Long>> terms = Maps.newHashMap();
+        private final Set<MapEventListener<DeviceId, Long>> listeners = Sets.newHashSet();
+
+        private void activate(DeviceId deviceId, long term) {
+            Versioned<Long> previous = terms.put(deviceId, new Versioned<>(term, term));
+            MapEvent<DeviceId, Long> event = new MapEvent<>("terms", deviceId, terms.get(deviceId), previous);
+            Sets.newHashSet(listeners).forEach(listener -> listener.event(event));
+        }
+
+        @Override
+        public CompletableFuture<Versioned<Long>> get(DeviceId key) {
+            return CompletableFuture.completedFuture(terms.get(key));
+        }
+
+        @Override
+        public CompletableFuture<Void> addListener(MapEventListener<DeviceId, Long> listener, Executor executor) {
+            listeners.add(listener);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> removeListener(MapEventListener<DeviceId, Long> listener) {
+            listeners.remove(listener);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
 }
@@ -15,25 +15,34 @@
  */
 package org.onosproject.store.intent.impl;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.junit.TestUtils;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cfg.ConfigProperty;
 import org.onosproject.cluster.ClusterServiceAdapter;
 import org.onosproject.cluster.NodeId;
+import org.onosproject.net.Link;
 import org.onosproject.net.intent.AbstractIntentTest;
 import org.onosproject.net.intent.HostToHostIntent;
 import org.onosproject.net.intent.Intent;
 import org.onosproject.net.intent.IntentData;
+import org.onosproject.net.intent.IntentId;
 import org.onosproject.net.intent.IntentState;
 import org.onosproject.net.intent.IntentTestsMocks;
 import org.onosproject.net.intent.WorkPartitionServiceAdapter;
 import org.onosproject.store.service.TestStorageService;
 
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.hamcrest.Matchers.is;
@@ -41,6 +50,7 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.onosproject.net.NetTestTools.APP_ID;
 import static org.onosproject.net.NetTestTools.hid;
+import static org.onosproject.net.NetTestTools.link;
 
 /**
  * Gossip Intent Store test using database adapter.
@@ -189,6 +199,112 @@ public class GossipIntentStoreTest extends AbstractIntentTest {
         assertThat(queriedAfterWithdrawal, nullValue());
     }
 
+    /**
+     * Tests the queries served by the state and application indexes.
+     */
+    @Test
+    public void testIndexedQueries() {
+        List<IntentData> intents = generateIntentList(3);
+        intentStore.batchWrite(intents);
+
+        IntentData failed = new IntentData(builder1.priority(10).build(),
+                                           IntentState.FAILED,
+                                           new IntentTestsMocks.MockTimestamp(12));
+        intentStore.write(failed);
+
+        assertThat(Iterables.size(intentStore.getIntentDataByState(
+                EnumSet.of(IntentState.INSTALLED), false, 0)), is(3));
+        assertThat(Iterables.getOnlyElement(intentStore.getIntentDataByState(
+                EnumSet.of(IntentState.FAILED, IntentState.CORRUPT), false, 0)), is(failed));
+        assertThat(Iterables.size(intentStore.getIntentDataByAppId(APP_ID)), is(4));
+
+        // purging the intent drops it from the indexes
+        intentStore.write(IntentData.assign(IntentData.purge(failed.intent()),
+                                            new IntentTestsMocks.MockTimestamp(12),
+                                            new NodeId("node-id")));
+        assertThat(Iterables.isEmpty(intentStore.getIntentDataByState(
+                EnumSet.of(IntentState.FAILED), false, 0)), is(true));
+        assertThat(Iterables.size(intentStore.getIntentDataByAppId(APP_ID)), is(3));
+    }
+
+    /**
+     * Tests the queries served by the resource index.
+     */
+    @Test
+    public void testResourceQuery() {
+        Link link = link("a", 1, "b", 2);
+        Link other = link("b", 2, "c", 3);
+        List<IntentData> intents = generateIntentList(2);
+        IntentData compiled = IntentData.compiled(
+                intents.get(0), ImmutableList.of(new IntentTestsMocks.MockIntent(1L, ImmutableList.of(link))));
+        intentStore.write(compiled);
+        intentStore.write(intents.get(1));
+
+        assertThat(Iterables.getOnlyElement(intentStore.getIntentDataByResource(link)).key(),
+                   is(compiled.key()));
+        assertThat(Iterables.isEmpty(intentStore.getIntentDataByResource(other)), is(true));
+
+        // recompiling the intent over another link moves it in the index
+        IntentData recompiled = new IntentData(compiled.intent(), IntentState.INSTALLED,
+                                               new IntentTestsMocks.MockTimestamp(13));
+        intentStore.write(IntentData.compiled(
+                recompiled, ImmutableList.of(new IntentTestsMocks.MockIntent(2L, ImmutableList.of(other)))));
+        assertThat(Iterables.isEmpty(intentStore.getIntentDataByResource(link)), is(true));
+        assertThat(Iterables.getOnlyElement(intentStore.getIntentDataByResource(other)).key(),
+                   is(compiled.key()));
+    }
+
+    /**
+     * Tests paging through the intents by identifier.
+     */
+    @Test
+    public void testIntentDataPage() {
+        List<IntentData> intents = generateIntentList(5);
+        intentStore.batchWrite(intents);
+        List<IntentId> ids = intents.stream()
+                .map(data -> data.intent().id())
+                .sorted(Comparator.comparingLong(IntentId::fingerprint))
+                .collect(Collectors.toList());
+
+        List<IntentData> first = intentStore.getIntentDataPage(null, 2);
+        assertThat(Lists.transform(first, data -> data.intent().id()), is(ids.subList(0, 2)));
+        List<IntentData> second = intentStore.getIntentDataPage(ids.get(1), 2);
+        assertThat(Lists.transform(second, data -> data.intent().id()), is(ids.subList(2, 4)));
+        List<IntentData> last = intentStore.getIntentDataPage(ids.get(3), 2);
+        assertThat(Lists.transform(last, data -> data.intent().id()), is(ids.subList(4, 5)));
+        assertThat(intentStore.getIntentDataPage(ids.get(4), 2).isEmpty(), is(true));
+
+        // purged intents are no longer listed
+        IntentData purged = intents.stream()
+                .filter(data -> data.intent().id().equals(ids.get(2)))
+                .findFirst().get();
+        intentStore.write(IntentData.assign(IntentData.purge(purged.intent()),
+                                            new IntentTestsMocks.MockTimestamp(12),
+                                            new NodeId("node-id")));
+        second = intentStore.getIntentDataPage(ids.get(1), 2);
+        assertThat(Lists.transform(second, data -> data.intent().id()),
+                   is(ImmutableList.of(ids.get(3), ids.get(4))));
+    }
+
+    /**
+     * Tests that index entries trailing the current map are not returned.
+     */
+    @Test
+    public void testStaleIndexEntries() {
+        IntentData installed = generateIntentList(1).get(0);
+        intentStore.write(installed);
+
+        // index the intent under a state it is not currently in
+        IntentDataIndex index = TestUtils.getField(intentStore, "currentIndex");
+        index.update(new IntentData(installed.intent(), IntentState.FAILED,
+                                    new IntentTestsMocks.MockTimestamp(1)));
+
+        assertThat(Iterables.isEmpty(intentStore.getIntentDataByState(
+                EnumSet.of(IntentState.FAILED), false, 0)), is(true));
+        assertThat(Iterables.isEmpty(intentStore.getIntentDataByState(
+                EnumSet.of(IntentState.FAILED), false, 1)), is(true));
+    }
+
     /**
      * Tests the operation of the APIs for the pending map.
      */
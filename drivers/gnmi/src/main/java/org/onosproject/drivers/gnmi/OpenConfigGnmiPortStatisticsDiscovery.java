@@ -25,6 +25,7 @@ import gnmi.Gnmi.Path;
 import org.apache.commons.lang3.tuple.Pair;
 import org.onosproject.gnmi.api.GnmiClient;
 import org.onosproject.gnmi.api.GnmiController;
+import org.onosproject.gnmi.api.GnmiUtils;
 import org.onosproject.grpc.utils.AbstractGrpcHandlerBehaviour;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.Port;
@@ -78,17 +79,10 @@ public class OpenConfigGnmiPortStatisticsDiscovery
 
         GetResponse getResponse = Futures.getUnchecked(client.get(getRequest.build()));
 
-        Map<String, Long> inPkts = Maps.newHashMap();
-        Map<String, Long> outPkts = Maps.newHashMap();
-        Map<String, Long> inBytes = Maps.newHashMap();
-        Map<String, Long> outBytes = Maps.newHashMap();
-        Map<String, Long> inDropped = Maps.newHashMap();
-        Map<String, Long> outDropped = Maps.newHashMap();
-        Map<String, Long> inErrors = Maps.newHashMap();
-        Map<String, Long> outErrors = Maps.newHashMap();
+        Map<String, Map<String, Long>> counters = Maps.newHashMap();
         Map<String, Duration> timestamps = Maps.newHashMap();
 
-        // Collect responses and sum {in,out,dropped} packets
+        // Collect counter values by interface
         getResponse.getNotificationList().forEach(notification -> {
             notification.getUpdateList().forEach(update -> {
                 Path path = update.getPath();
@@ -97,44 +91,8 @@ public class OpenConfigGnmiPortStatisticsDiscovery
 
                 // Last element is the counter name
                 String counterName = path.getElem(path.getElemCount() - 1).getName();
-                long counterValue = update.getVal().getUintVal();
-
-
-                switch (counterName) {
-                    case "in-octets":
-                        inBytes.put(ifName, counterValue);
-                        break;
-                    case "out-octets":
-                        outBytes.put(ifName, counterValue);
-                        break;
-                    case "in-discards":
-                    case "in-fcs-errors":
-                        inDropped.compute(ifName, (k, v) -> v == null ? counterValue : v + counterValue);
-                        break;
-                    case "out-discards":
-                        outDropped.put(ifName, counterValue);
-                        break;
-                    case "in-errors":
-                        inErrors.put(ifName, counterValue);
-                        break;
-                    case "out-errors":
-                        outErrors.put(ifName, counterValue);
-                        break;
-                    case "in-unicast-pkts":
-                    case "in-broadcast-pkts":
-                    case "in-multicast-pkts":
-                    case "in-unknown-protos":
-                        inPkts.compute(ifName, (k, v) -> v == null ? counterValue : v + counterValue);
-                        break;
-                    case "out-unicast-pkts":
-                    case "out-broadcast-pkts":
-                    case "out-multicast-pkts":
-                        outPkts.compute(ifName, (k, v) -> v == null ? counterValue : v + counterValue);
-                        break;
-                    default:
-                        log.warn("Unsupported counter name {}, ignored", counterName);
-                        break;
-                }
+                counters.computeIfAbsent(ifName, k -> Maps.newHashMap())
+                        .put(counterName, update.getVal().getUintVal());
             });
         });
 
@@ -144,20 +102,13 @@ public class OpenConfigGnmiPortStatisticsDiscovery
                 String ifName = e.getKey();
                 PortNumber portNumber = e.getValue();
                 Duration portActive = getDurationActive(portNumber, timestamps.get(ifName));
-                return DefaultPortStatistics.builder()
+                DefaultPortStatistics.Builder builder = DefaultPortStatistics.builder()
                         .setDeviceId(deviceId)
                         .setPort(portNumber)
                         .setDurationSec(portActive.getSeconds())
-                        .setDurationNano(portActive.getNano())
-                        .setPacketsSent(outPkts.getOrDefault(ifName, 0L))
-                        .setPacketsReceived(inPkts.getOrDefault(ifName, 0L))
-                        .setPacketsTxDropped(outDropped.getOrDefault(ifName, 0L))
-                        .setPacketsRxDropped(inDropped.getOrDefault(ifName, 0L))
-                        .setBytesSent(outBytes.getOrDefault(ifName, 0L))
-                        .setBytesReceived(inBytes.getOrDefault(ifName, 0L))
-                        .setPacketsTxErrors(outErrors.getOrDefault(ifName, 0L))
-                        .setPacketsRxErrors(inErrors.getOrDefault(ifName, 0L))
-                        .build();
+                        .setDurationNano(portActive.getNano());
+                return GnmiUtils.setInterfaceCounters(
+                        builder, counters.getOrDefault(ifName, Collections.emptyMap())).build();
             })
             .collect(Collectors.toList());
 
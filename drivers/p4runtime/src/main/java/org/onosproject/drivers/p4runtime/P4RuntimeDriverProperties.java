@@ -37,6 +37,13 @@ public final class P4RuntimeDriverProperties {
     public static final String READ_FROM_MIRROR = "tableReadFromMirror";
     public static final boolean DEFAULT_READ_FROM_MIRROR = false;
 
+    // If true, when polling flow entries we read from the device only tables
+    // that have counters or that have been written since the last poll, while
+    // entries of the other tables are returned from the ONOS store. All tables
+    // are still read periodically to detect entries changed by others.
+    public static final String READ_CHANGED_TABLES_ONLY = "tableReadChangedOnly";
+    public static final boolean DEFAULT_READ_CHANGED_TABLES_ONLY = false;
+
     // If true, we read counters when reading table entries (if table has
     // counters). Otherwise, we don't.
     public static final String SUPPORT_TABLE_COUNTERS = "supportTableCounters";
@@ -19,6 +19,7 @@ package org.onosproject.drivers.p4runtime;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.Striped;
 import org.onosproject.drivers.p4runtime.mirror.P4RuntimeDefaultEntryMirror;
@@ -31,6 +32,7 @@ import org.onosproject.net.flow.FlowRuleProgrammable;
 import org.onosproject.net.pi.model.PiCounterType;
 import org.onosproject.net.pi.model.PiPipelineModel;
 import org.onosproject.net.pi.model.PiTableId;
+import org.onosproject.net.pi.model.PiTableModel;
 import org.onosproject.net.pi.runtime.PiCounterCell;
 import org.onosproject.net.pi.runtime.PiCounterCellData;
 import org.onosproject.net.pi.runtime.PiCounterCellHandle;
@@ -57,14 +59,17 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_DELETE_BEFORE_UPDATE;
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_READ_CHANGED_TABLES_ONLY;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_READ_COUNTERS_WITH_TABLE_ENTRIES;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_READ_FROM_MIRROR;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_SUPPORT_DEFAULT_TABLE_ENTRY;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_SUPPORT_TABLE_COUNTERS;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DELETE_BEFORE_UPDATE;
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.READ_CHANGED_TABLES_ONLY;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.READ_COUNTERS_WITH_TABLE_ENTRIES;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.READ_FROM_MIRROR;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.SUPPORT_DEFAULT_TABLE_ENTRY;
@@ -87,6 +92,10 @@ public class P4RuntimeFlowRuleProgrammable
     // that each request gets consistent access to mirror state.
     private static final Striped<Lock> WRITE_LOCKS = Striped.lock(30);
 
+    // Maximum number of table entries whose counters are read with a single
+    // request, when counters are not read together with table entries.
+    private static final int COUNTER_READ_BATCH_SIZE = 1000;
+
     private PiPipelineModel pipelineModel;
     private P4RuntimeTableMirror tableMirror;
     private PiFlowRuleTranslator translator;
@@ -118,44 +127,79 @@ public class P4RuntimeFlowRuleProgrammable
             return getFlowEntriesFromMirror();
         }
 
-        final ImmutableList.Builder<FlowEntry> result = ImmutableList.builder();
-        final List<PiTableEntry> inconsistentEntries = Lists.newArrayList();
+        final boolean readCounters = driverBoolProperty(
+                SUPPORT_TABLE_COUNTERS, DEFAULT_SUPPORT_TABLE_COUNTERS);
+        // If counters are not read with table entries, we need to issue a
+        // second request before forging flow entries. Otherwise, flow entries
+        // are forged while the read response is streamed from the device.
+        final boolean forgeWhileReading = !readCounters || driverBoolProperty(
+                READ_COUNTERS_WITH_TABLE_ENTRIES,
+                DEFAULT_READ_COUNTERS_WITH_TABLE_ENTRIES);
+
+        final List<FlowEntry> result = Collections.synchronizedList(Lists.newArrayList());
+        final List<PiTableEntry> inconsistentEntries =
+                Collections.synchronizedList(Lists.newArrayList());
+        // Handles of the entries read, used to drop duplicates and to find
+        // mirror entries no longer on the device. Entries themselves are
+        // only held while waiting for their counters to be read.
+        final Set<PiTableEntryHandle> deviceHandles = Sets.newHashSet();
+        final List<PiTableEntry> pendingEntries = Lists.newArrayList();
+        final List<CompletableFuture<Void>> counterReads = Lists.newArrayList();
 
         // Read table entries from device.
-        final Collection<PiTableEntry> deviceEntries = getAllTableEntriesFromDevice();
-        if (deviceEntries == null) {
+        final Set<PiTableId> tablesToRead = getTablesToRead();
+        final boolean success = readTableEntriesFromDevice(tablesToRead, entry -> {
+            final PiTableEntryHandle handle = entry.handle(deviceId);
+            // Device implementation might return duplicate entries. For
+            // example if reading only default ones is not supported and
+            // non-default entries are returned. Keep only the first one.
+            if (!deviceHandles.add(handle)) {
+                return;
+            }
+            // Synchronize mirror with the device state as entries arrive.
+            final TimedEntry<PiTableEntry> mirrorEntry = tableMirror.get(handle);
+            if (mirrorEntry == null || !mirrorEntry.entry().equals(entry)) {
+                log.debug("Updating mirror entry for {}: {}", deviceId, entry);
+                tableMirror.put(handle, entry);
+            }
+            if (forgeWhileReading) {
+                forgeFlowEntry(entry, handle, readCounters ? entry.counter() : null,
+                               result, inconsistentEntries);
+            } else {
+                // Counters are read in batches, without blocking the stream.
+                pendingEntries.add(entry);
+                if (pendingEntries.size() >= COUNTER_READ_BATCH_SIZE) {
+                    counterReads.add(forgeFlowEntries(ImmutableList.copyOf(pendingEntries),
+                                                      result, inconsistentEntries));
+                    pendingEntries.clear();
+                }
+            }
+        });
+        if (!success) {
             // Potential error at the client level.
+            tableMirror.forceFullRead(deviceId);
             return Collections.emptyList();
         }
-
-        // Synchronize mirror with the device state.
-        tableMirror.sync(deviceId, deviceEntries);
-
-        if (deviceEntries.isEmpty()) {
-            // Nothing to do.
-            return Collections.emptyList();
+        if (!pendingEntries.isEmpty()) {
+            counterReads.add(forgeFlowEntries(pendingEntries, result, inconsistentEntries));
         }
 
-        final Map<PiTableEntryHandle, PiCounterCellData> counterCellMap =
-                readEntryCounters(deviceEntries);
-        // Forge flow entries with counter values.
-        for (PiTableEntry entry : deviceEntries) {
+        // Entries of tables not read from the device are taken from the
+        // mirror, entries of tables read but not found on the device are
+        // removed from it.
+        for (TimedEntry<PiTableEntry> timedEntry : tableMirror.getAll(deviceId)) {
+            final PiTableEntry entry = timedEntry.entry();
             final PiTableEntryHandle handle = entry.handle(deviceId);
-            final FlowEntry flowEntry = forgeFlowEntry(
-                    entry, handle, counterCellMap.get(handle));
-            if (flowEntry == null) {
-                // Entry is on device but unknown to translation service or
-                // device mirror. Inconsistent. Mark for removal if this is not
-                // an original default entry (i.e, the same defined in the P4
-                // program via default_action, which cannot be removed.)
-                if (!isOriginalDefaultEntry(entry)) {
-                    inconsistentEntries.add(entry);
-                }
-            } else {
-                result.add(flowEntry);
+            if (!tablesToRead.contains(entry.table())) {
+                forgeFlowEntry(entry, handle, null, result, inconsistentEntries);
+            } else if (!deviceHandles.contains(handle)) {
+                log.debug("Removing mirror entry for {}: {}", deviceId, entry);
+                tableMirror.remove(handle);
             }
         }
 
+        counterReads.forEach(CompletableFuture::join);
+
         if (!inconsistentEntries.isEmpty()) {
             // Trigger clean up of inconsistent entries.
             log.warn("Found {} inconsistent table entries on {}, removing them...",
@@ -175,34 +219,82 @@ public class P4RuntimeFlowRuleProgrammable
 
         }
 
-        return result.build();
+        return ImmutableList.copyOf(result);
     }
 
-    private Collection<PiTableEntry> getAllTableEntriesFromDevice() {
-        final P4RuntimeReadClient.ReadRequest request = client.read(
-                p4DeviceId, pipeconf);
-        // Read entries from all non-constant tables, including default ones.
-        pipelineModel.tables().stream()
-                .filter(t -> !t.isConstantTable())
-                .forEach(t -> {
-                    request.tableEntries(t.id());
-                    if (driverBoolProperty(SUPPORT_DEFAULT_TABLE_ENTRY,
-                                           DEFAULT_SUPPORT_DEFAULT_TABLE_ENTRY) &&
-                            t.constDefaultAction().isEmpty()) {
-                        request.defaultTableEntry(t.id());
-                    }
-                });
-        final P4RuntimeReadClient.ReadResponse response = request.submitSync();
-        if (!response.isSuccess()) {
+    private CompletableFuture<Void> forgeFlowEntries(Collection<PiTableEntry> entries,
+                                                     List<FlowEntry> result,
+                                                     List<PiTableEntry> inconsistentEntries) {
+        return readEntryCounters(entries).handle((counterCellMap, ex) -> {
+            if (ex != null) {
+                log.warn("Unable to read counters of table entries on {}: {}",
+                         deviceId, ex.getMessage());
+            }
+            // Forge flow entries with counter values.
+            for (PiTableEntry entry : entries) {
+                final PiTableEntryHandle handle = entry.handle(deviceId);
+                forgeFlowEntry(entry, handle,
+                               counterCellMap == null ? null : counterCellMap.get(handle),
+                               result, inconsistentEntries);
+            }
             return null;
+        });
+    }
+
+    private void forgeFlowEntry(PiTableEntry entry,
+                                PiTableEntryHandle handle,
+                                PiCounterCellData cellData,
+                                List<FlowEntry> result,
+                                List<PiTableEntry> inconsistentEntries) {
+        final FlowEntry flowEntry = forgeFlowEntry(entry, handle, cellData);
+        if (flowEntry == null) {
+            // Entry is on device but unknown to translation service or
+            // device mirror. Inconsistent. Mark for removal if this is not
+            // an original default entry (i.e, the same defined in the P4
+            // program via default_action, which cannot be removed.)
+            if (!isOriginalDefaultEntry(entry)) {
+                inconsistentEntries.add(entry);
+            }
+        } else {
+            result.add(flowEntry);
         }
-        return response.all(PiTableEntry.class).stream()
-                // Device implementation might return duplicate entries. For
-                // example if reading only default ones is not supported and
-                // non-default entries are returned, by using distinct() we
-                // are robust against that possibility.
-                .distinct()
+    }
+
+    private Set<PiTableId> getTablesToRead() {
+        // All non-constant tables, unless we are asked to read only those
+        // which might have changed since the last poll.
+        final Collection<PiTableModel> tables = pipelineModel.tables().stream()
+                .filter(t -> !t.isConstantTable())
                 .collect(Collectors.toList());
+        if (driverBoolProperty(READ_CHANGED_TABLES_ONLY,
+                               DEFAULT_READ_CHANGED_TABLES_ONLY)) {
+            return tableMirror.tablesToRead(deviceId, tables);
+        }
+        return tables.stream().map(PiTableModel::id).collect(Collectors.toSet());
+    }
+
+    private boolean readTableEntriesFromDevice(Set<PiTableId> tableIds,
+                                               Consumer<PiTableEntry> consumer) {
+        final P4RuntimeReadClient.ReadRequest request = client.read(
+                p4DeviceId, pipeconf);
+        // Read entries from the given tables, including default ones.
+        tableIds.forEach(tableId -> {
+            request.tableEntries(tableId);
+            if (driverBoolProperty(SUPPORT_DEFAULT_TABLE_ENTRY,
+                                   DEFAULT_SUPPORT_DEFAULT_TABLE_ENTRY) &&
+                    pipelineModel.table(tableId)
+                            .map(t -> t.constDefaultAction().isEmpty())
+                            .orElse(false)) {
+                request.defaultTableEntry(tableId);
+            }
+        });
+        // Entries are processed as they are received, without accumulating
+        // the whole response in memory.
+        return request.submitSync(entity -> {
+            if (entity instanceof PiTableEntry) {
+                consumer.accept((PiTableEntry) entity);
+            }
+        }).isSuccess();
     }
 
     @Override
@@ -311,6 +403,11 @@ public class P4RuntimeFlowRuleProgrammable
         }
         // Wait for response.
         final WriteResponse response = Futures.getUnchecked(futureResponse);
+        // Make sure tables are read at the next poll, even if a poll started
+        // while the request was in flight.
+        tableMirror.tablesWritten(deviceId, handleToRuleMap.keySet().stream()
+                .map(h -> ((PiTableEntryHandle) h).tableId())
+                .collect(Collectors.toSet()));
         // Derive successfully applied flow rule from response.
         final List<FlowRule> appliedRules = getAppliedFlowRules(
                 response, handleToRuleMap, driverOperation);
@@ -462,21 +559,21 @@ public class P4RuntimeFlowRuleProgrammable
         return originalDefaultEntry.action().equals(entry.action());
     }
 
-    private Map<PiTableEntryHandle, PiCounterCellData> readEntryCounters(
+    private CompletableFuture<Map<PiTableEntryHandle, PiCounterCellData>> readEntryCounters(
             Collection<PiTableEntry> tableEntries) {
 
         if (!driverBoolProperty(SUPPORT_TABLE_COUNTERS,
                                 DEFAULT_SUPPORT_TABLE_COUNTERS)
                 || tableEntries.isEmpty()) {
-            return Collections.emptyMap();
+            return CompletableFuture.completedFuture(Collections.emptyMap());
         }
 
         if (driverBoolProperty(READ_COUNTERS_WITH_TABLE_ENTRIES,
                                DEFAULT_READ_COUNTERS_WITH_TABLE_ENTRIES)) {
-            return tableEntries.stream()
+            return CompletableFuture.completedFuture(tableEntries.stream()
                     .filter(t -> t.counter() != null)
                     .collect(Collectors.toMap(
-                            t -> t.handle(deviceId), PiTableEntry::counter));
+                            t -> t.handle(deviceId), PiTableEntry::counter)));
         } else {
             final Set<PiHandle> cellHandles = tableEntries.stream()
                     .filter(e -> !e.isDefaultAction())
@@ -484,15 +581,16 @@ public class P4RuntimeFlowRuleProgrammable
                     .map(PiCounterCellId::ofDirect)
                     .map(id -> PiCounterCellHandle.of(deviceId, id))
                     .collect(Collectors.toSet());
-            // FIXME: We might be sending a very large read request...
+            // Asynchronous, as this might be called while streaming a read
+            // response, on the thread delivering it.
             return client.read(p4DeviceId, pipeconf)
                     .handles(cellHandles)
-                    .submitSync()
-                    .all(PiCounterCell.class).stream()
-                    .filter(c -> c.cellId().counterType().equals(PiCounterType.DIRECT))
-                    .collect(Collectors.toMap(
-                            c -> c.cellId().tableEntry().handle(deviceId),
-                            PiCounterCell::data));
+                    .submit()
+                    .thenApply(response -> response.all(PiCounterCell.class).stream()
+                            .filter(c -> c.cellId().counterType().equals(PiCounterType.DIRECT))
+                            .collect(Collectors.toMap(
+                                    c -> c.cellId().tableEntry().handle(deviceId),
+                                    PiCounterCell::data)));
         }
     }
 
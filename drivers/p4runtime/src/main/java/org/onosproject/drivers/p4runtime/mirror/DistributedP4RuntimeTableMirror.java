@@ -16,13 +16,36 @@
 
 package org.onosproject.drivers.p4runtime.mirror;
 
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.device.DeviceListener;
+import org.onosproject.net.device.DeviceService;
+import org.onosproject.net.pi.model.PiTableId;
+import org.onosproject.net.pi.model.PiTableModel;
 import org.onosproject.net.pi.runtime.PiEntityType;
 import org.onosproject.net.pi.runtime.PiTableEntry;
 import org.onosproject.net.pi.runtime.PiTableEntryHandle;
+import org.onosproject.net.pi.service.PiPipeconfWatchdogListener;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.onosproject.net.device.DeviceEvent.Type.DEVICE_REMOVED;
 
 /**
  * Distributed implementation of a P4Runtime table mirror.
+ * <p>
+ * The tables written since they were last read are tracked locally, as they
+ * are only of use to the instance polling the device.
  */
 @Component(immediate = true, service = P4RuntimeTableMirror.class)
 public final class DistributedP4RuntimeTableMirror
@@ -30,7 +53,90 @@ public final class DistributedP4RuntimeTableMirror
                         <PiTableEntryHandle, PiTableEntry>
         implements P4RuntimeTableMirror {
 
+    // Number of reads after which all tables are read again.
+    private static final int FULL_READ_PERIOD = 10;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    protected DeviceService deviceService;
+
+    private final Map<DeviceId, TableReadState> readStates = Maps.newConcurrentMap();
+
+    private final DeviceListener deviceListener = new InternalDeviceListener();
+    private final PiPipeconfWatchdogListener readStateListener =
+            event -> forceFullRead(event.subject());
+
     public DistributedP4RuntimeTableMirror() {
         super(PiEntityType.TABLE_ENTRY);
     }
+
+    @Activate
+    @Override
+    public void activate() {
+        super.activate();
+        deviceService.addListener(deviceListener);
+        pipeconfWatchdogService.addListener(readStateListener);
+    }
+
+    @Deactivate
+    @Override
+    public void deactivate() {
+        pipeconfWatchdogService.removeListener(readStateListener);
+        deviceService.removeListener(deviceListener);
+        readStates.clear();
+        super.deactivate();
+    }
+
+    @Override
+    public Set<PiTableId> tablesToRead(DeviceId deviceId, Collection<PiTableModel> tables) {
+        return readStates.computeIfAbsent(deviceId, k -> new TableReadState())
+                .tablesToRead(tables);
+    }
+
+    @Override
+    public void tablesWritten(DeviceId deviceId, Collection<PiTableId> tableIds) {
+        // Without a state, the next read is a full one anyway.
+        final TableReadState state = readStates.get(deviceId);
+        if (state != null) {
+            state.written.addAll(tableIds);
+        }
+    }
+
+    @Override
+    public void forceFullRead(DeviceId deviceId) {
+        readStates.remove(deviceId);
+    }
+
+    private static final class TableReadState {
+
+        private final Set<PiTableId> written = Sets.newConcurrentHashSet();
+        private int readsSinceFullRead = FULL_READ_PERIOD;
+
+        private synchronized Set<PiTableId> tablesToRead(Collection<PiTableModel> tables) {
+            final boolean fullRead = ++readsSinceFullRead > FULL_READ_PERIOD;
+            if (fullRead) {
+                readsSinceFullRead = 1;
+            }
+            // Tables with counters are always read to update statistics.
+            final Set<PiTableId> tableIds = tables.stream()
+                    .filter(t -> fullRead || !t.counters().isEmpty()
+                            || written.contains(t.id()))
+                    .map(PiTableModel::id)
+                    .collect(Collectors.toSet());
+            written.removeAll(tableIds);
+            return tableIds;
+        }
+    }
+
+    private class InternalDeviceListener implements DeviceListener {
+
+        @Override
+        public void event(DeviceEvent event) {
+            forceFullRead(event.subject().id());
+        }
+
+        @Override
+        public boolean isRelevant(DeviceEvent event) {
+            return event.type() == DEVICE_REMOVED;
+        }
+    }
 }
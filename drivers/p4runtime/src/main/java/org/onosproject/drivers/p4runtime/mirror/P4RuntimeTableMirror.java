@@ -16,12 +16,48 @@
 
 package org.onosproject.drivers.p4runtime.mirror;
 
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.pi.model.PiTableId;
+import org.onosproject.net.pi.model.PiTableModel;
 import org.onosproject.net.pi.runtime.PiTableEntry;
 import org.onosproject.net.pi.runtime.PiTableEntryHandle;
 
+import java.util.Collection;
+import java.util.Set;
+
 /**
  * Mirror of table entries installed on a P4Runtime device.
  */
 public interface P4RuntimeTableMirror
         extends P4RuntimeMirror<PiTableEntryHandle, PiTableEntry> {
+
+    /**
+     * Returns the identifiers of the given tables that might have changed on
+     * the given device since they were last read, i.e. the tables with
+     * counters and the tables written since then. All tables are returned
+     * periodically, as well as after {@link #forceFullRead(DeviceId)} or
+     * when the device is removed or its pipeline changes. The returned tables
+     * are considered read.
+     *
+     * @param deviceId device ID
+     * @param tables   tables of the device pipeline
+     * @return identifiers of the tables to read
+     */
+    Set<PiTableId> tablesToRead(DeviceId deviceId, Collection<PiTableModel> tables);
+
+    /**
+     * Records that the given tables of the given device have been written.
+     *
+     * @param deviceId device ID
+     * @param tableIds table identifiers
+     */
+    void tablesWritten(DeviceId deviceId, Collection<PiTableId> tableIds);
+
+    /**
+     * Makes the next call to {@link #tablesToRead(DeviceId, Collection)} for
+     * the given device return all tables, e.g. after a failed read.
+     *
+     * @param deviceId device ID
+     */
+    void forceFullRead(DeviceId deviceId);
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.drivers.p4runtime.mirror;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.easymock.Capture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.net.DefaultDevice;
+import org.onosproject.net.Device;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.device.DeviceListener;
+import org.onosproject.net.device.DeviceServiceAdapter;
+import org.onosproject.net.pi.model.PiCounterModel;
+import org.onosproject.net.pi.model.PiTableId;
+import org.onosproject.net.pi.model.PiTableModel;
+import org.onosproject.net.pi.service.PiPipeconfWatchdogEvent;
+import org.onosproject.net.pi.service.PiPipeconfWatchdogListener;
+import org.onosproject.net.pi.service.PiPipeconfWatchdogService;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.store.service.TestStorageService;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit tests for the tracking of tables to read of the table mirror.
+ */
+public class DistributedP4RuntimeTableMirrorTest {
+
+    private static final DeviceId DEVICE_ID = DeviceId.deviceId("device:1");
+    private static final DeviceId OTHER_DEVICE_ID = DeviceId.deviceId("device:2");
+    private static final PiTableId PLAIN = PiTableId.of("plain");
+    private static final PiTableId WITH_COUNTERS = PiTableId.of("with_counters");
+    private static final Collection<PiTableModel> TABLES = ImmutableList.of(
+            table(PLAIN, false), table(WITH_COUNTERS, true));
+    private static final int FULL_READ_PERIOD = 10;
+
+    private final Capture<PiPipeconfWatchdogListener> pipeconfListener = Capture.newInstance();
+    private DeviceListener deviceListener;
+    private DistributedP4RuntimeTableMirror mirror;
+
+    @Before
+    public void setUp() {
+        mirror = new DistributedP4RuntimeTableMirror();
+        mirror.storageService = new TestStorageService();
+        mirror.deviceService = new DeviceServiceAdapter() {
+            @Override
+            public void addListener(DeviceListener listener) {
+                deviceListener = listener;
+            }
+        };
+        mirror.pipeconfWatchdogService = createMock(PiPipeconfWatchdogService.class);
+        mirror.pipeconfWatchdogService.addListener(anyObject());
+        expectLastCall().once();
+        mirror.pipeconfWatchdogService.addListener(capture(pipeconfListener));
+        expectLastCall().once();
+        mirror.pipeconfWatchdogService.removeListener(anyObject());
+        expectLastCall().anyTimes();
+        replay(mirror.pipeconfWatchdogService);
+        mirror.activate();
+    }
+
+    @After
+    public void tearDown() {
+        mirror.deactivate();
+    }
+
+    private static PiTableModel table(PiTableId id, boolean withCounters) {
+        PiTableModel table = createNiceMock(PiTableModel.class);
+        expect(table.id()).andReturn(id).anyTimes();
+        List<PiCounterModel> counters = withCounters
+                ? ImmutableList.of(createNiceMock(PiCounterModel.class))
+                : ImmutableList.of();
+        expect(table.counters()).andReturn(counters).anyTimes();
+        replay(table);
+        return table;
+    }
+
+    /**
+     * Tests that only tables with counters or written since the last read
+     * are read, except periodically.
+     */
+    @Test
+    public void testTablesToRead() {
+        assertThat(mirror.tablesToRead(DEVICE_ID, TABLES), is(ImmutableSet.of(PLAIN, WITH_COUNTERS)));
+        assertThat(mirror.tablesToRead(DEVICE_ID, TABLES), is(ImmutableSet.of(WITH_COUNTERS)));
+
+        mirror.tablesWritten(DEVICE_ID, ImmutableList.of(PLAIN));
+        assertThat(mirror.tablesToRead(DEVICE_ID, TABLES), is(ImmutableSet.of(PLAIN, WITH_COUNTERS)));
+        assertThat(mirror.tablesToRead(DEVICE_ID, TABLES), is(ImmutableSet.of(WITH_COUNTERS)));
+
+        for (int i = 5; i <= FULL_READ_PERIOD; i++) {
+            mirror.tablesToRead(DEVICE_ID, TABLES);
+        }
+        assertThat(mirror.tablesToRead(DEVICE_ID, TABLES), is(ImmutableSet.of(PLAIN, WITH_COUNTERS)));
+    }
+
+    /**
+     * Tests that all tables are read after a forced full read, when the
+     * device is removed or when its pipeline changes, and that the state of
+     * other devices is kept.
+     */
+    @Test
+    public void testReset() {
+        mirror.tablesToRead(DEVICE_ID, TABLES);
+        mirror.tablesToRead(OTHER_DEVICE_ID, TABLES);
+
+        mirror.forceFullRead(DEVICE_ID);
+        assertThat(mirror.tablesToRead(DEVICE_ID, TABLES), is(ImmutableSet.of(PLAIN, WITH_COUNTERS)));
+
+        Device device = new DefaultDevice(ProviderId.NONE, DEVICE_ID, Device.Type.SWITCH,
+                                          "", "", "", "", null);
+        DeviceEvent removed = new DeviceEvent(DeviceEvent.Type.DEVICE_REMOVED, device);
+        assertThat(deviceListener.isRelevant(removed), is(true));
+        deviceListener.event(removed);
+        assertThat(mirror.tablesToRead(DEVICE_ID, TABLES), is(ImmutableSet.of(PLAIN, WITH_COUNTERS)));
+
+        pipeconfListener.getValue().event(new PiPipeconfWatchdogEvent(
+                PiPipeconfWatchdogEvent.Type.PIPELINE_READY, DEVICE_ID));
+        assertThat(mirror.tablesToRead(DEVICE_ID, TABLES), is(ImmutableSet.of(PLAIN, WITH_COUNTERS)));
+
+        assertThat(mirror.tablesToRead(OTHER_DEVICE_ID, TABLES), is(ImmutableSet.of(WITH_COUNTERS)));
+    }
+}
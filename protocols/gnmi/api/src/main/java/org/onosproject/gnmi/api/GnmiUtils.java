@@ -19,8 +19,10 @@ package org.onosproject.gnmi.api;
 import com.google.common.collect.Lists;
 import gnmi.Gnmi;
 import gnmi.Gnmi.Path;
+import org.onosproject.net.device.DefaultPortStatistics;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -55,6 +57,64 @@ public final class GnmiUtils {
         return pathStringBuilder.toString();
     }
 
+    /**
+     * Sets the counters of the given port statistics builder from OpenConfig
+     * interface counters, i.e. the leaves of
+     * /interfaces/interface[name]/state/counters keyed by leaf name. Packet
+     * counters of all casts are summed, as are receive discards and FCS
+     * errors. Unknown counters are ignored.
+     *
+     * @param builder  port statistics builder
+     * @param counters counter values by OpenConfig leaf name
+     * @return the given builder
+     */
+    public static DefaultPortStatistics.Builder setInterfaceCounters(
+            DefaultPortStatistics.Builder builder, Map<String, Long> counters) {
+        long inPkts = 0;
+        long outPkts = 0;
+        long inDropped = 0;
+        for (Map.Entry<String, Long> e : counters.entrySet()) {
+            final long value = e.getValue();
+            switch (e.getKey()) {
+                case "in-octets":
+                    builder.setBytesReceived(value);
+                    break;
+                case "out-octets":
+                    builder.setBytesSent(value);
+                    break;
+                case "in-discards":
+                case "in-fcs-errors":
+                    inDropped += value;
+                    break;
+                case "out-discards":
+                    builder.setPacketsTxDropped(value);
+                    break;
+                case "in-errors":
+                    builder.setPacketsRxErrors(value);
+                    break;
+                case "out-errors":
+                    builder.setPacketsTxErrors(value);
+                    break;
+                case "in-unicast-pkts":
+                case "in-broadcast-pkts":
+                case "in-multicast-pkts":
+                case "in-unknown-protos":
+                    inPkts += value;
+                    break;
+                case "out-unicast-pkts":
+                case "out-broadcast-pkts":
+                case "out-multicast-pkts":
+                    outPkts += value;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return builder.setPacketsReceived(inPkts)
+                .setPacketsSent(outPkts)
+                .setPacketsRxDropped(inDropped);
+    }
+
     /**
      * Helper class which builds gNMI path.
      *
@@ -87,7 +87,7 @@ final class GnmiSubscriptionManager {
             }
             existingSubscription = request;
             sendSubscribeRequest();
-            if (checkTask != null) {
+            if (checkTask == null) {
                 checkTask = streamCheckerExecutor.scheduleAtFixedRate(
                         this::checkSubscription, 0,
                         DEFAULT_RECONNECT_DELAY,
@@ -13,9 +13,13 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.onosproject.grpc.ctl;
 
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.Striped;
 import io.grpc.LoadBalancerRegistry;
 import io.grpc.ManagedChannel;
@@ -25,8 +29,12 @@ import io.grpc.internal.DnsNameResolverProvider;
 import io.grpc.internal.PickFirstLoadBalancerProvider;
 import io.grpc.netty.GrpcSslContexts;
 import io.grpc.netty.NettyChannelBuilder;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.grpc.api.GrpcChannelController;
@@ -37,32 +45,61 @@ import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.net.ssl.SSLException;
 import java.net.URI;
 import java.util.Dictionary;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.lang.String.format;
+import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.grpc.ctl.OsgiPropertyConstants.ENABLE_MESSAGE_LOG;
 import static org.onosproject.grpc.ctl.OsgiPropertyConstants.ENABLE_MESSAGE_LOG_DEFAULT;
+import static org.onosproject.grpc.ctl.OsgiPropertyConstants.EVENT_LOOP_THREADS;
+import static org.onosproject.grpc.ctl.OsgiPropertyConstants.EVENT_LOOP_THREADS_DEFAULT;
+import static org.onosproject.grpc.ctl.OsgiPropertyConstants.EXECUTOR_THREADS;
+import static org.onosproject.grpc.ctl.OsgiPropertyConstants.EXECUTOR_THREADS_DEFAULT;
+import static org.onosproject.grpc.ctl.OsgiPropertyConstants.FLOW_CONTROL_WINDOW;
+import static org.onosproject.grpc.ctl.OsgiPropertyConstants.FLOW_CONTROL_WINDOW_DEFAULT;
+import static org.onosproject.grpc.ctl.OsgiPropertyConstants.KEEP_ALIVE_TIME;
+import static org.onosproject.grpc.ctl.OsgiPropertyConstants.KEEP_ALIVE_TIMEOUT;
+import static org.onosproject.grpc.ctl.OsgiPropertyConstants.KEEP_ALIVE_TIMEOUT_DEFAULT;
+import static org.onosproject.grpc.ctl.OsgiPropertyConstants.KEEP_ALIVE_TIME_DEFAULT;
 
 /**
  * Default implementation of the GrpcChannelController.
+ * <p>
+ * Channels created with the default builder are shared by all the channel
+ * URIs pointing to the same target (scheme, host and port), so that the
+ * clients of the different protocols served by the same device use a single
+ * connection. All such channels run on a shared event loop group and
+ * executor, when configured. A group or executor replaced by a configuration
+ * change is shut down once the last channel using it is destroyed.
  */
 @Component(immediate = true, service = GrpcChannelController.class,
         property = {
                 ENABLE_MESSAGE_LOG + ":Boolean=" + ENABLE_MESSAGE_LOG_DEFAULT,
+                EVENT_LOOP_THREADS + ":Integer=" + EVENT_LOOP_THREADS_DEFAULT,
+                EXECUTOR_THREADS + ":Integer=" + EXECUTOR_THREADS_DEFAULT,
+                KEEP_ALIVE_TIME + ":Integer=" + KEEP_ALIVE_TIME_DEFAULT,
+                KEEP_ALIVE_TIMEOUT + ":Integer=" + KEEP_ALIVE_TIMEOUT_DEFAULT,
+                FLOW_CONTROL_WINDOW + ":Integer=" + FLOW_CONTROL_WINDOW_DEFAULT,
         })
 public class GrpcChannelControllerImpl implements GrpcChannelController {
 
@@ -80,28 +117,59 @@ public class GrpcChannelControllerImpl implements GrpcChannelController {
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected ComponentConfigService componentConfigService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL,
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile MetricsService metricsService;
+
     /**
      * Indicates whether to log gRPC messages.
      */
     private final AtomicBoolean enableMessageLog = new AtomicBoolean(
             ENABLE_MESSAGE_LOG_DEFAULT);
 
+    /** Number of threads of the event loop group shared by all channels; 0 to use the gRPC default. */
+    private int eventLoopThreads = EVENT_LOOP_THREADS_DEFAULT;
+
+    /** Number of threads of the call executor shared by all channels; 0 to use the gRPC default. */
+    private int executorThreads = EXECUTOR_THREADS_DEFAULT;
+
+    /** Seconds without reads after which a keepalive ping is sent; 0 to disable. */
+    private int keepAliveTime = KEEP_ALIVE_TIME_DEFAULT;
+
+    /** Seconds to wait for a keepalive ping ack before closing the connection. */
+    private int keepAliveTimeout = KEEP_ALIVE_TIMEOUT_DEFAULT;
+
+    /** HTTP/2 flow control window of each channel, in bytes. */
+    private int flowControlWindow = FLOW_CONTROL_WINDOW_DEFAULT;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private Map<URI, ManagedChannel> channels;
-    private Map<URI, GrpcLoggingInterceptor> interceptors;
+    private Map<URI, TargetChannel> targetChannels;
+    private Map<URI, TargetChannel> channelTargets;
+
+    private EventLoopGroup eventLoopGroup;
+    private ExecutorService executor;
+    // Shared resources replaced by a configuration change; they still serve
+    // the channels created before the change
+    private final List<EventLoopGroup> retiredEventLoopGroups = Lists.newArrayList();
+    private final List<ExecutorService> retiredExecutors = Lists.newArrayList();
+    // Number of target channels using each event loop group and executor
+    private final Multiset<Object> sharedResourceUsers = HashMultiset.create();
 
     private final Striped<Lock> channelLocks = Striped.lock(30);
 
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
         componentConfigService.registerProperties(getClass());
         channels = new ConcurrentHashMap<>();
-        interceptors = new ConcurrentHashMap<>();
+        targetChannels = new ConcurrentHashMap<>();
+        channelTargets = new ConcurrentHashMap<>();
         LoadBalancerRegistry.getDefaultRegistry()
                 .register(PICK_FIRST_LOAD_BALANCER_PROVIDER);
         NameResolverRegistry.getDefaultRegistry()
                 .register(DNS_NAME_RESOLVER_PROVIDER);
+        modified(context);
         log.info("Started");
     }
 
@@ -113,6 +181,35 @@ public class GrpcChannelControllerImpl implements GrpcChannelController {
                     properties, ENABLE_MESSAGE_LOG, ENABLE_MESSAGE_LOG_DEFAULT));
             log.info("Configured. Logging of gRPC messages is {}",
                      enableMessageLog.get() ? "ENABLED" : "DISABLED");
+
+            synchronized (this) {
+                int newEventLoopThreads = Tools.getIntegerProperty(
+                        properties, EVENT_LOOP_THREADS, EVENT_LOOP_THREADS_DEFAULT);
+                if (newEventLoopThreads != eventLoopThreads && eventLoopGroup != null) {
+                    retire(eventLoopGroup, retiredEventLoopGroups,
+                           EventLoopGroup::shutdownGracefully);
+                    eventLoopGroup = null;
+                }
+                eventLoopThreads = newEventLoopThreads;
+                int newExecutorThreads = Tools.getIntegerProperty(
+                        properties, EXECUTOR_THREADS, EXECUTOR_THREADS_DEFAULT);
+                if (newExecutorThreads != executorThreads && executor != null) {
+                    retire(executor, retiredExecutors, ExecutorService::shutdownNow);
+                    executor = null;
+                }
+                executorThreads = newExecutorThreads;
+                keepAliveTime = Tools.getIntegerProperty(
+                        properties, KEEP_ALIVE_TIME, KEEP_ALIVE_TIME_DEFAULT);
+                keepAliveTimeout = Tools.getIntegerProperty(
+                        properties, KEEP_ALIVE_TIMEOUT, KEEP_ALIVE_TIMEOUT_DEFAULT);
+                flowControlWindow = Tools.getIntegerProperty(
+                        properties, FLOW_CONTROL_WINDOW, FLOW_CONTROL_WINDOW_DEFAULT);
+            }
+            log.info("Configured. eventLoopThreads={}, executorThreads={}, " +
+                             "keepAliveTime={}, keepAliveTimeout={}, flowControlWindow={} " +
+                             "(applied to new channels)",
+                     eventLoopThreads, executorThreads, keepAliveTime,
+                     keepAliveTimeout, flowControlWindow);
         }
     }
 
@@ -123,18 +220,98 @@ public class GrpcChannelControllerImpl implements GrpcChannelController {
         NameResolverRegistry.getDefaultRegistry()
                 .register(DNS_NAME_RESOLVER_PROVIDER);
         componentConfigService.unregisterProperties(getClass(), false);
-        channels.values().forEach(ManagedChannel::shutdownNow);
+        Sets.newHashSet(channelTargets.values()).forEach(TargetChannel::shutdownNow);
         channels.clear();
         channels = null;
-        interceptors.values().forEach(GrpcLoggingInterceptor::close);
-        interceptors.clear();
-        interceptors = null;
+        channelTargets.clear();
+        channelTargets = null;
+        targetChannels.clear();
+        targetChannels = null;
+        synchronized (this) {
+            if (eventLoopGroup != null) {
+                retiredEventLoopGroups.add(eventLoopGroup);
+                eventLoopGroup = null;
+            }
+            if (executor != null) {
+                retiredExecutors.add(executor);
+                executor = null;
+            }
+            retiredEventLoopGroups.forEach(EventLoopGroup::shutdownGracefully);
+            retiredEventLoopGroups.clear();
+            retiredExecutors.forEach(ExecutorService::shutdownNow);
+            retiredExecutors.clear();
+            sharedResourceUsers.clear();
+        }
         log.info("Stopped");
     }
 
+    /**
+     * Retires the given shared resource, shutting it down right away if no
+     * channel is using it.
+     */
+    private <T> void retire(T resource, List<T> retired, Consumer<T> shutdown) {
+        if (sharedResourceUsers.contains(resource)) {
+            retired.add(resource);
+        } else {
+            shutdown.accept(resource);
+        }
+    }
+
+    /**
+     * Releases a shared resource used by a channel that has been shut down,
+     * shutting the resource down if it was retired and this was its last user.
+     */
+    private <T> void release(T resource, List<T> retired, Consumer<T> shutdown) {
+        if (resource == null) {
+            return;
+        }
+        if (sharedResourceUsers.remove(resource, 1) == 1 && retired.remove(resource)) {
+            shutdown.accept(resource);
+        }
+    }
+
+    private synchronized void releaseSharedResources(EventLoopGroup group,
+                                                     ExecutorService channelExecutor) {
+        release(group, retiredEventLoopGroups, EventLoopGroup::shutdownGracefully);
+        release(channelExecutor, retiredExecutors, ExecutorService::shutdownNow);
+    }
+
+    // Visible for testing.
+    synchronized List<Object> retiredSharedResources() {
+        return ImmutableList.<Object>builder()
+                .addAll(retiredEventLoopGroups)
+                .addAll(retiredExecutors)
+                .build();
+    }
+
     @Override
     public ManagedChannel create(URI channelUri) {
-        return create(channelUri, makeChannelBuilder(channelUri));
+        checkNotNull(channelUri);
+        final URI target = target(channelUri);
+
+        channelLocks.get(channelUri).lock();
+        try {
+            if (channels.containsKey(channelUri)) {
+                throw new IllegalArgumentException(format(
+                        "A channel with ID '%s' already exists", channelUri));
+            }
+            synchronized (targetChannels) {
+                TargetChannel shared = targetChannels.get(target);
+                if (shared == null) {
+                    log.info("Creating new gRPC channel {}...", target);
+                    shared = buildSharedChannel(target, channelUri);
+                    targetChannels.put(target, shared);
+                } else {
+                    log.info("Sharing gRPC channel {} with {}...", target, channelUri);
+                }
+                shared.users.add(channelUri);
+                channelTargets.put(channelUri, shared);
+                channels.put(channelUri, shared.channel);
+                return shared.channel;
+            }
+        } finally {
+            channelLocks.get(channelUri).unlock();
+        }
     }
 
     @Override
@@ -151,23 +328,68 @@ public class GrpcChannelControllerImpl implements GrpcChannelController {
 
             log.info("Creating new gRPC channel {}...", channelUri);
 
-            final GrpcLoggingInterceptor interceptor = new GrpcLoggingInterceptor(
-                    channelUri, enableMessageLog);
-            channelBuilder.intercept(interceptor);
-
-            final ManagedChannel channel = channelBuilder.build();
-
-            channels.put(channelUri, channelBuilder.build());
-            interceptors.put(channelUri, interceptor);
+            // Channels from custom builders are never shared
+            final TargetChannel exclusive = buildChannel(channelUri, channelBuilder, null, null);
+            exclusive.users.add(channelUri);
+            channelTargets.put(channelUri, exclusive);
+            channels.put(channelUri, exclusive.channel);
 
-            return channel;
+            return exclusive.channel;
         } finally {
             channelLocks.get(channelUri).unlock();
         }
     }
 
-    private NettyChannelBuilder makeChannelBuilder(URI channelUri) {
+    private TargetChannel buildSharedChannel(URI target, URI channelUri) {
+        final NettyChannelBuilder channelBuilder = makeChannelBuilder(channelUri);
+        checkNotNull(channelBuilder);
+        final EventLoopGroup group;
+        final ExecutorService channelExecutor;
+        synchronized (this) {
+            if (eventLoopThreads > 0) {
+                if (eventLoopGroup == null) {
+                    eventLoopGroup = new NioEventLoopGroup(
+                            eventLoopThreads, groupedThreads("onos/grpc", "event-loop-%d", log));
+                }
+                channelBuilder.eventLoopGroup(eventLoopGroup)
+                        .channelType(NioSocketChannel.class);
+                sharedResourceUsers.add(eventLoopGroup);
+            }
+            if (executorThreads > 0) {
+                if (executor == null) {
+                    executor = Executors.newFixedThreadPool(
+                            executorThreads, groupedThreads("onos/grpc", "executor-%d", log));
+                }
+                channelBuilder.executor(executor);
+                sharedResourceUsers.add(executor);
+            }
+            group = eventLoopThreads > 0 ? eventLoopGroup : null;
+            channelExecutor = executorThreads > 0 ? executor : null;
+        }
+        try {
+            return buildChannel(target, channelBuilder, group, channelExecutor);
+        } catch (RuntimeException e) {
+            releaseSharedResources(group, channelExecutor);
+            throw e;
+        }
+    }
 
+    private TargetChannel buildChannel(URI target, ManagedChannelBuilder<?> channelBuilder,
+                                       EventLoopGroup group, ExecutorService channelExecutor) {
+        final GrpcLoggingInterceptor interceptor = new GrpcLoggingInterceptor(
+                target, enableMessageLog);
+        channelBuilder.intercept(interceptor);
+        final MetricsService metrics = metricsService;
+        final GrpcMetricsInterceptor metricsInterceptor = metrics == null
+                ? null : new GrpcMetricsInterceptor(target, metrics);
+        if (metricsInterceptor != null) {
+            channelBuilder.intercept(metricsInterceptor);
+        }
+        return new TargetChannel(target, channelBuilder.build(), interceptor,
+                                 metricsInterceptor, group, channelExecutor);
+    }
+
+    private URI target(URI channelUri) {
         checkArgument(channelUri.getScheme().equals(GRPC)
                               || channelUri.getScheme().equals(GRPCS),
                       format("Server URI scheme must be %s or %s", GRPC, GRPCS));
@@ -175,6 +397,11 @@ public class GrpcChannelControllerImpl implements GrpcChannelController {
                       "Server host address should not be empty");
         checkArgument(channelUri.getPort() > 0 && channelUri.getPort() <= 65535,
                       "Invalid server port");
+        return URI.create(format("%s://%s:%d", channelUri.getScheme(),
+                                 channelUri.getHost(), channelUri.getPort()));
+    }
+
+    private NettyChannelBuilder makeChannelBuilder(URI channelUri) {
 
         final boolean useTls = channelUri.getScheme().equals(GRPCS);
 
@@ -184,7 +411,13 @@ public class GrpcChannelControllerImpl implements GrpcChannelController {
                 .defaultLoadBalancingPolicy(
                         PICK_FIRST_LOAD_BALANCER_PROVIDER.getPolicyName())
                 .maxInboundMessageSize(
-                        DEFAULT_MAX_INBOUND_MSG_SIZE * MEGABYTES);
+                        DEFAULT_MAX_INBOUND_MSG_SIZE * MEGABYTES)
+                .flowControlWindow(flowControlWindow);
+
+        if (keepAliveTime > 0) {
+            channelBuilder.keepAliveTime(keepAliveTime, TimeUnit.SECONDS)
+                    .keepAliveTimeout(keepAliveTimeout, TimeUnit.SECONDS);
+        }
 
         if (useTls) {
             try {
@@ -210,35 +443,82 @@ public class GrpcChannelControllerImpl implements GrpcChannelController {
 
         channelLocks.get(channelUri).lock();
         try {
-            final ManagedChannel channel = channels.remove(channelUri);
-            if (channel != null) {
-                shutdownNowAndWait(channel, channelUri);
+            channels.remove(channelUri);
+            final TargetChannel targetChannel = channelTargets.remove(channelUri);
+            if (targetChannel == null) {
+                return;
             }
-            final GrpcLoggingInterceptor interceptor = interceptors.remove(channelUri);
-            if (interceptor != null) {
-                interceptor.close();
+            synchronized (targetChannels) {
+                targetChannel.users.remove(channelUri);
+                if (!targetChannel.users.isEmpty()) {
+                    return;
+                }
+                targetChannels.remove(targetChannel.target, targetChannel);
             }
+            targetChannel.shutdownNowAndWait();
+            releaseSharedResources(targetChannel.eventLoopGroup, targetChannel.executor);
         } finally {
             channelLocks.get(channelUri).unlock();
         }
     }
 
-    private void shutdownNowAndWait(ManagedChannel channel, URI channelUri) {
-        try {
-            if (!channel.shutdownNow()
-                    .awaitTermination(5, TimeUnit.SECONDS)) {
-                log.error("Channel {} did not terminate properly",
-                          channelUri);
-            }
-        } catch (InterruptedException e) {
-            log.warn("Channel {} didn't shutdown in time", channelUri);
-            Thread.currentThread().interrupt();
-        }
-    }
-
     @Override
     public Optional<ManagedChannel> get(URI channelUri) {
         checkNotNull(channelUri);
         return Optional.ofNullable(channels.get(channelUri));
     }
+
+    /**
+     * Channel to a target, with the channel URIs currently using it.
+     */
+    private final class TargetChannel {
+
+        private final URI target;
+        private final ManagedChannel channel;
+        private final GrpcLoggingInterceptor interceptor;
+        private final GrpcMetricsInterceptor metricsInterceptor;
+        // Shared resources used by the channel, null if none
+        private final EventLoopGroup eventLoopGroup;
+        private final ExecutorService executor;
+        private final Set<URI> users = Sets.newHashSet();
+
+        private TargetChannel(URI target, ManagedChannel channel,
+                              GrpcLoggingInterceptor interceptor,
+                              GrpcMetricsInterceptor metricsInterceptor,
+                              EventLoopGroup eventLoopGroup,
+                              ExecutorService executor) {
+            this.target = target;
+            this.channel = channel;
+            this.interceptor = interceptor;
+            this.metricsInterceptor = metricsInterceptor;
+            this.eventLoopGroup = eventLoopGroup;
+            this.executor = executor;
+        }
+
+        private void shutdownNow() {
+            channel.shutdownNow();
+            close();
+        }
+
+        private void shutdownNowAndWait() {
+            try {
+                if (!channel.shutdownNow()
+                        .awaitTermination(5, TimeUnit.SECONDS)) {
+                    log.error("Channel {} did not terminate properly",
+                              target);
+                }
+            } catch (InterruptedException e) {
+                log.warn("Channel {} didn't shutdown in time", target);
+                Thread.currentThread().interrupt();
+            }
+            close();
+        }
+
+        private void close() {
+            interceptor.close();
+            if (metricsInterceptor != null) {
+                metricsInterceptor.close();
+            }
+        }
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.grpc.ctl;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * gRPC client interceptor that measures the latency of unary calls and the
+ * number of calls in flight on a channel.
+ */
+final class GrpcMetricsInterceptor implements ClientInterceptor {
+
+    private static final String COMPONENT = "GrpcChannel";
+    private static final String RPC_LATENCY = "rpcLatency";
+    private static final String IN_FLIGHT_CALLS = "inFlightCalls";
+
+    private final MetricsService metricsService;
+    private final MetricsComponent component;
+    private final MetricsFeature feature;
+    private final Timer rpcLatency;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    GrpcMetricsInterceptor(URI target, MetricsService metricsService) {
+        this.metricsService = metricsService;
+        this.component = metricsService.registerComponent(COMPONENT);
+        this.feature = component.registerFeature(target.toString());
+        this.rpcLatency = metricsService.createTimer(component, feature, RPC_LATENCY);
+        metricsService.removeMetric(component, feature, IN_FLIGHT_CALLS);
+        metricsService.registerMetric(component, feature, IN_FLIGHT_CALLS,
+                                      (Gauge<Integer>) inFlight::get);
+    }
+
+    /**
+     * Removes the metrics of the channel.
+     */
+    void close() {
+        metricsService.removeMetric(component, feature, RPC_LATENCY);
+        metricsService.removeMetric(component, feature, IN_FLIGHT_CALLS);
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+            MethodDescriptor<ReqT, RespT> methodDescriptor,
+            CallOptions callOptions, Channel channel) {
+        // Only unary calls have a meaningful latency; streams live as long
+        // as the device connection
+        final boolean timed = methodDescriptor.getType() == MethodDescriptor.MethodType.UNARY;
+        return new ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(
+                channel.newCall(methodDescriptor, callOptions)) {
+
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                final long start = System.nanoTime();
+                final AtomicBoolean closed = new AtomicBoolean();
+                inFlight.incrementAndGet();
+                Listener<RespT> listener = new ForwardingClientCallListener
+                        .SimpleForwardingClientCallListener<RespT>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        if (closed.compareAndSet(false, true)) {
+                            inFlight.decrementAndGet();
+                            if (timed) {
+                                rpcLatency.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                            }
+                        }
+                        super.onClose(status, trailers);
+                    }
+                };
+                try {
+                    super.start(listener, headers);
+                } catch (RuntimeException e) {
+                    if (closed.compareAndSet(false, true)) {
+                        inFlight.decrementAndGet();
+                    }
+                    throw e;
+                }
+            }
+        };
+    }
+}
@@ -26,4 +26,19 @@ public final class OsgiPropertyConstants {
     public static final String ENABLE_MESSAGE_LOG = "enableMessageLog";
     public static final boolean ENABLE_MESSAGE_LOG_DEFAULT = false;
 
+    public static final String EVENT_LOOP_THREADS = "eventLoopThreads";
+    public static final int EVENT_LOOP_THREADS_DEFAULT = 0;
+
+    public static final String EXECUTOR_THREADS = "executorThreads";
+    public static final int EXECUTOR_THREADS_DEFAULT = 0;
+
+    public static final String KEEP_ALIVE_TIME = "keepAliveTime";
+    public static final int KEEP_ALIVE_TIME_DEFAULT = 0;
+
+    public static final String KEEP_ALIVE_TIMEOUT = "keepAliveTimeout";
+    public static final int KEEP_ALIVE_TIMEOUT_DEFAULT = 20;
+
+    public static final String FLOW_CONTROL_WINDOW = "flowControlWindow";
+    public static final int FLOW_CONTROL_WINDOW_DEFAULT = 1048576;
+
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.grpc.ctl;
+
+import com.google.common.collect.Iterables;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.netty.channel.EventLoopGroup;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.osgi.ComponentContextAdapter;
+import org.onosproject.cfg.ComponentConfigAdapter;
+
+import java.net.URI;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.concurrent.ExecutorService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.onosproject.grpc.ctl.OsgiPropertyConstants.EVENT_LOOP_THREADS;
+import static org.onosproject.grpc.ctl.OsgiPropertyConstants.EXECUTOR_THREADS;
+
+/**
+ * Unit tests for the sharing of channels and of their resources by the gRPC
+ * channel controller.
+ */
+public class GrpcChannelControllerImplTest {
+
+    private static final URI P4RT_URI = URI.create("grpc://127.0.0.1:50001?device_id=1");
+    private static final URI GNMI_URI = URI.create("grpc://127.0.0.1:50001");
+    private static final URI OTHER_URI = URI.create("grpc://127.0.0.1:50002");
+
+    private final Dictionary<String, Object> properties = new Hashtable<>();
+    private final ComponentContextAdapter context = new ComponentContextAdapter() {
+        @Override
+        public Dictionary getProperties() {
+            return properties;
+        }
+    };
+    private GrpcChannelControllerImpl controller;
+
+    @Before
+    public void setUp() {
+        properties.put(EVENT_LOOP_THREADS, 1);
+        properties.put(EXECUTOR_THREADS, 1);
+        controller = new GrpcChannelControllerImpl();
+        controller.componentConfigService = new ComponentConfigAdapter();
+        controller.activate(context);
+    }
+
+    @After
+    public void tearDown() {
+        controller.deactivate();
+    }
+
+    /**
+     * Tests that channel URIs for the same target share one channel, which
+     * is shut down only when the last of them is destroyed.
+     */
+    @Test
+    public void testSharedChannel() {
+        ManagedChannel p4rt = controller.create(P4RT_URI);
+        ManagedChannel gnmi = controller.create(GNMI_URI);
+        ManagedChannel other = controller.create(OTHER_URI);
+        assertThat(gnmi, sameInstance(p4rt));
+        assertThat(other, not(sameInstance(p4rt)));
+
+        controller.destroy(P4RT_URI);
+        assertThat(controller.get(P4RT_URI).isPresent(), is(false));
+        assertThat(controller.get(GNMI_URI).get(), sameInstance(gnmi));
+        assertThat(gnmi.isShutdown(), is(false));
+
+        controller.destroy(GNMI_URI);
+        assertThat(gnmi.isShutdown(), is(true));
+        assertThat(other.isShutdown(), is(false));
+
+        // A new channel is created for the target.
+        assertThat(controller.create(GNMI_URI), not(sameInstance(gnmi)));
+    }
+
+    /**
+     * Tests that channels created from a custom builder are not shared.
+     */
+    @Test
+    public void testExclusiveChannel() {
+        ManagedChannel shared = controller.create(P4RT_URI);
+        ManagedChannel exclusive = controller.create(
+                GNMI_URI, ManagedChannelBuilder.forTarget("127.0.0.1:50001").usePlaintext());
+        assertThat(exclusive, not(sameInstance(shared)));
+
+        controller.destroy(GNMI_URI);
+        assertThat(exclusive.isShutdown(), is(true));
+        assertThat(shared.isShutdown(), is(false));
+    }
+
+    /**
+     * Tests that the event loop group and executor replaced by a
+     * configuration change are shut down once the last channel using them is
+     * destroyed.
+     */
+    @Test
+    public void testRetiredResourcesReleased() {
+        ManagedChannel p4rt = controller.create(P4RT_URI);
+        controller.create(GNMI_URI);
+
+        properties.put(EVENT_LOOP_THREADS, 2);
+        properties.put(EXECUTOR_THREADS, 2);
+        controller.modified(context);
+        assertThat(controller.retiredSharedResources(), hasSize(2));
+        EventLoopGroup group = (EventLoopGroup) Iterables.find(
+                controller.retiredSharedResources(), r -> r instanceof EventLoopGroup);
+        ExecutorService executor = (ExecutorService) Iterables.find(
+                controller.retiredSharedResources(), r -> !(r instanceof EventLoopGroup));
+
+        // New channels use the new resources.
+        controller.create(OTHER_URI);
+        controller.destroy(OTHER_URI);
+        assertThat(controller.retiredSharedResources(), hasSize(2));
+
+        controller.destroy(P4RT_URI);
+        assertThat(group.isShuttingDown(), is(false));
+        assertThat(executor.isShutdown(), is(false));
+
+        controller.destroy(GNMI_URI);
+        assertThat(p4rt.isShutdown(), is(true));
+        assertThat(controller.retiredSharedResources(), hasSize(0));
+        assertThat(group.isShuttingDown(), is(true));
+        assertThat(executor.isShutdown(), is(true));
+    }
+
+    /**
+     * Tests that resources retired while not used by any channel are shut
+     * down right away.
+     */
+    @Test
+    public void testUnusedResourcesShutDown() {
+        controller.create(P4RT_URI);
+        controller.destroy(P4RT_URI);
+
+        properties.put(EVENT_LOOP_THREADS, 2);
+        controller.modified(context);
+        assertThat(controller.retiredSharedResources(), hasSize(0));
+    }
+}
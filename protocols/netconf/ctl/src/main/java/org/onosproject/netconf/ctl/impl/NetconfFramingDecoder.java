@@ -0,0 +1,342 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.netconf.ctl.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Incremental decoder of NETCONF messages, supporting both end-of-message
+ * ({@code ]]>]]>}) and RFC 6242 chunked framing. Bytes are fed as they are
+ * read from the session and framed messages are handed to a listener,
+ * without going through intermediate strings.
+ * <p>
+ * The framing of each message is detected from its first bytes: chunked
+ * messages start with {@code \n#}. Instances are not thread-safe.
+ */
+final class NetconfFramingDecoder {
+
+    private static final byte[] END_OF_MESSAGE = "]]>]]>".getBytes(StandardCharsets.US_ASCII);
+    // Partial match table of the end-of-message delimiter
+    private static final int[] END_OF_MESSAGE_FALLBACK = fallback(END_OF_MESSAGE);
+    private static final byte[] MESSAGE_ID = "message-id=\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte LF = '\n';
+    private static final byte HASH = '#';
+    private static final int INITIAL_CAPACITY = 4096;
+    // Largest chunk size accepted, as a sanity bound on the chunk header
+    private static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * Receiver of framed messages.
+     */
+    interface Listener {
+
+        /**
+         * Handles a framed message.
+         *
+         * @param message message content, without framing
+         */
+        void message(Message message);
+
+        /**
+         * Handles a framing error; the decoder is reset afterwards.
+         *
+         * @param reason description of the error
+         */
+        void framingError(String reason);
+    }
+
+    private enum State {
+        START, START_LF, END_OF_MESSAGE_BODY,
+        CHUNK_HASH, CHUNK_SIZE, CHUNK_DATA, CHUNK_LF, CHUNK_END_HASH, CHUNK_END_LF
+    }
+
+    private final Listener listener;
+
+    private State state = State.START;
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int length;
+    private int delimiterMatch;
+    private long chunkRemaining;
+
+    /**
+     * Creates a decoder handing messages to the given listener.
+     *
+     * @param listener message listener
+     */
+    NetconfFramingDecoder(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Decodes the given bytes, notifying the listener of every message
+     * completed by them.
+     *
+     * @param bytes  byte array
+     * @param offset offset of the first byte to decode
+     * @param count  number of bytes to decode
+     */
+    void decode(byte[] bytes, int offset, int count) {
+        int i = offset;
+        int end = offset + count;
+        while (i < end) {
+            switch (state) {
+                case CHUNK_DATA:
+                    int n = (int) Math.min(chunkRemaining, end - i);
+                    append(bytes, i, n);
+                    i += n;
+                    chunkRemaining -= n;
+                    if (chunkRemaining == 0) {
+                        state = State.CHUNK_LF;
+                    }
+                    break;
+                case END_OF_MESSAGE_BODY:
+                    i = scanEndOfMessage(bytes, i, end);
+                    break;
+                default:
+                    evaluate(bytes[i++]);
+                    break;
+            }
+        }
+    }
+
+    // Copies end-of-message framed content up to the delimiter, if present.
+    private int scanEndOfMessage(byte[] bytes, int from, int end) {
+        int i = from;
+        while (i < end) {
+            byte b = bytes[i++];
+            while (delimiterMatch > 0 && b != END_OF_MESSAGE[delimiterMatch]) {
+                delimiterMatch = END_OF_MESSAGE_FALLBACK[delimiterMatch - 1];
+            }
+            if (b == END_OF_MESSAGE[delimiterMatch]) {
+                delimiterMatch++;
+            }
+            if (delimiterMatch == END_OF_MESSAGE.length) {
+                append(bytes, from, i - from);
+                // Drop the delimiter, part of which may have been buffered earlier
+                length -= END_OF_MESSAGE.length;
+                complete();
+                return i;
+            }
+        }
+        append(bytes, from, end - from);
+        return end;
+    }
+
+    private void evaluate(byte b) {
+        switch (state) {
+            case START:
+                if (b == LF) {
+                    state = State.START_LF;
+                } else {
+                    startEndOfMessage();
+                    appendEndOfMessage(b);
+                }
+                break;
+            case START_LF:
+                if (b == HASH) {
+                    state = State.CHUNK_SIZE;
+                    chunkRemaining = 0;
+                } else if (b != LF) {
+                    // Blank lines between messages are dropped
+                    startEndOfMessage();
+                    appendEndOfMessage(b);
+                }
+                break;
+            case CHUNK_HASH:
+                if (b == HASH) {
+                    state = State.CHUNK_SIZE;
+                    chunkRemaining = 0;
+                } else {
+                    error("expected chunk header");
+                }
+                break;
+            case CHUNK_SIZE:
+                if (b == HASH && chunkRemaining == 0) {
+                    state = State.CHUNK_END_LF;
+                } else if (b >= '0' && b <= '9' && (chunkRemaining > 0 || b != '0')) {
+                    chunkRemaining = chunkRemaining * 10 + (b - '0');
+                    if (chunkRemaining > MAX_CHUNK_SIZE) {
+                        error("chunk size too large");
+                    }
+                } else if (b == LF && chunkRemaining > 0) {
+                    state = State.CHUNK_DATA;
+                } else {
+                    error("invalid chunk size");
+                }
+                break;
+            case CHUNK_LF:
+                if (b == LF) {
+                    state = State.CHUNK_HASH;
+                } else {
+                    error("chunk longer than its declared size");
+                }
+                break;
+            case CHUNK_END_LF:
+                if (b == LF) {
+                    complete();
+                } else {
+                    error("invalid end of chunks");
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unexpected decoder state " + state);
+        }
+    }
+
+    private void startEndOfMessage() {
+        state = State.END_OF_MESSAGE_BODY;
+        delimiterMatch = 0;
+    }
+
+    private void appendEndOfMessage(byte b) {
+        scanEndOfMessage(new byte[]{b}, 0, 1);
+    }
+
+    private void append(byte[] bytes, int offset, int count) {
+        if (length + count > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + count));
+        }
+        System.arraycopy(bytes, offset, buffer, length, count);
+        length += count;
+    }
+
+    private void complete() {
+        Message message = new Message(buffer, length);
+        reset();
+        listener.message(message);
+    }
+
+    private void error(String reason) {
+        reset();
+        listener.framingError(reason);
+    }
+
+    private void reset() {
+        state = State.START;
+        // The completed message keeps the buffer; start afresh
+        buffer = new byte[INITIAL_CAPACITY];
+        length = 0;
+        delimiterMatch = 0;
+        chunkRemaining = 0;
+    }
+
+    private static int[] fallback(byte[] pattern) {
+        int[] table = new int[pattern.length];
+        int k = 0;
+        for (int i = 1; i < pattern.length; i++) {
+            while (k > 0 && pattern[i] != pattern[k]) {
+                k = table[k - 1];
+            }
+            if (pattern[i] == pattern[k]) {
+                k++;
+            }
+            table[i] = k;
+        }
+        return table;
+    }
+
+    /**
+     * A framed NETCONF message.
+     */
+    static final class Message {
+
+        private final byte[] bytes;
+        private final int length;
+
+        private Message(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+        }
+
+        /**
+         * Returns the length of the message in bytes.
+         *
+         * @return message length
+         */
+        int length() {
+            return length;
+        }
+
+        /**
+         * Indicates whether the message is empty.
+         *
+         * @return true if the message has no content
+         */
+        boolean isEmpty() {
+            return length == 0;
+        }
+
+        /**
+         * Returns the message content decoded as UTF-8.
+         *
+         * @return message content
+         */
+        String asString() {
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Indicates whether the message contains the given ASCII text.
+         *
+         * @param text text to look for
+         * @return true if found
+         */
+        boolean contains(String text) {
+            return indexOf(text.getBytes(StandardCharsets.US_ASCII), 0) >= 0;
+        }
+
+        /**
+         * Returns the first numeric message-id attribute of the message.
+         *
+         * @return message id, if any
+         */
+        Optional<Integer> messageId() {
+            int from = 0;
+            int found;
+            while ((found = indexOf(MESSAGE_ID, from)) >= 0) {
+                int start = found + MESSAGE_ID.length;
+                int i = start;
+                long id = 0;
+                while (i < length && bytes[i] >= '0' && bytes[i] <= '9' && id <= Integer.MAX_VALUE) {
+                    id = id * 10 + (bytes[i] - '0');
+                    i++;
+                }
+                if (i > start && i < length && bytes[i] == '"' && id <= Integer.MAX_VALUE) {
+                    return Optional.of((int) id);
+                }
+                from = start;
+            }
+            return Optional.empty();
+        }
+
+        private int indexOf(byte[] pattern, int from) {
+            int last = length - pattern.length;
+            outer:
+            for (int i = from; i <= last; i++) {
+                for (int j = 0; j < pattern.length; j++) {
+                    if (bytes[i + j] != pattern[j]) {
+                        continue outer;
+                    }
+                }
+                return i;
+            }
+            return -1;
+        }
+    }
+}
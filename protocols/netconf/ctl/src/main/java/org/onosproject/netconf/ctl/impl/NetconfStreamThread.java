@@ -16,7 +16,18 @@
 
 package org.onosproject.netconf.ctl.impl;
 
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onlab.osgi.DefaultServiceDirectory;
+import org.onlab.osgi.ServiceNotFoundException;
 import org.onosproject.netconf.NetconfDeviceInfo;
 import org.onosproject.netconf.NetconfDeviceOutputEvent;
 import org.onosproject.netconf.NetconfDeviceOutputEventListener;
@@ -25,21 +36,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
-import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.channels.ClosedByInterruptException;
-import java.io.InputStreamReader;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
 import java.util.List;
 import java.util.Map;
-import java.util.ArrayList;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.regex.MatchResult;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -59,15 +66,9 @@ public class NetconfStreamThread extends Thread implements NetconfStreamHandler
     private static final String NOTIFICATION_LABEL = "<notification";
     private static final String MESSAGE_ID = "message-id=";
     private static final Pattern MSGID_PATTERN = Pattern.compile(MESSAGE_ID + "\"(\\d+)\"");
-    private static final String MSGLEN_REGEX_PATTERN = "\n#\\d+\n";
-    // pattern to verify whole Chunked-Message format
-    private static final Pattern CHUNKED_FRAMING_PATTERN =
-            Pattern.compile("(\\n#([1-9][0-9]*)\\n(.+))+\\n##\\n", Pattern.DOTALL);
-    private static final String CHUNKED_END_REGEX_PATTERN = "\n##\n";
-    // pattern to parse each chunk-size in ChunkedMessage chunk
-    private static final Pattern CHUNKED_SIZE_PATTERN = Pattern.compile("\\n#([1-9][0-9]*)\\n");
-    private static final char HASH_CHAR = '#';
-    private static final char LF_CHAR = '\n';
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+    private static final String METRICS_COMPONENT = "Netconf";
+    private static final String METRICS_FEATURE = "session";
     protected static final String ON_REQUEST = "on request";
 
     private OutputStreamWriter outputStream;
@@ -75,27 +76,67 @@ public class NetconfStreamThread extends Thread implements NetconfStreamHandler
     private final InputStream in;
     private NetconfDeviceInfo netconfDeviceInfo;
     private NetconfSessionDelegate sessionDelegate;
-    private NetconfMessageState state;
     private List<NetconfDeviceOutputEventListener> netconfDeviceEventListeners
             = Lists.newCopyOnWriteArrayList();
     private boolean enableNotifications = true;
     private Map<Integer, CompletableFuture<String>> replies;
 
+    // Send times of outstanding requests, for reply latency statistics;
+    // requests left without reply expire along with their reply timeout
+    private final Cache<Integer, Long> requestTimes;
+    private final Ticker ticker;
+    private final Meter bytesReceived;
+    private final Meter messagesReceived;
+    private final Timer replyLatency;
+
     public NetconfStreamThread(final InputStream in, final OutputStream out,
                                final InputStream err, NetconfDeviceInfo deviceInfo,
                                NetconfSessionDelegate delegate,
                                Map<Integer, CompletableFuture<String>> replies) {
+        this(in, out, err, deviceInfo, delegate, replies, metricsService(), Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    NetconfStreamThread(final InputStream in, final OutputStream out,
+                        final InputStream err, NetconfDeviceInfo deviceInfo,
+                        NetconfSessionDelegate delegate,
+                        Map<Integer, CompletableFuture<String>> replies,
+                        MetricsService metricsService, Ticker ticker) {
         this.in = in;
         this.err = err;
         outputStream = new OutputStreamWriter(out, StandardCharsets.UTF_8);
         netconfDeviceInfo = deviceInfo;
-        state = NetconfMessageState.NO_MATCHING_PATTERN;
         sessionDelegate = delegate;
         this.replies = replies;
+        this.ticker = ticker;
+        int replyTimeout = deviceInfo.getReplyTimeoutSec().orElse(NetconfControllerImpl.netconfReplyTimeout);
+        requestTimes = CacheBuilder.newBuilder()
+                .expireAfterWrite(replyTimeout, TimeUnit.SECONDS)
+                .ticker(ticker)
+                .build();
+        if (metricsService != null) {
+            MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(METRICS_FEATURE);
+            bytesReceived = metricsService.createMeter(component, feature, "bytesReceived");
+            messagesReceived = metricsService.createMeter(component, feature, "messagesReceived");
+            replyLatency = metricsService.createTimer(component, feature, "replyLatency");
+        } else {
+            bytesReceived = new Meter();
+            messagesReceived = new Meter();
+            replyLatency = new Timer();
+        }
         log.debug("Stream thread for device {} session started", deviceInfo);
         start();
     }
 
+    private static MetricsService metricsService() {
+        try {
+            return DefaultServiceDirectory.getService(MetricsService.class);
+        } catch (ServiceNotFoundException e) {
+            return null;
+        }
+    }
+
     @Override
     public CompletableFuture<String> sendMessage(String request) {
         Optional<Integer> messageId = getMsgId(request);
@@ -107,6 +148,7 @@ public class NetconfStreamThread extends Thread implements NetconfStreamHandler
         log.debug("Sending message {} to device {}", request, netconfDeviceInfo);
         CompletableFuture<String> cf = new CompletableFuture<>();
         replies.put(messageId, cf);
+        requestTimes.put(messageId, ticker.read());
 
         synchronized (outputStream) {
             try {
@@ -114,6 +156,7 @@ public class NetconfStreamThread extends Thread implements NetconfStreamHandler
                 outputStream.flush();
             } catch (IOException e) {
                 log.error("Writing to {} failed", netconfDeviceInfo, e);
+                requestTimes.invalidate(messageId);
                 cf.completeExceptionally(e);
             }
         }
@@ -121,137 +164,15 @@ public class NetconfStreamThread extends Thread implements NetconfStreamHandler
         return cf;
     }
 
-    public enum NetconfMessageState {
-
-        NO_MATCHING_PATTERN {
-            @Override
-            NetconfMessageState evaluateChar(char c) {
-                if (c == ']') {
-                    return FIRST_BRACKET;
-                } else if (c == '\n') {
-                    return FIRST_LF;
-                } else {
-                    return this;
-                }
-            }
-        },
-        FIRST_BRACKET {
-            @Override
-            NetconfMessageState evaluateChar(char c) {
-                if (c == ']') {
-                    return SECOND_BRACKET;
-                } else {
-                    return NO_MATCHING_PATTERN;
-                }
-            }
-        },
-        SECOND_BRACKET {
-            @Override
-            NetconfMessageState evaluateChar(char c) {
-                if (c == '>') {
-                    return FIRST_BIGGER;
-                } else {
-                    return NO_MATCHING_PATTERN;
-                }
-            }
-        },
-        FIRST_BIGGER {
-            @Override
-            NetconfMessageState evaluateChar(char c) {
-                if (c == ']') {
-                    return THIRD_BRACKET;
-                } else {
-                    return NO_MATCHING_PATTERN;
-                }
-            }
-        },
-        THIRD_BRACKET {
-            @Override
-            NetconfMessageState evaluateChar(char c) {
-                if (c == ']') {
-                    return ENDING_BIGGER;
-                } else {
-                    return NO_MATCHING_PATTERN;
-                }
-            }
-        },
-        ENDING_BIGGER {
-            @Override
-            NetconfMessageState evaluateChar(char c) {
-                if (c == '>') {
-                    return END_PATTERN;
-                } else {
-                    return NO_MATCHING_PATTERN;
-                }
-            }
-        },
-        FIRST_LF {
-            @Override
-            NetconfMessageState evaluateChar(char c) {
-                if (c == '#') {
-                    return FIRST_HASH;
-                } else if (c == ']') {
-                    return FIRST_BRACKET;
-                } else if (c == '\n') {
-                    return this;
-                } else {
-                    return NO_MATCHING_PATTERN;
-                }
-            }
-        },
-        FIRST_HASH {
-            @Override
-            NetconfMessageState evaluateChar(char c) {
-                if (c == '#') {
-                    return SECOND_HASH;
-                } else {
-                    return NO_MATCHING_PATTERN;
-                }
-            }
-        },
-        SECOND_HASH {
-            @Override
-            NetconfMessageState evaluateChar(char c) {
-                if (c == '\n') {
-                    return END_CHUNKED_PATTERN;
-                } else {
-                    return NO_MATCHING_PATTERN;
-                }
-            }
-        },
-        END_CHUNKED_PATTERN {
-            @Override
-            NetconfMessageState evaluateChar(char c) {
-                return NO_MATCHING_PATTERN;
-            }
-        },
-        END_PATTERN {
-            @Override
-            NetconfMessageState evaluateChar(char c) {
-                return NO_MATCHING_PATTERN;
-            }
-        };
-
-        abstract NetconfMessageState evaluateChar(char c);
-    }
-
     @Override
     public void run() {
-        BufferedReader bufferReader = null;
-        while (bufferReader == null) {
-            try {
-                bufferReader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
-            } catch (UnsupportedEncodingException e) {
-                throw new IllegalStateException(e);
-            }
-        }
-
+        Framer framer = new Framer();
+        NetconfFramingDecoder decoder = new NetconfFramingDecoder(framer);
+        byte[] readBuffer = new byte[READ_BUFFER_SIZE];
         try {
-            boolean socketClosed = false;
-            StringBuilder deviceReplyBuilder = new StringBuilder();
-            while (!socketClosed && !this.isInterrupted()) {
-                int cInt = bufferReader.read();
-                if (cInt == -1) {
+            while (!framer.socketClosed && !this.isInterrupted()) {
+                int count = in.read(readBuffer);
+                if (count == -1) {
                     log.debug("Netconf device {}  sent error char in session," +
                             " will need to be reopened", netconfDeviceInfo);
                     NetconfDeviceOutputEvent event = new NetconfDeviceOutputEvent(
@@ -259,35 +180,11 @@ public class NetconfStreamThread extends Thread implements NetconfStreamHandler
                             null, null, Optional.of(-1), netconfDeviceInfo);
                     netconfDeviceEventListeners.forEach(
                             listener -> listener.event(event));
-                    socketClosed = true;
+                    framer.socketClosed = true;
                     log.debug("Netconf device {} ERROR cInt == -1 socketClosed = true", netconfDeviceInfo);
-                }
-                char c = (char) cInt;
-                state = state.evaluateChar(c);
-                deviceReplyBuilder.append(c);
-                if (state == NetconfMessageState.END_PATTERN) {
-                    String deviceReply = deviceReplyBuilder.toString();
-                    if (deviceReply.equals(END_PATTERN)) {
-                        socketClosed = true;
-                        close(deviceReply);
-                    } else {
-                        deviceReply = deviceReply.replace(END_PATTERN, "");
-                        dealWithReply(deviceReply);
-                        deviceReplyBuilder.setLength(0);
-                    }
-                } else if (state == NetconfMessageState.END_CHUNKED_PATTERN) {
-                    String deviceReply = deviceReplyBuilder.toString();
-                    if (!validateChunkedFraming(deviceReply)) {
-                        log.debug("Netconf device {} send badly framed message {}",
-                                netconfDeviceInfo, deviceReply);
-                        socketClosed = true;
-                        close(deviceReply);
-                    } else {
-                        deviceReply = deviceReply.replaceAll(MSGLEN_REGEX_PATTERN, "");
-                        deviceReply = deviceReply.replaceAll(CHUNKED_END_REGEX_PATTERN, "");
-                        dealWithReply(deviceReply);
-                        deviceReplyBuilder.setLength(0);
-                    }
+                } else {
+                    bytesReceived.mark(count);
+                    decoder.decode(readBuffer, 0, count);
                 }
             }
         } catch (ClosedByInterruptException i) {
@@ -300,6 +197,31 @@ public class NetconfStreamThread extends Thread implements NetconfStreamHandler
         }
     }
 
+    // Dispatches messages framed by the decoder.
+    private final class Framer implements NetconfFramingDecoder.Listener {
+
+        private boolean socketClosed = false;
+
+        @Override
+        public void message(NetconfFramingDecoder.Message message) {
+            if (message.isEmpty()) {
+                socketClosed = true;
+                close(END_PATTERN);
+            } else {
+                messagesReceived.mark();
+                dealWithReply(message);
+            }
+        }
+
+        @Override
+        public void framingError(String reason) {
+            log.debug("Netconf device {} send badly framed message: {}",
+                    netconfDeviceInfo, reason);
+            socketClosed = true;
+            close(reason);
+        }
+    }
+
     public void close() {
         close(ON_REQUEST);
     }
@@ -307,6 +229,7 @@ public class NetconfStreamThread extends Thread implements NetconfStreamHandler
     private void close(String deviceReply) {
         log.debug("Netconf device {} socketClosed = true DEVICE_UNREGISTERED {}",
                 netconfDeviceInfo, deviceReply);
+        requestTimes.invalidateAll();
         if (!deviceReply.equals(ON_REQUEST)) {
             NetconfDeviceOutputEvent event = new NetconfDeviceOutputEvent(
                     NetconfDeviceOutputEvent.Type.DEVICE_UNREGISTERED,
@@ -317,69 +240,68 @@ public class NetconfStreamThread extends Thread implements NetconfStreamHandler
         this.interrupt();
     }
 
-    private void dealWithReply(String deviceReply) {
-        if (deviceReply.contains(RPC_REPLY) ||
-                deviceReply.contains(RPC_ERROR) ||
-                deviceReply.contains(HELLO)) {
+    private void dealWithReply(NetconfFramingDecoder.Message reply) {
+        if (reply.contains(RPC_REPLY) ||
+                reply.contains(RPC_ERROR) ||
+                reply.contains(HELLO)) {
+            Optional<Integer> messageId = getMsgId(reply);
+            String deviceReply = reply.asString();
             log.debug("Netconf device {} sessionDelegate.notify() DEVICE_REPLY {} {}",
-                    netconfDeviceInfo, getMsgId(deviceReply), deviceReply);
+                    netconfDeviceInfo, messageId, deviceReply);
+            recordLatency(messageId, reply.length());
             NetconfDeviceOutputEvent event = new NetconfDeviceOutputEvent(
                     NetconfDeviceOutputEvent.Type.DEVICE_REPLY,
-                    null, deviceReply, getMsgId(deviceReply), netconfDeviceInfo);
+                    null, deviceReply, messageId, netconfDeviceInfo);
             sessionDelegate.notify(event);
             netconfDeviceEventListeners.forEach(
                     listener -> listener.event(event));
-        } else if (deviceReply.contains(NOTIFICATION_LABEL)) {
+        } else if (reply.contains(NOTIFICATION_LABEL)) {
+            Optional<Integer> messageId = getMsgId(reply);
+            String deviceReply = reply.asString();
             log.debug("Netconf device {} DEVICE_NOTIFICATION {} {} {}",
                     netconfDeviceInfo, enableNotifications,
-                    getMsgId(deviceReply), deviceReply);
+                    messageId, deviceReply);
             if (enableNotifications) {
                 log.debug("dispatching to {} listeners", netconfDeviceEventListeners.size());
-                final String finalDeviceReply = deviceReply;
                 netconfDeviceEventListeners.forEach(
                         listener -> listener.event(new NetconfDeviceOutputEvent(
                                 NetconfDeviceOutputEvent.Type.DEVICE_NOTIFICATION,
-                                null, finalDeviceReply, getMsgId(finalDeviceReply),
+                                null, deviceReply, messageId,
                                 netconfDeviceInfo)));
             }
         } else {
-            log.debug("Error on reply from device {} {}", netconfDeviceInfo, deviceReply);
+            log.debug("Error on reply from device {} {}", netconfDeviceInfo, reply.asString());
         }
     }
 
-    static boolean validateChunkedFraming(String reply) {
-        Matcher matcher = CHUNKED_FRAMING_PATTERN.matcher(reply);
-        if (!matcher.matches()) {
-            log.debug("Error on reply {}", reply);
-            return false;
+    private void recordLatency(Optional<Integer> messageId, int length) {
+        Long sent = messageId.map(requestTimes.asMap()::remove).orElse(null);
+        if (sent != null) {
+            long nanos = ticker.read() - sent;
+            replyLatency.update(nanos, TimeUnit.NANOSECONDS);
+            log.debug("Netconf device {} replied to {} with {} bytes in {} us",
+                      netconfDeviceInfo, messageId.get(), length, TimeUnit.NANOSECONDS.toMicros(nanos));
         }
-        Matcher chunkM = CHUNKED_SIZE_PATTERN.matcher(reply);
-        List<MatchResult> chunks = new ArrayList<>();
-        String chunkdataStr = "";
-        while (chunkM.find()) {
-            chunks.add(chunkM.toMatchResult());
-            // extract chunk-data (and later) in bytes
-            int bytes = Integer.parseInt(chunkM.group(1));
-            byte[] chunkdata = reply.substring(chunkM.end()).getBytes(StandardCharsets.UTF_8);
-            if (bytes > chunkdata.length) {
-                log.debug("Error on reply - wrong chunk size {}", reply);
-                return false;
-            }
-            //check if after chunk-size bytes there is next chunk or message ending
-            if (chunkdata[bytes] != LF_CHAR || chunkdata[bytes + 1] != HASH_CHAR) {
-                log.debug("Error on reply - wrong chunk size {}", reply);
-                return false;
-            }
-            // convert (only) chunk-data part into String
-            chunkdataStr = new String(chunkdata, 0, bytes, StandardCharsets.UTF_8);
-            // skip chunk-data part from next match
-            chunkM.region(chunkM.end() + chunkdataStr.length(), reply.length());
-        }
-        if (!"\n##\n".equals(reply.substring(chunks.get(chunks.size() - 1).end() + chunkdataStr.length()))) {
-            log.debug("Error on reply {}", reply);
-            return false;
+    }
+
+    /**
+     * Returns the number of requests awaiting a reply, for which the send
+     * time is still tracked.
+     *
+     * @return number of tracked requests
+     */
+    @VisibleForTesting
+    long pendingRequests() {
+        requestTimes.cleanUp();
+        return requestTimes.size();
+    }
+
+    private static Optional<Integer> getMsgId(NetconfFramingDecoder.Message reply) {
+        Optional<Integer> messageId = reply.messageId();
+        if (!messageId.isPresent() && reply.contains(HELLO)) {
+            return Optional.of(-1);
         }
-        return true;
+        return messageId;
     }
 
     protected static Optional<Integer> getMsgId(String reply) {
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.netconf.ctl.impl;
+
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit tests for NetconfFramingDecoder.
+ */
+public class NetconfFramingDecoderTest {
+
+    private static final String REPLY =
+            "<rpc-reply xmlns=\"urn:ietf:params:xml:ns:netconf:base:1.0\" message-id=\"7\"><ok/></rpc-reply>";
+
+    private final List<String> messages = Lists.newArrayList();
+    private final List<Optional<Integer>> messageIds = Lists.newArrayList();
+    private final List<String> errors = Lists.newArrayList();
+    private NetconfFramingDecoder decoder;
+
+    @Before
+    public void setUp() {
+        decoder = new NetconfFramingDecoder(new NetconfFramingDecoder.Listener() {
+            @Override
+            public void message(NetconfFramingDecoder.Message message) {
+                messages.add(message.asString());
+                messageIds.add(message.messageId());
+            }
+
+            @Override
+            public void framingError(String reason) {
+                errors.add(reason);
+            }
+        });
+    }
+
+    // Feeds the text to the decoder in slices of the given size.
+    private void feed(String text, int slice) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i += slice) {
+            decoder.decode(bytes, i, Math.min(slice, bytes.length - i));
+        }
+    }
+
+    /**
+     * Tests end-of-message framing, including delimiters split across reads.
+     */
+    @Test
+    public void testEndOfMessageFraming() {
+        for (int slice : new int[]{1, 3, 1024}) {
+            messages.clear();
+            feed(REPLY + "]]>]]>\n" + "<hello/>]]]>]]>", slice);
+            assertThat(messages, contains(REPLY, "<hello/>]"));
+        }
+        assertThat(messageIds.get(0), is(Optional.of(7)));
+        assertThat(messageIds.get(1), is(Optional.empty()));
+        assertThat(errors, empty());
+    }
+
+    /**
+     * Tests chunked framing with multi-byte characters and chunk boundaries
+     * not aligned with reads.
+     */
+    @Test
+    public void testChunkedFraming() {
+        String first = REPLY.substring(0, 10);
+        String second = REPLY.substring(10) + "é";
+        String framed = "\n#" + first.length() + "\n" + first +
+                "\n#" + second.getBytes(StandardCharsets.UTF_8).length + "\n" + second +
+                "\n##\n";
+        for (int slice : new int[]{1, 7, 1024}) {
+            messages.clear();
+            feed(framed + framed, slice);
+            assertThat(messages, contains(REPLY + "é", REPLY + "é"));
+        }
+        assertThat(messageIds.get(0), is(Optional.of(7)));
+        assertThat(errors, empty());
+    }
+
+    /**
+     * Tests that chunks longer than their declared size are rejected.
+     */
+    @Test
+    public void testBadChunkSize() {
+        feed("\n#3\n<ok/>\n##\n", 1024);
+        assertThat(messages, empty());
+        assertThat(errors, hasSize(1));
+    }
+
+    /**
+     * Tests message-id extraction skipping non numeric values.
+     */
+    @Test
+    public void testMessageId() {
+        feed("<rpc-reply message-id=\"abc\" x:message-id=\"42\"/>]]>]]>", 1024);
+        assertThat(messageIds, contains(Optional.of(42)));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.netconf.ctl.impl;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.Maps;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
+import org.onlab.packet.IpAddress;
+import org.onosproject.netconf.NetconfDeviceInfo;
+import org.onosproject.netconf.NetconfDeviceOutputEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit tests for NetconfStreamThread.
+ */
+public class NetconfStreamThreadTest {
+
+    private static final int REPLY_TIMEOUT = 5;
+    private static final String REQUEST =
+            "<rpc xmlns=\"urn:ietf:params:xml:ns:netconf:base:1.0\" message-id=\"%d\"><get/></rpc>]]>]]>";
+    private static final String REPLY =
+            "<rpc-reply xmlns=\"urn:ietf:params:xml:ns:netconf:base:1.0\" message-id=\"%d\"><ok/></rpc-reply>]]>]]>";
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+    private final Map<Integer, CompletableFuture<String>> replies = Maps.newConcurrentMap();
+    private final MetricsManager metricsService = new MetricsManager();
+    private PipedOutputStream device;
+    private NetconfStreamThread stream;
+
+    @Before
+    public void setUp() throws IOException {
+        device = new PipedOutputStream();
+        PipedInputStream in = new PipedInputStream(device);
+        NetconfDeviceInfo deviceInfo = new NetconfDeviceInfo("netconf", "netconf",
+                                                             IpAddress.valueOf("10.0.0.1"), 830);
+        deviceInfo.setReplyTimeoutSec(OptionalInt.of(REPLY_TIMEOUT));
+        stream = new NetconfStreamThread(in, new ByteArrayOutputStream(), in, deviceInfo,
+                                         this::complete, replies, metricsService, ticker);
+    }
+
+    @After
+    public void tearDown() throws IOException, InterruptedException {
+        // End of input lets the stream thread finish on its own
+        device.close();
+        stream.join(TimeUnit.SECONDS.toMillis(REPLY_TIMEOUT));
+    }
+
+    // Completes the pending reply future, as the session delegate does.
+    private void complete(NetconfDeviceOutputEvent event) {
+        event.getMessageID().map(replies::remove)
+                .ifPresent(future -> future.complete(event.getMessagePayload()));
+    }
+
+    /**
+     * Tests that a reply records its latency and stops the request being tracked.
+     */
+    @Test
+    public void testReplyLatency() throws Exception {
+        CompletableFuture<String> reply = stream.sendMessage(String.format(REQUEST, 1), 1);
+        assertThat(stream.pendingRequests(), is(1L));
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(3));
+        device.write(String.format(REPLY, 1).getBytes(StandardCharsets.UTF_8));
+        device.flush();
+        reply.get(REPLY_TIMEOUT, TimeUnit.SECONDS);
+
+        assertThat(stream.pendingRequests(), is(0L));
+        assertThat(metricsService.getTimers((name, metric) -> name.endsWith("replyLatency"))
+                           .values().iterator().next().getCount(), is(1L));
+    }
+
+    /**
+     * Tests that requests left without reply stop being tracked after the reply timeout.
+     */
+    @Test
+    public void testUnansweredRequestExpires() {
+        stream.sendMessage(String.format(REQUEST, 1), 1);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(REPLY_TIMEOUT - 1));
+        stream.sendMessage(String.format(REQUEST, 2), 2);
+        assertThat(stream.pendingRequests(), is(2L));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(stream.pendingRequests(), is(1L));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(REPLY_TIMEOUT));
+        assertThat(stream.pendingRequests(), is(0L));
+    }
+}
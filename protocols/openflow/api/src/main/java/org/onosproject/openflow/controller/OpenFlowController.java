@@ -16,8 +16,11 @@
 package org.onosproject.openflow.controller;
 
 import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFStatsRequest;
 
+import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * Abstraction of an OpenFlow controller. Serves as a one stop
@@ -138,6 +141,21 @@ public interface OpenFlowController {
      */
     CompletableFuture<OFMessage> writeResponse(Dpid dpid, OFMessage msg);
 
+    /**
+     * Registers a periodic statistics poll on the timeline shared by all the
+     * statistics collectors of a switch. Polls of the same switch are spread
+     * over their interval at a switch-specific phase, and are backed off
+     * while the switch is slow to reply.
+     *
+     * @param dpid the switch to poll
+     * @param intervalMillis nominal poll interval in milliseconds
+     * @param requests supplies the requests to send at each round; an empty
+     *                 collection skips the round
+     * @return handle of the registered poll
+     */
+    OpenFlowStatsPoll schedulePoll(Dpid dpid, long intervalMillis,
+                                   Supplier<Collection<OFStatsRequest<?>>> requests);
+
     /**
      * Process a message and notify the appropriate listeners.
      *
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller;
+
+/**
+ * Handle of a periodic statistics poll registered on the statistics
+ * timeline shared by all the collectors of a switch.
+ */
+public interface OpenFlowStatsPoll {
+
+    /**
+     * Changes the nominal interval of this poll.
+     *
+     * @param intervalMillis new poll interval in milliseconds
+     */
+    void setInterval(long intervalMillis);
+
+    /**
+     * Returns the latency of the last completed poll, measured from the
+     * request to the last part of its reply.
+     *
+     * @return latency in milliseconds; -1 if no poll has completed yet
+     */
+    long lastLatencyMillis();
+
+    /**
+     * Returns the number of entries carried by the last completed poll.
+     *
+     * @return number of reply entries; -1 if no poll has completed yet
+     */
+    int lastReplySize();
+
+    /**
+     * Removes this poll from the switch timeline.
+     */
+    void cancel();
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller;
+
+/**
+ * Test adapter for the OpenFlow statistics poll interface; a poll that
+ * never runs.
+ */
+public class OpenFlowStatsPollAdapter implements OpenFlowStatsPoll {
+    @Override
+    public void setInterval(long intervalMillis) {
+    }
+
+    @Override
+    public long lastLatencyMillis() {
+        return -1;
+    }
+
+    @Override
+    public int lastReplySize() {
+        return -1;
+    }
+
+    @Override
+    public void cancel() {
+    }
+}
@@ -16,8 +16,11 @@
 package org.onosproject.openflow.controller;
 
 import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFStatsRequest;
 
+import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * Test adapter for the OpenFlow controller interface.
@@ -88,6 +91,12 @@ public class OpenflowControllerAdapter implements OpenFlowController {
         return null;
     }
 
+    @Override
+    public OpenFlowStatsPoll schedulePoll(Dpid dpid, long intervalMillis,
+                                          Supplier<Collection<OFStatsRequest<?>>> requests) {
+        return new OpenFlowStatsPollAdapter();
+    }
+
     @Override
     public void processPacket(Dpid dpid, OFMessage msg) {
     }
@@ -18,6 +18,7 @@ package org.onosproject.openflow.controller.impl;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.CoreService;
 import org.onosproject.net.DeviceId;
@@ -39,6 +40,7 @@ import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.OpenFlowSwitchListener;
 import org.onosproject.openflow.controller.OpenFlowListener;
 import org.onosproject.openflow.controller.OpenFlowService;
+import org.onosproject.openflow.controller.OpenFlowStatsPoll;
 import org.onosproject.openflow.controller.OpenFlowEvent;
 import org.onosproject.openflow.controller.PacketListener;
 import org.onosproject.openflow.controller.RoleState;
@@ -50,6 +52,7 @@ import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.projectfloodlight.openflow.protocol.OFCalientFlowStatsEntry;
 import org.projectfloodlight.openflow.protocol.OFCalientFlowStatsReply;
 import org.projectfloodlight.openflow.protocol.OFCircuitPortStatus;
@@ -72,6 +75,7 @@ import org.projectfloodlight.openflow.protocol.OFQueueStatsEntry;
 import org.projectfloodlight.openflow.protocol.OFQueueStatsReply;
 import org.projectfloodlight.openflow.protocol.OFStatsReply;
 import org.projectfloodlight.openflow.protocol.OFStatsReplyFlags;
+import org.projectfloodlight.openflow.protocol.OFStatsRequest;
 import org.projectfloodlight.openflow.protocol.OFTableStatsEntry;
 import org.projectfloodlight.openflow.protocol.OFTableStatsReply;
 import org.projectfloodlight.openflow.protocol.action.OFActionOutput;
@@ -93,6 +97,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.openflow.controller.impl.OsgiPropertyConstants.*;
@@ -161,6 +166,10 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected OpenFlowService openFlowManager;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL,
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile MetricsService metricsService;
+
     private final OpenFlowListener openFlowListener = new InternalOpenFlowListener();
 
     /** Key store password. */
@@ -231,6 +240,9 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     protected ExecutorService executorErrorMsgs =
             Executors.newSingleThreadExecutor(groupedThreads("onos/of", "event-error-msg-%d", log));
 
+    private final StatsPollScheduler statsScheduler =
+            new StatsPollScheduler(this::getSwitch, () -> metricsService);
+
     //concurrent hashmap to track failed transactions
     protected ConcurrentMap<Long, Boolean> errorMsgs =
             new ConcurrentHashMap<>();
@@ -341,6 +353,7 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         netCfgService.registerConfigFactory(factory);
         netCfgService.addListener(netCfgListener);
         ctrl.setConfigParams(context.getProperties());
+        statsScheduler.start();
         ctrl.start(agent, driverService, netCfgService);
         openFlowManager.addListener(openFlowListener);
     }
@@ -349,6 +362,7 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         // Close listening channel and all OF channels. Clean information about switches
         // before deactivating
         ctrl.stop();
+        statsScheduler.stop();
         connectedSwitches.values().forEach(OpenFlowSwitch::disconnectSwitch);
         connectedSwitches.clear();
         activeMasterSwitches.clear();
@@ -469,6 +483,12 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         return future;
     }
 
+    @Override
+    public OpenFlowStatsPoll schedulePoll(Dpid dpid, long intervalMillis,
+                                          Supplier<Collection<OFStatsRequest<?>>> requests) {
+        return statsScheduler.schedule(dpid, intervalMillis, requests);
+    }
+
     @Override
     public void processPacket(Dpid dpid, OFMessage msg) {
         OpenFlowSwitch sw = this.getSwitch(dpid);
@@ -562,6 +582,7 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     }
 
     private void processStatsReply(Dpid dpid, OFStatsReply reply) {
+        statsScheduler.replyReceived(dpid, reply);
         switch (reply.getStatsType()) {
             case QUEUE:
                 Collection<OFQueueStatsEntry> queueStatsEntries = publishQueueStats(dpid, (OFQueueStatsReply) reply);
@@ -914,6 +935,7 @@ public class OpenFlowControllerImpl implements OpenFlowController {
             for (OpenFlowSwitchListener l : ofSwitchListener) {
                 l.switchRemoved(dpid);
             }
+            statsScheduler.switchRemoved(dpid);
         }
 
         @Override
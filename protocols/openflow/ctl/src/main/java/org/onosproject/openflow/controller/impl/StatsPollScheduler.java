@@ -0,0 +1,495 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.openflow.controller.Dpid;
+import org.onosproject.openflow.controller.OpenFlowStatsPoll;
+import org.onosproject.openflow.controller.OpenFlowSwitch;
+import org.projectfloodlight.openflow.protocol.OFFlowLightweightStatsReply;
+import org.projectfloodlight.openflow.protocol.OFFlowStatsReply;
+import org.projectfloodlight.openflow.protocol.OFGroupDescStatsReply;
+import org.projectfloodlight.openflow.protocol.OFGroupStatsReply;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFMeterStatsReply;
+import org.projectfloodlight.openflow.protocol.OFPortStatsReply;
+import org.projectfloodlight.openflow.protocol.OFQueueStatsReply;
+import org.projectfloodlight.openflow.protocol.OFStatsReply;
+import org.projectfloodlight.openflow.protocol.OFStatsReplyFlags;
+import org.projectfloodlight.openflow.protocol.OFStatsRequest;
+import org.projectfloodlight.openflow.protocol.OFTableStatsReply;
+import org.slf4j.Logger;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.onlab.util.Tools.groupedThreads;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Multiplexes the periodic statistics requests of all the collectors of a
+ * switch on a single timeline per switch.
+ * <p>
+ * Each switch gets a random phase within the poll interval, and the polls
+ * registered for it are spread over the interval from that phase, so that
+ * neither the requests of one switch nor those of different switches are
+ * sent in bursts. Each switch has at most one pending timer, whatever the
+ * number of polls registered for it. The effective interval of all the polls
+ * of a switch is stretched while the switch is slow to reply or leaves
+ * requests unanswered, and is brought back once replies are fast again.
+ */
+final class StatsPollScheduler {
+
+    private static final Logger log = getLogger(StatsPollScheduler.class);
+
+    static final int MAX_BACKOFF = 8;
+
+    // Rounds a poll is skipped waiting for a reply before the request is
+    // considered lost and sent again
+    private static final int MAX_SKIPPED_ROUNDS = 5;
+
+    // Golden ratio conjugate; offsets successive polls of a switch evenly
+    // over the interval without knowing in advance how many there will be
+    private static final double SPREAD = 0.6180339887498949;
+
+    // Transaction ids assigned to requests not carrying one; kept in a range
+    // away from the ids handed out by the switch drivers and providers
+    private static final int XID_BASE = 0x40000000;
+
+    private static final String METRICS_COMPONENT = "OpenFlowStats";
+    private static final String POLL_LATENCY = "pollLatency";
+    private static final String REPLY_SIZE = "replySize";
+
+    private final Function<Dpid, OpenFlowSwitch> switches;
+    private final Supplier<MetricsService> metricsService;
+    private final Supplier<ScheduledExecutorService> executorFactory;
+    private final LongSupplier clock;
+    private final Map<Dpid, SwitchTimeline> timelines = Maps.newConcurrentMap();
+    private final AtomicInteger xidCounter = new AtomicInteger();
+
+    private volatile ScheduledExecutorService executor;
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param switches resolves the connected switch of a dpid
+     * @param metricsService supplies the metrics service, if any
+     */
+    StatsPollScheduler(Function<Dpid, OpenFlowSwitch> switches,
+                       Supplier<MetricsService> metricsService) {
+        this(switches, metricsService,
+             () -> newScheduledThreadPool(2, groupedThreads("onos/of", "stats-scheduler-%d", log)),
+             System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a new scheduler running on the given executor and clock.
+     *
+     * @param switches resolves the connected switch of a dpid
+     * @param metricsService supplies the metrics service, if any
+     * @param executorFactory creates the executor of the poll timers on start
+     * @param clock current time in milliseconds
+     */
+    StatsPollScheduler(Function<Dpid, OpenFlowSwitch> switches,
+                       Supplier<MetricsService> metricsService,
+                       Supplier<ScheduledExecutorService> executorFactory,
+                       LongSupplier clock) {
+        this.switches = switches;
+        this.metricsService = metricsService;
+        this.executorFactory = executorFactory;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts the scheduler.
+     */
+    synchronized void start() {
+        if (executor == null) {
+            executor = executorFactory.get();
+        }
+    }
+
+    /**
+     * Stops the scheduler and drops all the registered polls.
+     */
+    synchronized void stop() {
+        timelines.values().forEach(SwitchTimeline::close);
+        timelines.clear();
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Registers a poll on the timeline of the given switch.
+     *
+     * @param dpid switch to poll
+     * @param intervalMillis nominal interval in milliseconds
+     * @param requests supplier of the requests of each round
+     * @return poll handle
+     */
+    synchronized OpenFlowStatsPoll schedule(Dpid dpid, long intervalMillis,
+                                            Supplier<Collection<OFStatsRequest<?>>> requests) {
+        while (true) {
+            SwitchTimeline timeline = timelines.computeIfAbsent(dpid, SwitchTimeline::new);
+            Poll poll = timeline.add(intervalMillis, requests);
+            if (poll != null) {
+                return poll;
+            }
+            // Lost the race with the removal of the last poll of the switch
+            timelines.remove(dpid, timeline);
+        }
+    }
+
+    /**
+     * Accounts a statistics reply part towards the poll that requested it.
+     *
+     * @param dpid switch the reply arrived from
+     * @param reply statistics reply
+     */
+    void replyReceived(Dpid dpid, OFStatsReply reply) {
+        SwitchTimeline timeline = timelines.get(dpid);
+        if (timeline != null) {
+            timeline.replyReceived(reply);
+        }
+    }
+
+    /**
+     * Drops the timeline of a disconnected switch.
+     *
+     * @param dpid switch that disconnected
+     */
+    void switchRemoved(Dpid dpid) {
+        SwitchTimeline timeline = timelines.remove(dpid);
+        if (timeline != null) {
+            timeline.close();
+        }
+    }
+
+    /**
+     * Returns the current back-off multiplier of a switch.
+     *
+     * @param dpid switch
+     * @return back-off multiplier; 1 when not backed off
+     */
+    int backoff(Dpid dpid) {
+        SwitchTimeline timeline = timelines.get(dpid);
+        return timeline == null ? 1 : timeline.backoff;
+    }
+
+    private ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+        ScheduledExecutorService executor = this.executor;
+        if (executor == null) {
+            return null;
+        }
+        return executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static int entries(OFStatsReply reply) {
+        if (reply instanceof OFFlowStatsReply) {
+            return ((OFFlowStatsReply) reply).getEntries().size();
+        } else if (reply instanceof OFFlowLightweightStatsReply) {
+            return ((OFFlowLightweightStatsReply) reply).getEntries().size();
+        } else if (reply instanceof OFTableStatsReply) {
+            return ((OFTableStatsReply) reply).getEntries().size();
+        } else if (reply instanceof OFGroupStatsReply) {
+            return ((OFGroupStatsReply) reply).getEntries().size();
+        } else if (reply instanceof OFGroupDescStatsReply) {
+            return ((OFGroupDescStatsReply) reply).getEntries().size();
+        } else if (reply instanceof OFPortStatsReply) {
+            return ((OFPortStatsReply) reply).getEntries().size();
+        } else if (reply instanceof OFMeterStatsReply) {
+            return ((OFMeterStatsReply) reply).getEntries().size();
+        } else if (reply instanceof OFQueueStatsReply) {
+            return ((OFQueueStatsReply) reply).getEntries().size();
+        }
+        return 1;
+    }
+
+    /**
+     * Timeline of the polls of a single switch.
+     */
+    private final class SwitchTimeline {
+
+        private final Dpid dpid;
+        private final double phase = ThreadLocalRandom.current().nextDouble();
+        private final List<Poll> polls = Lists.newArrayList();
+        private final Map<Long, Poll> outstanding = Maps.newHashMap();
+        private final Timer pollLatency;
+        private final Histogram replySize;
+
+        private int slots;
+        private volatile int backoff = 1;
+        private ScheduledFuture<?> timer;
+        private long timerDue = Long.MAX_VALUE;
+        private boolean closed;
+
+        private SwitchTimeline(Dpid dpid) {
+            this.dpid = dpid;
+            MetricsService metrics = metricsService.get();
+            if (metrics != null) {
+                MetricsComponent component = metrics.registerComponent(METRICS_COMPONENT);
+                MetricsFeature feature = component.registerFeature(dpid.toString());
+                pollLatency = metrics.createTimer(component, feature, POLL_LATENCY);
+                replySize = metrics.createHistogram(component, feature, REPLY_SIZE);
+            } else {
+                pollLatency = null;
+                replySize = null;
+            }
+        }
+
+        private synchronized Poll add(long intervalMillis,
+                                      Supplier<Collection<OFStatsRequest<?>>> requests) {
+            if (closed) {
+                return null;
+            }
+            double offset = (phase + slots++ * SPREAD) % 1.0;
+            Poll poll = new Poll(this, requests, intervalMillis, offset);
+            polls.add(poll);
+            reschedule();
+            return poll;
+        }
+
+        private synchronized void remove(Poll poll) {
+            polls.remove(poll);
+            outstanding.values().removeIf(p -> p == poll);
+            if (polls.isEmpty()) {
+                close();
+                timelines.remove(dpid, this);
+            } else {
+                reschedule();
+            }
+        }
+
+        private synchronized void close() {
+            closed = true;
+            polls.clear();
+            outstanding.clear();
+            if (timer != null) {
+                timer.cancel(false);
+                timer = null;
+            }
+            timerDue = Long.MAX_VALUE;
+            MetricsService metrics = metricsService.get();
+            if (metrics != null && pollLatency != null) {
+                MetricsComponent component = metrics.registerComponent(METRICS_COMPONENT);
+                MetricsFeature feature = component.registerFeature(dpid.toString());
+                metrics.removeMetric(component, feature, POLL_LATENCY);
+                metrics.removeMetric(component, feature, REPLY_SIZE);
+            }
+        }
+
+        // Arms the single timer of the switch for the earliest due poll
+        private void reschedule() {
+            if (closed || polls.isEmpty()) {
+                return;
+            }
+            long due = Long.MAX_VALUE;
+            for (Poll poll : polls) {
+                due = Math.min(due, poll.due);
+            }
+            if (timer != null && due >= timerDue) {
+                return;
+            }
+            if (timer != null) {
+                timer.cancel(false);
+            }
+            timerDue = due;
+            timer = schedule(this::fire, Math.max(0, due - clock.getAsLong()));
+        }
+
+        private void fire() {
+            List<OFMessage> batch = Lists.newArrayList();
+            synchronized (this) {
+                timer = null;
+                timerDue = Long.MAX_VALUE;
+                if (closed) {
+                    return;
+                }
+                long now = clock.getAsLong();
+                for (Poll poll : ImmutableList.copyOf(polls)) {
+                    if (poll.due <= now) {
+                        poll.due = now + poll.interval * backoff;
+                        poll.run(now, batch);
+                    }
+                }
+                reschedule();
+            }
+            if (!batch.isEmpty()) {
+                OpenFlowSwitch sw = switches.apply(dpid);
+                if (sw != null && sw.isConnected()) {
+                    sw.sendMsg(batch);
+                }
+            }
+        }
+
+        private synchronized void increaseBackoff() {
+            if (backoff < MAX_BACKOFF) {
+                backoff = Math.min(MAX_BACKOFF, backoff * 2);
+                log.debug("Backing off statistics polling of {} to {}x", dpid, backoff);
+            }
+        }
+
+        private synchronized void decreaseBackoff() {
+            if (backoff > 1 && outstanding.isEmpty()) {
+                backoff = backoff / 2;
+                log.debug("Easing statistics polling back-off of {} to {}x", dpid, backoff);
+            }
+        }
+
+        private void replyReceived(OFStatsReply reply) {
+            Poll poll;
+            long latency;
+            int size;
+            synchronized (this) {
+                poll = outstanding.get(reply.getXid());
+                if (poll == null) {
+                    return;
+                }
+                poll.replyEntries += entries(reply);
+                if (reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
+                    return;
+                }
+                outstanding.remove(reply.getXid());
+                if (outstanding.containsValue(poll)) {
+                    // Rounds sending several requests complete on the last reply
+                    return;
+                }
+                latency = clock.getAsLong() - poll.sentAt;
+                size = poll.replyEntries;
+                poll.lastLatency = latency;
+                poll.lastReplySize = size;
+                poll.skipped = 0;
+            }
+            if (pollLatency != null) {
+                pollLatency.update(latency, TimeUnit.MILLISECONDS);
+                replySize.update(size);
+            }
+            if (latency > poll.interval / 2) {
+                increaseBackoff();
+            } else if (latency < poll.interval / 4) {
+                decreaseBackoff();
+            }
+        }
+    }
+
+    /**
+     * Periodic poll registered on a switch timeline.
+     */
+    private final class Poll implements OpenFlowStatsPoll {
+
+        private final SwitchTimeline timeline;
+        private final Supplier<Collection<OFStatsRequest<?>>> requests;
+        private final double offset;
+
+        private volatile long interval;
+        private long due;
+        private long sentAt;
+        private int replyEntries;
+        private int skipped;
+        private volatile long lastLatency = -1;
+        private volatile int lastReplySize = -1;
+
+        private Poll(SwitchTimeline timeline, Supplier<Collection<OFStatsRequest<?>>> requests,
+                     long interval, double offset) {
+            this.timeline = timeline;
+            this.requests = requests;
+            this.interval = Math.max(1, interval);
+            this.offset = offset;
+            this.due = clock.getAsLong() + (long) (this.interval * offset);
+        }
+
+        // Invoked with the timeline lock held
+        private void run(long now, List<OFMessage> batch) {
+            if (timeline.outstanding.containsValue(this)) {
+                if (++skipped < MAX_SKIPPED_ROUNDS) {
+                    log.debug("Skipping statistics poll of {}; waiting for previous reply",
+                              timeline.dpid);
+                    timeline.increaseBackoff();
+                    return;
+                }
+                log.debug("No statistics reply from {} after {} rounds; polling again",
+                          timeline.dpid, skipped);
+                timeline.outstanding.values().removeIf(p -> p == this);
+                skipped = 0;
+            }
+            Collection<OFStatsRequest<?>> round;
+            try {
+                round = requests.get();
+            } catch (RuntimeException e) {
+                log.warn("Unable to build statistics requests for {}", timeline.dpid, e);
+                return;
+            }
+            if (round == null || round.isEmpty()) {
+                return;
+            }
+            sentAt = now;
+            replyEntries = 0;
+            for (OFStatsRequest<?> request : round) {
+                OFStatsRequest<?> toSend = request;
+                if (request.getXid() == 0) {
+                    toSend = request.createBuilder()
+                            .setXid((xidCounter.getAndIncrement() & (XID_BASE - 1)) | XID_BASE)
+                            .build();
+                }
+                timeline.outstanding.put(toSend.getXid(), this);
+                batch.add(toSend);
+            }
+        }
+
+        @Override
+        public void setInterval(long intervalMillis) {
+            synchronized (timeline) {
+                interval = Math.max(1, intervalMillis);
+                due = clock.getAsLong() + (long) (interval * offset);
+                timeline.reschedule();
+            }
+        }
+
+        @Override
+        public long lastLatencyMillis() {
+            return lastLatency;
+        }
+
+        @Override
+        public int lastReplySize() {
+            return lastReplySize;
+        }
+
+        @Override
+        public void cancel() {
+            timeline.remove(this);
+        }
+    }
+}
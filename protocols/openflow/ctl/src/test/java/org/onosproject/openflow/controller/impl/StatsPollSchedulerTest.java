@@ -0,0 +1,227 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.junit.NullScheduledExecutor;
+import org.onosproject.openflow.OpenflowSwitchDriverAdapter;
+import org.onosproject.openflow.controller.Dpid;
+import org.onosproject.openflow.controller.OpenFlowStatsPoll;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFPortStatsEntry;
+import org.projectfloodlight.openflow.protocol.OFStatsReply;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.types.OFPort;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.notNullValue;
+
+/**
+ * Unit tests for the per-switch statistics poll scheduler.
+ */
+public class StatsPollSchedulerTest {
+
+    private static final Dpid DPID = new Dpid(1);
+    private static final OFFactory FACTORY = OFFactories.getFactory(OFVersion.OF_10);
+
+    private final List<OFMessage> sent = Lists.newArrayList();
+    private final ManualExecutor executor = new ManualExecutor();
+    private StatsPollScheduler scheduler;
+
+    private class TestSwitch extends OpenflowSwitchDriverAdapter {
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public void sendMsg(List<OFMessage> msgs) {
+            sent.addAll(msgs);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        TestSwitch sw = new TestSwitch();
+        scheduler = new StatsPollScheduler(dpid -> sw, () -> null, () -> executor, () -> executor.now);
+        scheduler.start();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    private OpenFlowStatsPoll schedulePortStats(long intervalMillis) {
+        return scheduler.schedule(DPID, intervalMillis, () -> ImmutableList.of(
+                FACTORY.buildPortStatsRequest().setPortNo(OFPort.ANY).build()));
+    }
+
+    private OFStatsReply portStatsReply(long xid, int entries) {
+        ImmutableList.Builder<OFPortStatsEntry> builder = ImmutableList.builder();
+        for (int i = 1; i <= entries; i++) {
+            builder.add(FACTORY.buildPortStatsEntry().setPortNo(OFPort.of(i)).build());
+        }
+        return FACTORY.buildPortStatsReply().setXid(xid).setEntries(builder.build()).build();
+    }
+
+    // Moves time along until the next request is sent, within the given time.
+    private OFMessage nextRequest(long withinMillis) {
+        for (long waited = 0; sent.isEmpty() && waited < withinMillis; waited++) {
+            executor.advance(1);
+        }
+        return sent.isEmpty() ? null : sent.remove(0);
+    }
+
+    /**
+     * Tests that replies complete the poll rounds and are accounted.
+     */
+    @Test
+    public void testPollAndReply() {
+        OpenFlowStatsPoll poll = schedulePortStats(50);
+        assertThat(poll.lastLatencyMillis(), is(-1L));
+
+        for (int round = 0; round < 3; round++) {
+            OFMessage request = nextRequest(100);
+            assertThat(request, notNullValue());
+            assertThat(request.getXid(), greaterThan(0L));
+            executor.advance(3);
+            scheduler.replyReceived(DPID, portStatsReply(request.getXid(), 4));
+        }
+        assertThat(poll.lastLatencyMillis(), is(3L));
+        assertThat(poll.lastReplySize(), is(4));
+        assertThat(scheduler.backoff(DPID), is(1));
+    }
+
+    /**
+     * Tests that a switch leaving requests unanswered is polled less often.
+     */
+    @Test
+    public void testBackoffOnSlowSwitch() {
+        schedulePortStats(10);
+        assertThat(nextRequest(20), notNullValue());
+
+        executor.advance(300);
+        assertThat(scheduler.backoff(DPID), is(StatsPollScheduler.MAX_BACKOFF));
+        // Without back-off, ~30 requests would have been sent meanwhile
+        assertThat(sent.size(), lessThan(5));
+    }
+
+    /**
+     * Tests that polls of the same switch share a single timeline, and that
+     * cancelling them stops the polling of the switch.
+     */
+    @Test
+    public void testCancel() {
+        OpenFlowStatsPoll first = schedulePortStats(20);
+        OpenFlowStatsPoll second = schedulePortStats(20);
+        // A single timer is armed for all the polls of the switch
+        assertThat(executor.pending(), is(1));
+
+        executor.advance(20);
+        assertThat(sent.size(), greaterThanOrEqualTo(2));
+        assertThat(executor.pending(), is(1));
+
+        first.cancel();
+        second.cancel();
+        assertThat(executor.pending(), is(0));
+        sent.clear();
+        executor.advance(100);
+        assertThat(sent.isEmpty(), is(true));
+        assertThat(scheduler.backoff(DPID), is(1));
+    }
+
+    /**
+     * Executor running its timers on a manually advanced clock.
+     */
+    private static final class ManualExecutor extends NullScheduledExecutor {
+
+        private final List<ManualTask> tasks = Lists.newArrayList();
+        private long now;
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            ManualTask task = new ManualTask(command, now + unit.toMillis(delay));
+            tasks.add(task);
+            return task;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            tasks.clear();
+            return ImmutableList.of();
+        }
+
+        // Runs the timers due within the given time, in order, moving the clock along
+        private void advance(long millis) {
+            long until = now + millis;
+            ManualTask next;
+            while ((next = next()) != null && next.due <= until) {
+                tasks.remove(next);
+                now = next.due;
+                next.run();
+            }
+            now = until;
+        }
+
+        private ManualTask next() {
+            tasks.removeIf(ManualTask::isCancelled);
+            return tasks.stream().min(Comparator.comparingLong(task -> task.due)).orElse(null);
+        }
+
+        private int pending() {
+            tasks.removeIf(ManualTask::isCancelled);
+            return tasks.size();
+        }
+
+        private final class ManualTask extends FutureTask<Void> implements ScheduledFuture<Void> {
+
+            private final long due;
+
+            private ManualTask(Runnable command, long due) {
+                super(command, null);
+                this.due = due;
+            }
+
+            @Override
+            public long getDelay(TimeUnit unit) {
+                return unit.convert(due - now, TimeUnit.MILLISECONDS);
+            }
+
+            @Override
+            public int compareTo(Delayed other) {
+                return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+            }
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.onosproject.net.pi.runtime.PiHandle;
 
 import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * P4Runtime client interface for the Read RPC that allows reading multiple
@@ -216,10 +217,29 @@ public interface P4RuntimeReadClient {
          */
         ReadResponse submitSync();
 
-        //TODO: implement per-entity asynchronous reads. This would allow a user
-        // of this client to process read entities as they arrive, instead of
-        // waiting for the client to receive them all. Java 9 Reactive Streams
-        // seems a good way of doing it.
+        /**
+         * Submits the read request and hands each read entity to the given
+         * consumer as soon as it is decoded, instead of collecting all of them
+         * in the read response. Server response messages are processed one at
+         * a time as they arrive and the next one is not requested until the
+         * consumer has returned for all entities of the previous one, hence a
+         * slow consumer throttles the server via flow control. The future is
+         * completed once the server has sent all entities; the returned
+         * response carries the outcome of the read but no entities.
+         *
+         * @param consumer read entity consumer
+         * @return completable future of a read response
+         */
+        CompletableFuture<ReadResponse> submit(Consumer<PiEntity> consumer);
+
+        /**
+         * Similar to {@link #submit(Consumer)}, but blocks until the operation
+         * is completed, after which, it returns a read response.
+         *
+         * @param consumer read entity consumer
+         * @return read response
+         */
+        ReadResponse submitSync(Consumer<PiEntity> consumer);
     }
 
     /**
@@ -71,6 +71,7 @@ public final class P4RuntimeClientImpl
     private final PiPipeconfService pipeconfService;
     private final MasterElectionIdStore masterElectionIdStore;
     private final ConcurrentMap<Long, StreamClientImpl> streamClients = Maps.newConcurrentMap();
+    private final ConcurrentMap<Long, WriteCoalescer> writeCoalescers = Maps.newConcurrentMap();
 
     /**
      * Instantiates a new client with the given arguments.
@@ -100,9 +101,13 @@ public final class P4RuntimeClientImpl
 
     @Override
     public void shutdown() {
-        streamClients.forEach((p4DeviceId, streamClient) ->
-                                      streamClient.closeSession(p4DeviceId));
+        streamClients.forEach((p4DeviceId, streamClient) -> {
+            streamClient.closeSession(p4DeviceId);
+            streamClient.shutdown();
+        });
         super.shutdown();
+        writeCoalescers.values().forEach(WriteCoalescer::removeMetrics);
+        writeCoalescers.clear();
     }
 
     @Override
@@ -249,6 +254,24 @@ public final class P4RuntimeClientImpl
         }
     }
 
+    /**
+     * Returns the pipeline used to execute Write RPCs for the given
+     * P4Runtime-internal device ID.
+     *
+     * @param p4DeviceId P4Runtime-internal device ID
+     * @return write pipeline
+     */
+    WriteCoalescer writeCoalescer(long p4DeviceId) {
+        final WriteCoalescer coalescer = writeCoalescers.computeIfAbsent(
+                p4DeviceId, id -> new WriteCoalescer(this, id, controller.metricsService()));
+        if (context().isCancelled() && writeCoalescers.remove(p4DeviceId, coalescer)) {
+            // Client was shut down while creating the pipeline, writes will
+            // fail with CANCELLED, but the pipeline should not outlive us.
+            coalescer.removeMetrics();
+        }
+        return coalescer;
+    }
+
     /**
      * Forces execution of an RPC in a cancellable context with the given
      * timeout (in seconds).
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.p4runtime.ctl.client;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import io.grpc.stub.CallStreamObserver;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.net.DeviceId;
+import org.slf4j.Logger;
+import p4.v1.P4RuntimeOuterClass.StreamMessageRequest;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Bounded queue of packet-out messages to be sent over the StreamChannel RPC
+ * of a given device.
+ * <p>
+ * Packet-outs are drained in batches by a single thread at a time, and only
+ * while the gRPC stream is ready to accept messages without buffering them.
+ * When the stream is not ready, packet-outs accumulate in the queue until the
+ * transport signals readiness, and new packet-outs are dropped if the queue
+ * is full.
+ */
+final class PacketOutQueue {
+
+    private static final Logger log = getLogger(PacketOutQueue.class);
+
+    /**
+     * Maximum number of packet-outs waiting to be sent. Newer ones are dropped
+     * when the queue is full.
+     */
+    static final int MAX_QUEUE_SIZE = 4096;
+
+    /**
+     * Maximum number of packet-outs sent in one batch, i.e. without yielding
+     * the stream to other messages.
+     */
+    static final int MAX_BATCH_SIZE = 128;
+
+    private static final String METRIC_COMPONENT = "P4RuntimePacketOut";
+    private static final String QUEUE_DEPTH = "queueDepth";
+    private static final String SENT = "sent";
+    private static final String DROPPED = "dropped";
+
+    private final BlockingQueue<StreamMessageRequest> queue =
+            new ArrayBlockingQueue<>(MAX_QUEUE_SIZE);
+    private final DeviceId deviceId;
+    private final MetricsService metricsService;
+    private final Meter sentMeter;
+    private final Meter droppedMeter;
+
+    /**
+     * Creates a new packet-out queue for the given device.
+     *
+     * @param deviceId       device ID
+     * @param metricsService metrics service, or null if not available
+     */
+    PacketOutQueue(DeviceId deviceId, MetricsService metricsService) {
+        this.deviceId = deviceId;
+        this.metricsService = metricsService;
+        if (metricsService != null) {
+            final MetricsComponent component =
+                    metricsService.registerComponent(METRIC_COMPONENT);
+            final MetricsFeature feature = component.registerFeature(deviceId.toString());
+            this.sentMeter = metricsService.createMeter(component, feature, SENT);
+            this.droppedMeter = metricsService.createMeter(component, feature, DROPPED);
+            metricsService.removeMetric(component, feature, QUEUE_DEPTH);
+            metricsService.registerMetric(component, feature, QUEUE_DEPTH,
+                                          (Gauge<Integer>) queue::size);
+        } else {
+            this.sentMeter = null;
+            this.droppedMeter = null;
+        }
+    }
+
+    /**
+     * Enqueues the given packet-out message, or drops it if the queue is
+     * full.
+     *
+     * @param packetOut packet-out message
+     * @return true if the message was enqueued, false if dropped
+     */
+    boolean offer(StreamMessageRequest packetOut) {
+        if (queue.offer(packetOut)) {
+            return true;
+        }
+        log.debug("Packet-out queue for {} is full, dropping packet-out", deviceId);
+        if (droppedMeter != null) {
+            droppedMeter.mark();
+        }
+        return false;
+    }
+
+    /**
+     * Sends up to {@link #MAX_BATCH_SIZE} queued packet-outs to the given
+     * stream, stopping early if the stream is no longer ready. Must be called
+     * by one thread at a time, while holding exclusive access to the stream.
+     *
+     * @param stream request stream of the StreamChannel RPC
+     * @return number of packet-outs sent
+     */
+    int drainTo(CallStreamObserver<StreamMessageRequest> stream) {
+        int sent = 0;
+        while (sent < MAX_BATCH_SIZE && stream.isReady()) {
+            final StreamMessageRequest packetOut = queue.poll();
+            if (packetOut == null) {
+                break;
+            }
+            stream.onNext(packetOut);
+            sent++;
+        }
+        if (sentMeter != null && sent > 0) {
+            sentMeter.mark(sent);
+        }
+        return sent;
+    }
+
+    /**
+     * Returns true if there are no packet-outs waiting to be sent.
+     *
+     * @return true if the queue is empty
+     */
+    boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    /**
+     * Drops all queued packet-outs.
+     */
+    void clear() {
+        queue.clear();
+    }
+
+    /**
+     * Unregisters the metrics of this queue.
+     */
+    void removeMetrics() {
+        if (metricsService != null) {
+            final MetricsComponent component =
+                    metricsService.registerComponent(METRIC_COMPONENT);
+            final MetricsFeature feature = component.registerFeature(deviceId.toString());
+            metricsService.removeMetric(component, feature, QUEUE_DEPTH);
+            metricsService.removeMetric(component, feature, SENT);
+            metricsService.removeMetric(component, feature, DROPPED);
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.onosproject.net.pi.model.PiCounterId;
 import org.onosproject.net.pi.model.PiMeterId;
 import org.onosproject.net.pi.model.PiPipeconf;
 import org.onosproject.net.pi.model.PiTableId;
+import org.onosproject.net.pi.runtime.PiEntity;
 import org.onosproject.net.pi.runtime.PiHandle;
 import org.onosproject.p4runtime.api.P4RuntimeReadClient;
 import org.onosproject.p4runtime.ctl.codec.CodecException;
@@ -32,6 +33,7 @@ import org.slf4j.Logger;
 import p4.v1.P4RuntimeOuterClass;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.lang.String.format;
@@ -285,6 +287,28 @@ public final class ReadRequestImpl implements P4RuntimeReadClient.ReadRequest {
 
     @Override
     public CompletableFuture<P4RuntimeReadClient.ReadResponse> submit() {
+        return doSubmit(ReadResponseImpl.builder(client.deviceId(), pipeconf));
+    }
+
+    @Override
+    public P4RuntimeReadClient.ReadResponse submitSync() {
+        return Futures.getUnchecked(submit());
+    }
+
+    @Override
+    public CompletableFuture<P4RuntimeReadClient.ReadResponse> submit(
+            Consumer<PiEntity> consumer) {
+        return doSubmit(ReadResponseImpl.builder(
+                client.deviceId(), pipeconf, consumer));
+    }
+
+    @Override
+    public P4RuntimeReadClient.ReadResponse submitSync(Consumer<PiEntity> consumer) {
+        return Futures.getUnchecked(submit(consumer));
+    }
+
+    private CompletableFuture<P4RuntimeReadClient.ReadResponse> doSubmit(
+            ReadResponseImpl.Builder responseBuilder) {
         final P4RuntimeOuterClass.ReadRequest readRequest = requestMsg.build();
         log.debug("Sending read request to {} for {} entities...",
                   client.deviceId(), readRequest.getEntitiesCount());
@@ -294,9 +318,11 @@ public final class ReadRequestImpl implements P4RuntimeReadClient.ReadRequest {
         }
         final CompletableFuture<P4RuntimeReadClient.ReadResponse> future =
                 new CompletableFuture<>();
-        // Instantiate response builder and let stream observer populate it.
-        final ReadResponseImpl.Builder responseBuilder =
-                ReadResponseImpl.builder(client.deviceId(), pipeconf);
+        // Let stream observer populate the response builder. Entities are
+        // decoded in onNext(), and gRPC requests the next response message
+        // from the server only after onNext() returns, i.e., if the builder
+        // passes entities to a consumer, at most one message is held in
+        // memory at a time, the rest being subject to HTTP/2 flow control.
         final StreamObserver<P4RuntimeOuterClass.ReadResponse> observer =
                 new StreamObserver<P4RuntimeOuterClass.ReadResponse>() {
                     @Override
@@ -320,11 +346,6 @@ public final class ReadRequestImpl implements P4RuntimeReadClient.ReadRequest {
         return future;
     }
 
-    @Override
-    public P4RuntimeReadClient.ReadResponse submitSync() {
-        return Futures.getUnchecked(submit());
-    }
-
     private int p4TableId(PiTableId piTableId) throws InternalRequestException {
         try {
             return getBrowser().tables().getByName(piTableId.id())
@@ -20,6 +20,7 @@ import com.google.protobuf.TextFormat;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
 import io.grpc.stub.StreamObserver;
 import org.onlab.util.SharedScheduledExecutors;
 import org.onosproject.net.DeviceId;
@@ -73,6 +74,7 @@ public final class StreamClientImpl implements P4RuntimeStreamClient {
     private final P4RuntimeControllerImpl controller;
 
     private final StreamChannelManager streamChannelManager = new StreamChannelManager();
+    private final PacketOutQueue packetOutQueue;
     private final MasterElectionIdListener masterElectionIdListener = new InternalMasterElectionIdListener();
 
     private final AtomicBoolean isMaster = new AtomicBoolean(false);
@@ -96,6 +98,7 @@ public final class StreamClientImpl implements P4RuntimeStreamClient {
         this.pipeconfService = pipeconfService;
         this.masterElectionIdStore = masterElectionIdStore;
         this.controller = controller;
+        this.packetOutQueue = new PacketOutQueue(deviceId, controller.metricsService());
     }
 
     @Override
@@ -116,6 +119,14 @@ public final class StreamClientImpl implements P4RuntimeStreamClient {
         }
     }
 
+    /**
+     * Releases resources allocated by this stream client. To be called when
+     * the P4Runtime client is shut down, after closing the session.
+     */
+    void shutdown() {
+        packetOutQueue.removeMetrics();
+    }
+
     @Override
     public void setMastership(long p4DeviceId, boolean master,
                               BigInteger newElectionId) {
@@ -227,8 +238,8 @@ public final class StreamClientImpl implements P4RuntimeStreamClient {
             // Build the request
             final StreamMessageRequest packetOutRequest = StreamMessageRequest
                     .newBuilder().setPacket(packetOut).build();
-            // Send.
-            streamChannelManager.send(packetOutRequest);
+            // Enqueue and send when the stream is ready.
+            streamChannelManager.sendPacketOut(packetOutRequest);
         } catch (CodecException e) {
             log.error("Unable to send packet-out: {}", e.getMessage());
         }
@@ -360,6 +371,7 @@ public final class StreamClientImpl implements P4RuntimeStreamClient {
     private final class StreamChannelManager {
 
         private final AtomicBoolean open = new AtomicBoolean(false);
+        private final AtomicBoolean drainingPacketOuts = new AtomicBoolean(false);
         private final StreamObserver<StreamMessageResponse> responseObserver =
                 new InternalStreamResponseObserver(this);
         private ClientCallStreamObserver<StreamMessageRequest> requestObserver;
@@ -374,6 +386,43 @@ public final class StreamClientImpl implements P4RuntimeStreamClient {
             }
         }
 
+        void sendPacketOut(StreamMessageRequest value) {
+            if (packetOutQueue.offer(value)) {
+                drainPacketOuts();
+            }
+        }
+
+        void drainPacketOuts() {
+            // Only one thread at a time drains the queue, the others return
+            // right away as their packet-outs will be sent by the draining
+            // one. Conditions are checked again after releasing the flag to
+            // avoid missing packet-outs enqueued, or ready signals received,
+            // while the flag was set. If the stream is not ready, draining
+            // resumes when gRPC invokes the on-ready handler.
+            while (!packetOutQueue.isEmpty() && isReady()
+                    && drainingPacketOuts.compareAndSet(false, true)) {
+                try {
+                    synchronized (this) {
+                        initIfRequired();
+                        // Release the lock between batches to let other
+                        // messages, e.g. arbitration updates, through.
+                        if (packetOutQueue.drainTo(requestObserver) > 0) {
+                            signalOpen();
+                        }
+                    }
+                } finally {
+                    drainingPacketOuts.set(false);
+                }
+            }
+        }
+
+        private boolean isReady() {
+            synchronized (this) {
+                // If null, a new RPC will be started when draining.
+                return requestObserver == null || requestObserver.isReady();
+            }
+        }
+
         private void initIfRequired() {
             if (requestObserver == null) {
                 log.debug("Starting new StreamChannel RPC for {}...", deviceId);
@@ -389,6 +438,7 @@ public final class StreamClientImpl implements P4RuntimeStreamClient {
         void teardown() {
             synchronized (this) {
                 signalClosed();
+                packetOutQueue.clear();
                 if (requestObserver != null) {
                     requestObserver.onCompleted();
                     requestObserver.cancel("Completed", null);
@@ -421,7 +471,7 @@ public final class StreamClientImpl implements P4RuntimeStreamClient {
      * Handles messages received from the device on the StreamChannel RPC.
      */
     private final class InternalStreamResponseObserver
-            implements StreamObserver<StreamMessageResponse> {
+            implements ClientResponseObserver<StreamMessageRequest, StreamMessageResponse> {
 
         private final StreamChannelManager streamChannelManager;
 
@@ -430,6 +480,12 @@ public final class StreamClientImpl implements P4RuntimeStreamClient {
             this.streamChannelManager = streamChannelManager;
         }
 
+        @Override
+        public void beforeStart(ClientCallStreamObserver<StreamMessageRequest> requestStream) {
+            // Resume sending packet-outs when the transport can accept more.
+            requestStream.setOnReadyHandler(streamChannelManager::drainPacketOuts);
+        }
+
         @Override
         public void onNext(StreamMessageResponse message) {
             try {
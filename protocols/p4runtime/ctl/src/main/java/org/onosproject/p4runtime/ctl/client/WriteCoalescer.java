@@ -0,0 +1,309 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.p4runtime.ctl.client;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.protobuf.Any;
+import com.google.protobuf.TextFormat;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.net.pi.runtime.PiHandle;
+import org.onosproject.p4runtime.api.P4RuntimeWriteClient;
+import org.slf4j.Logger;
+import p4.v1.P4RuntimeOuterClass;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.onosproject.p4runtime.api.P4RuntimeWriteClient.EntityUpdateStatus.PENDING;
+import static org.onosproject.p4runtime.ctl.client.P4RuntimeClientImpl.SHORT_TIMEOUT_SECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Per-device pipeline of Write RPCs that merges write requests submitted by
+ * concurrent callers into larger P4Runtime WriteRequest messages.
+ * <p>
+ * At most one Write RPC is in flight for a given P4Runtime device. Requests
+ * submitted while an RPC is in flight are queued and sent together as soon as
+ * the RPC completes, up to {@link #MAX_BATCH_UPDATES} updates per message.
+ * Since the server can apply updates of the same message in any order,
+ * requests updating an entity already present in the batch being built are
+ * deferred to the next message, hence preserving per-entity ordering. Errors
+ * returned by the server are demultiplexed back to each request.
+ */
+final class WriteCoalescer {
+
+    private static final Logger log = getLogger(WriteCoalescer.class);
+
+    /**
+     * Maximum number of updates merged in the same WriteRequest message.
+     * Requests larger than this are sent alone.
+     */
+    static final int MAX_BATCH_UPDATES = 1000;
+
+    private static final String METRIC_COMPONENT = "P4RuntimeWrite";
+    private static final String BATCH_SIZE = "batchSize";
+    private static final String RPC = "rpc";
+    private static final P4RuntimeOuterClass.WriteResponse P4RT_DEFAULT_WRITE_RESPONSE_MSG =
+            P4RuntimeOuterClass.WriteResponse.getDefaultInstance();
+
+    private final P4RuntimeClientImpl client;
+    private final long p4DeviceId;
+    private final MetricsService metricsService;
+    private final Histogram batchSizeHistogram;
+    private final Timer rpcTimer;
+
+    // Guarded by this.
+    private final Deque<PendingWrite> queue = new ArrayDeque<>();
+    private boolean inFlight;
+
+    /**
+     * Creates a new write pipeline for the given client and P4Runtime device.
+     *
+     * @param client         P4Runtime client
+     * @param p4DeviceId     P4Runtime-internal device ID
+     * @param metricsService metrics service, or null if not available
+     */
+    WriteCoalescer(P4RuntimeClientImpl client, long p4DeviceId,
+                   MetricsService metricsService) {
+        this.client = client;
+        this.p4DeviceId = p4DeviceId;
+        this.metricsService = metricsService;
+        if (metricsService != null) {
+            final MetricsComponent component =
+                    metricsService.registerComponent(METRIC_COMPONENT);
+            final MetricsFeature feature = component.registerFeature(
+                    client.deviceId().toString());
+            this.batchSizeHistogram = metricsService.createHistogram(
+                    component, feature, BATCH_SIZE);
+            this.rpcTimer = metricsService.createTimer(component, feature, RPC);
+        } else {
+            this.batchSizeHistogram = null;
+            this.rpcTimer = null;
+        }
+    }
+
+    /**
+     * Enqueues the given write for transmission to the server. The write's
+     * future is completed once the server has responded.
+     *
+     * @param write pending write
+     */
+    void enqueue(PendingWrite write) {
+        synchronized (this) {
+            queue.add(write);
+            if (inFlight) {
+                // Will be sent when the in-flight RPC completes.
+                return;
+            }
+            inFlight = true;
+        }
+        sendNext();
+    }
+
+    /**
+     * Unregisters the metrics of this pipeline.
+     */
+    void removeMetrics() {
+        if (metricsService != null) {
+            final MetricsComponent component =
+                    metricsService.registerComponent(METRIC_COMPONENT);
+            final MetricsFeature feature = component.registerFeature(
+                    client.deviceId().toString());
+            metricsService.removeMetric(component, feature, BATCH_SIZE);
+            metricsService.removeMetric(component, feature, RPC);
+        }
+    }
+
+    private void sendNext() {
+        final List<PendingWrite> batch;
+        synchronized (this) {
+            if (queue.isEmpty()) {
+                inFlight = false;
+                return;
+            }
+            batch = pollBatch();
+        }
+        send(batch);
+    }
+
+    private List<PendingWrite> pollBatch() {
+        final List<PendingWrite> batch = Lists.newArrayList();
+        final Set<PiHandle> handles = Sets.newHashSet();
+        int updateCount = 0;
+        while (!queue.isEmpty()) {
+            final PendingWrite next = queue.peek();
+            if (!batch.isEmpty()
+                    && (updateCount + next.updates.size() > MAX_BATCH_UPDATES
+                    || !Collections.disjoint(handles, next.handles))) {
+                break;
+            }
+            queue.poll();
+            batch.add(next);
+            handles.addAll(next.handles);
+            updateCount += next.updates.size();
+        }
+        return batch;
+    }
+
+    private void send(List<PendingWrite> batch) {
+        final P4RuntimeOuterClass.WriteRequest.Builder requestMsg =
+                P4RuntimeOuterClass.WriteRequest.newBuilder()
+                        .setDeviceId(p4DeviceId)
+                        .setElectionId(client.lastUsedElectionId(p4DeviceId));
+        batch.forEach(w -> requestMsg.addAllUpdates(w.updates));
+        final P4RuntimeOuterClass.WriteRequest writeRequest = requestMsg.build();
+        log.debug("Sending write request to {} with {} updates from {} requests...",
+                  client.deviceId(), writeRequest.getUpdatesCount(), batch.size());
+        if (batchSizeHistogram != null) {
+            batchSizeHistogram.update(writeRequest.getUpdatesCount());
+        }
+        final Timer.Context rpcTime = rpcTimer == null ? null : rpcTimer.time();
+        final StreamObserver<P4RuntimeOuterClass.WriteResponse> observer =
+                new StreamObserver<P4RuntimeOuterClass.WriteResponse>() {
+                    @Override
+                    public void onNext(P4RuntimeOuterClass.WriteResponse value) {
+                        stopTimer(rpcTime);
+                        if (!P4RT_DEFAULT_WRITE_RESPONSE_MSG.equals(value)) {
+                            log.warn("Received invalid WriteResponse message from {}: {}",
+                                     client.deviceId(), TextFormat.shortDebugString(value));
+                            // Leave all entity responses in pending state.
+                            batch.forEach(w -> w.future.complete(
+                                    w.responseBuilder.buildAsIs()));
+                        } else {
+                            log.debug("Received write response from {}...",
+                                      client.deviceId());
+                            // All good, all entities written successfully.
+                            batch.forEach(w -> w.future.complete(
+                                    w.responseBuilder.setSuccessAllAndBuild()));
+                        }
+                        sendNext();
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        stopTimer(rpcTime);
+                        try {
+                            completeExceptionally(batch, writeRequest.getUpdatesCount(), t);
+                        } finally {
+                            sendNext();
+                        }
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        // Nothing to do, unary call.
+                    }
+                };
+        try {
+            client.execRpc(s -> s.write(writeRequest, observer), SHORT_TIMEOUT_SECONDS);
+        } catch (RuntimeException e) {
+            // E.g. client has been shut down. Fail this batch and move on,
+            // otherwise the pipeline would stall.
+            observer.onError(e);
+        }
+    }
+
+    private void completeExceptionally(List<PendingWrite> batch, int updateCount,
+                                       Throwable t) {
+        final List<WriteResponseImpl> responses;
+        if (batch.size() == 1) {
+            // Not coalesced, let the response builder handle the error as is.
+            responses = ImmutableList.of(batch.get(0).responseBuilder.setErrorsAndBuild(t));
+        } else {
+            final List<Any> details = WriteResponseImpl.errorDetails(t, client.deviceId());
+            final ImmutableList.Builder<WriteResponseImpl> builder = ImmutableList.builder();
+            if (details == null) {
+                batch.forEach(w -> builder.add(w.responseBuilder.setFailAllAndBuild(t)));
+            } else if (details.size() != updateCount) {
+                log.warn("Unable to reconcile write error details from {}, " +
+                                 "sent {} updates, but server returned {} errors",
+                         client.deviceId(), updateCount, details.size());
+                // Leave all entity responses in pending state.
+                batch.forEach(w -> builder.add(w.responseBuilder.buildAsIs()));
+            } else {
+                // One error for each update, in the same order as in the
+                // request. Hand to each request its own slice.
+                int offset = 0;
+                for (PendingWrite w : batch) {
+                    final int size = w.updates.size();
+                    builder.add(w.responseBuilder.setErrorDetailsAndBuild(
+                            details.subList(offset, offset + size)));
+                    offset += size;
+                }
+            }
+            responses = builder.build();
+        }
+        if (Status.fromThrowable(t).getCode() != Status.Code.UNKNOWN
+                || responses.stream().anyMatch(r -> !r.status(PENDING).isEmpty())) {
+            // If UNKNOWN and no entities are in PENDING state, it means we
+            // have processed the response error details and a log message
+            // will be produced for each failed entity. No need to log the top
+            // level SRE. Otherwise, log a generic WRITE error.
+            client.handleRpcError(t, "WRITE");
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future.complete(responses.get(i));
+        }
+    }
+
+    private static void stopTimer(Timer.Context context) {
+        if (context != null) {
+            context.stop();
+        }
+    }
+
+    /**
+     * A write request waiting to be sent to the server.
+     */
+    static final class PendingWrite {
+
+        private final List<P4RuntimeOuterClass.Update> updates;
+        private final Set<PiHandle> handles;
+        private final WriteResponseImpl.Builder responseBuilder;
+        private final CompletableFuture<P4RuntimeWriteClient.WriteResponse> future;
+
+        /**
+         * Creates a new pending write.
+         *
+         * @param updates         update messages, in request order
+         * @param handles         handles of the entities being updated
+         * @param responseBuilder response builder with one pending response
+         *                        for each update
+         * @param future          future to complete with the response
+         */
+        PendingWrite(List<P4RuntimeOuterClass.Update> updates,
+                     Set<PiHandle> handles,
+                     WriteResponseImpl.Builder responseBuilder,
+                     CompletableFuture<P4RuntimeWriteClient.WriteResponse> future) {
+            this.updates = updates;
+            this.handles = handles;
+            this.responseBuilder = responseBuilder;
+            this.future = future;
+        }
+    }
+}
@@ -16,10 +16,10 @@
 
 package org.onosproject.p4runtime.ctl.client;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.Futures;
-import com.google.protobuf.TextFormat;
-import io.grpc.Status;
-import io.grpc.stub.StreamObserver;
 import org.onosproject.net.pi.model.PiPipeconf;
 import org.onosproject.net.pi.runtime.PiEntity;
 import org.onosproject.net.pi.runtime.PiHandle;
@@ -29,6 +29,7 @@ import org.slf4j.Logger;
 import p4.v1.P4RuntimeOuterClass;
 
 import java.util.Collection;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -36,22 +37,17 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.String.format;
 import static java.util.concurrent.CompletableFuture.completedFuture;
-import static org.onosproject.p4runtime.api.P4RuntimeWriteClient.EntityUpdateStatus.PENDING;
-import static org.onosproject.p4runtime.ctl.client.P4RuntimeClientImpl.SHORT_TIMEOUT_SECONDS;
 import static org.onosproject.p4runtime.ctl.codec.Codecs.CODECS;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
- * Handles the creation of P4Runtime WriteRequest and execution of the Write RPC
- * on the server.
+ * Handles the creation of P4Runtime WriteRequest messages. Execution of the
+ * Write RPC on the server is delegated to the client's {@link WriteCoalescer}.
  */
 final class WriteRequestImpl implements P4RuntimeWriteClient.WriteRequest {
 
     private static final Logger log = getLogger(WriteRequestImpl.class);
 
-    private static final P4RuntimeOuterClass.WriteResponse P4RT_DEFAULT_WRITE_RESPONSE_MSG =
-            P4RuntimeOuterClass.WriteResponse.getDefaultInstance();
-
     private final P4RuntimeClientImpl client;
     private final PiPipeconf pipeconf;
     private final AtomicBoolean submitted = new AtomicBoolean(false);
@@ -61,6 +57,9 @@ final class WriteRequestImpl implements P4RuntimeWriteClient.WriteRequest {
     // entities to this request. The status of each entity response will be
     // set once we receive a response from the device.
     private final WriteResponseImpl.Builder responseBuilder;
+    // Handles of the entities in the request message, used by the write
+    // pipeline to preserve per-entity ordering when coalescing requests.
+    private final Set<PiHandle> handles = Sets.newHashSet();
 
     WriteRequestImpl(P4RuntimeClientImpl client, long p4DeviceId, PiPipeconf pipeconf) {
         this.client = checkNotNull(client);
@@ -161,57 +160,20 @@ final class WriteRequestImpl implements P4RuntimeWriteClient.WriteRequest {
     public CompletableFuture<P4RuntimeWriteClient.WriteResponse> submit() {
         checkState(!submitted.getAndSet(true),
                    "Request has already been submitted, cannot submit again");
-        final P4RuntimeOuterClass.WriteRequest writeRequest = requestMsg
-                .setElectionId(client.lastUsedElectionId(
-                        requestMsg.getDeviceId()))
-                .build();
-        log.debug("Sending write request to {} with {} updates...",
-                  client.deviceId(), writeRequest.getUpdatesCount());
-        if (writeRequest.getUpdatesCount() == 0) {
+        log.debug("Submitting write request to {} with {} updates...",
+                  client.deviceId(), requestMsg.getUpdatesCount());
+        if (requestMsg.getUpdatesCount() == 0) {
             // No need to ask the server.
             return completedFuture(WriteResponseImpl.EMPTY);
         }
         final CompletableFuture<P4RuntimeWriteClient.WriteResponse> future =
                 new CompletableFuture<>();
-        final StreamObserver<P4RuntimeOuterClass.WriteResponse> observer =
-                new StreamObserver<P4RuntimeOuterClass.WriteResponse>() {
-                    @Override
-                    public void onNext(P4RuntimeOuterClass.WriteResponse value) {
-                        if (!P4RT_DEFAULT_WRITE_RESPONSE_MSG.equals(value)) {
-                            log.warn("Received invalid WriteResponse message from {}: {}",
-                                     client.deviceId(), TextFormat.shortDebugString(value));
-                            // Leave all entity responses in pending state.
-                            future.complete(responseBuilder.buildAsIs());
-                        } else {
-                            log.debug("Received write response from {}...",
-                                      client.deviceId());
-                            // All good, all entities written successfully.
-                            future.complete(responseBuilder.setSuccessAllAndBuild());
-                        }
-                    }
-
-                    @Override
-                    public void onError(Throwable t) {
-                        final WriteResponseImpl response = responseBuilder
-                                .setErrorsAndBuild(t);
-                        if (Status.fromThrowable(t).getCode() != Status.Code.UNKNOWN
-                                || !response.status(PENDING).isEmpty()) {
-                            // If UNKNOWN and no entities are in PENDING state,
-                            // it means we have processed the response error
-                            // details and a log message will be produced for
-                            // each failed entity. No need to log the top level
-                            // SRE. Otherwise, log a generic WRITE error.
-                            client.handleRpcError(t, "WRITE");
-                        }
-                        future.complete(response);
-                    }
-
-                    @Override
-                    public void onCompleted() {
-                        // Nothing to do, unary call.
-                    }
-                };
-        client.execRpc(s -> s.write(writeRequest, observer), SHORT_TIMEOUT_SECONDS);
+        // Election ID is set by the pipeline when sending the (possibly
+        // coalesced) request.
+        client.writeCoalescer(requestMsg.getDeviceId()).enqueue(
+                new WriteCoalescer.PendingWrite(
+                        ImmutableList.copyOf(requestMsg.getUpdatesList()),
+                        ImmutableSet.copyOf(handles), responseBuilder, future));
         return future;
     }
 
@@ -237,6 +199,7 @@ final class WriteRequestImpl implements P4RuntimeWriteClient.WriteRequest {
                     .setType(p4UpdateType)
                     .build();
             requestMsg.addUpdates(updateMsg);
+            handles.add(handle);
             responseBuilder.addPendingResponse(handle, piEntity, updateType);
         } catch (CodecException e) {
             responseBuilder.addFailedResponse(
@@ -120,6 +120,40 @@ final class WriteResponseImpl implements P4RuntimeWriteClient.WriteResponse {
         return new Builder(deviceId);
     }
 
+    /**
+     * Returns the per-update P4Runtime error details carried by the given
+     * Write RPC error, or null if the error does not carry such details.
+     *
+     * @param throwable Write RPC error
+     * @param deviceId  device ID, used for logging
+     * @return error details or null
+     */
+    static List<Any> errorDetails(Throwable throwable, DeviceId deviceId) {
+        if (!(throwable instanceof StatusRuntimeException)) {
+            return null;
+        }
+        final StatusRuntimeException sre = (StatusRuntimeException) throwable;
+        if (sre.getStatus().getCode() != Status.Code.UNKNOWN) {
+            // Error trailers expected only if status is UNKNOWN.
+            return null;
+        }
+        // Extract error details.
+        if (!sre.getTrailers().containsKey(STATUS_DETAILS_KEY)) {
+            log.warn("Cannot parse write error details from {}, " +
+                             "missing status trailers in StatusRuntimeException",
+                     deviceId);
+            return null;
+        }
+        com.google.rpc.Status status = sre.getTrailers().get(STATUS_DETAILS_KEY);
+        if (status == null) {
+            log.warn("Cannot parse write error details from {}, " +
+                             "found NULL status trailers in StatusRuntimeException",
+                     deviceId);
+            return null;
+        }
+        return status.getDetailsList();
+    }
+
     /**
      * Builder of P4RuntimeWriteResponseImpl.
      */
@@ -233,39 +267,43 @@ final class WriteResponseImpl implements P4RuntimeWriteClient.WriteResponse {
         }
 
         private WriteResponseImpl doSetErrorsAndBuild(Throwable throwable) {
-            if (!(throwable instanceof StatusRuntimeException)) {
+            final List<Any> details = errorDetails(throwable, deviceId);
+            if (details == null) {
                 // Leave all entity responses in pending state.
                 return setFailAllAndBuild(throwable);
             }
-            final StatusRuntimeException sre = (StatusRuntimeException) throwable;
-            if (sre.getStatus().getCode() != Status.Code.UNKNOWN) {
-                // Error trailers expected only if status is UNKNOWN.
-                return setFailAllAndBuild(throwable);
-            }
-            // Extract error details.
-            if (!sre.getTrailers().containsKey(STATUS_DETAILS_KEY)) {
-                log.warn("Cannot parse write error details from {}, " +
-                                 "missing status trailers in StatusRuntimeException",
-                         deviceId);
-                return setFailAllAndBuild(throwable);
-            }
-            com.google.rpc.Status status = sre.getTrailers().get(STATUS_DETAILS_KEY);
-            if (status == null) {
-                log.warn("Cannot parse write error details from {}, " +
-                                 "found NULL status trailers in StatusRuntimeException",
-                         deviceId);
-                return setFailAllAndBuild(throwable);
-            }
-            final boolean reconcilable = status.getDetailsList().size() == pendingResponses.size();
+            final boolean reconcilable = details.size() == pendingResponses.size();
             // We expect one error for each entity...
             if (!reconcilable) {
                 log.warn("Unable to reconcile write error details from {}, " +
                                  "sent {} updates, but server returned {} errors",
-                         deviceId, pendingResponses.size(), status.getDetailsList().size());
+                         deviceId, pendingResponses.size(), details.size());
+            }
+            return doSetErrorDetailsAndBuild(details, reconcilable);
+        }
+
+        /**
+         * Sets the status of pending responses from the given P4Runtime error
+         * details, one for each pending response and in the same order, then
+         * builds the response.
+         *
+         * @param details error details
+         * @return write response
+         */
+        WriteResponseImpl setErrorDetailsAndBuild(List<Any> details) {
+            synchronized (this) {
+                checkArgument(details.size() == pendingResponses.size(),
+                              "Expected %s error details, found %s",
+                              pendingResponses.size(), details.size());
+                return doSetErrorDetailsAndBuild(details, true);
             }
+        }
+
+        private WriteResponseImpl doSetErrorDetailsAndBuild(
+                List<Any> details, boolean reconcilable) {
             // ...in the same order as in the request.
             int index = 0;
-            for (Any any : status.getDetailsList()) {
+            for (Any any : details) {
                 // Set response entities only if reconcilable, otherwise log.
                 unpackP4Error(index, any, reconcilable);
                 index += 1;
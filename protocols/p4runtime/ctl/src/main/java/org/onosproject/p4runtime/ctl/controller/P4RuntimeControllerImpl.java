@@ -17,6 +17,8 @@
 package org.onosproject.p4runtime.ctl.controller;
 
 import io.grpc.ManagedChannel;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.core.MetricsHelper;
 import org.onosproject.grpc.ctl.AbstractGrpcClientController;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.pi.service.PiPipeconfService;
@@ -28,6 +30,7 @@ import org.onosproject.p4runtime.ctl.client.P4RuntimeClientImpl;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 
 /**
  * P4Runtime controller implementation.
@@ -36,7 +39,7 @@ import org.osgi.service.component.annotations.ReferenceCardinality;
 public class P4RuntimeControllerImpl
         extends AbstractGrpcClientController
         <P4RuntimeClient, P4RuntimeEvent, P4RuntimeEventListener>
-        implements P4RuntimeController {
+        implements P4RuntimeController, MetricsHelper {
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     private PiPipeconfService pipeconfService;
@@ -44,10 +47,19 @@ public class P4RuntimeControllerImpl
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     private MasterElectionIdStore masterElectionIdStore;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL,
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile MetricsService metricsService;
+
     public P4RuntimeControllerImpl() {
         super(P4RuntimeEvent.class, "P4Runtime");
     }
 
+    @Override
+    public MetricsService metricsService() {
+        return metricsService;
+    }
+
     @Override
     public void remove(DeviceId deviceId) {
         super.remove(deviceId);
@@ -38,11 +38,14 @@ import java.util.concurrent.atomic.AtomicLong;
 public class MockP4RuntimeServer extends P4RuntimeGrpc.P4RuntimeImplBase {
     private CompletableFuture<Void> completeLock;
     private AtomicLong counter;
+    private CompletableFuture<Void> writeGate;
+    private CompletableFuture<Void> writeHeld;
 
     // Requests
     private List<WriteRequest> writeReqs;
     private List<ReadRequest> readReqs;
-    private List<ReadResponse> readResps;
+    // Messages to answer each read request with.
+    private List<List<ReadResponse>> readResps;
 
     /**
      * Expect N times request sent by client.
@@ -52,6 +55,7 @@ public class MockP4RuntimeServer extends P4RuntimeGrpc.P4RuntimeImplBase {
      */
     public CompletableFuture<Void> expectRequests(long times) {
         counter = new AtomicLong(times);
+        writeGate = null;
         completeLock = new CompletableFuture<>();
         readReqs = Lists.newArrayList();
         writeReqs = Lists.newArrayList();
@@ -64,8 +68,34 @@ public class MockP4RuntimeServer extends P4RuntimeGrpc.P4RuntimeImplBase {
         }
     }
 
+    /**
+     * Holds write requests until the given future is completed.
+     *
+     * @param gate future to complete in order to answer write requests
+     * @return a completable future object, will complete when the first write
+     * request is being held
+     */
+    public CompletableFuture<Void> holdWrites(CompletableFuture<Void> gate) {
+        writeGate = gate;
+        writeHeld = new CompletableFuture<>();
+        return writeHeld;
+    }
+
     public void willReturnReadResult(Collection<ReadResponse> readResps) {
-        this.readResps = Lists.newArrayList(readResps);
+        this.readResps = Lists.newArrayList();
+        readResps.forEach(r -> this.readResps.add(List.of(r)));
+    }
+
+    /**
+     * Answers the next read request with a stream of the given response
+     * messages, instead of a single message as with
+     * {@link #willReturnReadResult(Collection)}.
+     *
+     * @param messages response messages
+     */
+    public void willStreamReadResult(Collection<ReadResponse> messages) {
+        this.readResps = Lists.newArrayList();
+        this.readResps.add(List.copyOf(messages));
     }
 
     public List<WriteRequest> getWriteReqs() {
@@ -79,6 +109,10 @@ public class MockP4RuntimeServer extends P4RuntimeGrpc.P4RuntimeImplBase {
     @Override
     public void write(WriteRequest request, StreamObserver<WriteResponse> responseObserver) {
         writeReqs.add(request);
+        if (writeGate != null) {
+            writeHeld.complete(null);
+            writeGate.join();
+        }
         responseObserver.onNext(WriteResponse.getDefaultInstance());
         responseObserver.onCompleted();
         complete();
@@ -88,8 +122,8 @@ public class MockP4RuntimeServer extends P4RuntimeGrpc.P4RuntimeImplBase {
     public void read(ReadRequest request, StreamObserver<ReadResponse> responseObserver) {
         readReqs.add(request);
         if (readResps != null && !readResps.isEmpty()) {
-            ReadResponse readResp = readResps.remove(0); // get first response
-            responseObserver.onNext(readResp);
+            List<ReadResponse> messages = readResps.remove(0); // get first response
+            messages.forEach(responseObserver::onNext);
             responseObserver.onCompleted();
         }
         complete();
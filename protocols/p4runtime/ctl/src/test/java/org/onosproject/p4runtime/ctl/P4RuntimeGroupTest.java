@@ -45,6 +45,9 @@ import org.onosproject.net.pi.runtime.PiActionProfileGroup;
 import org.onosproject.net.pi.runtime.PiActionProfileGroupId;
 import org.onosproject.net.pi.runtime.PiActionProfileMember;
 import org.onosproject.net.pi.runtime.PiActionProfileMemberId;
+import org.onosproject.net.pi.runtime.PiEntity;
+import org.onosproject.p4runtime.api.P4RuntimeReadClient;
+import org.onosproject.p4runtime.api.P4RuntimeWriteClient.WriteResponse;
 import org.onosproject.p4runtime.ctl.client.P4RuntimeClientImpl;
 import org.onosproject.p4runtime.ctl.controller.P4RuntimeControllerImpl;
 import p4.v1.P4RuntimeOuterClass.ActionProfileGroup;
@@ -63,6 +66,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.easymock.EasyMock.niceMock;
+import static org.easymock.EasyMock.replay;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -157,6 +161,7 @@ public class P4RuntimeGroupTest {
     @Before
     public void setup() {
         controller = niceMock(org.onosproject.p4runtime.ctl.controller.P4RuntimeControllerImpl.class);
+        replay(controller);
         client = new P4RuntimeClientImpl(
                 DEVICE_ID, grpcChannel, controller, new MockPipeconfService(),
                 new MockMasterElectionIdStore());
@@ -197,6 +202,42 @@ public class P4RuntimeGroupTest {
         }
     }
 
+    @Test
+    public void testCoalesceWrites() throws Exception {
+        CompletableFuture<Void> complete = p4RuntimeServerImpl.expectRequests(3);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        CompletableFuture<Void> held = p4RuntimeServerImpl.holdWrites(release);
+        // The first request is held by the server...
+        CompletableFuture<WriteResponse> first = CompletableFuture.supplyAsync(
+                () -> client.write(P4_DEVICE_ID, PIPECONF)
+                        .insert(GROUP_MEMBER_INSTANCES.get(0)).submitSync());
+        held.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+        // ...while the next ones are queued and coalesced in the same message,
+        List<CompletableFuture<WriteResponse>> queued = ImmutableList.of(
+                client.write(P4_DEVICE_ID, PIPECONF)
+                        .insert(GROUP_MEMBER_INSTANCES.get(1)).submit(),
+                client.write(P4_DEVICE_ID, PIPECONF)
+                        .insert(GROUP_MEMBER_INSTANCES.get(2)).submit(),
+                // except for updates of the same entity, sent afterwards.
+                client.write(P4_DEVICE_ID, PIPECONF)
+                        .modify(GROUP_MEMBER_INSTANCES.get(1)).submit());
+        release.complete(null);
+        complete.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+
+        assertTrue(first.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS).isSuccess());
+        for (CompletableFuture<WriteResponse> future : queued) {
+            WriteResponse response = future.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+            assertTrue(response.isSuccess());
+            assertEquals(1, response.all().size());
+        }
+        List<WriteRequest> requests = p4RuntimeServerImpl.getWriteReqs();
+        assertEquals(3, requests.size());
+        assertEquals(1, requests.get(0).getUpdatesCount());
+        assertEquals(2, requests.get(1).getUpdatesCount());
+        assertEquals(1, requests.get(2).getUpdatesCount());
+        assertEquals(Update.Type.MODIFY, requests.get(2).getUpdates(0).getType());
+    }
+
     @Test
     public void testInsertPiActionMembers() throws Exception {
         CompletableFuture<Void> complete = p4RuntimeServerImpl.expectRequests(1);
@@ -264,6 +305,43 @@ public class P4RuntimeGroupTest {
 
     @Test
     public void testReadMembers() throws Exception {
+        List<ReadResponse> responses = Lists.newArrayList();
+        responses.add(ReadResponse.newBuilder()
+                              .addAllEntities(memberEntities())
+                              .build());
+
+        p4RuntimeServerImpl.willReturnReadResult(responses);
+        CompletableFuture<Void> complete = p4RuntimeServerImpl.expectRequests(1);
+        Collection<PiActionProfileMember> piMembers = client.read(P4_DEVICE_ID, PIPECONF)
+                .actionProfileMembers(ACT_PROF_ID).submitSync()
+                .all(PiActionProfileMember.class);
+        complete.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+        assertEquals(3, piMembers.size());
+        assertTrue(GROUP_MEMBER_INSTANCES.containsAll(piMembers));
+        assertTrue(piMembers.containsAll(GROUP_MEMBER_INSTANCES));
+    }
+
+    @Test
+    public void testStreamReadMembers() throws Exception {
+        // One response message per member.
+        List<ReadResponse> responses = memberEntities().stream()
+                .map(e -> ReadResponse.newBuilder().addEntities(e).build())
+                .collect(Collectors.toList());
+
+        p4RuntimeServerImpl.willStreamReadResult(responses);
+        CompletableFuture<Void> complete = p4RuntimeServerImpl.expectRequests(1);
+        List<PiEntity> piMembers = Lists.newArrayList();
+        P4RuntimeReadClient.ReadResponse response = client.read(P4_DEVICE_ID, PIPECONF)
+                .actionProfileMembers(ACT_PROF_ID).submitSync(piMembers::add);
+        complete.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+        assertTrue(response.isSuccess());
+        assertTrue(response.all().isEmpty());
+        assertEquals(3, piMembers.size());
+        assertTrue(GROUP_MEMBER_INSTANCES.containsAll(piMembers));
+        assertTrue(piMembers.containsAll(GROUP_MEMBER_INSTANCES));
+    }
+
+    private List<Entity> memberEntities() {
         List<ActionProfileMember> members = Lists.newArrayList();
 
         MEMBER_IDS.forEach(id -> {
@@ -288,22 +366,8 @@ public class P4RuntimeGroupTest {
             members.add(actProfMember);
         });
 
-        List<ReadResponse> responses = Lists.newArrayList();
-        responses.add(ReadResponse.newBuilder()
-                              .addAllEntities(members.stream()
-                                                      .map(m -> Entity.newBuilder()
-                                                              .setActionProfileMember(m).build())
-                                                      .collect(Collectors.toList()))
-                              .build());
-
-        p4RuntimeServerImpl.willReturnReadResult(responses);
-        CompletableFuture<Void> complete = p4RuntimeServerImpl.expectRequests(1);
-        Collection<PiActionProfileMember> piMembers = client.read(P4_DEVICE_ID, PIPECONF)
-                .actionProfileMembers(ACT_PROF_ID).submitSync()
-                .all(PiActionProfileMember.class);
-        complete.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
-        assertEquals(3, piMembers.size());
-        assertTrue(GROUP_MEMBER_INSTANCES.containsAll(piMembers));
-        assertTrue(piMembers.containsAll(GROUP_MEMBER_INSTANCES));
+        return members.stream()
+                .map(m -> Entity.newBuilder().setActionProfileMember(m).build())
+                .collect(Collectors.toList());
     }
 }
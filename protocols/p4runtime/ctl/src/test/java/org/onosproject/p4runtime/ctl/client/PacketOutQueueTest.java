@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.p4runtime.ctl.client;
+
+import com.google.common.collect.Lists;
+import com.google.protobuf.ByteString;
+import io.grpc.stub.CallStreamObserver;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.net.DeviceId;
+import p4.v1.P4RuntimeOuterClass.PacketOut;
+import p4.v1.P4RuntimeOuterClass.StreamMessageRequest;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.p4runtime.ctl.client.PacketOutQueue.MAX_BATCH_SIZE;
+import static org.onosproject.p4runtime.ctl.client.PacketOutQueue.MAX_QUEUE_SIZE;
+
+/**
+ * Tests for the packet-out queue of the P4Runtime stream client.
+ */
+public class PacketOutQueueTest {
+
+    private static final DeviceId DEVICE_ID = DeviceId.deviceId("device:p4runtime:1");
+
+    private PacketOutQueue queue;
+    private MockStream stream;
+
+    @Before
+    public void setUp() {
+        queue = new PacketOutQueue(DEVICE_ID, null);
+        stream = new MockStream();
+    }
+
+    @Test
+    public void testDrainInBatches() {
+        final int count = MAX_BATCH_SIZE + 10;
+        for (int i = 0; i < count; i++) {
+            assertTrue(queue.offer(packetOut(i)));
+        }
+        assertEquals(MAX_BATCH_SIZE, queue.drainTo(stream));
+        assertEquals(10, queue.drainTo(stream));
+        assertTrue(queue.isEmpty());
+        // Order is preserved.
+        for (int i = 0; i < count; i++) {
+            assertEquals(packetOut(i), stream.sent.get(i));
+        }
+    }
+
+    @Test
+    public void testStopWhenNotReady() {
+        queue.offer(packetOut(0));
+        queue.offer(packetOut(1));
+        stream.readyCount = 1;
+        assertEquals(1, queue.drainTo(stream));
+        assertEquals(0, queue.drainTo(stream));
+        assertFalse(queue.isEmpty());
+        stream.readyCount = Integer.MAX_VALUE;
+        assertEquals(1, queue.drainTo(stream));
+        assertEquals(packetOut(1), stream.sent.get(1));
+    }
+
+    @Test
+    public void testDropWhenFull() {
+        for (int i = 0; i < MAX_QUEUE_SIZE; i++) {
+            assertTrue(queue.offer(packetOut(i)));
+        }
+        assertFalse(queue.offer(packetOut(MAX_QUEUE_SIZE)));
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        assertTrue(queue.offer(packetOut(0)));
+    }
+
+    private static StreamMessageRequest packetOut(int i) {
+        return StreamMessageRequest.newBuilder()
+                .setPacket(PacketOut.newBuilder()
+                                   .setPayload(ByteString.copyFromUtf8(String.valueOf(i)))
+                                   .build())
+                .build();
+    }
+
+    /**
+     * Stream observer that is ready for a given number of messages.
+     */
+    private static final class MockStream extends CallStreamObserver<StreamMessageRequest> {
+
+        private final List<StreamMessageRequest> sent = Lists.newArrayList();
+        private int readyCount = Integer.MAX_VALUE;
+
+        @Override
+        public boolean isReady() {
+            return readyCount > 0;
+        }
+
+        @Override
+        public void onNext(StreamMessageRequest value) {
+            sent.add(value);
+            readyCount--;
+        }
+
+        @Override
+        public void setOnReadyHandler(Runnable onReadyHandler) {
+        }
+
+        @Override
+        public void disableAutoInboundFlowControl() {
+        }
+
+        @Override
+        public void request(int count) {
+        }
+
+        @Override
+        public void setMessageCompression(boolean enable) {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+}
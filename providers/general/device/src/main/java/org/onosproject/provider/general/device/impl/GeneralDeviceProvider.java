@@ -97,6 +97,8 @@ import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.provider.general.device.impl.OsgiPropertyConstants.CHECKUP_INTERVAL;
 import static org.onosproject.provider.general.device.impl.OsgiPropertyConstants.CHECKUP_INTERVAL_DEFAULT;
+import static org.onosproject.provider.general.device.impl.OsgiPropertyConstants.GNMI_STATS_SAMPLE_INTERVAL;
+import static org.onosproject.provider.general.device.impl.OsgiPropertyConstants.GNMI_STATS_SAMPLE_INTERVAL_DEFAULT;
 import static org.onosproject.provider.general.device.impl.OsgiPropertyConstants.STATS_POLL_INTERVAL;
 import static org.onosproject.provider.general.device.impl.OsgiPropertyConstants.STATS_POLL_INTERVAL_DEFAULT;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -111,6 +113,7 @@ import static org.slf4j.LoggerFactory.getLogger;
         property = {
                 CHECKUP_INTERVAL + ":Integer=" + CHECKUP_INTERVAL_DEFAULT,
                 STATS_POLL_INTERVAL + ":Integer=" + STATS_POLL_INTERVAL_DEFAULT,
+                GNMI_STATS_SAMPLE_INTERVAL + ":Integer=" + GNMI_STATS_SAMPLE_INTERVAL_DEFAULT,
         })
 public class GeneralDeviceProvider extends AbstractProvider
         implements DeviceProvider {
@@ -174,6 +177,12 @@ public class GeneralDeviceProvider extends AbstractProvider
      */
     private int statsPollInterval = STATS_POLL_INTERVAL_DEFAULT;
 
+    /**
+     * Configure sample interval for port stats streamed via gNMI Subscribe;
+     * default is 0, i.e. streaming is disabled and port stats are polled.
+     */
+    private int gnmiStatsSampleInterval = GNMI_STATS_SAMPLE_INTERVAL_DEFAULT;
+
     private final Map<DeviceId, DeviceHandshaker> handshakersWithListeners = Maps.newConcurrentMap();
     private final Map<DeviceId, Long> lastCheckups = Maps.newConcurrentMap();
     private final InternalPipeconfWatchdogListener pipeconfWatchdogListener = new InternalPipeconfWatchdogListener();
@@ -208,9 +217,10 @@ public class GeneralDeviceProvider extends AbstractProvider
         pipeconfWatchdogService.addListener(pipeconfWatchdogListener);
         gnmiDeviceStateSubscriber = new GnmiDeviceStateSubscriber(
                 gnmiController, deviceService, mastershipService, providerService);
-        gnmiDeviceStateSubscriber.activate();
+        gnmiDeviceStateSubscriber.activate(gnmiStatsSampleInterval);
         startOrReschedulePeriodicCheckupTasks();
-        statsPoller = new StatsPoller(deviceService, mastershipService, providerService);
+        statsPoller = new StatsPoller(deviceService, mastershipService, providerService,
+                                      gnmiDeviceStateSubscriber::isStreamingStats);
         statsPoller.activate(statsPollInterval);
         modified(context);
         log.info("Started");
@@ -233,6 +243,10 @@ public class GeneralDeviceProvider extends AbstractProvider
                 properties, STATS_POLL_INTERVAL, STATS_POLL_INTERVAL_DEFAULT);
         log.info("Configured. {} is configured to {} seconds",
                  STATS_POLL_INTERVAL, statsPollInterval);
+        gnmiStatsSampleInterval = Tools.getIntegerProperty(
+                properties, GNMI_STATS_SAMPLE_INTERVAL, GNMI_STATS_SAMPLE_INTERVAL_DEFAULT);
+        log.info("Configured. {} is configured to {} seconds",
+                 GNMI_STATS_SAMPLE_INTERVAL, gnmiStatsSampleInterval);
 
         if (oldCheckupInterval != checkupInterval) {
             startOrReschedulePeriodicCheckupTasks();
@@ -241,6 +255,8 @@ public class GeneralDeviceProvider extends AbstractProvider
         if (oldStatsPollFrequency != statsPollInterval) {
             statsPoller.reschedule(statsPollInterval);
         }
+
+        gnmiDeviceStateSubscriber.setStatsSampleInterval(gnmiStatsSampleInterval);
     }
 
     @Deactivate
@@ -17,7 +17,10 @@
 package org.onosproject.provider.general.device.impl;
 
 import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.Striped;
 import gnmi.Gnmi.Notification;
 import gnmi.Gnmi.Path;
@@ -40,29 +43,49 @@ import org.onosproject.net.DeviceId;
 import org.onosproject.net.Port;
 import org.onosproject.net.PortNumber;
 import org.onosproject.net.device.DefaultPortDescription;
+import org.onosproject.net.device.DefaultPortStatistics;
 import org.onosproject.net.device.DeviceEvent;
 import org.onosproject.net.device.DeviceListener;
 import org.onosproject.net.device.DeviceProviderService;
 import org.onosproject.net.device.DeviceService;
 import org.onosproject.net.device.PortDescription;
+import org.onosproject.net.device.PortStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static org.onlab.util.Tools.groupedThreads;
+
 /**
  * Entity that manages gNMI subscription for devices using OpenConfig models and
  * that reports relevant events to the core.
+ * <p>
+ * Besides ON_CHANGE subscriptions for the interface oper-status, when a
+ * positive sample interval is configured, the same Subscribe RPC carries
+ * SAMPLE subscriptions for the interface counters. Samples are coalesced per
+ * device and pushed to the core once per interval. Devices that do not
+ * deliver samples within a few intervals are re-subscribed without counters
+ * and left to the {@link StatsPoller}.
  */
 @Beta
 class GnmiDeviceStateSubscriber {
 
     private static final String LAST_CHANGE = "last-changed";
+    private static final String COUNTERS = "counters";
+    // Number of sample intervals after which a device that has not sent any
+    // counter sample is considered as not supporting SAMPLE subscriptions.
+    private static final int SAMPLE_GRACE_INTERVALS = 3;
 
     private static Logger log = LoggerFactory.getLogger(GnmiDeviceStateSubscriber.class);
 
@@ -74,10 +97,16 @@ class GnmiDeviceStateSubscriber {
     private final InternalGnmiEventListener gnmiEventListener = new InternalGnmiEventListener();
     private final InternalDeviceListener deviceEventListener = new InternalDeviceListener();
     private final InternalMastershipListener mastershipListener = new InternalMastershipListener();
-    private final Map<DeviceId, Set<PortNumber>> deviceSubscribed = Maps.newHashMap();
+    private final Map<DeviceId, SubscribeRequest> deviceSubscribed = Maps.newConcurrentMap();
+    private final Map<DeviceId, CounterSamples> counterSamples = Maps.newConcurrentMap();
+    private final Set<DeviceId> samplingUnsupported = Sets.newConcurrentHashSet();
 
     private final Striped<Lock> deviceLocks = Striped.lock(30);
 
+    private ScheduledExecutorService statsExecutor;
+    private ScheduledFuture<?> statsFlushTask;
+    private volatile int statsSampleInterval;
+
     GnmiDeviceStateSubscriber(GnmiController gnmiController, DeviceService deviceService,
                               MastershipService mastershipService,
                               DeviceProviderService providerService) {
@@ -87,7 +116,11 @@ class GnmiDeviceStateSubscriber {
         this.providerService = providerService;
     }
 
-    public void activate() {
+    public void activate(int statsSampleInterval) {
+        statsExecutor = newSingleThreadScheduledExecutor(groupedThreads(
+                "onos/gdp-gnmi-stats", "%d", log));
+        this.statsSampleInterval = statsSampleInterval;
+        scheduleStatsFlush();
         deviceService.addListener(deviceEventListener);
         mastershipService.addListener(mastershipListener);
         gnmiController.addListener(gnmiEventListener);
@@ -100,6 +133,56 @@ class GnmiDeviceStateSubscriber {
         deviceService.removeListener(deviceEventListener);
         mastershipService.removeListener(mastershipListener);
         gnmiController.removeListener(gnmiEventListener);
+        statsExecutor.shutdownNow();
+        statsExecutor = null;
+        statsFlushTask = null;
+    }
+
+    /**
+     * Changes the interval at which interface counters are sampled by devices
+     * and pushed to the core. A non-positive value disables counter streaming,
+     * leaving port statistics to be polled.
+     *
+     * @param statsSampleInterval sample interval in seconds
+     */
+    public void setStatsSampleInterval(int statsSampleInterval) {
+        if (this.statsSampleInterval == statsSampleInterval) {
+            return;
+        }
+        this.statsSampleInterval = statsSampleInterval;
+        samplingUnsupported.clear();
+        scheduleStatsFlush();
+        deviceService.getDevices().forEach(d -> checkSubscription(d.id()));
+    }
+
+    /**
+     * Returns true if port statistics for the given device are being streamed,
+     * i.e. counter samples have recently been received via the Subscribe RPC.
+     *
+     * @param deviceId device ID
+     * @return true if port statistics are being streamed
+     */
+    public boolean isStreamingStats(DeviceId deviceId) {
+        final CounterSamples samples = counterSamples.get(deviceId);
+        return samples != null && samples.isFresh(
+                System.currentTimeMillis(), maxSampleAgeMillis());
+    }
+
+    private long maxSampleAgeMillis() {
+        return TimeUnit.SECONDS.toMillis(
+                (long) statsSampleInterval * SAMPLE_GRACE_INTERVALS);
+    }
+
+    private void scheduleStatsFlush() {
+        if (statsFlushTask != null) {
+            statsFlushTask.cancel(false);
+            statsFlushTask = null;
+        }
+        if (statsSampleInterval > 0) {
+            statsFlushTask = statsExecutor.scheduleAtFixedRate(
+                    this::flushCounterSamples, statsSampleInterval,
+                    statsSampleInterval, TimeUnit.SECONDS);
+        }
     }
 
     private void checkSubscription(DeviceId deviceId) {
@@ -136,8 +219,21 @@ class GnmiDeviceStateSubscriber {
                 .build();
     }
 
+    private Path interfaceCountersPath(String interfaceName) {
+        return Path.newBuilder()
+                .addElem(PathElem.newBuilder().setName("interfaces").build())
+                .addElem(PathElem.newBuilder()
+                                 .setName("interface").putKey("name", interfaceName).build())
+                .addElem(PathElem.newBuilder().setName("state").build())
+                .addElem(PathElem.newBuilder().setName(COUNTERS).build())
+                .build();
+    }
+
     private void unsubscribeIfNeeded(DeviceId deviceId) {
         gnmiController.get(deviceId).unsubscribe();
+        counterSamples.remove(deviceId);
+        // Give sampling another chance when the device comes back.
+        samplingUnsupported.remove(deviceId);
         if (deviceSubscribed.remove(deviceId) != null) {
             log.info("Cancelled gNMI subscription for {}", deviceId);
         }
@@ -149,30 +245,50 @@ class GnmiDeviceStateSubscriber {
                 .map(Port::number)
                 .collect(Collectors.toSet());
 
-        if (Objects.equals(ports, deviceSubscribed.get(deviceId))) {
-            // Already subscribed for the same ports.
-            return;
-        }
-
-        // Subscribe for the new set of ports.
-        deviceSubscribed.put(deviceId, ports);
+        final boolean sampleCounters = statsSampleInterval > 0
+                && !samplingUnsupported.contains(deviceId);
+        final List<Subscription> subscriptions = Lists.newArrayList();
+        ports.forEach(port -> {
+            subscriptions.add(Subscription.newBuilder()
+                                      .setPath(interfaceOperStatusPath(port.name()))
+                                      .setMode(SubscriptionMode.ON_CHANGE)
+                                      .build());
+            if (sampleCounters) {
+                subscriptions.add(Subscription.newBuilder()
+                                          .setPath(interfaceCountersPath(port.name()))
+                                          .setMode(SubscriptionMode.SAMPLE)
+                                          .setSampleInterval(TimeUnit.SECONDS.toNanos(
+                                                  statsSampleInterval))
+                                          .build());
+            }
+        });
 
         // Send subscription request.
         final SubscriptionList subscriptionList = SubscriptionList.newBuilder()
                 .setMode(SubscriptionList.Mode.STREAM)
                 .setUpdatesOnly(true)
-                .addAllSubscription(ports.stream().map(
-                        port -> Subscription.newBuilder()
-                                .setPath(interfaceOperStatusPath(port.name()))
-                                .setMode(SubscriptionMode.ON_CHANGE)
-                                .build()).collect(Collectors.toList()))
+                .addAllSubscription(subscriptions)
                 .build();
-        gnmiController.get(deviceId).subscribe(
-                SubscribeRequest.newBuilder()
-                        .setSubscribe(subscriptionList)
-                        .build());
+        final SubscribeRequest request = SubscribeRequest.newBuilder()
+                .setSubscribe(subscriptionList)
+                .build();
+
+        if (Objects.equals(request, deviceSubscribed.get(deviceId))) {
+            // Already subscribed for the same ports and counters.
+            return;
+        }
 
-        log.info("Started gNMI subscription for {} ports on {}", ports.size(), deviceId);
+        // Subscribe for the new set of ports.
+        deviceSubscribed.put(deviceId, request);
+        if (sampleCounters) {
+            counterSamples.put(deviceId, new CounterSamples(System.currentTimeMillis()));
+        } else {
+            counterSamples.remove(deviceId);
+        }
+        gnmiController.get(deviceId).subscribe(request);
+
+        log.info("Started gNMI subscription for {} ports on {}{}", ports.size(), deviceId,
+                 sampleCounters ? " (sampling counters every " + statsSampleInterval + "s)" : "");
     }
 
     private void handleGnmiUpdate(GnmiUpdate eventSubject) {
@@ -186,18 +302,70 @@ class GnmiDeviceStateSubscriber {
         List<Update> updateList = notification.getUpdateList();
         updateList.forEach(update -> {
             Path path = update.getPath();
+            if (path.getElemCount() == 0) {
+                log.debug("Ignoring update with empty path from {}",
+                          eventSubject.deviceId());
+                return;
+            }
             PathElem lastElem = path.getElem(path.getElemCount() - 1);
 
             // Use last element to identify which state updated
             if ("oper-status".equals(lastElem.getName())) {
                 handleOperStatusUpdate(eventSubject.deviceId(), update,
                                        notification.getTimestamp());
+            } else if (path.getElemCount() == 5
+                    && COUNTERS.equals(path.getElem(3).getName())) {
+                // /interfaces/interface[name]/state/counters/<counter-name>
+                handleCounterUpdate(eventSubject.deviceId(), update,
+                                    notification.getTimestamp());
             } else {
                 log.debug("Unrecognized update {}", GnmiUtils.pathToString(path));
             }
         });
     }
 
+    private void handleCounterUpdate(DeviceId deviceId, Update update, long timestamp) {
+        final CounterSamples samples = counterSamples.get(deviceId);
+        if (samples == null) {
+            // Not sampling counters for this device (anymore).
+            return;
+        }
+        final Path path = update.getPath();
+        final String interfaceName = path.getElem(1).getKeyOrDefault("name", null);
+        if (interfaceName == null) {
+            log.debug("No interface present in gNMI counter update from {}", deviceId);
+            return;
+        }
+        samples.update(interfaceName, path.getElem(4).getName(),
+                       update.getVal().getUintVal(), timestamp,
+                       System.currentTimeMillis());
+    }
+
+    // Visible for testing.
+    void flushCounterSamples() {
+        final long now = System.currentTimeMillis();
+        counterSamples.forEach((deviceId, samples) -> {
+            try {
+                if (samples.isExpired(now, maxSampleAgeMillis())) {
+                    log.info("No counter samples received from {}, " +
+                                     "falling back to polling port statistics",
+                             deviceId);
+                    samplingUnsupported.add(deviceId);
+                    counterSamples.remove(deviceId, samples);
+                    checkSubscription(deviceId);
+                    return;
+                }
+                final Collection<PortStatistics> stats = samples.drain(
+                        deviceId, deviceService.getPorts(deviceId));
+                if (!stats.isEmpty()) {
+                    providerService.updatePortStatistics(deviceId, stats);
+                }
+            } catch (Exception e) {
+                log.error("Unable to push streamed port statistics for " + deviceId, e);
+            }
+        });
+    }
+
     private void handleOperStatusUpdate(DeviceId deviceId, Update update, long timestamp) {
         Path path = update.getPath();
         // first element should be "interface"
@@ -252,6 +420,92 @@ class GnmiDeviceStateSubscriber {
         }
     }
 
+    /**
+     * Latest counter values streamed by a device, coalesced until the next
+     * push to the core.
+     */
+    private static final class CounterSamples {
+
+        private final long subscribedAt;
+        // Interface name -> counter name -> value.
+        private final Map<String, Map<String, Long>> counters = Maps.newHashMap();
+        // Interface name -> device timestamp of first and latest sample (ns).
+        private final Map<String, Long> firstTimestamps = Maps.newHashMap();
+        private final Map<String, Long> lastTimestamps = Maps.newHashMap();
+        private long lastSampleAt;
+        private boolean dirty;
+
+        private CounterSamples(long subscribedAt) {
+            this.subscribedAt = subscribedAt;
+        }
+
+        synchronized void update(String interfaceName, String counterName,
+                                 long value, long timestamp, long now) {
+            counters.computeIfAbsent(interfaceName, k -> Maps.newHashMap())
+                    .put(counterName, value);
+            firstTimestamps.putIfAbsent(interfaceName, timestamp);
+            lastTimestamps.put(interfaceName, timestamp);
+            lastSampleAt = now;
+            dirty = true;
+        }
+
+        synchronized boolean isFresh(long now, long maxAgeMillis) {
+            return lastSampleAt != 0 && now - lastSampleAt <= maxAgeMillis;
+        }
+
+        synchronized boolean isExpired(long now, long maxAgeMillis) {
+            return lastSampleAt == 0 && now - subscribedAt > maxAgeMillis;
+        }
+
+        /**
+         * Returns statistics for all ports with counters if any sample was
+         * received since the last invocation, an empty collection otherwise.
+         * The core replaces the statistics of a device as a whole, hence
+         * ports not updated since the last drain are included as well.
+         */
+        synchronized Collection<PortStatistics> drain(DeviceId deviceId,
+                                                      List<Port> ports) {
+            if (!dirty) {
+                return ImmutableList.of();
+            }
+            dirty = false;
+            final List<PortStatistics> stats = Lists.newArrayListWithCapacity(ports.size());
+            for (Port port : ports) {
+                final String interfaceName = port.number().name();
+                final Map<String, Long> values = counters.get(interfaceName);
+                if (values == null) {
+                    continue;
+                }
+                final long durationNanos = durationActive(
+                        port, interfaceName, lastTimestamps.get(interfaceName));
+                final DefaultPortStatistics.Builder builder = DefaultPortStatistics.builder()
+                        .setDeviceId(deviceId)
+                        .setPort(port.number())
+                        .setDurationSec(TimeUnit.NANOSECONDS.toSeconds(durationNanos))
+                        .setDurationNano(durationNanos % TimeUnit.SECONDS.toNanos(1));
+                stats.add(GnmiUtils.setInterfaceCounters(builder, values).build());
+            }
+            return stats;
+        }
+
+        private long durationActive(Port port, String interfaceName, long timestamp) {
+            if (!port.isEnabled()) {
+                return 0;
+            }
+            final String lastChanged = port.annotations().value(LAST_CHANGE);
+            if (lastChanged != null) {
+                try {
+                    return Math.max(0, timestamp - Long.parseLong(lastChanged));
+                } catch (NumberFormatException e) {
+                    log.debug("Invalid {} annotation on {}: {}",
+                              LAST_CHANGE, port.number(), lastChanged);
+                }
+            }
+            // Lacking a last change time, count from the first sample.
+            return Math.max(0, timestamp - firstTimestamps.get(interfaceName));
+        }
+    }
+
     class InternalMastershipListener implements MastershipListener {
 
         @Override
@@ -26,6 +26,9 @@ public final class OsgiPropertyConstants {
     public static final String STATS_POLL_INTERVAL = "statsPollInterval";
     public static final int STATS_POLL_INTERVAL_DEFAULT = 10;
 
+    public static final String GNMI_STATS_SAMPLE_INTERVAL = "gnmiStatsSampleInterval";
+    public static final int GNMI_STATS_SAMPLE_INTERVAL_DEFAULT = 0;
+
     public static final String CHECKUP_INTERVAL = "checkupInterval";
     public static final int CHECKUP_INTERVAL_DEFAULT = 10;
 
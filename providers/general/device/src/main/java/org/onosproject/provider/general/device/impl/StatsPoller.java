@@ -40,6 +40,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
+import java.util.function.Predicate;
 import java.util.stream.StreamSupport;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -61,6 +62,7 @@ public class StatsPoller {
     private final DeviceService deviceService;
     private final MastershipService mastershipService;
     private final DeviceProviderService providerService;
+    private final Predicate<DeviceId> streamingStats;
 
     private final InternalDeviceListener deviceListener = new InternalDeviceListener();
     private final MastershipListener mastershipListener = new InternalMastershipListener();
@@ -71,11 +73,23 @@ public class StatsPoller {
     private ConcurrentMap<DeviceId, Integer> pollFrequencies;
     private int statsPollInterval;
 
+    /**
+     * Creates a new stats poller.
+     *
+     * @param deviceService     device service
+     * @param mastershipService mastership service
+     * @param providerService   device provider service
+     * @param streamingStats    predicate telling whether stats for a device
+     *                          are currently streamed by other means, in which
+     *                          case polling is skipped
+     */
     StatsPoller(DeviceService deviceService, MastershipService mastershipService,
-                DeviceProviderService providerService) {
+                DeviceProviderService providerService,
+                Predicate<DeviceId> streamingStats) {
         this.deviceService = deviceService;
         this.mastershipService = mastershipService;
         this.providerService = providerService;
+        this.streamingStats = streamingStats;
     }
 
 
@@ -165,6 +179,10 @@ public class StatsPoller {
     }
 
     private void updatePortStatistics(DeviceId deviceId) {
+        if (streamingStats.test(deviceId)) {
+            // Stats are pushed by the device, no need to poll.
+            return;
+        }
         final Device device = deviceService.getDevice(deviceId);
         if (!device.is(PortStatisticsDiscovery.class)) {
             log.error("Missing PortStatisticsDiscovery behaviour for {}", deviceId);
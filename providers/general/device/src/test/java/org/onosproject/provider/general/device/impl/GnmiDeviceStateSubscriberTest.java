@@ -0,0 +1,310 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.general.device.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import gnmi.Gnmi.CapabilityResponse;
+import gnmi.Gnmi.GetRequest;
+import gnmi.Gnmi.GetResponse;
+import gnmi.Gnmi.Notification;
+import gnmi.Gnmi.Path;
+import gnmi.Gnmi.PathElem;
+import gnmi.Gnmi.SetRequest;
+import gnmi.Gnmi.SetResponse;
+import gnmi.Gnmi.SubscribeRequest;
+import gnmi.Gnmi.Subscription;
+import gnmi.Gnmi.SubscriptionMode;
+import gnmi.Gnmi.TypedValue;
+import gnmi.Gnmi.Update;
+import io.grpc.ManagedChannel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.gnmi.api.GnmiClient;
+import org.onosproject.gnmi.api.GnmiController;
+import org.onosproject.gnmi.api.GnmiEvent;
+import org.onosproject.gnmi.api.GnmiEventListener;
+import org.onosproject.gnmi.api.GnmiUpdate;
+import org.onosproject.mastership.MastershipServiceAdapter;
+import org.onosproject.net.DefaultDevice;
+import org.onosproject.net.DefaultPort;
+import org.onosproject.net.Device;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Port;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.device.DeviceAgentListener;
+import org.onosproject.net.device.DeviceProviderServiceAdapter;
+import org.onosproject.net.device.DeviceServiceAdapter;
+import org.onosproject.net.device.PortStatistics;
+import org.onosproject.net.provider.ProviderId;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit tests for the gNMI subscriptions of the general device provider.
+ */
+public class GnmiDeviceStateSubscriberTest {
+
+    private static final DeviceId DEVICE_ID = DeviceId.deviceId("gnmi:1");
+    private static final Device DEVICE = new DefaultDevice(
+            ProviderId.NONE, DEVICE_ID, Device.Type.SWITCH, "", "", "", "", null);
+    private static final PortNumber ETH1 = PortNumber.portNumber(1, "eth1");
+    private static final PortNumber ETH2 = PortNumber.portNumber(2, "eth2");
+    private static final List<Port> PORTS = ImmutableList.of(
+            new DefaultPort(DEVICE, ETH1, true), new DefaultPort(DEVICE, ETH2, true));
+
+    private final TestGnmiClient client = new TestGnmiClient();
+    private final TestGnmiController controller = new TestGnmiController();
+    private final List<Collection<PortStatistics>> pushedStats = Lists.newArrayList();
+    private GnmiDeviceStateSubscriber subscriber;
+
+    @Before
+    public void setUp() {
+        subscriber = new GnmiDeviceStateSubscriber(
+                controller, new TestDeviceService(), new TestMastershipService(),
+                new DeviceProviderServiceAdapter() {
+                    @Override
+                    public void updatePortStatistics(DeviceId deviceId,
+                                                     Collection<PortStatistics> portStatistics) {
+                        pushedStats.add(portStatistics);
+                    }
+                });
+    }
+
+    @After
+    public void tearDown() {
+        subscriber.deactivate();
+    }
+
+    private List<Subscription> subscriptions(SubscriptionMode mode) {
+        return Iterables.getLast(client.requests).getSubscribe().getSubscriptionList().stream()
+                .filter(s -> s.getMode() == mode)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Tests that only oper-status is subscribed to when streaming of
+     * counters is disabled.
+     */
+    @Test
+    public void testSubscriptionWithoutSampling() {
+        subscriber.activate(0);
+        assertThat(client.requests, hasSize(1));
+        assertThat(subscriptions(SubscriptionMode.ON_CHANGE), hasSize(2));
+        assertThat(subscriptions(SubscriptionMode.SAMPLE), hasSize(0));
+        assertThat(subscriber.isStreamingStats(DEVICE_ID), is(false));
+    }
+
+    /**
+     * Tests that counters are sampled at the configured interval, and that
+     * changing the interval updates the subscription.
+     */
+    @Test
+    public void testSubscriptionWithSampling() {
+        subscriber.activate(5);
+        assertThat(client.requests, hasSize(1));
+        assertThat(subscriptions(SubscriptionMode.ON_CHANGE), hasSize(2));
+        List<Subscription> samples = subscriptions(SubscriptionMode.SAMPLE);
+        assertThat(samples, hasSize(2));
+        for (Subscription sample : samples) {
+            assertThat(sample.getSampleInterval(), is(TimeUnit.SECONDS.toNanos(5)));
+            assertThat(sample.getPath().getElem(3).getName(), is("counters"));
+        }
+
+        subscriber.setStatsSampleInterval(5);
+        assertThat(client.requests, hasSize(1));
+
+        subscriber.setStatsSampleInterval(0);
+        assertThat(client.requests, hasSize(2));
+        assertThat(subscriptions(SubscriptionMode.SAMPLE), hasSize(0));
+    }
+
+    /**
+     * Tests that streamed counter samples are mapped to port statistics and
+     * pushed once per interval, only when something changed.
+     */
+    @Test
+    public void testCounterUpdateMapping() {
+        subscriber.activate(5);
+        controller.listener.event(new GnmiEvent(GnmiEvent.Type.UPDATE, new GnmiUpdate(
+                DEVICE_ID, Notification.newBuilder()
+                .setTimestamp(1000)
+                .addUpdate(counter("eth1", "in-octets", 100))
+                .addUpdate(counter("eth1", "out-octets", 200))
+                .addUpdate(counter("eth1", "in-unicast-pkts", 3))
+                .addUpdate(counter("eth1", "in-multicast-pkts", 4))
+                .addUpdate(counter("eth1", "out-unicast-pkts", 5))
+                .addUpdate(counter("eth1", "in-discards", 1))
+                .addUpdate(counter("eth1", "in-fcs-errors", 2))
+                .addUpdate(counter("eth1", "out-discards", 6))
+                .addUpdate(counter("eth1", "in-errors", 7))
+                .addUpdate(counter("eth1", "out-errors", 8))
+                .build(), false)));
+        assertThat(subscriber.isStreamingStats(DEVICE_ID), is(true));
+
+        subscriber.flushCounterSamples();
+        assertThat(pushedStats, hasSize(1));
+        // Only ports with samples are reported.
+        Map<PortNumber, PortStatistics> stats = pushedStats.get(0).stream()
+                .collect(Collectors.toMap(PortStatistics::portNumber, s -> s));
+        assertThat(stats.keySet(), is(ImmutableSet.of(ETH1)));
+        PortStatistics eth1 = stats.get(ETH1);
+        assertThat(eth1.bytesReceived(), is(100L));
+        assertThat(eth1.bytesSent(), is(200L));
+        assertThat(eth1.packetsReceived(), is(7L));
+        assertThat(eth1.packetsSent(), is(5L));
+        assertThat(eth1.packetsRxDropped(), is(3L));
+        assertThat(eth1.packetsTxDropped(), is(6L));
+        assertThat(eth1.packetsRxErrors(), is(7L));
+        assertThat(eth1.packetsTxErrors(), is(8L));
+
+        // Nothing new, nothing pushed.
+        subscriber.flushCounterSamples();
+        assertThat(pushedStats, hasSize(1));
+    }
+
+    private static Update counter(String interfaceName, String counterName, long value) {
+        return Update.newBuilder()
+                .setPath(Path.newBuilder()
+                                 .addElem(PathElem.newBuilder().setName("interfaces"))
+                                 .addElem(PathElem.newBuilder().setName("interface")
+                                                  .putKey("name", interfaceName))
+                                 .addElem(PathElem.newBuilder().setName("state"))
+                                 .addElem(PathElem.newBuilder().setName("counters"))
+                                 .addElem(PathElem.newBuilder().setName(counterName)))
+                .setVal(TypedValue.newBuilder().setUintVal(value))
+                .build();
+    }
+
+    private static final class TestDeviceService extends DeviceServiceAdapter {
+        @Override
+        public Iterable<Device> getDevices() {
+            return ImmutableList.of(DEVICE);
+        }
+
+        @Override
+        public Device getDevice(DeviceId deviceId) {
+            return DEVICE_ID.equals(deviceId) ? DEVICE : null;
+        }
+
+        @Override
+        public boolean isAvailable(DeviceId deviceId) {
+            return DEVICE_ID.equals(deviceId);
+        }
+
+        @Override
+        public List<Port> getPorts(DeviceId deviceId) {
+            return DEVICE_ID.equals(deviceId) ? PORTS : ImmutableList.of();
+        }
+    }
+
+    private static final class TestMastershipService extends MastershipServiceAdapter {
+        @Override
+        public boolean isLocalMaster(DeviceId deviceId) {
+            return true;
+        }
+    }
+
+    private static final class TestGnmiClient implements GnmiClient {
+        private final List<SubscribeRequest> requests = Lists.newArrayList();
+
+        @Override
+        public CompletableFuture<CapabilityResponse> capabilities() {
+            return null;
+        }
+
+        @Override
+        public CompletableFuture<GetResponse> get(GetRequest request) {
+            return null;
+        }
+
+        @Override
+        public CompletableFuture<SetResponse> set(SetRequest request) {
+            return null;
+        }
+
+        @Override
+        public void subscribe(SubscribeRequest request) {
+            requests.add(request);
+        }
+
+        @Override
+        public void unsubscribe() {
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public boolean isServerReachable() {
+            return true;
+        }
+
+        @Override
+        public CompletableFuture<Boolean> probeService() {
+            return CompletableFuture.completedFuture(true);
+        }
+    }
+
+    private final class TestGnmiController implements GnmiController {
+        private GnmiEventListener listener;
+
+        @Override
+        public boolean create(DeviceId deviceId, ManagedChannel channel) {
+            return false;
+        }
+
+        @Override
+        public GnmiClient get(DeviceId deviceId) {
+            return DEVICE_ID.equals(deviceId) ? client : null;
+        }
+
+        @Override
+        public void remove(DeviceId deviceId) {
+        }
+
+        @Override
+        public void addDeviceAgentListener(DeviceId deviceId, ProviderId providerId,
+                                           DeviceAgentListener listener) {
+        }
+
+        @Override
+        public void removeDeviceAgentListener(DeviceId deviceId, ProviderId providerId) {
+        }
+
+        @Override
+        public void addListener(GnmiEventListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void removeListener(GnmiEventListener listener) {
+        }
+    }
+}
@@ -15,9 +15,11 @@
  */
 package org.onosproject.provider.lldp.impl;
 
+import com.codahale.metrics.Timer;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import org.onlab.metrics.MetricsService;
 import org.onlab.packet.Ethernet;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterMetadata;
@@ -27,6 +29,7 @@ import org.onosproject.cluster.ClusterMetadataService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
+import org.onosproject.core.MetricsHelper;
 import org.onosproject.mastership.MastershipEvent;
 import org.onosproject.mastership.MastershipListener;
 import org.onosproject.mastership.MastershipService;
@@ -65,6 +68,7 @@ import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.slf4j.Logger;
 
 import java.util.Dictionary;
@@ -82,6 +86,8 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.onlab.packet.Ethernet.TYPE_BSN;
 import static org.onlab.packet.Ethernet.TYPE_LLDP;
@@ -106,7 +112,7 @@ import static org.slf4j.LoggerFactory.getLogger;
                 PROP_DISCOVERY_DELAY + ":Integer=" + DISCOVERY_DELAY_DEFAULT,
                 PROP_USE_STALE_LINK_AGE + ":Boolean=" + USE_STALE_LINK_AGE_DEFAULT,
         })
-public class LldpLinkProvider extends AbstractProvider implements ProbedLinkProvider {
+public class LldpLinkProvider extends AbstractProvider implements ProbedLinkProvider, MetricsHelper {
 
     private static final String PROVIDER_NAME = "org.onosproject.provider.lldp";
 
@@ -149,8 +155,16 @@ public class LldpLinkProvider extends AbstractProvider implements ProbedLinkProv
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected ClusterMetadataService clusterMetadataService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL,
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile MetricsService metricsService;
+
     private LinkProviderService providerService;
 
+    private Timer probeRoundTimer;
+    private Timer probeDelayTimer;
+    private Timer probeVerifyTimer;
+
     private ScheduledExecutorService executor;
     protected ExecutorService eventExecutor;
 
@@ -244,6 +258,11 @@ public class LldpLinkProvider extends AbstractProvider implements ProbedLinkProv
         super(new ProviderId("lldp", PROVIDER_NAME));
     }
 
+    @Override
+    public MetricsService metricsService() {
+        return metricsService;
+    }
+
     private String buildSrcMac() {
         String defMac = ProbedLinkProvider.defaultMac();
         if (clusterMetadataService == null) {
@@ -281,6 +300,10 @@ public class LldpLinkProvider extends AbstractProvider implements ProbedLinkProv
             clusterMetadata.set(clusterMetadataService.getClusterMetadata());
         }
 
+        probeRoundTimer = createTimer("LinkDiscovery", "probes", "round");
+        probeDelayTimer = createTimer("LinkDiscovery", "probes", "delay");
+        probeVerifyTimer = createTimer("LinkDiscovery", "probes", "verification");
+
         modified(context);
         log.info("Started");
     }
@@ -854,6 +877,23 @@ public class LldpLinkProvider extends AbstractProvider implements ProbedLinkProv
         public long maxDiscoveryDelay() {
             return maxDiscoveryDelayMs;
         }
+
+        @Override
+        public void probesSent(DeviceId deviceId, int probes, long elapsedNanos) {
+            if (probeRoundTimer != null) {
+                probeRoundTimer.update(elapsedNanos, NANOSECONDS);
+            }
+        }
+
+        @Override
+        public void probeVerified(long delayMillis, long verifyNanos) {
+            if (probeDelayTimer != null && delayMillis >= 0) {
+                probeDelayTimer.update(delayMillis, MILLISECONDS);
+            }
+            if (probeVerifyTimer != null) {
+                probeVerifyTimer.update(verifyNanos, NANOSECONDS);
+            }
+        }
     }
 
     static final EnumSet<NetworkConfigEvent.Type> CONFIG_CHANGED
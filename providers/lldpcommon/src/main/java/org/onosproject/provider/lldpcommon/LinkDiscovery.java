@@ -16,6 +16,7 @@
 package org.onosproject.provider.lldpcommon;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import io.netty.util.Timeout;
 import io.netty.util.TimerTask;
@@ -44,6 +45,7 @@ import org.onosproject.net.packet.PacketContext;
 import org.slf4j.Logger;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -75,17 +77,18 @@ public class LinkDiscovery implements TimerTask {
     private final DeviceId deviceId;
     private final LinkDiscoveryContext context;
 
-    private final Ethernet ethPacket;
-    private final Ethernet bddpEth;
-
     private Timeout timeout;
     private volatile boolean isStopped;
 
     // Set of ports to be probed
     private final Map<Long, String> portMap = Maps.newConcurrentMap();
+
+    // Serialized probes for each port, re-signed on every probe round
+    private final Map<Long, ProbeTemplate> probeTemplates = Maps.newConcurrentMap();
+
     /**
-     * Instantiates discovery manager for the given physical switch. Creates a
-     * generic LLDP packet that will be customized for the port it is sent out on.
+     * Instantiates discovery manager for the given physical switch. Probes
+     * are built lazily for each port they are sent out on.
      * Starts the the timer for the discovery process.
      *
      * @param deviceId  the physical switch
@@ -95,16 +98,6 @@ public class LinkDiscovery implements TimerTask {
         this.deviceId = deviceId;
         this.context = context;
 
-        ethPacket = new Ethernet();
-        ethPacket.setEtherType(Ethernet.TYPE_LLDP);
-        ethPacket.setDestinationMACAddress(MacAddress.ONOS_LLDP);
-        ethPacket.setPad(true);
-
-        bddpEth = new Ethernet();
-        bddpEth.setEtherType(Ethernet.TYPE_BSN);
-        bddpEth.setDestinationMACAddress(MacAddress.BROADCAST);
-        bddpEth.setPad(true);
-
         isStopped = true;
         start();
         log.debug("Started discovery manager for switch {}", deviceId);
@@ -152,7 +145,7 @@ public class LinkDiscovery implements TimerTask {
         boolean isMaster = context.mastershipService().isLocalMaster(deviceId);
         if (newPort && isMaster) {
             log.debug("Sending initial probe to port {}@{}", port.number().toLong(), deviceId);
-            sendProbes(portNum, portName);
+            sendProbes(ImmutableMap.of(portNum, portName));
         }
     }
 
@@ -162,6 +155,7 @@ public class LinkDiscovery implements TimerTask {
      */
     public void removePort(PortNumber port) {
         portMap.remove(port.toLong());
+        probeTemplates.remove(port.toLong());
     }
 
     /**
@@ -208,10 +202,15 @@ public class LinkDiscovery implements TimerTask {
                         Type.DIRECT : Type.INDIRECT;
 
                 /* Verify MAC in LLDP packets */
+                long start = System.nanoTime();
                 if (!ONOSLLDP.verify(onoslldp, context.lldpSecret(), context.maxDiscoveryDelay())) {
                     log.warn("LLDP Packet failed to validate!");
                     return true;
                 }
+                if (onoslldp.getTimestamp() > 0) {
+                    context.probeVerified(System.currentTimeMillis() - onoslldp.getTimestamp(),
+                                          System.nanoTime() - start);
+                }
             }
 
             PortNumber srcPort = portNumber(onoslldp.getPort());
@@ -378,7 +377,7 @@ public class LinkDiscovery implements TimerTask {
             // Verify if we are still the master
             if (context.mastershipService().isLocalMaster(deviceId)) {
                 log.trace("Sending probes from {}", deviceId);
-                ImmutableMap.copyOf(portMap).forEach(this::sendProbes);
+                sendProbes(ImmutableMap.copyOf(portMap));
             }
         } catch (Exception e) {
             // Catch all exceptions to avoid timer task being cancelled
@@ -398,80 +397,78 @@ public class LinkDiscovery implements TimerTask {
     }
 
     /**
-     * Creates packet_out LLDP for specified output port.
+     * Returns the probe templates for the specified output port, building
+     * them if missing or out of date.
      *
-     * @param portNumber the port
-     * @param portDesc the port description
-     * @return Packet_out message with LLDP data
+     * @param portNumber  the port
+     * @param portDesc    the port description
+     * @param fingerprint the cluster fingerprint
+     * @param secret      the LLDP secret
+     * @return probe templates, or null if they cannot be built
      */
-    private OutboundPacket createOutBoundLldp(Long portNumber, String portDesc) {
-        if (portNumber == null) {
-            return null;
+    private ProbeTemplate getProbeTemplate(Long portNumber, String portDesc,
+                                           String fingerprint, String secret) {
+        ProbeTemplate template = probeTemplates.get(portNumber);
+        if (template != null && template.matches(portDesc, fingerprint, secret)) {
+            return template;
         }
-        ONOSLLDP lldp = getLinkProbe(portNumber, portDesc);
-        if (lldp == null) {
-            log.warn("Cannot get link probe with portNumber {} and portDesc {} for {} at LLDP packet creation.",
-                    portNumber, portDesc, deviceId);
+        Device device = context.deviceService().getDevice(deviceId);
+        if (device == null) {
+            log.warn("Cannot find the device {}", deviceId);
             return null;
         }
-        ethPacket.setSourceMACAddress(context.fingerprint()).setPayload(lldp);
+        template = ProbeTemplate.create(deviceId.toString(), device.chassisId(), portNumber.intValue(),
+                                        portDesc, fingerprint, secret);
+        if (template != null) {
+            probeTemplates.put(portNumber, template);
+        }
+        return template;
+    }
+
+    private OutboundPacket createOutBoundPacket(Long portNumber, byte[] frame) {
         return new DefaultOutboundPacket(deviceId,
                                          builder().setOutput(portNumber(portNumber)).build(),
-                                         ByteBuffer.wrap(ethPacket.serialize()));
+                                         ByteBuffer.wrap(frame));
     }
 
     /**
-     * Creates packet_out BDDP for specified output port.
+     * Sends LLDP, and BDDP if enabled, probes out of the given ports. All
+     * probes of the round are stamped and signed before any is emitted.
      *
-     * @param portNumber the port
-     * @param portDesc the port description
-     * @return Packet_out message with LLDP data
+     * @param ports port numbers and descriptions of the ports to probe
      */
-    private OutboundPacket createOutBoundBddp(Long portNumber, String portDesc) {
-        if (portNumber == null) {
-            return null;
-        }
-        ONOSLLDP lldp = getLinkProbe(portNumber, portDesc);
-        if (lldp == null) {
-            log.warn("Cannot get link probe with portNumber {} and portDesc {} for {} at BDDP packet creation.",
-                    portNumber, portDesc, deviceId);
-            return null;
-        }
-        bddpEth.setSourceMACAddress(context.fingerprint()).setPayload(lldp);
-        return new DefaultOutboundPacket(deviceId,
-                                         builder().setOutput(portNumber(portNumber)).build(),
-                                         ByteBuffer.wrap(bddpEth.serialize()));
-    }
-
-    private ONOSLLDP getLinkProbe(Long portNumber, String portDesc) {
-        Device device = context.deviceService().getDevice(deviceId);
-        if (device == null) {
-            log.warn("Cannot find the device {}", deviceId);
-            return null;
-        }
-        return ONOSLLDP.onosSecureLLDP(deviceId.toString(), device.chassisId(), portNumber.intValue(), portDesc,
-                                       context.lldpSecret());
-    }
-
-    private void sendProbes(Long portNumber, String portDesc) {
+    private void sendProbes(Map<Long, String> ports) {
         if (context.packetService() == null) {
             return;
         }
-        log.trace("Sending probes out of {}@{}", portNumber, deviceId);
-        OutboundPacket pkt = createOutBoundLldp(portNumber, portDesc);
-        if (pkt != null) {
-            context.packetService().emit(pkt);
-        } else {
-            log.warn("Cannot send lldp packet due to packet is null {}", deviceId);
-        }
-        if (context.useBddp()) {
-            OutboundPacket bpkt = createOutBoundBddp(portNumber, portDesc);
-            if (bpkt != null) {
-                context.packetService().emit(bpkt);
-            } else {
-                log.warn("Cannot send bddp packet due to packet is null {}", deviceId);
+        long start = System.nanoTime();
+        String fingerprint = context.fingerprint();
+        String secret = context.lldpSecret();
+        boolean useBddp = context.useBddp();
+        long timestamp = System.currentTimeMillis();
+
+        List<OutboundPacket> probes = Lists.newArrayListWithCapacity(useBddp ? 2 * ports.size() : ports.size());
+        ports.forEach((portNumber, portDesc) -> {
+            log.trace("Sending probes out of {}@{}", portNumber, deviceId);
+            ProbeTemplate template = getProbeTemplate(portNumber, portDesc, fingerprint, secret);
+            if (template == null) {
+                log.warn("Cannot get link probe with portNumber {} and portDesc {} for {}",
+                         portNumber, portDesc, deviceId);
+                return;
             }
-        }
+            byte[] sig = template.sign(timestamp);
+            if (secret != null && sig == null) {
+                log.warn("Cannot sign link probe with portNumber {} for {}", portNumber, deviceId);
+                return;
+            }
+            probes.add(createOutBoundPacket(portNumber, template.lldp(timestamp, sig)));
+            if (useBddp) {
+                probes.add(createOutBoundPacket(portNumber, template.bddp(timestamp, sig)));
+            }
+        });
+
+        probes.forEach(context.packetService()::emit);
+        context.probesSent(deviceId, probes.size(), System.nanoTime() - start);
     }
 
     public boolean containsPort(long portNumber) {
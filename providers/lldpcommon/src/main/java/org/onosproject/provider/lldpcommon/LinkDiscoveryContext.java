@@ -16,6 +16,7 @@
 package org.onosproject.provider.lldpcommon;
 
 import org.onosproject.mastership.MastershipService;
+import org.onosproject.net.DeviceId;
 import org.onosproject.net.LinkKey;
 import org.onosproject.net.device.DeviceService;
 import org.onosproject.net.link.LinkProviderService;
@@ -103,4 +104,23 @@ public interface LinkDiscoveryContext {
      * @return delay in ms
      */
     long maxDiscoveryDelay();
+
+    /**
+     * Records a round of probes sent out of a device.
+     *
+     * @param deviceId     device the probes were sent from
+     * @param probes       number of probes sent
+     * @param elapsedNanos time taken to build and emit the probes
+     */
+    default void probesSent(DeviceId deviceId, int probes, long elapsedNanos) {
+    }
+
+    /**
+     * Records a signed probe received and verified by this instance.
+     *
+     * @param delayMillis time elapsed since the probe was sent
+     * @param verifyNanos time taken to verify the probe signature
+     */
+    default void probeVerified(long delayMillis, long verifyNanos) {
+    }
 }
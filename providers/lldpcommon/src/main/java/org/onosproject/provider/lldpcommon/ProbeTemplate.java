@@ -0,0 +1,190 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.lldpcommon;
+
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Longs;
+import org.onlab.packet.ChassisId;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.LLDPOrganizationalTLV;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.ONOSLLDP;
+
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Serialized LLDP and BDDP probes for a single port. Probes are built and
+ * serialized once; each probe round only patches the timestamp and the
+ * signature of a copy of the serialized frames.
+ */
+final class ProbeTemplate {
+
+    private static final int INFO_OFFSET = 2 + LLDPOrganizationalTLV.OUI_LENGTH +
+            LLDPOrganizationalTLV.SUBTYPE_LENGTH;
+
+    private final String deviceId;
+    private final int portNumber;
+    private final String portDesc;
+    private final String fingerprint;
+    private final String secret;
+
+    private final byte[] lldpFrame;
+    private final byte[] bddpFrame;
+
+    // Offsets of the timestamp and signature values within both frames;
+    // negative when probes are not signed.
+    private final int timestampOffset;
+    private final int sigOffset;
+
+    private ProbeTemplate(String deviceId, int portNumber, String portDesc,
+                          String fingerprint, String secret,
+                          byte[] lldpFrame, byte[] bddpFrame,
+                          int timestampOffset, int sigOffset) {
+        this.deviceId = deviceId;
+        this.portNumber = portNumber;
+        this.portDesc = portDesc;
+        this.fingerprint = fingerprint;
+        this.secret = secret;
+        this.lldpFrame = lldpFrame;
+        this.bddpFrame = bddpFrame;
+        this.timestampOffset = timestampOffset;
+        this.sigOffset = sigOffset;
+    }
+
+    /**
+     * Creates probe templates for the given port.
+     *
+     * @param deviceId    device the probes are sent from
+     * @param chassisId   chassis identifier of the device
+     * @param portNumber  port the probes are sent out of
+     * @param portDesc    port description
+     * @param fingerprint cluster fingerprint used as probe source MAC
+     * @param secret      LLDP secret; null if probes are not signed
+     * @return probe templates, or null if the probes cannot be created
+     */
+    static ProbeTemplate create(String deviceId, ChassisId chassisId, int portNumber,
+                                String portDesc, String fingerprint, String secret) {
+        ONOSLLDP lldp = ONOSLLDP.onosSecureLLDP(deviceId, chassisId, portNumber, portDesc, secret);
+        if (lldp == null) {
+            return null;
+        }
+        byte[] lldpFrame = new Ethernet()
+                .setEtherType(Ethernet.TYPE_LLDP)
+                .setDestinationMACAddress(MacAddress.ONOS_LLDP)
+                .setSourceMACAddress(fingerprint)
+                .setPad(true)
+                .setPayload(lldp)
+                .serialize();
+        byte[] bddpFrame = new Ethernet()
+                .setEtherType(Ethernet.TYPE_BSN)
+                .setDestinationMACAddress(MacAddress.BROADCAST)
+                .setSourceMACAddress(fingerprint)
+                .setPad(true)
+                .setPayload(lldp)
+                .serialize();
+
+        int timestampOffset = -1;
+        int sigOffset = -1;
+        if (secret != null) {
+            // Both frames share the header length, hence the offsets
+            timestampOffset = valueOffset(lldpFrame, lldp.getTimestampTLV());
+            sigOffset = valueOffset(lldpFrame, lldp.getSigTLV());
+            if (timestampOffset < 0 || sigOffset < 0) {
+                return null;
+            }
+        }
+        return new ProbeTemplate(deviceId, portNumber, portDesc, fingerprint, secret,
+                                 lldpFrame, bddpFrame, timestampOffset, sigOffset);
+    }
+
+    // Locates the value of the given organizational TLV within the frame.
+    private static int valueOffset(byte[] frame, LLDPOrganizationalTLV tlv) {
+        if (tlv == null) {
+            return -1;
+        }
+        int offset = Bytes.indexOf(frame, tlv.serialize());
+        return offset < 0 ? offset : offset + INFO_OFFSET;
+    }
+
+    /**
+     * Indicates whether the templates were built with the given parameters.
+     *
+     * @param portDesc    port description
+     * @param fingerprint cluster fingerprint
+     * @param secret      LLDP secret
+     * @return true if the templates can be used as they are
+     */
+    boolean matches(String portDesc, String fingerprint, String secret) {
+        return Objects.equals(this.portDesc, portDesc) &&
+                Objects.equals(this.fingerprint, fingerprint) &&
+                Objects.equals(this.secret, secret);
+    }
+
+    /**
+     * Returns the signature for probes sent at the given time.
+     *
+     * @param timestamp probe timestamp in millis
+     * @return signature, or null if probes are not signed or cannot be signed
+     */
+    byte[] sign(long timestamp) {
+        return secret == null ? null :
+                ONOSLLDP.signature(deviceId, portNumber, timestamp, secret);
+    }
+
+    /**
+     * Returns a serialized LLDP probe with the given timestamp and signature.
+     *
+     * @param timestamp probe timestamp in millis
+     * @param sig       probe signature as returned by {@link #sign(long)}
+     * @return serialized probe frame
+     */
+    byte[] lldp(long timestamp, byte[] sig) {
+        return patch(lldpFrame, timestamp, sig);
+    }
+
+    /**
+     * Returns a serialized BDDP probe with the given timestamp and signature.
+     *
+     * @param timestamp probe timestamp in millis
+     * @param sig       probe signature as returned by {@link #sign(long)}
+     * @return serialized probe frame
+     */
+    byte[] bddp(long timestamp, byte[] sig) {
+        return patch(bddpFrame, timestamp, sig);
+    }
+
+    private byte[] patch(byte[] template, long timestamp, byte[] sig) {
+        if (secret == null) {
+            // Unsigned probes never change; the template is never written to
+            return template;
+        }
+        byte[] frame = template.clone();
+        System.arraycopy(Longs.toByteArray(timestamp), 0, frame, timestampOffset, Long.BYTES);
+        System.arraycopy(sig, 0, frame, sigOffset, sig.length);
+        return frame;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("deviceId", deviceId)
+                .add("portNumber", portNumber)
+                .add("signed", secret != null)
+                .toString();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.lldpcommon;
+
+import org.junit.Test;
+import org.onlab.packet.ChassisId;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.ONOSLLDP;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the ProbeTemplate class.
+ */
+public class ProbeTemplateTest {
+
+    private static final String DEVICE_ID = "of:c0a80a6e00000001";
+    private static final ChassisId CHASSIS_ID = new ChassisId(67890);
+    private static final int PORT_NUMBER = 2;
+    private static final String PORT_DESC = "Ethernet1";
+    private static final String FINGERPRINT = "A2:00:00:00:00:01";
+    private static final String TEST_SECRET = "test";
+
+    /**
+     * Tests that patched probes carry a fresh, verifiable signature.
+     */
+    @Test
+    public void testSignedProbes() throws Exception {
+        ProbeTemplate template = ProbeTemplate.create(DEVICE_ID, CHASSIS_ID, PORT_NUMBER,
+                                                      PORT_DESC, FINGERPRINT, TEST_SECRET);
+        assertNotNull(template);
+        assertTrue(template.matches(PORT_DESC, FINGERPRINT, TEST_SECRET));
+
+        long timestamp = System.currentTimeMillis();
+        byte[] sig = template.sign(timestamp);
+
+        byte[] lldp = template.lldp(timestamp, sig);
+        Ethernet eth = Ethernet.deserializer().deserialize(lldp, 0, lldp.length);
+        assertEquals(Ethernet.TYPE_LLDP, eth.getEtherType());
+        assertEquals(FINGERPRINT, eth.getSourceMAC().toString());
+
+        ONOSLLDP probe = ONOSLLDP.parseONOSLLDP(eth);
+        assertNotNull(probe);
+        assertEquals(DEVICE_ID, probe.getDeviceString());
+        assertEquals(PORT_NUMBER, (int) probe.getPort());
+        assertEquals(PORT_DESC, probe.getPortDescString());
+        assertEquals(timestamp, probe.getTimestamp());
+        assertArrayEquals(sig, probe.getSig());
+        assertTrue(ONOSLLDP.verify(probe, TEST_SECRET, 1000));
+
+        byte[] bddp = template.bddp(timestamp, sig);
+        eth = Ethernet.deserializer().deserialize(bddp, 0, bddp.length);
+        assertEquals(Ethernet.TYPE_BSN, eth.getEtherType());
+        assertTrue(ONOSLLDP.verify(ONOSLLDP.parseONOSLLDP(eth), TEST_SECRET, 1000));
+    }
+
+    /**
+     * Tests that unsigned probes are sent as built.
+     */
+    @Test
+    public void testUnsignedProbes() {
+        ProbeTemplate template = ProbeTemplate.create(DEVICE_ID, CHASSIS_ID, PORT_NUMBER,
+                                                      PORT_DESC, FINGERPRINT, null);
+        assertNotNull(template);
+        assertNull(template.sign(0));
+        assertSame(template.lldp(0, null), template.lldp(1, null));
+        assertTrue(!template.matches(PORT_DESC, FINGERPRINT, TEST_SECRET));
+    }
+}
@@ -125,7 +125,6 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
-import java.util.Timer;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.isNullOrEmpty;
@@ -459,8 +458,6 @@ public class OpenFlowDeviceProvider extends AbstractProvider implements DevicePr
     /** It indicates frequency must be used instead of wavelength for port tuning. */
     private static boolean propertyFrequency = PROP_FREQ_DEFAULT;
 
-    private final Timer timer = new Timer("onos-openflow-portstats-collector");
-
     private Map<Dpid, PortStatsCollector> collectors = Maps.newConcurrentMap();
 
     /**
@@ -823,7 +820,7 @@ public class OpenFlowDeviceProvider extends AbstractProvider implements DevicePr
             }
 
             if (sw.features().getCapabilities().contains(OFCapabilities.PORT_STATS)) {
-                PortStatsCollector psc = new PortStatsCollector(timer, sw, portStatsPollFrequency);
+                PortStatsCollector psc = new PortStatsCollector(controller, sw, portStatsPollFrequency);
                 stopCollectorIfNeeded(collectors.put(dpid, psc));
                 psc.start();
             }
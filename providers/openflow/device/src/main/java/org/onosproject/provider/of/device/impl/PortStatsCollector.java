@@ -13,18 +13,19 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.onosproject.provider.of.device.impl;
 
+import com.google.common.collect.ImmutableList;
+import org.onosproject.openflow.controller.Dpid;
+import org.onosproject.openflow.controller.OpenFlowController;
+import org.onosproject.openflow.controller.OpenFlowStatsPoll;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.RoleState;
-import org.projectfloodlight.openflow.protocol.OFPortStatsRequest;
+import org.projectfloodlight.openflow.protocol.OFStatsRequest;
 import org.projectfloodlight.openflow.types.OFPort;
 import org.slf4j.Logger;
 
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Collection;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -38,42 +39,32 @@ public class PortStatsCollector {
 
     private static final long SECONDS = 1000L;
 
+    private final OpenFlowController controller;
     private OpenFlowSwitch sw;
-    private Timer timer;
-    private TimerTask task;
+    private OpenFlowStatsPoll poll;
 
     private int refreshInterval;
-    private final AtomicLong xidAtomic = new AtomicLong(1);
 
     /**
      * Creates a port states collector object.
      *
-     * @param timer     timer to use for scheduling
-     * @param sw        switch to pull
-     * @param interval  interval for collecting port statistic
+     * @param controller controller whose statistics timeline schedules the polls
+     * @param sw         switch to pull
+     * @param interval   interval for collecting port statistic
      */
-    PortStatsCollector(Timer timer, OpenFlowSwitch sw, int interval) {
-        this.timer = timer;
+    PortStatsCollector(OpenFlowController controller, OpenFlowSwitch sw, int interval) {
+        this.controller = controller;
         this.sw = checkNotNull(sw, "Null switch");
         this.refreshInterval = interval;
     }
 
-    private class InternalTimerTask extends TimerTask {
-
-        @Override
-        public void run() {
-            sendPortStatisticRequest();
-        }
-    }
-
     /**
      * Starts the port statistic collector.
      */
     public synchronized void start() {
         log.info("Starting Port Stats collection thread for {}", sw.getStringId());
-        task = new InternalTimerTask();
-        timer.scheduleAtFixedRate(task, 1 * SECONDS,
-                                  refreshInterval * SECONDS);
+        poll = controller.schedulePoll(new Dpid(sw.getId()), refreshInterval * SECONDS,
+                                       this::portStatisticRequest);
     }
 
     /**
@@ -81,8 +72,10 @@ public class PortStatsCollector {
      */
     public synchronized void stop() {
         log.info("Stopping Port Stats collection thread for {}", sw.getStringId());
-        task.cancel();
-        task = null;
+        if (poll != null) {
+            poll.cancel();
+            poll = null;
+        }
     }
 
     /**
@@ -92,24 +85,21 @@ public class PortStatsCollector {
      */
     public synchronized void adjustPollInterval(int pollInterval) {
         this.refreshInterval = pollInterval;
-        task.cancel();
-        task = new InternalTimerTask();
-        timer.scheduleAtFixedRate(task, refreshInterval * SECONDS,
-                                  refreshInterval * SECONDS);
+        if (poll != null) {
+            poll.setInterval(refreshInterval * SECONDS);
+        }
     }
 
     /**
-     * Sends port statistic request to switch.
+     * Builds the port statistic request of a poll round.
      */
-    private void sendPortStatisticRequest() {
+    private Collection<OFStatsRequest<?>> portStatisticRequest() {
         if (sw.getRole() != RoleState.MASTER) {
-            return;
+            return ImmutableList.of();
         }
-        Long statsXid = xidAtomic.getAndIncrement();
-        OFPortStatsRequest statsRequest = sw.factory().buildPortStatsRequest()
+        // Transaction id is assigned by the statistics timeline
+        return ImmutableList.of(sw.factory().buildPortStatsRequest()
                 .setPortNo(OFPort.ANY)
-                .setXid(statsXid)
-                .build();
-        sw.sendMsg(statsRequest);
+                .build());
     }
-}
\ No newline at end of file
+}
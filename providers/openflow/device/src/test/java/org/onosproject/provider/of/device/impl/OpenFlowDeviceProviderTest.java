@@ -42,6 +42,8 @@ import org.onosproject.openflow.controller.OpenFlowClassifierListener;
 import org.onosproject.openflow.controller.OpenFlowController;
 import org.onosproject.openflow.controller.OpenFlowEventListener;
 import org.onosproject.openflow.controller.OpenFlowMessageListener;
+import org.onosproject.openflow.controller.OpenFlowStatsPoll;
+import org.onosproject.openflow.controller.OpenFlowStatsPollAdapter;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.OpenFlowSwitchListener;
 import org.onosproject.openflow.controller.PacketListener;
@@ -52,6 +54,7 @@ import org.projectfloodlight.openflow.protocol.OFMeterFeatures;
 import org.projectfloodlight.openflow.protocol.OFPortDesc;
 import org.projectfloodlight.openflow.protocol.OFPortReason;
 import org.projectfloodlight.openflow.protocol.OFPortStatus;
+import org.projectfloodlight.openflow.protocol.OFStatsRequest;
 import org.projectfloodlight.openflow.protocol.ver10.OFFactoryVer10;
 import org.projectfloodlight.openflow.types.OFPort;
 
@@ -63,6 +66,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static org.junit.Assert.*;
 import static org.onosproject.net.Device.Type.SWITCH;
@@ -326,6 +330,12 @@ public class OpenFlowDeviceProviderTest {
             return null;
         }
 
+        @Override
+        public OpenFlowStatsPoll schedulePoll(Dpid dpid, long intervalMillis,
+                                              Supplier<Collection<OFStatsRequest<?>>> requests) {
+            return new OpenFlowStatsPollAdapter();
+        }
+
         @Override
         public void processPacket(Dpid dpid, OFMessage msg) {
         }
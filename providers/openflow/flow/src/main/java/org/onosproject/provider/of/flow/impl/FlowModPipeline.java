@@ -0,0 +1,413 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.of.flow.impl;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.openflow.controller.OpenFlowSwitch;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.slf4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Per-switch pipeline of flow mods with a bounded window of outstanding
+ * barriers.
+ * <p>
+ * Flow mods of a batch are split in chunks of at most a given size, each
+ * followed by a barrier request carrying the batch ID as transaction ID.
+ * Only up to window chunks are left waiting for their barrier reply, the
+ * others are queued until a reply is received. The window starts at the
+ * configured maximum and is halved when the barrier round-trip time per flow
+ * mod of (mostly) full chunks inflates above twice the minimum observed, i.e.
+ * when the switch is queueing; it is then grown back by one chunk per round
+ * of replies.
+ * <p>
+ * Messages are taken off the queue under the pipeline lock, but handed to
+ * the switch after releasing it, one sender at a time so that they reach the
+ * switch in the order they left the queue.
+ */
+final class FlowModPipeline {
+
+    private static final Logger log = getLogger(FlowModPipeline.class);
+
+    static final String METRIC_COMPONENT = "OpenFlowRuleProvider";
+    private static final String INSTALL_RATE = "installRate";
+    private static final String BARRIER_RTT = "barrierRtt";
+    private static final String QUEUE_DEPTH = "queueDepth";
+
+    private static final double RTT_INFLATION = 2.0;
+
+    private final OpenFlowSwitch sw;
+    private final Listener listener;
+    private final MetricsService metricsService;
+    private final MetricsComponent metricsComponent;
+    private final MetricsFeature metricsFeature;
+    private final Meter installRate;
+    private final Timer barrierRtt;
+
+    // Guarded by this.
+    private final Deque<Chunk> queue = new ArrayDeque<>();
+    private final Deque<Chunk> outstanding = new ArrayDeque<>();
+    private int chunkSize;
+    private int maxWindow;
+    private int window;
+    private int queuedMods;
+    private int replies;
+    private double minRttPerMod;
+    private double smoothedRttPerMod;
+
+    private final Queue<Send> outbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    /**
+     * Receives the progress of batches through the pipeline.
+     */
+    interface Listener {
+
+        /**
+         * Signals that the first flow mods of a batch are about to be sent to
+         * the switch.
+         *
+         * @param batchId batch ID
+         */
+        void sending(long batchId);
+
+        /**
+         * Signals that a batch has been dropped before any of its flow mods
+         * was sent to the switch, because the pipeline was closed.
+         *
+         * @param batchId batch ID
+         */
+        void dropped(long batchId);
+    }
+
+    /**
+     * Creates a new pipeline for the given switch.
+     *
+     * @param sw             OpenFlow switch
+     * @param chunkSize      maximum number of flow mods per barrier
+     * @param maxWindow      maximum number of outstanding barriers
+     * @param metricsService metrics service, or null if not available
+     * @param listener       listener of batch progress
+     */
+    FlowModPipeline(OpenFlowSwitch sw, int chunkSize, int maxWindow,
+                    MetricsService metricsService, Listener listener) {
+        this.sw = sw;
+        this.listener = listener;
+        configure(chunkSize, maxWindow);
+        this.metricsService = metricsService;
+        if (metricsService != null) {
+            metricsComponent = metricsService.registerComponent(METRIC_COMPONENT);
+            metricsFeature = metricsComponent.registerFeature(sw.getStringId());
+            installRate = metricsService.createMeter(
+                    metricsComponent, metricsFeature, INSTALL_RATE);
+            barrierRtt = metricsService.createTimer(
+                    metricsComponent, metricsFeature, BARRIER_RTT);
+            // Replace gauge left behind by a previous pipeline, if any.
+            metricsService.removeMetric(metricsComponent, metricsFeature, QUEUE_DEPTH);
+            metricsService.registerMetric(metricsComponent, metricsFeature, QUEUE_DEPTH,
+                                          (Gauge<Integer>) this::queueDepth);
+        } else {
+            metricsComponent = null;
+            metricsFeature = null;
+            installRate = null;
+            barrierRtt = null;
+        }
+    }
+
+    /**
+     * Changes chunk size and maximum window of this pipeline. The current
+     * window is reset to the new maximum.
+     *
+     * @param chunkSize maximum number of flow mods per barrier
+     * @param maxWindow maximum number of outstanding barriers
+     */
+    void configure(int chunkSize, int maxWindow) {
+        checkArgument(chunkSize > 0, "chunkSize must be greater than 0");
+        checkArgument(maxWindow > 0, "maxWindow must be greater than 0");
+        synchronized (this) {
+            this.chunkSize = chunkSize;
+            this.maxWindow = maxWindow;
+            this.window = maxWindow;
+            this.replies = 0;
+            drain();
+        }
+        flush();
+    }
+
+    /**
+     * Returns the switch served by this pipeline.
+     *
+     * @return OpenFlow switch
+     */
+    OpenFlowSwitch sw() {
+        return sw;
+    }
+
+    /**
+     * Returns the number of barriers that will be sent for a batch with the
+     * given number of flow mods.
+     *
+     * @param modCount number of flow mods
+     * @return number of barriers
+     */
+    synchronized int barrierCount(int modCount) {
+        return modCount == 0 ? 1 : (modCount + chunkSize - 1) / chunkSize;
+    }
+
+    /**
+     * Enqueues the given flow mods, sending them right away if the window
+     * allows it.
+     *
+     * @param batchId batch ID, used as transaction ID of barriers
+     * @param mods    flow mods
+     */
+    void submit(long batchId, List<? extends OFMessage> mods) {
+        synchronized (this) {
+            if (mods.isEmpty()) {
+                enqueue(new Chunk(batchId, true, ImmutableList.of()));
+            } else {
+                List<? extends List<? extends OFMessage>> parts = Lists.partition(mods, chunkSize);
+                for (int i = 0; i < parts.size(); i++) {
+                    enqueue(new Chunk(batchId, i == 0, ImmutableList.copyOf(parts.get(i))));
+                }
+            }
+            drain();
+        }
+        flush();
+    }
+
+    private void enqueue(Chunk chunk) {
+        queue.add(chunk);
+        queuedMods += chunk.mods.size();
+    }
+
+    /**
+     * Signals that a barrier reply with the given transaction ID has been
+     * received from the switch, possibly sending more flow mods.
+     *
+     * @param xid transaction ID
+     */
+    void barrierReplied(long xid) {
+        if (replied(xid)) {
+            flush();
+        } else {
+            log.debug("Barrier reply {} from {} is not in the pipeline", xid, sw.getStringId());
+        }
+    }
+
+    private synchronized boolean replied(long xid) {
+        final long now = System.nanoTime();
+        // Barrier replies come in order, look for the oldest match.
+        final Iterator<Chunk> it = outstanding.iterator();
+        while (it.hasNext()) {
+            final Chunk chunk = it.next();
+            if (chunk.batchId == xid) {
+                it.remove();
+                replied(chunk, now - chunk.sentAt);
+                drain();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops all queued and outstanding chunks of the given batch, e.g. when
+     * it expired.
+     *
+     * @param batchId batch ID
+     */
+    void cancel(long batchId) {
+        synchronized (this) {
+            queue.removeIf(chunk -> {
+                if (chunk.batchId == batchId) {
+                    queuedMods -= chunk.mods.size();
+                    return true;
+                }
+                return false;
+            });
+            outstanding.removeIf(chunk -> chunk.batchId == batchId);
+            drain();
+        }
+        flush();
+    }
+
+    /**
+     * Drops all chunks and unregisters metrics of this pipeline. Batches
+     * none of whose flow mods were sent are reported as dropped to the
+     * listener.
+     */
+    void close() {
+        final List<Long> dropped = Lists.newArrayList();
+        synchronized (this) {
+            queue.stream().filter(chunk -> chunk.first)
+                    .forEach(chunk -> dropped.add(chunk.batchId));
+            queue.clear();
+            outstanding.clear();
+            queuedMods = 0;
+        }
+        if (metricsService != null) {
+            metricsService.removeMetric(metricsComponent, metricsFeature, INSTALL_RATE);
+            metricsService.removeMetric(metricsComponent, metricsFeature, BARRIER_RTT);
+            metricsService.removeMetric(metricsComponent, metricsFeature, QUEUE_DEPTH);
+        }
+        dropped.forEach(listener::dropped);
+    }
+
+    /**
+     * Returns the number of flow mods queued and not yet sent to the switch.
+     *
+     * @return queue depth
+     */
+    synchronized int queueDepth() {
+        return queuedMods;
+    }
+
+    /**
+     * Returns the current window of outstanding barriers.
+     *
+     * @return window
+     */
+    synchronized int window() {
+        return window;
+    }
+
+    private void replied(Chunk chunk, long rttNanos) {
+        if (installRate != null) {
+            installRate.mark(chunk.mods.size());
+            barrierRtt.update(rttNanos, TimeUnit.NANOSECONDS);
+        }
+        if (chunk.mods.size() * 2 < chunkSize) {
+            // Fixed per-barrier costs dominate the round-trip time of small
+            // chunks, which is hence not comparable; skip it.
+            return;
+        }
+        final double rttPerMod = (double) rttNanos / chunk.mods.size();
+        if (smoothedRttPerMod == 0) {
+            minRttPerMod = rttPerMod;
+            smoothedRttPerMod = rttPerMod;
+        } else {
+            minRttPerMod = Math.min(minRttPerMod, rttPerMod);
+            smoothedRttPerMod += (rttPerMod - smoothedRttPerMod) / 8;
+        }
+        // Adapt the window once per round of replies.
+        if (++replies < window) {
+            return;
+        }
+        replies = 0;
+        if (smoothedRttPerMod > RTT_INFLATION * minRttPerMod) {
+            window = Math.max(1, window / 2);
+        } else if (window < maxWindow) {
+            window++;
+        }
+    }
+
+    // Moves chunks allowed by the window from the queue to the outbox.
+    // Called with the lock held.
+    private void drain() {
+        if (queue.isEmpty() || outstanding.size() >= window) {
+            return;
+        }
+        final Send send = new Send();
+        final long now = System.nanoTime();
+        while (!queue.isEmpty() && outstanding.size() < window) {
+            final Chunk chunk = queue.poll();
+            queuedMods -= chunk.mods.size();
+            chunk.sentAt = now;
+            outstanding.add(chunk);
+            if (chunk.first) {
+                send.started.add(chunk.batchId);
+            }
+            send.msgs.addAll(chunk.mods);
+            send.msgs.add(sw.factory().buildBarrierRequest()
+                                  .setXid(chunk.batchId)
+                                  .build());
+        }
+        outbox.add(send);
+    }
+
+    // Hands the outbox to the switch. Called without the lock held.
+    private void flush() {
+        // One sender at a time; the outer loop re-checks the outbox in case
+        // another thread added to it while the sender was giving up its role.
+        while (!outbox.isEmpty() && flushing.compareAndSet(false, true)) {
+            try {
+                Send send;
+                while ((send = outbox.poll()) != null) {
+                    send.started.forEach(listener::sending);
+                    sw.sendMsg(send.msgs);
+                }
+            } finally {
+                flushing.set(false);
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return toStringHelper(this)
+                .add("switch", sw.getStringId())
+                .add("window", window)
+                .add("outstanding", outstanding.size())
+                .add("queuedMods", queuedMods)
+                .toString();
+    }
+
+    /**
+     * Flow mods followed by the same barrier.
+     */
+    private static final class Chunk {
+
+        private final long batchId;
+        private final boolean first;
+        private final List<OFMessage> mods;
+        private long sentAt;
+
+        private Chunk(long batchId, boolean first, List<OFMessage> mods) {
+            this.batchId = batchId;
+            this.first = first;
+            this.mods = mods;
+        }
+    }
+
+    /**
+     * Messages taken off the queue together.
+     */
+    private static final class Send {
+
+        private final List<Long> started = Lists.newArrayList();
+        private final List<OFMessage> msgs = Lists.newArrayList();
+    }
+}
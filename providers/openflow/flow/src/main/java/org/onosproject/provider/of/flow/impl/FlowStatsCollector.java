@@ -17,20 +17,25 @@ package org.onosproject.provider.of.flow.impl;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.collect.ImmutableList;
 import org.onlab.util.SlidingWindowCounter;
+import org.onosproject.openflow.controller.Dpid;
+import org.onosproject.openflow.controller.OpenFlowController;
+import org.onosproject.openflow.controller.OpenFlowStatsPoll;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.RoleState;
 import org.projectfloodlight.openflow.protocol.OFFlowStatsRequest;
+import org.projectfloodlight.openflow.protocol.OFStatsRequest;
 import org.projectfloodlight.openflow.types.OFPort;
 import org.projectfloodlight.openflow.types.TableId;
 import org.slf4j.Logger;
 
+import java.util.Collection;
 import java.util.TimerTask;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.lang.Math.max;
 import static java.lang.Math.min;
@@ -59,18 +64,15 @@ class FlowStatsCollector implements SwitchDataCollector {
     private static final int MAX_LOAD_RATE = 500;
 
     private final OpenFlowSwitch sw;
+    private final OpenFlowController controller;
     private ScheduledExecutorService executorService;
     private TimerTask pauseTask;
     private ScheduledFuture<?> scheduledPauseTask;
-    private TimerTask pollTask;
-    private ScheduledFuture<?> scheduledPollTask;
+    private OpenFlowStatsPoll poll;
 
     private SlidingWindowCounter loadCounter;
     // Defines whether the collector is in pause or not for high load
     private final AtomicBoolean paused = new AtomicBoolean();
-    // Defines whether the collector is in waiting or not for a previous stats reply
-    private static final int WAITING_ATTEMPTS = 5;
-    private final AtomicInteger waiting = new AtomicInteger(0);
 
     private int pollInterval;
 
@@ -78,11 +80,14 @@ class FlowStatsCollector implements SwitchDataCollector {
      * Creates a new collector for the given switch and poll frequency.
      *
      * @param executorService executor used for scheduling
+     * @param controller controller whose statistics timeline schedules the polls
      * @param sw switch to pull
      * @param pollInterval poll frequency in seconds
      */
-    FlowStatsCollector(ScheduledExecutorService executorService, OpenFlowSwitch sw, int pollInterval) {
+    FlowStatsCollector(ScheduledExecutorService executorService, OpenFlowController controller,
+                       OpenFlowSwitch sw, int pollInterval) {
         this.executorService = executorService;
+        this.controller = controller;
         this.sw = checkNotNull(sw, "Null switch");
         this.pollInterval = pollInterval;
     }
@@ -94,19 +99,10 @@ class FlowStatsCollector implements SwitchDataCollector {
      */
     synchronized void adjustPollInterval(int pollInterval) {
         this.pollInterval = pollInterval;
-        if (pollTask != null) {
-            pollTask.cancel();
+        // If we went through start - let's reschedule it
+        if (poll != null && pollInterval > 0) {
+            poll.setInterval(pollInterval * MS);
         }
-        if (scheduledPollTask != null) {
-            scheduledPollTask.cancel(false);
-        }
-        // If we went through start - let's schedule it
-        if (loadCounter != null) {
-            pollTask = new PollTimerTask();
-            scheduledPollTask = executorService.scheduleAtFixedRate(pollTask, pollInterval * MS,
-                                                pollInterval * MS, TimeUnit.MILLISECONDS);
-        }
-        waiting.set(0);
     }
 
     /**
@@ -118,9 +114,6 @@ class FlowStatsCollector implements SwitchDataCollector {
         if (paused.compareAndSet(true, false)) {
             resume();
         }
-        // Let's reset also waiting, the reply can be discarded/lost
-        // during a change of mastership
-        waiting.set(0);
     }
 
     /**
@@ -176,77 +169,72 @@ class FlowStatsCollector implements SwitchDataCollector {
         }
     }
 
-    private class PollTimerTask extends TimerTask {
-        @Override
-        public void run() {
-            // Check whether we are still waiting a previous reply
-            if (waiting.getAndDecrement() > 0) {
-                log.debug("Skipping stats collection for {} waiting for previous reply", sw.getStringId());
-                return;
-            }
-            // Check whether we are the master of the switch
-            if (sw.getRole() == RoleState.MASTER) {
-                // Check whether the switch is under high load from this master. This is done here in case a large
-                // batch was pushed immediately prior to this task running.
-                if (isHighLoad()) {
-                    log.debug("Skipping stats collection for {} due to high load; rate: {}; overall: {}",
-                              sw.getStringId(),
-                              loadCounter.getWindowRate(PAUSE_WINDOW),
-                              loadCounter.getWindowRate(HIGH_WINDOW));
-                    return;
-                } else {
-                    log.debug(
-                        "Permitting stats collection for {}; rate: {}; overall: {}",
-                        sw.getStringId(),
-                        loadCounter.getWindowRate(PAUSE_WINDOW),
-                        loadCounter.getWindowRate(HIGH_WINDOW));
-                }
-
-                log.trace("Collecting stats for {}", sw.getStringId());
-                OFFlowStatsRequest request = sw.factory().buildFlowStatsRequest()
-                        .setMatch(sw.factory().matchWildcardAll())
-                        .setTableId(TableId.ALL)
-                        .setOutPort(OFPort.NO_MASK)
-                        .build();
-                sw.sendMsg(request);
-                // Other flow stats will not be asked
-                // if we don't see first the reply of this request
-                waiting.set(WAITING_ATTEMPTS);
-            }
+    // Builds the request of a poll round; the statistics timeline
+    // already holds the round back while a previous reply is pending
+    private Collection<OFStatsRequest<?>> pollRequests() {
+        if (paused.get()) {
+            return ImmutableList.of();
+        }
+        // Check whether we are the master of the switch
+        if (sw.getRole() != RoleState.MASTER) {
+            return ImmutableList.of();
+        }
+        // Check whether the switch is under high load from this master. This is done here in case a large
+        // batch was pushed immediately prior to this round.
+        SlidingWindowCounter loadCounter = this.loadCounter;
+        if (loadCounter != null && isHighLoad()) {
+            log.debug("Skipping stats collection for {} due to high load; rate: {}; overall: {}",
+                      sw.getStringId(),
+                      loadCounter.getWindowRate(PAUSE_WINDOW),
+                      loadCounter.getWindowRate(HIGH_WINDOW));
+            return ImmutableList.of();
+        } else if (loadCounter != null) {
+            log.debug(
+                "Permitting stats collection for {}; rate: {}; overall: {}",
+                sw.getStringId(),
+                loadCounter.getWindowRate(PAUSE_WINDOW),
+                loadCounter.getWindowRate(HIGH_WINDOW));
         }
+
+        log.trace("Collecting stats for {}", sw.getStringId());
+        return ImmutableList.of(flowStatsRequest());
+    }
+
+    private OFFlowStatsRequest flowStatsRequest() {
+        return sw.factory().buildFlowStatsRequest()
+                .setMatch(sw.factory().matchWildcardAll())
+                .setTableId(TableId.ALL)
+                .setOutPort(OFPort.NO_MASK)
+                .build();
     }
 
     public synchronized void start() {
         log.debug("Starting Stats collection thread for {}", sw.getStringId());
         loadCounter = new SlidingWindowCounter(HIGH_WINDOW);
         if (pollInterval > 0) {
-            pauseTask = new PauseTimerTask();
-            scheduledPauseTask = executorService.scheduleAtFixedRate(pauseTask, 1 * MS,
-                    1 * MS, TimeUnit.MILLISECONDS);
-            pollTask = new PollTimerTask();
-            // Initially start polling quickly. Then drop down to configured value
-            scheduledPollTask = executorService.scheduleAtFixedRate(pollTask, 1 * MS,
-                    pollInterval * MS, TimeUnit.MILLISECONDS);
+            if (scheduledPauseTask == null) {
+                pauseTask = new PauseTimerTask();
+                scheduledPauseTask = executorService.scheduleAtFixedRate(pauseTask, 1 * MS,
+                        1 * MS, TimeUnit.MILLISECONDS);
+            }
+            if (poll != null) {
+                poll.cancel();
+            }
+            // Polls of all the collectors of the switch share its statistics timeline
+            poll = controller.schedulePoll(new Dpid(sw.getId()), pollInterval * MS, this::pollRequests);
         } else {
             // Trigger the poll only once
-            pollTask = new PollTimerTask();
-            executorService.schedule(pollTask, 0, TimeUnit.MILLISECONDS);
+            executorService.schedule(() -> pollRequests().forEach(sw::sendMsg),
+                                     0, TimeUnit.MILLISECONDS);
         }
     }
 
+    // Rounds of the poll are skipped while paused
     private synchronized void pause() {
-        if (pollTask != null) {
-            log.debug("Pausing stats collection for {}; rate: {}; overall: {}",
-                      sw.getStringId(),
-                      loadCounter.getWindowRate(PAUSE_WINDOW),
-                      loadCounter.getWindowRate(HIGH_WINDOW));
-            pollTask.cancel();
-            pollTask = null;
-        }
-        if (scheduledPollTask != null) {
-            scheduledPollTask.cancel(false);
-            scheduledPollTask = null;
-        }
+        log.debug("Pausing stats collection for {}; rate: {}; overall: {}",
+                  sw.getStringId(),
+                  loadCounter.getWindowRate(PAUSE_WINDOW),
+                  loadCounter.getWindowRate(HIGH_WINDOW));
     }
 
     private synchronized void resume() {
@@ -254,9 +242,6 @@ class FlowStatsCollector implements SwitchDataCollector {
                   sw.getStringId(),
                   loadCounter.getWindowRate(PAUSE_WINDOW),
                   loadCounter.getWindowRate(HIGH_WINDOW));
-        pollTask = new PollTimerTask();
-        scheduledPollTask = executorService.scheduleAtFixedRate(pollTask, pollInterval * MS,
-                                            pollInterval * MS, TimeUnit.MILLISECONDS);
     }
 
     public synchronized void stop() {
@@ -268,14 +253,10 @@ class FlowStatsCollector implements SwitchDataCollector {
             scheduledPauseTask.cancel(false);
             scheduledPauseTask = null;
         }
-        if (pollTask != null) {
+        if (poll != null) {
             log.debug("Stopping Stats collection thread for {}", sw.getStringId());
-            pollTask.cancel();
-            pollTask = null;
-        }
-        if (scheduledPollTask != null) {
-            scheduledPollTask.cancel(false);
-            scheduledPollTask = null;
+            poll.cancel();
+            poll = null;
         }
         if (loadCounter != null) {
             loadCounter.destroy();
@@ -283,8 +264,4 @@ class FlowStatsCollector implements SwitchDataCollector {
         }
     }
 
-    public void received() {
-        waiting.set(0);
-    }
-
 }
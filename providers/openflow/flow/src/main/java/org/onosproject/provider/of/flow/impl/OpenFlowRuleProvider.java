@@ -25,6 +25,8 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import org.onlab.metrics.MetricsService;
+import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.driver.DefaultDriverData;
@@ -60,8 +62,8 @@ import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.projectfloodlight.openflow.protocol.OFBadRequestCode;
-import org.projectfloodlight.openflow.protocol.OFBarrierRequest;
 import org.projectfloodlight.openflow.protocol.OFCapabilities;
 import org.projectfloodlight.openflow.protocol.OFErrorMsg;
 import org.projectfloodlight.openflow.protocol.OFFlowLightweightStatsReply;
@@ -95,6 +97,7 @@ import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -103,6 +106,10 @@ import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.onlab.util.Tools.get;
 import static org.onosproject.provider.of.flow.impl.OsgiPropertyConstants.ADAPTIVE_FLOW_SAMPLING;
 import static org.onosproject.provider.of.flow.impl.OsgiPropertyConstants.ADAPTIVE_FLOW_SAMPLING_DEFAULT;
+import static org.onosproject.provider.of.flow.impl.OsgiPropertyConstants.FLOW_MODS_PER_BARRIER;
+import static org.onosproject.provider.of.flow.impl.OsgiPropertyConstants.FLOW_MODS_PER_BARRIER_DEFAULT;
+import static org.onosproject.provider.of.flow.impl.OsgiPropertyConstants.MAX_OUTSTANDING_BARRIERS;
+import static org.onosproject.provider.of.flow.impl.OsgiPropertyConstants.MAX_OUTSTANDING_BARRIERS_DEFAULT;
 import static org.onosproject.provider.of.flow.impl.OsgiPropertyConstants.POLL_FREQUENCY;
 import static org.onosproject.provider.of.flow.impl.OsgiPropertyConstants.POLL_FREQUENCY_DEFAULT;
 import static org.onosproject.provider.of.flow.impl.OsgiPropertyConstants.POLL_STATS_PERIODICALLY;
@@ -118,6 +125,8 @@ import static org.slf4j.LoggerFactory.getLogger;
         property = {
                 POLL_FREQUENCY + ":Integer=" + POLL_FREQUENCY_DEFAULT,
                 ADAPTIVE_FLOW_SAMPLING + ":Boolean=" + ADAPTIVE_FLOW_SAMPLING_DEFAULT,
+                FLOW_MODS_PER_BARRIER + ":Integer=" + FLOW_MODS_PER_BARRIER_DEFAULT,
+                MAX_OUTSTANDING_BARRIERS + ":Integer=" + MAX_OUTSTANDING_BARRIERS_DEFAULT,
         })
 public class OpenFlowRuleProvider extends AbstractProvider
         implements FlowRuleProvider {
@@ -136,6 +145,10 @@ public class OpenFlowRuleProvider extends AbstractProvider
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected DriverService driverService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL,
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile MetricsService metricsService;
+
     private static final int MIN_EXPECTED_BYTE_LEN = 56;
     private static final int SKIP_BYTES = 4;
 
@@ -148,12 +161,28 @@ public class OpenFlowRuleProvider extends AbstractProvider
     /** Poll Stats Periodically ON/OFF. */
     private boolean pollStatsPeriodically = POLL_STATS_PERIODICALLY_DEFAULT;
 
+    /** Maximum number of flow mods sent before each barrier request. */
+    private int flowModsPerBarrier = FLOW_MODS_PER_BARRIER_DEFAULT;
+
+    /** Maximum number of outstanding barrier requests per switch. */
+    private int maxOutstandingBarriers = MAX_OUTSTANDING_BARRIERS_DEFAULT;
+
     private FlowRuleProviderService providerService;
 
     private final InternalFlowProvider listener = new InternalFlowProvider();
 
+    // Batches with flow mods sent to the switch; they expire some time
+    // after their first flow mods were sent.
     private Cache<Long, InternalCacheEntry> pendingBatches;
 
+    // Batches still queued in their switch pipeline, none of their flow mods
+    // sent yet.
+    private final Map<Long, InternalCacheEntry> queuedBatches = Maps.newConcurrentMap();
+
+    private final Map<Dpid, FlowModPipeline> pipelines = Maps.newConcurrentMap();
+
+    private final FlowModPipeline.Listener pipelineListener = new InternalPipelineListener();
+
     private ScheduledExecutorService executorService = newScheduledThreadPool(1,
                                    groupedThreads("onos/of", "collector-%d", log));
 
@@ -194,6 +223,8 @@ public class OpenFlowRuleProvider extends AbstractProvider
     protected void deactivate(ComponentContext context) {
         cfgService.unregisterProperties(getClass(), false);
         stopCollectors();
+        pipelines.values().forEach(FlowModPipeline::close);
+        pipelines.clear();
         providerRegistry.unregister(this);
         providerService = null;
         executorService.shutdown();
@@ -244,6 +275,23 @@ public class OpenFlowRuleProvider extends AbstractProvider
             }
         }
         log.info("Settings: pollStatsPeriodically={}", pollStatsPeriodically);
+
+        int newFlowModsPerBarrier = Tools.getIntegerProperty(
+                properties, FLOW_MODS_PER_BARRIER, FLOW_MODS_PER_BARRIER_DEFAULT);
+        int newMaxOutstandingBarriers = Tools.getIntegerProperty(
+                properties, MAX_OUTSTANDING_BARRIERS, MAX_OUTSTANDING_BARRIERS_DEFAULT);
+        if (newFlowModsPerBarrier <= 0 || newMaxOutstandingBarriers <= 0) {
+            log.warn("{} and {} must be greater than 0, ignoring {} and {}",
+                     FLOW_MODS_PER_BARRIER, MAX_OUTSTANDING_BARRIERS,
+                     newFlowModsPerBarrier, newMaxOutstandingBarriers);
+        } else if (newFlowModsPerBarrier != flowModsPerBarrier
+                || newMaxOutstandingBarriers != maxOutstandingBarriers) {
+            flowModsPerBarrier = newFlowModsPerBarrier;
+            maxOutstandingBarriers = newMaxOutstandingBarriers;
+            pipelines.values().forEach(p -> p.configure(flowModsPerBarrier, maxOutstandingBarriers));
+        }
+        log.info("Settings: flowModsPerBarrier={}, maxOutstandingBarriers={}",
+                 flowModsPerBarrier, maxOutstandingBarriers);
     }
 
     private Cache<Long, InternalCacheEntry> createBatchCache() {
@@ -251,6 +299,12 @@ public class OpenFlowRuleProvider extends AbstractProvider
                 .expireAfterWrite(10, TimeUnit.SECONDS)
                 .removalListener((RemovalNotification<Long, InternalCacheEntry> notification) -> {
                     if (notification.getCause() == RemovalCause.EXPIRED) {
+                        // Stop sending what is left of the batch.
+                        FlowModPipeline pipeline = pipelines.get(
+                                Dpid.dpid(notification.getValue().operation.deviceId().uri()));
+                        if (pipeline != null) {
+                            pipeline.cancel(notification.getKey());
+                        }
                         providerService.batchOperationCompleted(notification.getKey(),
                                                                 notification.getValue().failedCompletion());
                     }
@@ -273,13 +327,14 @@ public class OpenFlowRuleProvider extends AbstractProvider
                 stopCollectorIfNeeded(afsCollectors.put(new Dpid(sw.getId()), fsc));
                 fsc.start();
             } else {
-                FlowStatsCollector fsc = new FlowStatsCollector(executorService, sw, flowPollFrequency);
+                FlowStatsCollector fsc = new FlowStatsCollector(executorService, controller, sw, flowPollFrequency);
                 stopCollectorIfNeeded(simpleCollectors.put(new Dpid(sw.getId()), fsc));
                 fsc.start();
             }
         }
         if (sw.features().getCapabilities().contains(OFCapabilities.TABLE_STATS)) {
-            TableStatisticsCollector tsc = new TableStatisticsCollector(executorService, sw, flowPollFrequency);
+            TableStatisticsCollector tsc =
+                    new TableStatisticsCollector(executorService, controller, sw, flowPollFrequency);
             stopCollectorIfNeeded(tableStatsCollectors.put(new Dpid(sw.getId()), tsc));
             tsc.start();
         }
@@ -404,7 +459,6 @@ public class OpenFlowRuleProvider extends AbstractProvider
                                                     new CompletedBatchOperation(false, failures, batch.deviceId()));
             return;
         }
-        pendingBatches.put(batch.id(), new InternalCacheEntry(batch));
         // Build a batch of flow mods - to reduce the number i/o asked to the SO
         Set<OFFlowMod> mods = Sets.newHashSet();
         OFFlowMod mod;
@@ -431,13 +485,28 @@ public class OpenFlowRuleProvider extends AbstractProvider
         }
         // Build a list to mantain the order
         List<OFMessage> modsTosend = Lists.newArrayList(mods);
-        OFBarrierRequest.Builder builder = sw.factory().buildBarrierRequest()
-                .setXid(batch.id());
-        // Adds finally the barrier request
-        modsTosend.add(builder.build());
-        sw.sendMsg(modsTosend);
-        // Take into account also the barrier request
-        recordEvents(dpid, (batch.getOperations().size() + 1));
+        // Hand mods to the switch pipeline, which sends them in chunks, each
+        // followed by a barrier request, as the window allows.
+        FlowModPipeline pipeline = pipeline(dpid, sw);
+        int barriers = pipeline.barrierCount(modsTosend.size());
+        queuedBatches.put(batch.id(), new InternalCacheEntry(batch, barriers));
+        pipeline.submit(batch.id(), modsTosend);
+        // Take into account also the barrier requests
+        recordEvents(dpid, (batch.getOperations().size() + barriers));
+    }
+
+    private FlowModPipeline pipeline(Dpid dpid, OpenFlowSwitch sw) {
+        return pipelines.compute(dpid, (k, existing) -> {
+            if (existing != null && existing.sw() == sw) {
+                return existing;
+            }
+            if (existing != null) {
+                // Switch has reconnected.
+                existing.close();
+            }
+            return new FlowModPipeline(sw, flowModsPerBarrier, maxOutstandingBarriers,
+                                       metricsService, pipelineListener);
+        });
     }
 
     private void triggerStatsCollection(Dpid dpid) {
@@ -452,7 +521,7 @@ public class OpenFlowRuleProvider extends AbstractProvider
                 sdc = new NewAdaptiveFlowStatsCollector(driverService, sw, -1);
                 afsCollectors.put(dpid, (NewAdaptiveFlowStatsCollector) sdc);
             } else {
-                sdc = new FlowStatsCollector(executorService, sw, -1);
+                sdc = new FlowStatsCollector(executorService, controller, sw, -1);
                 simpleCollectors.put(dpid, (FlowStatsCollector) sdc);
             }
         }
@@ -460,12 +529,33 @@ public class OpenFlowRuleProvider extends AbstractProvider
 
         TableStatisticsCollector tsc = tableStatsCollectors.get(dpid);
         if (tsc == null) {
-            tsc = new TableStatisticsCollector(executorService, sw, -1);
+            tsc = new TableStatisticsCollector(executorService, controller, sw, -1);
             tableStatsCollectors.put(dpid, tsc);
         }
         tsc.start();
     }
 
+    private class InternalPipelineListener implements FlowModPipeline.Listener {
+
+        @Override
+        public void sending(long batchId) {
+            // Start the expiry only now, so that time spent waiting for the
+            // window of the pipeline does not count against the batch.
+            InternalCacheEntry entry = queuedBatches.remove(batchId);
+            if (entry != null) {
+                pendingBatches.put(batchId, entry);
+            }
+        }
+
+        @Override
+        public void dropped(long batchId) {
+            InternalCacheEntry entry = queuedBatches.remove(batchId);
+            if (entry != null && providerService != null) {
+                providerService.batchOperationCompleted(batchId, entry.failedCompletion());
+            }
+        }
+    }
+
     private class InternalFlowProvider
             implements OpenFlowSwitchListener, OpenFlowEventListener {
 
@@ -487,6 +577,10 @@ public class OpenFlowRuleProvider extends AbstractProvider
                 stopCollectorIfNeeded(simpleCollectors.remove(dpid));
             }
             stopCollectorIfNeeded(tableStatsCollectors.remove(dpid));
+            FlowModPipeline pipeline = pipelines.remove(dpid);
+            if (pipeline != null) {
+                pipeline.close();
+            }
         }
 
         @Override
@@ -514,16 +608,6 @@ public class OpenFlowRuleProvider extends AbstractProvider
                     break;
                 case STATS_REPLY:
                     if (((OFStatsReply) msg).getStatsType() == OFStatsType.FLOW) {
-                        // Let's unblock first the collector
-                        SwitchDataCollector collector;
-                        if (adaptiveFlowSampling) {
-                            collector = afsCollectors.get(dpid);
-                        } else {
-                            collector = simpleCollectors.get(dpid);
-                        }
-                        if (collector != null) {
-                            collector.received();
-                        }
                         pushFlowMetrics(dpid, (OFFlowStatsReply) msg, getDriver(deviceId));
                     } else if (((OFStatsReply) msg).getStatsType() == OFStatsType.TABLE) {
                         pushTableStatistics(dpid, (OFTableStatsReply) msg);
@@ -532,18 +616,24 @@ public class OpenFlowRuleProvider extends AbstractProvider
                     }
                     break;
                 case BARRIER_REPLY:
-                    try {
-                        InternalCacheEntry entry = pendingBatches.getIfPresent(msg.getXid());
-                        if (entry != null) {
+                    FlowModPipeline pipeline = pipelines.get(dpid);
+                    if (pipeline != null) {
+                        pipeline.barrierReplied(msg.getXid());
+                    }
+                    InternalCacheEntry entry = pendingBatches.getIfPresent(msg.getXid());
+                    if (entry == null) {
+                        log.warn("Received unknown Barrier Reply: {}",
+                                 msg.getXid());
+                        pendingBatches.invalidate(msg.getXid());
+                    } else if (entry.barrierReplied()) {
+                        // Last barrier of the batch, all mods processed.
+                        try {
                             providerService
                                     .batchOperationCompleted(msg.getXid(),
                                                              entry.completed());
-                        } else {
-                            log.warn("Received unknown Barrier Reply: {}",
-                                     msg.getXid());
+                        } finally {
+                            pendingBatches.invalidate(msg.getXid());
                         }
-                    } finally {
-                        pendingBatches.invalidate(msg.getXid());
                     }
                     break;
                 case ERROR:
@@ -834,9 +924,20 @@ public class OpenFlowRuleProvider extends AbstractProvider
 
         private final FlowRuleBatchOperation operation;
         private final Set<FlowRule> failures = Sets.newConcurrentHashSet();
+        private final AtomicInteger pendingBarriers;
 
-        public InternalCacheEntry(FlowRuleBatchOperation operation) {
+        public InternalCacheEntry(FlowRuleBatchOperation operation, int barriers) {
             this.operation = operation;
+            this.pendingBarriers = new AtomicInteger(barriers);
+        }
+
+        /**
+         * Accounts for a barrier reply received for this batch.
+         *
+         * @return true if that was the last barrier of the batch
+         */
+        public boolean barrierReplied() {
+            return pendingBarriers.decrementAndGet() == 0;
         }
 
         /**
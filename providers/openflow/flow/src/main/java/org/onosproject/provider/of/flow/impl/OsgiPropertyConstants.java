@@ -26,9 +26,13 @@ public final class OsgiPropertyConstants {
     public static final String POLL_FREQUENCY = "flowPollFrequency";
     public static final String ADAPTIVE_FLOW_SAMPLING = "adaptiveFlowSampling";
     public static final String POLL_STATS_PERIODICALLY = "pollStatsPeriodically";
+    public static final String FLOW_MODS_PER_BARRIER = "flowModsPerBarrier";
+    public static final String MAX_OUTSTANDING_BARRIERS = "maxOutstandingBarriers";
 
     public static final int POLL_FREQUENCY_DEFAULT = 5;
     public static final boolean ADAPTIVE_FLOW_SAMPLING_DEFAULT = false;
     public static final boolean POLL_STATS_PERIODICALLY_DEFAULT = true;
+    public static final int FLOW_MODS_PER_BARRIER_DEFAULT = 1000;
+    public static final int MAX_OUTSTANDING_BARRIERS_DEFAULT = 8;
 
 }
@@ -15,14 +15,17 @@
  */
 package org.onosproject.provider.of.flow.impl;
 
+import com.google.common.collect.ImmutableList;
+import org.onosproject.openflow.controller.Dpid;
+import org.onosproject.openflow.controller.OpenFlowController;
+import org.onosproject.openflow.controller.OpenFlowStatsPoll;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.RoleState;
-import org.projectfloodlight.openflow.protocol.OFTableStatsRequest;
+import org.projectfloodlight.openflow.protocol.OFStatsRequest;
 import org.slf4j.Logger;
 
-import java.util.TimerTask;
+import java.util.Collection;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import static org.slf4j.LoggerFactory.getLogger;
@@ -37,9 +40,9 @@ class TableStatisticsCollector implements SwitchDataCollector {
     public static final long MS = 1000;
 
     private final OpenFlowSwitch sw;
+    private final OpenFlowController controller;
     private ScheduledExecutorService executorService;
-    private TimerTask task;
-    private ScheduledFuture<?> scheduledTask;
+    private OpenFlowStatsPoll poll;
 
     private int pollInterval;
 
@@ -47,11 +50,14 @@ class TableStatisticsCollector implements SwitchDataCollector {
      * Creates a new table statistics collector for the given switch and poll frequency.
      *
      * @param executorService executor used for scheduling
+     * @param controller controller whose statistics timeline schedules the polls
      * @param sw switch to pull
      * @param pollInterval poll frequency in seconds
      */
-    TableStatisticsCollector(ScheduledExecutorService executorService, OpenFlowSwitch sw, int pollInterval) {
+    TableStatisticsCollector(ScheduledExecutorService executorService, OpenFlowController controller,
+                             OpenFlowSwitch sw, int pollInterval) {
         this.executorService = executorService;
+        this.controller = controller;
         this.sw = sw;
         this.pollInterval = pollInterval;
     }
@@ -63,52 +69,42 @@ class TableStatisticsCollector implements SwitchDataCollector {
      */
     synchronized void adjustPollInterval(int pollInterval) {
         this.pollInterval = pollInterval;
-        if (task != null) {
-            task.cancel();
+        // If we went through start - let's reschedule it
+        if (poll != null && pollInterval > 0) {
+            poll.setInterval(pollInterval * MS);
         }
-        task = new InternalTimerTask();
-        if (scheduledTask != null) {
-            scheduledTask.cancel(false);
-        }
-        scheduledTask = executorService.scheduleAtFixedRate(task, pollInterval * MS,
-                                            pollInterval * MS, TimeUnit.MILLISECONDS);
     }
 
-    private class InternalTimerTask extends TimerTask {
-        @Override
-        public void run() {
-            if (sw.getRole() == RoleState.MASTER) {
-                log.trace("Collecting stats for {}", sw.getStringId());
-                OFTableStatsRequest request = sw.factory().buildTableStatsRequest()
-                        .build();
-                sw.sendMsg(request);
-            }
+    private Collection<OFStatsRequest<?>> pollRequests() {
+        if (sw.getRole() != RoleState.MASTER) {
+            return ImmutableList.of();
         }
+        log.trace("Collecting stats for {}", sw.getStringId());
+        return ImmutableList.of(sw.factory().buildTableStatsRequest()
+                .build());
     }
 
     public synchronized void start() {
         log.debug("Starting Table Stats collection thread for {}", sw.getStringId());
-        task = new InternalTimerTask();
         if (pollInterval > 0) {
-            // Initially start polling quickly. Then drop down to configured value
-            scheduledTask = executorService.scheduleAtFixedRate(task, 1 * MS,
-                    pollInterval * MS, TimeUnit.MILLISECONDS);
+            if (poll != null) {
+                poll.cancel();
+            }
+            // Polls of all the collectors of the switch share its statistics timeline
+            poll = controller.schedulePoll(new Dpid(sw.getId()), pollInterval * MS, this::pollRequests);
         } else {
             // Trigger the poll only once
-            executorService.schedule(task, 0, TimeUnit.MILLISECONDS);
+            executorService.schedule(() -> pollRequests().forEach(sw::sendMsg),
+                                     0, TimeUnit.MILLISECONDS);
         }
     }
 
     public synchronized void stop() {
         log.debug("Stopping Table Stats collection thread for {}", sw.getStringId());
-        if (task != null) {
-            task.cancel();
-        }
-        task = null;
-        if (scheduledTask != null) {
-            scheduledTask.cancel(false);
+        if (poll != null) {
+            poll.cancel();
         }
-        scheduledTask = null;
+        poll = null;
     }
 
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.of.flow.impl;
+
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.openflow.controller.OpenFlowSwitchAdapter;
+import org.projectfloodlight.openflow.protocol.OFBarrierRequest;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit tests for the flow mod pipeline.
+ */
+public class FlowModPipelineTest {
+
+    private static final OFFactory FACTORY = OFFactories.getFactory(OFVersion.OF_13);
+
+    private TestSwitch sw;
+    private TestListener listener;
+
+    @Before
+    public void setUp() {
+        sw = new TestSwitch();
+        listener = new TestListener();
+    }
+
+    private FlowModPipeline pipeline(int chunkSize, int maxWindow) {
+        FlowModPipeline pipeline = new FlowModPipeline(sw, chunkSize, maxWindow, null, listener);
+        sw.pipeline = pipeline;
+        return pipeline;
+    }
+
+    private static List<OFMessage> mods(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> (OFMessage) FACTORY.buildFlowAdd().setXid(i).build())
+                .collect(Collectors.toList());
+    }
+
+    // Returns the transaction IDs of barriers, or -1 for each flow mod, sent
+    // to the switch so far.
+    private List<Long> sent() {
+        return sw.sent.stream()
+                .map(msg -> msg instanceof OFBarrierRequest ? msg.getXid() : -1L)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Tests that batches are split in chunks followed by a barrier each.
+     */
+    @Test
+    public void testChunking() {
+        FlowModPipeline pipeline = pipeline(2, 10);
+        assertThat(pipeline.barrierCount(5), is(3));
+        assertThat(pipeline.barrierCount(0), is(1));
+
+        pipeline.submit(1, mods(5));
+        assertThat(sent(), contains(-1L, -1L, 1L, -1L, -1L, 1L, -1L, 1L));
+
+        pipeline.submit(2, mods(0));
+        assertThat(sent().subList(8, 9), contains(2L));
+        assertThat(listener.sending, contains(1L, 2L));
+    }
+
+    /**
+     * Tests that chunks beyond the window are only sent once barrier replies
+     * are received.
+     */
+    @Test
+    public void testWindow() {
+        FlowModPipeline pipeline = pipeline(1, 2);
+        pipeline.submit(1, mods(3));
+        pipeline.submit(2, mods(1));
+        assertThat(sent(), contains(-1L, 1L, -1L, 1L));
+        assertThat(pipeline.queueDepth(), is(2));
+        assertThat(listener.sending, contains(1L));
+
+        pipeline.barrierReplied(1);
+        assertThat(sent().size(), is(6));
+        assertThat(pipeline.queueDepth(), is(1));
+
+        pipeline.barrierReplied(1);
+        assertThat(sent().subList(6, 8), contains(-1L, 2L));
+        assertThat(pipeline.queueDepth(), is(0));
+        assertThat(listener.sending, contains(1L, 2L));
+
+        // Replies to unknown barriers do not open the window.
+        pipeline.submit(3, mods(1));
+        pipeline.barrierReplied(42);
+        assertThat(sent().size(), is(8));
+    }
+
+    /**
+     * Tests that cancelling a batch frees its place in the window, and that
+     * closing the pipeline reports the batches not started yet as dropped.
+     */
+    @Test
+    public void testCancel() {
+        FlowModPipeline pipeline = pipeline(1, 1);
+        pipeline.submit(1, mods(2));
+        pipeline.submit(2, mods(1));
+        pipeline.submit(3, mods(1));
+        assertThat(sent(), contains(-1L, 1L));
+
+        pipeline.cancel(1);
+        assertThat(sent().subList(2, 4), contains(-1L, 2L));
+        assertThat(pipeline.queueDepth(), is(1));
+
+        pipeline.close();
+        assertThat(pipeline.queueDepth(), is(0));
+        assertThat(listener.dropped, contains(3L));
+        assertThat(listener.sending, contains(1L, 2L));
+    }
+
+    /**
+     * Tests that messages are sent to the switch without holding the lock
+     * of the pipeline.
+     */
+    @Test
+    public void testSendOutsideLock() {
+        FlowModPipeline pipeline = pipeline(1, 1);
+        pipeline.submit(1, mods(1));
+        pipeline.submit(2, mods(1));
+        pipeline.barrierReplied(1);
+        assertThat(sent().size(), is(4));
+        assertThat(sw.sentUnderLock, is(empty()));
+    }
+
+    private static final class TestSwitch extends OpenFlowSwitchAdapter {
+        private final List<OFMessage> sent = Lists.newArrayList();
+        private final List<OFMessage> sentUnderLock = Lists.newArrayList();
+        private FlowModPipeline pipeline;
+
+        @Override
+        public void sendMsg(List<OFMessage> msgs) {
+            if (Thread.holdsLock(pipeline)) {
+                sentUnderLock.addAll(msgs);
+            }
+            sent.addAll(msgs);
+        }
+
+        @Override
+        public OFFactory factory() {
+            return FACTORY;
+        }
+    }
+
+    private static final class TestListener implements FlowModPipeline.Listener {
+        private final List<Long> sending = Lists.newArrayList();
+        private final List<Long> dropped = Lists.newArrayList();
+
+        @Override
+        public void sending(long batchId) {
+            sending.add(batchId);
+        }
+
+        @Override
+        public void dropped(long batchId) {
+            dropped.add(batchId);
+        }
+    }
+}
@@ -13,21 +13,22 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.onosproject.provider.of.group.impl;
 
-import org.onlab.util.Timer;
+import com.google.common.collect.ImmutableList;
+import org.onosproject.openflow.controller.Dpid;
+import org.onosproject.openflow.controller.OpenFlowController;
+import org.onosproject.openflow.controller.OpenFlowStatsPoll;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.RoleState;
 import org.projectfloodlight.openflow.protocol.OFCapabilities;
 import org.projectfloodlight.openflow.protocol.OFGroupDescStatsRequest;
 import org.projectfloodlight.openflow.protocol.OFGroupStatsRequest;
+import org.projectfloodlight.openflow.protocol.OFStatsRequest;
 import org.projectfloodlight.openflow.types.OFGroup;
 import org.slf4j.Logger;
 
-import io.netty.util.Timeout;
-import io.netty.util.TimerTask;
-
+import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 
 import static org.slf4j.LoggerFactory.getLogger;
@@ -35,96 +36,87 @@ import static org.slf4j.LoggerFactory.getLogger;
 /*
  * Sends Group Stats Request and collect the group statistics with a time interval.
  */
-public class GroupStatsCollector implements TimerTask {
+public class GroupStatsCollector {
 
+    private final OpenFlowController controller;
     private final OpenFlowSwitch sw;
     private final Logger log = getLogger(getClass());
     private int refreshInterval;
 
-    private Timeout timeout;
-
-    private boolean stopTimer = false;
+    private OpenFlowStatsPoll poll;
 
     /**
      * Creates a GroupStatsCollector object.
      *
+     * @param controller controller whose statistics timeline schedules the polls
      * @param sw Open Flow switch
      * @param interval time interval for collecting group statistic
      */
-    public GroupStatsCollector(OpenFlowSwitch sw, int interval) {
+    public GroupStatsCollector(OpenFlowController controller, OpenFlowSwitch sw, int interval) {
+        this.controller = controller;
         this.sw = sw;
         this.refreshInterval = interval;
     }
 
-    @Override
-    public void run(Timeout timeout) throws Exception {
-        log.trace("Collecting stats for {}", sw.getStringId());
-
-        sendGroupStatisticRequests();
-
-        if (!this.stopTimer) {
-            log.trace("Scheduling stats collection in {} seconds for {}",
-                    this.refreshInterval, this.sw.getStringId());
-            timeout.timer().newTimeout(this, refreshInterval,
-                    TimeUnit.SECONDS);
-        }
-    }
-
-    private void sendGroupDescStatisticRequest(long xid) {
-        OFGroupDescStatsRequest descStatsRequest =
-                sw.factory().buildGroupDescStatsRequest()
-                        .setXid(xid)
-                        .build();
-        sw.sendMsg(descStatsRequest);
+    private OFGroupDescStatsRequest groupDescStatisticRequest(long xid) {
+        return sw.factory().buildGroupDescStatsRequest()
+                .setXid(xid)
+                .build();
     }
 
-    private void sendGroupStatisticRequest(long xid) {
-        OFGroupStatsRequest statsRequest = sw.factory().buildGroupStatsRequest()
+    private OFGroupStatsRequest groupStatisticRequest(long xid) {
+        return sw.factory().buildGroupStatsRequest()
             .setGroup(OFGroup.ALL)
             .setXid(xid)
             .build();
-        sw.sendMsg(statsRequest);
     }
 
-    private void sendGroupStatisticRequests() {
+    private Collection<OFStatsRequest<?>> groupStatisticRequests() {
         if (log.isTraceEnabled()) {
             log.trace("sendGroupStatistics {}:{}", sw.getStringId(), sw.getRole());
         }
         if (sw.getRole() != RoleState.MASTER) {
-            return;
+            return ImmutableList.of();
         }
         if (!sw.isConnected()) {
-            return;
+            return ImmutableList.of();
         }
 
         if (sw.features().getCapabilities().contains(OFCapabilities.GROUP_STATS)) {
             long xid = OpenFlowGroupProvider.getXidAndAdd(2);
-            sendGroupStatisticRequest(xid);
-            sendGroupDescStatisticRequest(xid + 1);
+            return ImmutableList.of(groupStatisticRequest(xid),
+                                    groupDescStatisticRequest(xid + 1));
         } else {
             long xid = OpenFlowGroupProvider.getXidAndAdd(1);
-            sendGroupDescStatisticRequest(xid);
+            return ImmutableList.of(groupDescStatisticRequest(xid));
         }
     }
 
-    public void adjustRate(int pollInterval) {
+    public synchronized void adjustRate(int pollInterval) {
         this.refreshInterval = pollInterval;
+        if (poll != null) {
+            poll.setInterval(TimeUnit.SECONDS.toMillis(refreshInterval));
+        }
     }
 
     /**
      * Starts the collector.
      */
-    public void start() {
+    public synchronized void start() {
         log.info("Starting Group Stats collection thread for {}", sw.getStringId());
-        timeout = Timer.newTimeout(this, 1, TimeUnit.SECONDS);
+        poll = controller.schedulePoll(new Dpid(sw.getId()),
+                                       TimeUnit.SECONDS.toMillis(refreshInterval),
+                                       this::groupStatisticRequests);
     }
 
     /**
      * Stops the collector.
      */
-    public void stop() {
+    public synchronized void stop() {
         log.info("Stopping Group Stats collection thread for {}", sw.getStringId());
-        this.stopTimer = true;
-        timeout.cancel();
+        if (poll != null) {
+            poll.cancel();
+            poll = null;
+        }
     }
 }
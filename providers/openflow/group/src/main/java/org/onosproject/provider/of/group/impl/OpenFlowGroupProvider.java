@@ -153,7 +153,7 @@ public class OpenFlowGroupProvider extends AbstractProvider implements GroupProv
 
         for (OpenFlowSwitch sw : controller.getSwitches()) {
             if (isGroupSupported(sw)) {
-                GroupStatsCollector gsc = new GroupStatsCollector(sw, groupPollInterval);
+                GroupStatsCollector gsc = new GroupStatsCollector(controller, sw, groupPollInterval);
                 gsc.start();
                 collectors.put(new Dpid(sw.getId()), gsc);
             }
@@ -470,7 +470,7 @@ public class OpenFlowGroupProvider extends AbstractProvider implements GroupProv
                 return;
             }
             if (isGroupSupported(sw)) {
-                GroupStatsCollector gsc = new GroupStatsCollector(sw, groupPollInterval);
+                GroupStatsCollector gsc = new GroupStatsCollector(controller, sw, groupPollInterval);
                 stopCollectorIfNeeded(collectors.put(dpid, gsc));
                 gsc.start();
             }
@@ -44,6 +44,8 @@ import org.onosproject.openflow.controller.OpenFlowClassifierListener;
 import org.onosproject.openflow.controller.OpenFlowController;
 import org.onosproject.openflow.controller.OpenFlowEventListener;
 import org.onosproject.openflow.controller.OpenFlowMessageListener;
+import org.onosproject.openflow.controller.OpenFlowStatsPoll;
+import org.onosproject.openflow.controller.OpenFlowStatsPollAdapter;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.OpenFlowSwitchListener;
 import org.onosproject.openflow.controller.PacketListener;
@@ -58,6 +60,7 @@ import org.projectfloodlight.openflow.protocol.OFGroupType;
 import org.projectfloodlight.openflow.protocol.OFMessage;
 import org.projectfloodlight.openflow.protocol.OFMeterFeatures;
 import org.projectfloodlight.openflow.protocol.OFPortDesc;
+import org.projectfloodlight.openflow.protocol.OFStatsRequest;
 import org.projectfloodlight.openflow.protocol.OFVersion;
 import org.projectfloodlight.openflow.protocol.errormsg.OFGroupModFailedErrorMsg;
 import org.projectfloodlight.openflow.types.OFGroup;
@@ -66,6 +69,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static org.junit.Assert.*;
 
@@ -274,6 +278,12 @@ public class OpenFlowGroupProviderTest {
             return null;
         }
 
+        @Override
+        public OpenFlowStatsPoll schedulePoll(Dpid dpid, long intervalMillis,
+                                              Supplier<Collection<OFStatsRequest<?>>> requests) {
+            return new OpenFlowStatsPollAdapter();
+        }
+
         @Override
         public void processPacket(Dpid dpid, OFMessage msg) {
             eventListener.handleMessage(dpid, msg);
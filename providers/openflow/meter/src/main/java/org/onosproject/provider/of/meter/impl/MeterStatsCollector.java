@@ -13,18 +13,19 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.onosproject.provider.of.meter.impl;
 
-import org.onlab.util.Timer;
+import com.google.common.collect.ImmutableList;
+import org.onosproject.openflow.controller.Dpid;
+import org.onosproject.openflow.controller.OpenFlowController;
+import org.onosproject.openflow.controller.OpenFlowStatsPoll;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.RoleState;
 import org.projectfloodlight.openflow.protocol.OFMeterStatsRequest;
+import org.projectfloodlight.openflow.protocol.OFStatsRequest;
 import org.slf4j.Logger;
 
-import io.netty.util.Timeout;
-import io.netty.util.TimerTask;
-
+import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 
 import static org.slf4j.LoggerFactory.getLogger;
@@ -32,44 +33,48 @@ import static org.slf4j.LoggerFactory.getLogger;
 /*
  * Sends Meter Stats Request and collect the Meter statistics with a time interval.
  */
-public class MeterStatsCollector implements TimerTask {
+public class MeterStatsCollector {
 
+    private final OpenFlowController controller;
     private final OpenFlowSwitch sw;
     private final Logger log = getLogger(getClass());
     private final int refreshInterval;
 
-    private Timeout timeout;
-
-    private boolean stopTimer = false;
+    private OpenFlowStatsPoll poll;
 
     /**
-     * Creates a GroupStatsCollector object.
+     * Creates a MeterStatsCollector object.
      *
+     * @param controller controller whose statistics timeline schedules the polls
      * @param sw Open Flow switch
-     * @param interval time interval for collecting group statistic
+     * @param interval time interval for collecting meter statistic
      */
-    public MeterStatsCollector(OpenFlowSwitch sw, int interval) {
+    public MeterStatsCollector(OpenFlowController controller, OpenFlowSwitch sw, int interval) {
+        this.controller = controller;
         this.sw = sw;
         this.refreshInterval = interval;
     }
 
-    @Override
-    public void run(Timeout timeout) throws Exception {
+    private Collection<OFStatsRequest<?>> meterStatisticRequests() {
         if (!sw.isConnected()) {
             log.debug("Switch {} disconnected. Aborting meter stats collection", sw.getStringId());
-            return;
+            return ImmutableList.of();
         }
-
-        log.trace("Collecting stats for {}", sw.getStringId());
-
-        sendMeterStatisticRequest();
-
-        if (!this.stopTimer) {
-            log.trace("Scheduling stats collection in {} seconds for {}",
-                    this.refreshInterval, this.sw.getStringId());
-            timeout.timer().newTimeout(this, refreshInterval,
-                    TimeUnit.SECONDS);
+        if (log.isTraceEnabled()) {
+            log.trace("sendMeterStatistics {}:{}", sw.getStringId(), sw.getRole());
+        }
+        if (sw.getRole() != RoleState.MASTER) {
+            return ImmutableList.of();
         }
+        return ImmutableList.of(meterStatisticRequest());
+    }
+
+    private OFMeterStatsRequest meterStatisticRequest() {
+        // Transaction id is assigned by the statistics timeline
+        return sw.factory().buildMeterStatsRequest()
+                .setXid(0)
+                .setMeterId(0xFFFFFFFF)
+                .build();
     }
 
     public void sendMeterStatisticRequest() {
@@ -80,28 +85,28 @@ public class MeterStatsCollector implements TimerTask {
             return;
         }
 
-        OFMeterStatsRequest.Builder builder =
-                sw.factory().buildMeterStatsRequest();
-        builder.setXid(0).setMeterId(0xFFFFFFFF);
-
-        sw.sendMsg(builder.build());
+        sw.sendMsg(meterStatisticRequest());
 
     }
 
     /**
      * Starts the collector.
      */
-    public void start() {
+    public synchronized void start() {
         log.info("Starting Meter Stats collection thread for {}", sw.getStringId());
-        timeout = Timer.newTimeout(this, 1, TimeUnit.SECONDS);
+        poll = controller.schedulePoll(new Dpid(sw.getId()),
+                                       TimeUnit.SECONDS.toMillis(refreshInterval),
+                                       this::meterStatisticRequests);
     }
 
     /**
      * Stops the collector.
      */
-    public void stop() {
+    public synchronized void stop() {
         log.info("Stopping Meter Stats collection thread for {}", sw.getStringId());
-        this.stopTimer = true;
-        timeout.cancel();
+        if (poll != null) {
+            poll.cancel();
+            poll = null;
+        }
     }
 }
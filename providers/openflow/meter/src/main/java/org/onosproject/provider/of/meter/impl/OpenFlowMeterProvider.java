@@ -203,7 +203,7 @@ public class OpenFlowMeterProvider extends AbstractProvider implements MeterProv
         Dpid dpid = Dpid.dpid(deviceId.uri());
         OpenFlowSwitch sw = controller.getSwitch(dpid);
 
-        MeterStatsCollector once = new MeterStatsCollector(sw, 1);
+        MeterStatsCollector once = new MeterStatsCollector(controller, sw, 1);
         once.sendMeterStatisticRequest();
 
     }
@@ -242,7 +242,7 @@ public class OpenFlowMeterProvider extends AbstractProvider implements MeterProv
 
     private void createStatsCollection(OpenFlowSwitch sw) {
         if (sw != null && isMeterSupported(sw)) {
-            MeterStatsCollector msc = new MeterStatsCollector(sw, POLL_INTERVAL);
+            MeterStatsCollector msc = new MeterStatsCollector(controller, sw, POLL_INTERVAL);
             stopCollectorIfNeeded(collectors.put(new Dpid(sw.getId()), msc));
             msc.start();
         }
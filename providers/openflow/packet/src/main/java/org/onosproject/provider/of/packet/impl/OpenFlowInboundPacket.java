@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.of.packet.impl;
+
+import org.onlab.packet.Ethernet;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.packet.InboundPacket;
+import org.onosproject.openflow.controller.OpenFlowPacketContext;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Inbound packet backed by an OpenFlow packet-in, which parses the frame
+ * only when a processor first asks for it.
+ */
+final class OpenFlowInboundPacket implements InboundPacket {
+
+    private final ConnectPoint receivedFrom;
+    private final OpenFlowPacketContext pktCtx;
+    private final ByteBuffer unparsed;
+    private final Optional<Long> cookie;
+
+    private volatile boolean isParsed;
+    private Ethernet parsed;
+
+    /**
+     * Creates an inbound packet for the given packet-in.
+     *
+     * @param receivedFrom connection point where received
+     * @param pktCtx       OpenFlow packet context of the packet-in
+     * @param unparsed     unparsed raw bytes
+     */
+    OpenFlowInboundPacket(ConnectPoint receivedFrom, OpenFlowPacketContext pktCtx,
+                          ByteBuffer unparsed) {
+        this.receivedFrom = receivedFrom;
+        this.pktCtx = pktCtx;
+        this.unparsed = unparsed;
+        this.cookie = pktCtx.cookie();
+    }
+
+    @Override
+    public ConnectPoint receivedFrom() {
+        return receivedFrom;
+    }
+
+    @Override
+    public Ethernet parsed() {
+        if (!isParsed) {
+            synchronized (this) {
+                if (!isParsed) {
+                    parsed = pktCtx.parsed();
+                    isParsed = true;
+                }
+            }
+        }
+        return parsed;
+    }
+
+    @Override
+    public ByteBuffer unparsed() {
+        return unparsed;
+    }
+
+    @Override
+    public Optional<Long> cookie() {
+        return cookie;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(receivedFrom, parsed(), unparsed);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof OpenFlowInboundPacket) {
+            final OpenFlowInboundPacket other = (OpenFlowInboundPacket) obj;
+            return Objects.equals(this.receivedFrom, other.receivedFrom) &&
+                    Objects.equals(this.parsed(), other.parsed()) &&
+                    Objects.equals(this.unparsed, other.unparsed);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("receivedFrom", receivedFrom)
+                .add("parsed", parsed())
+                .toString();
+    }
+}
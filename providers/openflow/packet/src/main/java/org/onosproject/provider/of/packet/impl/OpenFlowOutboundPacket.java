@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.of.packet.impl;
+
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.TrafficTreatment;
+import org.onosproject.net.packet.OutboundPacket;
+import org.onosproject.openflow.controller.OpenFlowPacketContext;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Outbound packet re-emitting an OpenFlow packet-in, which copies the frame
+ * of the packet-in only when its data is first asked for. The copy is not
+ * shared with the inbound packet, so changes made to either frame do not
+ * leak to the other.
+ */
+final class OpenFlowOutboundPacket implements OutboundPacket {
+
+    private final DeviceId sendThrough;
+    private final OpenFlowPacketContext pktCtx;
+
+    private volatile ByteBuffer data;
+
+    /**
+     * Creates an outbound packet for the given packet-in.
+     *
+     * @param sendThrough identifier through which to send the packet
+     * @param pktCtx      OpenFlow packet context of the packet-in
+     */
+    OpenFlowOutboundPacket(DeviceId sendThrough, OpenFlowPacketContext pktCtx) {
+        this.sendThrough = sendThrough;
+        this.pktCtx = pktCtx;
+    }
+
+    @Override
+    public DeviceId sendThrough() {
+        return sendThrough;
+    }
+
+    @Override
+    public TrafficTreatment treatment() {
+        return null;
+    }
+
+    @Override
+    public ByteBuffer data() {
+        if (data == null) {
+            synchronized (this) {
+                if (data == null) {
+                    data = ByteBuffer.wrap(pktCtx.unparsed());
+                }
+            }
+        }
+        return data;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sendThrough, data());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof OpenFlowOutboundPacket) {
+            final OpenFlowOutboundPacket other = (OpenFlowOutboundPacket) obj;
+            return Objects.equals(this.sendThrough, other.sendThrough) &&
+                    Objects.equals(this.data(), other.data());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("sendThrough", sendThrough)
+                .toString();
+    }
+}
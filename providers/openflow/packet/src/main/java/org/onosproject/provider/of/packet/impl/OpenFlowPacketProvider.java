@@ -15,6 +15,7 @@
  */
 package org.onosproject.provider.of.packet.impl;
 
+import com.google.common.collect.Maps;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
@@ -25,8 +26,6 @@ import org.onosproject.net.DeviceId;
 import org.onosproject.net.PortNumber;
 import org.onosproject.net.flow.instructions.Instruction;
 import org.onosproject.net.flow.instructions.Instructions.OutputInstruction;
-import org.onosproject.net.packet.DefaultInboundPacket;
-import org.onosproject.net.packet.DefaultOutboundPacket;
 import org.onosproject.net.packet.OutboundPacket;
 import org.onosproject.net.packet.PacketProvider;
 import org.onosproject.net.packet.PacketProviderRegistry;
@@ -37,9 +36,12 @@ import org.onosproject.openflow.controller.Dpid;
 import org.onosproject.openflow.controller.OpenFlowController;
 import org.onosproject.openflow.controller.OpenFlowPacketContext;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
+import org.onosproject.openflow.controller.OpenFlowSwitchListener;
+import org.onosproject.openflow.controller.RoleState;
 import org.onosproject.openflow.controller.PacketListener;
 import org.projectfloodlight.openflow.protocol.OFPacketOut;
 import org.projectfloodlight.openflow.protocol.OFPortDesc;
+import org.projectfloodlight.openflow.protocol.OFPortStatus;
 import org.projectfloodlight.openflow.protocol.OFVersion;
 import org.projectfloodlight.openflow.protocol.action.OFAction;
 import org.projectfloodlight.openflow.protocol.match.Match;
@@ -52,6 +54,7 @@ import org.slf4j.Logger;
 
 import java.nio.ByteBuffer;
 import java.util.Collections;
+import java.util.Map;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -75,6 +78,10 @@ public class OpenFlowPacketProvider extends AbstractProvider implements PacketPr
 
     private final InternalPacketProvider listener = new InternalPacketProvider();
 
+    // Device identifiers of the switches sending packet-ins, to spare
+    // building a new URI for each of them
+    private final Map<Long, DeviceId> deviceIds = Maps.newConcurrentMap();
+
     /**
      * Creates an OpenFlow link provider.
      */
@@ -86,6 +93,7 @@ public class OpenFlowPacketProvider extends AbstractProvider implements PacketPr
     public void activate() {
         providerService = providerRegistry.register(this);
         controller.addPacketListener(20, listener);
+        controller.addListener(listener);
         log.info("Started");
     }
 
@@ -93,6 +101,8 @@ public class OpenFlowPacketProvider extends AbstractProvider implements PacketPr
     public void deactivate() {
         providerRegistry.unregister(this);
         controller.removePacketListener(listener);
+        controller.removeListener(listener);
+        deviceIds.clear();
         providerService = null;
         log.info("Stopped");
     }
@@ -168,21 +178,22 @@ public class OpenFlowPacketProvider extends AbstractProvider implements PacketPr
      * Internal Packet Provider implementation.
      *
      */
-    private class InternalPacketProvider implements PacketListener {
+    private class InternalPacketProvider implements PacketListener, OpenFlowSwitchListener {
 
         @Override
         public void handlePacket(OpenFlowPacketContext pktCtx) {
-            DeviceId id = DeviceId.deviceId(Dpid.uri(pktCtx.dpid().value()));
+            DeviceId id = deviceIds.computeIfAbsent(pktCtx.dpid().value(),
+                                                    dpid -> DeviceId.deviceId(Dpid.uri(dpid)));
 
-            DefaultInboundPacket inPkt = new DefaultInboundPacket(
+            // Parse the frame only if a processor asks for it, and copy it
+            // for the outbound packet only if someone asks for its data
+            OpenFlowInboundPacket inPkt = new OpenFlowInboundPacket(
                     new ConnectPoint(id, PortNumber.portNumber(pktCtx.inPort())),
-                    pktCtx.parsed(), ByteBuffer.wrap(pktCtx.unparsed()),
-                    pktCtx.cookie());
+                    pktCtx, ByteBuffer.wrap(pktCtx.unparsed()));
 
-            DefaultOutboundPacket outPkt = null;
+            OpenFlowOutboundPacket outPkt = null;
             if (!pktCtx.isBuffered()) {
-                outPkt = new DefaultOutboundPacket(id, null,
-                        ByteBuffer.wrap(pktCtx.unparsed()));
+                outPkt = new OpenFlowOutboundPacket(id, pktCtx);
             }
 
             OpenFlowCorePacketContext corePktCtx =
@@ -191,6 +202,27 @@ public class OpenFlowPacketProvider extends AbstractProvider implements PacketPr
             providerService.processPacket(corePktCtx);
         }
 
+        @Override
+        public void switchAdded(Dpid dpid) {
+        }
+
+        @Override
+        public void switchRemoved(Dpid dpid) {
+            deviceIds.remove(dpid.value());
+        }
+
+        @Override
+        public void switchChanged(Dpid dpid) {
+        }
+
+        @Override
+        public void portChanged(Dpid dpid, OFPortStatus status) {
+        }
+
+        @Override
+        public void receivedRoleReply(Dpid dpid, RoleState requested, RoleState response) {
+        }
+
     }
 
 
@@ -20,7 +20,9 @@ import com.google.common.collect.Sets;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.junit.TestUtils;
 import org.onlab.packet.ARP;
+import org.onlab.packet.Data;
 import org.onlab.packet.Ethernet;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
@@ -30,6 +32,7 @@ import org.onosproject.net.flow.TrafficTreatment;
 import org.onosproject.net.flow.instructions.Instruction;
 import org.onosproject.net.flow.instructions.Instructions;
 import org.onosproject.net.packet.DefaultOutboundPacket;
+import org.onosproject.net.packet.InboundPacket;
 import org.onosproject.net.packet.OutboundPacket;
 import org.onosproject.net.packet.PacketContext;
 import org.onosproject.net.packet.PacketProvider;
@@ -43,6 +46,8 @@ import org.onosproject.openflow.controller.OpenFlowController;
 import org.onosproject.openflow.controller.OpenFlowEventListener;
 import org.onosproject.openflow.controller.OpenFlowMessageListener;
 import org.onosproject.openflow.controller.OpenFlowPacketContext;
+import org.onosproject.openflow.controller.OpenFlowStatsPoll;
+import org.onosproject.openflow.controller.OpenFlowStatsPollAdapter;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.OpenFlowSwitchListener;
 import org.onosproject.openflow.controller.PacketListener;
@@ -55,6 +60,7 @@ import org.projectfloodlight.openflow.protocol.OFPacketIn;
 import org.projectfloodlight.openflow.protocol.OFPacketInReason;
 import org.projectfloodlight.openflow.protocol.OFPacketOut;
 import org.projectfloodlight.openflow.protocol.OFPortDesc;
+import org.projectfloodlight.openflow.protocol.OFStatsRequest;
 import org.projectfloodlight.openflow.protocol.OFType;
 import org.projectfloodlight.openflow.protocol.action.OFAction;
 import org.projectfloodlight.openflow.protocol.action.OFActionOutput;
@@ -65,9 +71,12 @@ import org.projectfloodlight.openflow.types.OFPort;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static org.junit.Assert.*;
 
@@ -79,6 +88,7 @@ public class OpenFlowPacketProviderTest {
     private static final int PN3 = 300;
     private static final short VLANID = (short) 100;
     private static final int IN_PORT_PN = 1;
+    private static final short LOCAL_EXPERIMENTAL = (short) 0x88b5;
 
     private static final DeviceId DID = DeviceId.deviceId("of:1");
     private static final DeviceId DID_MISSING = DeviceId.deviceId("of:2");
@@ -123,10 +133,28 @@ public class OpenFlowPacketProviderTest {
     public void teardown() {
         provider.deactivate();
         assertNull("listeners shouldn't be registered", registry.listener);
+        assertNull("switch listener shouldn't be registered", controller.switchListener);
         provider.controller = null;
         provider.providerRegistry = null;
     }
 
+    @Test
+    public void switchRemovedPrunesDeviceIds() {
+        OFPacketIn pkt = sw.factory().buildPacketIn()
+                .setBufferId(OFBufferId.NO_BUFFER)
+                .setInPort(OFPort.NO_MASK)
+                .setReason(OFPacketInReason.INVALID_TTL)
+                .build();
+
+        controller.processPacket(null, pkt);
+        Map<Long, DeviceId> deviceIds = TestUtils.getField(provider, "deviceIds");
+        assertEquals("device id not cached", DeviceId.deviceId(Dpid.uri(sw.getId())),
+                     deviceIds.get(sw.getId()));
+
+        controller.switchListener.switchRemoved(new Dpid(sw.getId()));
+        assertTrue("device id not pruned", deviceIds.isEmpty());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void wrongScheme() {
         sw.setRole(RoleState.MASTER);
@@ -218,6 +246,36 @@ public class OpenFlowPacketProviderTest {
 
     }
 
+    @Test
+    public void handlePacketIsolatesFrames() {
+        Ethernet eth = new Ethernet();
+        eth.setEtherType(LOCAL_EXPERIMENTAL)
+        .setSourceMACAddress("00:00:00:11:00:01")
+        .setDestinationMACAddress("00:00:00:22:00:02")
+        .setPayload(new Data(ANY));
+        byte[] frame = eth.serialize();
+
+        OFPacketIn pkt = sw.factory().buildPacketIn()
+                .setBufferId(OFBufferId.NO_BUFFER)
+                .setInPort(OFPort.of(IN_PORT_PN))
+                .setReason(OFPacketInReason.NO_MATCH)
+                .setData(frame)
+                .build();
+
+        controller.processPacket(null, pkt);
+        assertNotNull("message unprocessed", registry.ctx);
+
+        InboundPacket inPkt = registry.ctx.inPacket();
+        assertEquals("wrong in port", IN_PORT, inPkt.receivedFrom().port());
+        assertArrayEquals("wrong frame", frame, inPkt.unparsed().array());
+        assertArrayEquals("wrong outbound frame", frame, registry.ctx.outPacket().data().array());
+        inPkt.unparsed().array()[0] = (byte) ~frame[0];
+        assertEquals("frame shared with outbound packet", frame[0],
+                     registry.ctx.outPacket().data().array()[0]);
+        assertEquals("wrong parsed frame", LOCAL_EXPERIMENTAL, inPkt.parsed().getEtherType());
+        assertSame("frame parsed twice", inPkt.parsed(), inPkt.parsed());
+    }
+
     private static OFPortDesc portDesc(int port) {
         OFPortDesc.Builder builder = OFFactoryVer10.INSTANCE.buildPortDesc();
         builder.setPortNo(OFPort.of(port));
@@ -291,6 +349,7 @@ public class OpenFlowPacketProviderTest {
     private class TestController implements OpenFlowController {
 
         PacketListener pktListener;
+        OpenFlowSwitchListener switchListener;
         OpenFlowSwitch current;
 
         @Override
@@ -330,10 +389,12 @@ public class OpenFlowPacketProviderTest {
 
         @Override
         public void addListener(OpenFlowSwitchListener listener) {
+            switchListener = listener;
         }
 
         @Override
         public void removeListener(OpenFlowSwitchListener listener) {
+            switchListener = null;
         }
 
         @Override
@@ -372,6 +433,12 @@ public class OpenFlowPacketProviderTest {
             return null;
         }
 
+        @Override
+        public OpenFlowStatsPoll schedulePoll(Dpid dpid, long intervalMillis,
+                                              Supplier<Collection<OFStatsRequest<?>>> requests) {
+            return new OpenFlowStatsPollAdapter();
+        }
+
         @Override
         public void processPacket(Dpid dpid, OFMessage msg) {
             OpenFlowPacketContext pktCtx =
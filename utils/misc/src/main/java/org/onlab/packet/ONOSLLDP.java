@@ -484,6 +484,20 @@ public class ONOSLLDP extends LLDP {
         }
     }
 
+    /**
+     * Computes the signature carried by a secure link probe, allowing
+     * serialized probes to be re-signed without being rebuilt.
+     *
+     * @param deviceId  The device ID as a String
+     * @param portNum   Port number of port the probe is sent out of
+     * @param timestamp probe timestamp in millis
+     * @param secret    LLDP secret
+     * @return probe signature, or null if it cannot be computed
+     */
+    public static byte[] signature(String deviceId, int portNum, long timestamp, String secret) {
+        return createSig(deviceId, portNum, timestamp, secret);
+    }
+
     private static byte[] createSig(String deviceId, int portNum, long timestamp, String secret) {
         byte[] pnb = ByteBuffer.allocate(8).putLong(portNum).array();
         byte[] tmb = ByteBuffer.allocate(8).putLong(timestamp).array();
@@ -29,11 +29,13 @@ import org.onosproject.rest.AbstractWebResource;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.io.IOException;
@@ -59,16 +61,23 @@ public class DevicesWebResource extends AbstractWebResource {
 
     /**
      * Gets all infrastructure devices.
-     * Returns array of all discovered infrastructure devices.
+     * Returns array of all discovered infrastructure devices, ordered by
+     * identifier and optionally paginated with a cursor and a limit.
      *
+     * @param cursor cursor returned with the previous page; from the first
+     *               device if not given
+     * @param limit  maximum number of devices to return; 0 for no limit
      * @return 200 OK with a collection of devices
      * @onos.rsModel DevicesGet
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getDevices() {
-        Iterable<Device> devices = get(DeviceService.class).getDevices();
-        return ok(encodeArray(Device.class, "devices", devices)).build();
+    public Response getDevices(@QueryParam("cursor") String cursor,
+                               @DefaultValue("0") @QueryParam("limit") int limit) {
+        Iterable<Device> devices = itemsAfter(get(DeviceService.class).getDevices(),
+                                              device -> device.id().toString(), cursor);
+        return ok(encodeArrayStream(Device.class, "devices", devices, limit,
+                                    device -> device.id().toString())).build();
     }
 
     /**
@@ -15,25 +15,35 @@
  */
 package org.onosproject.rest.resources;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.ListMultimap;
 import org.onlab.util.ItemNotFoundException;
 import org.onosproject.app.ApplicationService;
+import org.onosproject.codec.JsonCodec;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.device.DeviceService;
 import org.onosproject.net.flow.FlowEntry;
 import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleOperations;
+import org.onosproject.net.flow.FlowRuleOperationsContext;
 import org.onosproject.net.flow.FlowRuleService;
 import org.onosproject.net.flow.IndexTableId;
 import org.onosproject.rest.AbstractWebResource;
+import org.slf4j.Logger;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
@@ -48,12 +58,18 @@ import javax.ws.rs.core.UriInfo;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
-import static org.onlab.util.Tools.nullIsIllegal;
 import static org.onlab.util.Tools.nullIsNotFound;
 import static org.onlab.util.Tools.readTreeFromStream;
+import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Query and program flow rules.
@@ -65,6 +81,14 @@ public class FlowsWebResource extends AbstractWebResource {
     @Context
     private UriInfo uriInfo;
 
+    private static final Logger log = getLogger(FlowsWebResource.class);
+
+    /** Maximum number of posted flows applied as one operations stage. */
+    private static final int STAGE_SIZE = 1000;
+
+    /** Seconds to wait for the outcome of a stage of posted flows. */
+    private static final int STAGE_TIMEOUT_SECONDS = 30;
+
     private static final String DEVICE_NOT_FOUND = "Device is not found";
     private static final String FLOW_NOT_FOUND = "Flow is not found";
     private static final String APP_ID_NOT_FOUND = "Application Id is not found";
@@ -72,98 +96,112 @@ public class FlowsWebResource extends AbstractWebResource {
     private static final String FLOWS = "flows";
     private static final String DEVICE_ID = "deviceId";
     private static final String FLOW_ID = "flowId";
+    private static final String STAGES = "stages";
+    private static final String STAGE = "stage";
+    private static final String STATE = "state";
+    private static final String ERRORS = "errors";
+    private static final String INDEX = "index";
+    private static final String MESSAGE = "message";
+    private static final String CURSOR = "cursor";
+    private static final String LIMIT = "limit";
 
     /**
      * Gets all flow entries. Returns array of all flow rules in the system.
+     * The flows are listed by device, then by flow id, and streamed device
+     * by device; a page of them may be requested with a cursor and a limit,
+     * in which case the cursor of the next page is returned in the
+     * nextCursor field. As the response is streamed, a failure while listing
+     * the flows cuts the response short rather than turning it into an error.
      *
+     * @param deviceIds devices to restrict the flows to; all devices if none
+     * @param cursor    cursor returned with the previous page; from the first
+     *                  flow if not given
+     * @param limit     maximum number of flows to return; 0 for no limit
      * @return 200 OK with a collection of flows
      * @onos.rsModel FlowEntries
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getFlows() {
-        ObjectNode root = mapper().createObjectNode();
-        ArrayNode flowsNode = root.putArray(FLOWS);
-        FlowRuleService service = get(FlowRuleService.class);
-        Iterable<Device> devices = get(DeviceService.class).getDevices();
-        for (Device device : devices) {
-            Iterable<FlowEntry> flowEntries = service.getFlowEntries(device.id());
-            if (flowEntries != null) {
-                for (FlowEntry entry : flowEntries) {
-                    flowsNode.add(codec(FlowEntry.class).encode(entry, this));
-                }
-            }
-        }
-
-        return ok(root).build();
+    public Response getFlows(@QueryParam(DEVICE_ID) List<String> deviceIds,
+                             @QueryParam(CURSOR) String cursor,
+                             @DefaultValue("0") @QueryParam(LIMIT) int limit) {
+        return ok(encodeArrayStream(FlowEntry.class, FLOWS,
+                                    flowEntries(deviceIds, FlowCursor.valueOf(cursor)),
+                                    limit, FlowsWebResource::cursorOf)).build();
     }
 
      /**
      * Gets all pending flow entries. Returns array of all pending flow rules in the system.
      *
+     * @param deviceIds devices to restrict the flows to; all devices if none
+     * @param cursor    cursor returned with the previous page; from the first
+     *                  flow if not given
+     * @param limit     maximum number of flows to return; 0 for no limit
      * @return 200 OK with a collection of flows
      * @onos.rsModel FlowEntries
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("pending")
-    public Response getPendingFlows() {
-        ObjectNode root = mapper().createObjectNode();
-        ArrayNode flowsNode = root.putArray(FLOWS);
-        FlowRuleService service = get(FlowRuleService.class);
-        Iterable<Device> devices = get(DeviceService.class).getDevices();
-        for (Device device : devices) {
-            Iterable<FlowEntry> flowEntries = service.getFlowEntries(device.id());
-            if (flowEntries != null) {
-                for (FlowEntry entry : flowEntries) {
-                    if ((entry.state() == FlowEntry.FlowEntryState.PENDING_ADD) ||
-                       (entry.state() == FlowEntry.FlowEntryState.PENDING_REMOVE)) {
-                       flowsNode.add(codec(FlowEntry.class).encode(entry, this));
-                    }
-                }
-            }
-        }
-
-        return ok(root).build();
+    public Response getPendingFlows(@QueryParam(DEVICE_ID) List<String> deviceIds,
+                                    @QueryParam(CURSOR) String cursor,
+                                    @DefaultValue("0") @QueryParam(LIMIT) int limit) {
+        Iterable<FlowEntry> flowEntries = Iterables.filter(flowEntries(deviceIds, FlowCursor.valueOf(cursor)),
+                entry -> (entry.state() == FlowEntry.FlowEntryState.PENDING_ADD) ||
+                        (entry.state() == FlowEntry.FlowEntryState.PENDING_REMOVE));
+        return ok(encodeArrayStream(FlowEntry.class, FLOWS,
+                                    flowEntries, limit, FlowsWebResource::cursorOf)).build();
     }
 
      /**
      * Gets all flow entries for a table. Returns array of all flow rules for a table.
-     * @param tableId table identifier
+     * @param tableId   table identifier
+     * @param deviceIds devices to restrict the flows to; all devices if none
+     * @param cursor    cursor returned with the previous page; from the first
+     *                  flow if not given
+     * @param limit     maximum number of flows to return; 0 for no limit
      * @return 200 OK with a collection of flows
      * @onos.rsModel FlowEntries
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("table/{tableId}")
-    public Response getTableFlows(@PathParam("tableId") int tableId) {
-        ObjectNode root = mapper().createObjectNode();
-        ArrayNode flowsNode = root.putArray(FLOWS);
-        FlowRuleService service = get(FlowRuleService.class);
-        Iterable<Device> devices = get(DeviceService.class).getDevices();
-        for (Device device : devices) {
-            Iterable<FlowEntry> flowEntries = service.getFlowEntries(device.id());
-            if (flowEntries != null) {
-                for (FlowEntry entry : flowEntries) {
-                    if (((IndexTableId) entry.table()).id() == tableId) {
-                       flowsNode.add(codec(FlowEntry.class).encode(entry, this));
-                    }
-                }
-            }
-        }
-
-        return ok(root).build();
+    public Response getTableFlows(@PathParam("tableId") int tableId,
+                                  @QueryParam(DEVICE_ID) List<String> deviceIds,
+                                  @QueryParam(CURSOR) String cursor,
+                                  @DefaultValue("0") @QueryParam(LIMIT) int limit) {
+        Iterable<FlowEntry> flowEntries = Iterables.filter(flowEntries(deviceIds, FlowCursor.valueOf(cursor)),
+                entry -> ((IndexTableId) entry.table()).id() == tableId);
+        return ok(encodeArrayStream(FlowEntry.class, FLOWS,
+                                    flowEntries, limit, FlowsWebResource::cursorOf)).build();
     }
 
     /**
      * Creates new flow rules. Creates and installs a new flow rules.<br>
      * Flow rule criteria and instruction description:
      * https://wiki.onosproject.org/display/ONOS/Flow+Rules
+     * <p>
+     * The flows are decoded as they are read from the request and applied
+     * in stages of at most 1000 flows, so that arbitrarily large batches can
+     * be posted. Each stage is applied once the previous one is done, and
+     * the stages array of the response reports the state of each: APPLIED,
+     * FAILED, or PENDING if its outcome was not known within 30 seconds, in
+     * which case its flows are submitted but may not be applied yet.
+     * Processing stops at the first stage that fails; the flows after it are
+     * not applied.
+     * </p>
+     * <p>
+     * A flow that cannot be decoded, or malformed JSON, stops processing and
+     * fails the request with BAD_REQUEST. As the stages before it are
+     * already applied, they are reported in the response as well, together
+     * with the index of the offending flow in the errors array.
+     * </p>
      *
      * @param appId application id
      * @param stream flow rules JSON
-     * @return status of the request - CREATED if the JSON is correct,
-     * BAD_REQUEST if the JSON is invalid
+     * @return status of the request - OK with the submitted flows and the
+     * state of each stage if the JSON is correct, BAD_REQUEST if the JSON is
+     * invalid
      * @onos.rsModel FlowsBatchPost
      */
     @POST
@@ -171,37 +209,90 @@ public class FlowsWebResource extends AbstractWebResource {
     @Produces(MediaType.APPLICATION_JSON)
     public Response createFlows(@QueryParam("appId") String appId, InputStream stream) {
         FlowRuleService service = get(FlowRuleService.class);
+        JsonCodec<FlowRule> flowRuleCodec = codec(FlowRule.class);
         ObjectNode root = mapper().createObjectNode();
         ArrayNode flowsNode = root.putArray(FLOWS);
-        try {
-            ObjectNode jsonTree = readTreeFromStream(mapper(), stream);
-            ArrayNode flowsArray = nullIsIllegal((ArrayNode) jsonTree.get(FLOWS),
-                                                 FLOW_ARRAY_REQUIRED);
-
-            if (appId != null) {
-                flowsArray.forEach(flowJson -> ((ObjectNode) flowJson).put("appId", appId));
+        ArrayNode stagesNode = root.putArray(STAGES);
+        ArrayNode errorsNode = root.putArray(ERRORS);
+
+        List<FlowRule> stage = new ArrayList<>();
+        int index = 0;
+        try (JsonParser parser = mapper().getFactory().createParser(stream)) {
+            if (!seekArray(parser, FLOWS)) {
+                throw new IllegalArgumentException(FLOW_ARRAY_REQUIRED);
             }
+            while (true) {
+                FlowRule flowRule;
+                try {
+                    flowRule = nextFlow(parser, appId, flowRuleCodec);
+                } catch (IOException | RuntimeException ex) {
+                    if (stagesNode.size() == 0) {
+                        throw ex instanceof RuntimeException
+                                ? (RuntimeException) ex : new IllegalArgumentException(ex);
+                    }
+                    // earlier stages are already applied, so report them
+                    addError(errorsNode, index, ex);
+                    return Response.status(Response.Status.BAD_REQUEST).entity(root).build();
+                }
+                if (flowRule == null) {
+                    break;
+                }
+                stage.add(flowRule);
+                index++;
 
-            List<FlowRule> rules = codec(FlowRule.class).decode(flowsArray, this);
-
-            service.applyFlowRules(rules.toArray(new FlowRule[rules.size()]));
-            rules.forEach(flowRule -> {
-                ObjectNode flowNode = mapper().createObjectNode();
-                flowNode.put(DEVICE_ID, flowRule.deviceId().toString())
-                        .put(FLOW_ID, Long.toString(flowRule.id().value()));
-                flowsNode.add(flowNode);
-            });
+                if (stage.size() == STAGE_SIZE) {
+                    if (!applyStage(service, stage, flowsNode, stagesNode)) {
+                        return Response.ok(root).build();
+                    }
+                    stage.clear();
+                }
+            }
         } catch (IOException ex) {
             throw new IllegalArgumentException(ex);
         }
+
+        if (!stage.isEmpty()) {
+            applyStage(service, stage, flowsNode, stagesNode);
+        }
         return Response.ok(root).build();
     }
 
+    /**
+     * Reads and decodes the next flow rule of the flows array.
+     *
+     * @param parser parser positioned within the flows array
+     * @param appId  application id to set on the flow, if not null
+     * @param codec  flow rule codec
+     * @return next flow rule, null at the end of the array
+     * @throws IOException if the JSON is malformed
+     */
+    private FlowRule nextFlow(JsonParser parser, String appId, JsonCodec<FlowRule> codec)
+            throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        if (token == null) {
+            throw new JsonParseException(parser, "Unexpected end of flows array");
+        }
+        JsonNode flowJson = mapper().readTree(parser);
+        if (!flowJson.isObject()) {
+            throw new IllegalArgumentException("Flow is not a JSON object");
+        }
+        if (appId != null) {
+            ((ObjectNode) flowJson).put("appId", appId);
+        }
+        return codec.decode((ObjectNode) flowJson, this);
+    }
+
     /**
      * Gets flow entries of a device. Returns array of all flow rules for the
      * specified device.
      *
      * @param deviceId device identifier
+     * @param cursor   cursor returned with the previous page; from the first
+     *                 flow if not given
+     * @param limit    maximum number of flows to return; 0 for no limit
      * @return 200 OK with a collection of flows of given device
      * @onos.rsModel FlowEntries
      */
@@ -209,20 +300,19 @@ public class FlowsWebResource extends AbstractWebResource {
     @Produces(MediaType.APPLICATION_JSON)
     // TODO: we need to add "/device" suffix to the path to differentiate with appId
     @Path("{deviceId}")
-    public Response getFlowByDeviceId(@PathParam("deviceId") String deviceId) {
+    public Response getFlowByDeviceId(@PathParam("deviceId") String deviceId,
+                                      @QueryParam(CURSOR) String cursor,
+                                      @DefaultValue("0") @QueryParam(LIMIT) int limit) {
         FlowRuleService service = get(FlowRuleService.class);
-        ObjectNode root = mapper().createObjectNode();
-        ArrayNode flowsNode = root.putArray(FLOWS);
         Iterable<FlowEntry> flowEntries =
                 service.getFlowEntries(DeviceId.deviceId(deviceId));
 
         if (flowEntries == null || !flowEntries.iterator().hasNext()) {
             throw new ItemNotFoundException(DEVICE_NOT_FOUND);
         }
-        for (FlowEntry entry : flowEntries) {
-            flowsNode.add(codec(FlowEntry.class).encode(entry, this));
-        }
-        return ok(root).build();
+        return ok(encodeArrayStream(FlowEntry.class, FLOWS,
+                                    itemsAfter(flowEntries, FlowCursor::of, FlowCursor.valueOf(cursor)),
+                                    limit, FlowsWebResource::cursorOf)).build();
     }
 
     /**
@@ -260,22 +350,34 @@ public class FlowsWebResource extends AbstractWebResource {
      * Gets flow rules generated by an application.
      * Returns the flow rule specified by the application id.
      *
-     * @param appId application identifier
+     * @param appId     application identifier
+     * @param deviceIds devices to restrict the flows to; all devices if none
+     * @param cursor    cursor returned with the previous page; from the first
+     *                  flow if not given
+     * @param limit     maximum number of flows to return; 0 for no limit
      * @return 200 OK with a collection of flows of given application id
      * @onos.rsModel FlowRules
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("application/{appId}")
-    public Response getFlowByAppId(@PathParam("appId") String appId) {
-        ObjectNode root = mapper().createObjectNode();
-        ArrayNode flowsNode = root.putArray(FLOWS);
+    public Response getFlowByAppId(@PathParam("appId") String appId,
+                                   @QueryParam(DEVICE_ID) List<String> deviceIds,
+                                   @QueryParam(CURSOR) String cursor,
+                                   @DefaultValue("0") @QueryParam(LIMIT) int limit) {
         ApplicationService appService = get(ApplicationService.class);
         ApplicationId idInstant = nullIsNotFound(appService.getId(appId), APP_ID_NOT_FOUND);
         Iterable<FlowEntry> flowEntries = get(FlowRuleService.class).getFlowEntriesById(idInstant);
 
-        flowEntries.forEach(flow -> flowsNode.add(codec(FlowEntry.class).encode(flow, this)));
-        return ok(root).build();
+        if (deviceIds != null && !deviceIds.isEmpty()) {
+            List<DeviceId> devices = ImmutableList.copyOf(
+                    Iterables.transform(deviceIds, DeviceId::deviceId));
+            flowEntries = Iterables.filter(flowEntries,
+                                           entry -> devices.contains(entry.deviceId()));
+        }
+        return ok(encodeArrayStream(FlowEntry.class, FLOWS,
+                                    itemsAfter(flowEntries, FlowCursor::of, FlowCursor.valueOf(cursor)),
+                                    limit, FlowsWebResource::cursorOf)).build();
     }
 
 
@@ -416,4 +518,169 @@ public class FlowsWebResource extends AbstractWebResource {
         service.removeFlowRules(rulesToRemove.toArray(new FlowEntry[0]));
         return Response.noContent().build();
     }
+
+    /**
+     * Returns a lazy view of the flow entries of the given devices, or of
+     * all devices if none are given, following the given cursor. The flows
+     * are fetched one device at a time and the devices preceding the one of
+     * the cursor are not visited.
+     *
+     * @param deviceIds device identifiers; may be null or empty
+     * @param cursor    cursor after which the flows start; null for all
+     * @return flow entries, in listing order
+     */
+    private Iterable<FlowEntry> flowEntries(List<String> deviceIds, FlowCursor cursor) {
+        FlowRuleService service = get(FlowRuleService.class);
+        Iterable<DeviceId> devices = deviceIds == null || deviceIds.isEmpty() ?
+                Iterables.transform(get(DeviceService.class).getDevices(), Device::id) :
+                Iterables.transform(deviceIds, DeviceId::deviceId);
+        List<DeviceId> remaining = StreamSupport.stream(devices.spliterator(), false)
+                .distinct()
+                .filter(deviceId -> cursor == null || deviceId.toString().compareTo(cursor.deviceId) >= 0)
+                .sorted(Comparator.comparing(DeviceId::toString))
+                .collect(Collectors.toList());
+        return Iterables.concat(Iterables.transform(remaining, deviceId -> {
+            Iterable<FlowEntry> flowEntries = service.getFlowEntries(deviceId);
+            return flowEntries != null ? itemsAfter(flowEntries, FlowCursor::of, cursor) :
+                    ImmutableList.<FlowEntry>of();
+        }));
+    }
+
+    private static String cursorOf(FlowEntry entry) {
+        return FlowCursor.of(entry).toString();
+    }
+
+    /**
+     * Position of a flow entry in the listing order of the flows, by device
+     * and then by flow id, used as the cursor of the flow pages.
+     */
+    private static final class FlowCursor implements Comparable<FlowCursor> {
+
+        private static final char SEPARATOR = ',';
+
+        private final String deviceId;
+        private final long flowId;
+
+        private FlowCursor(String deviceId, long flowId) {
+            this.deviceId = deviceId;
+            this.flowId = flowId;
+        }
+
+        private static FlowCursor of(FlowEntry entry) {
+            return new FlowCursor(entry.deviceId().toString(), entry.id().value());
+        }
+
+        private static FlowCursor valueOf(String cursor) {
+            if (cursor == null) {
+                return null;
+            }
+            int separator = cursor.lastIndexOf(SEPARATOR);
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid cursor " + cursor);
+            }
+            return new FlowCursor(cursor.substring(0, separator),
+                                  Long.parseLong(cursor.substring(separator + 1)));
+        }
+
+        @Override
+        public int compareTo(FlowCursor other) {
+            int result = deviceId.compareTo(other.deviceId);
+            return result != 0 ? result : Long.compare(flowId, other.flowId);
+        }
+
+        @Override
+        public String toString() {
+            return deviceId + SEPARATOR + flowId;
+        }
+    }
+
+    /**
+     * Advances the parser into the array bound to the given field of the
+     * top-level object, skipping any other fields.
+     *
+     * @param parser JSON parser positioned before the top-level object
+     * @param field  name of the array field
+     * @return true if the parser is now at the start of the array
+     * @throws IOException if the JSON could not be parsed
+     */
+    private boolean seekArray(JsonParser parser, String field) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (field.equals(name) && value == JsonToken.START_ARRAY) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    /**
+     * Applies the given flow rules as one flow rule operations stage, waits
+     * for its outcome and records it in the response.
+     *
+     * @param service    flow rule service
+     * @param rules      flow rules of the stage
+     * @param flowsNode  response array of submitted flows
+     * @param stagesNode response array of stages
+     * @return false if the stage failed, true otherwise
+     */
+    private boolean applyStage(FlowRuleService service, List<FlowRule> rules,
+                               ArrayNode flowsNode, ArrayNode stagesNode) {
+        int stageIndex = stagesNode.size();
+        FlowRuleOperations.Builder builder = FlowRuleOperations.builder();
+        rules.forEach(flowRule -> {
+            builder.add(flowRule);
+            flowsNode.addObject()
+                    .put(DEVICE_ID, flowRule.deviceId().toString())
+                    .put(FLOW_ID, Long.toString(flowRule.id().value()));
+        });
+        CompletableFuture<StageState> outcome = new CompletableFuture<>();
+        service.apply(builder.build(new FlowRuleOperationsContext() {
+            @Override
+            public void onSuccess(FlowRuleOperations ops) {
+                outcome.complete(StageState.APPLIED);
+            }
+
+            @Override
+            public void onError(FlowRuleOperations ops) {
+                log.warn("Failed to apply stage {} of posted flows", stageIndex);
+                outcome.complete(StageState.FAILED);
+            }
+        }));
+
+        StageState state;
+        try {
+            state = outcome.get(STAGE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException | ExecutionException ex) {
+            log.warn("Timed out waiting for stage {} of posted flows", stageIndex);
+            state = StageState.PENDING;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            state = StageState.PENDING;
+        }
+        stagesNode.addObject()
+                .put(STAGE, stageIndex)
+                .put(FLOWS, rules.size())
+                .put(STATE, state.name());
+        return state != StageState.FAILED;
+    }
+
+    /**
+     * Outcome of a stage of posted flows.
+     */
+    private enum StageState {
+        APPLIED,
+        FAILED,
+        PENDING
+    }
+
+    private void addError(ArrayNode errorsNode, int index, Exception ex) {
+        errorsNode.addObject()
+                .put(INDEX, index)
+                .put(MESSAGE, String.valueOf(ex.getMessage()));
+    }
 }
@@ -17,6 +17,7 @@ package org.onosproject.rest.resources;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.onosproject.net.DeviceId;
 import org.onosproject.net.Host;
 import org.onosproject.net.HostId;
 import org.onosproject.net.SparseAnnotations;
@@ -31,11 +32,13 @@ import org.onosproject.rest.AbstractWebResource;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -61,17 +64,28 @@ public class HostsWebResource extends AbstractWebResource {
 
     /**
      * Get all end-station hosts.
-     * Returns array of all known end-station hosts.
+     * Returns array of all known end-station hosts, ordered by identifier,
+     * optionally only those attached to the given device and paginated with
+     * a cursor and a limit.
      *
+     * @param deviceId device the hosts are attached to; all hosts if not given
+     * @param cursor   cursor returned with the previous page; from the first
+     *                 host if not given
+     * @param limit    maximum number of hosts to return; 0 for no limit
      * @return 200 OK with array of all known end-station hosts.
      * @onos.rsModel Hosts
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getHosts() {
-        final Iterable<Host> hosts = get(HostService.class).getHosts();
-        final ObjectNode root = encodeArray(Host.class, "hosts", hosts);
-        return ok(root).build();
+    public Response getHosts(@QueryParam("deviceId") String deviceId,
+                             @QueryParam("cursor") String cursor,
+                             @DefaultValue("0") @QueryParam("limit") int limit) {
+        HostService service = get(HostService.class);
+        final Iterable<Host> hosts = deviceId == null ? service.getHosts() :
+                service.getConnectedHosts(DeviceId.deviceId(deviceId));
+        return ok(encodeArrayStream(Host.class, "hosts",
+                                    itemsAfter(hosts, host -> host.id().toString(), cursor),
+                                    limit, host -> host.id().toString())).build();
     }
 
     /**
@@ -28,6 +28,7 @@ import org.onosproject.net.intent.HostToHostIntent;
 import org.onosproject.net.intent.Intent;
 import org.onosproject.net.intent.IntentState;
 import org.onosproject.net.intent.IntentEvent;
+import org.onosproject.net.intent.IntentId;
 import org.onosproject.net.intent.IntentListener;
 import org.onosproject.net.intent.IntentService;
 import org.onosproject.net.intent.Key;
@@ -38,11 +39,13 @@ import org.slf4j.Logger;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -91,17 +94,40 @@ public class IntentsWebResource extends AbstractWebResource {
 
     /**
      * Gets all intents.
-     * Returns array containing all the intents in the system.
+     * Returns array containing all the intents in the system, ordered by
+     * intent identifier and optionally paginated with a cursor and a limit.
      *
+     * @param cursor cursor returned with the previous page; from the first
+     *               intent if not given
+     * @param limit  maximum number of intents to return; 0 for no limit
      * @return 200 OK with array of all the intents in the system
      * @onos.rsModel Intents
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getIntents() {
-        final Iterable<Intent> intents = get(IntentService.class).getIntents();
-        final ObjectNode root = encodeArray(Intent.class, "intents", intents);
-        return ok(root).build();
+    public Response getIntents(@QueryParam("cursor") String cursor,
+                               @DefaultValue("0") @QueryParam("limit") int limit) {
+        final IntentService service = get(IntentService.class);
+        final IntentId after = intentCursor(cursor);
+        // One intent past the page tells whether another page follows
+        final Iterable<Intent> intents = limit > 0
+                ? service.getIntentsPage(after, limit < Integer.MAX_VALUE ? limit + 1 : limit)
+                : itemsAfter(service.getIntents(), intent -> intent.id().fingerprint(),
+                             after == null ? null : after.fingerprint());
+        return ok(encodeArrayStream(Intent.class, "intents", intents, limit,
+                                    intent -> intent.id().toString())).build();
+    }
+
+    // Returns the intent identifier given as cursor
+    private static IntentId intentCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            return IntentId.valueOf(cursor);
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor, e);
+        }
     }
 
 
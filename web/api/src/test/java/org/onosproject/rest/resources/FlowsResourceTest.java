@@ -45,12 +45,14 @@ import org.onosproject.net.flow.FlowEntry;
 import org.onosproject.net.flow.FlowEntryAdapter;
 import org.onosproject.net.flow.FlowId;
 import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleOperations;
 import org.onosproject.net.flow.FlowRuleService;
 import org.onosproject.net.flow.TrafficSelector;
 import org.onosproject.net.flow.TrafficTreatment;
 import org.onosproject.net.flow.criteria.Criterion;
 import org.onosproject.net.flow.instructions.Instruction;
 
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.WebTarget;
@@ -70,6 +72,7 @@ import static org.easymock.EasyMock.anyString;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArguments;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.hamcrest.Matchers.containsString;
@@ -656,6 +659,55 @@ public class FlowsResourceTest extends ResourceTest {
         assertThat(jsonFlows, hasFlow(flow4));
     }
 
+    /**
+     * Tests the result of the rest api GET when the flows are paginated,
+     * including a flow added before the cursor between two pages.
+     */
+    @Test
+    public void testFlowsPaginated() {
+        setupMockFlows();
+        replay(mockFlowService);
+        replay(mockDeviceService);
+        final WebTarget wt = target();
+        String response = wt.path("flows").queryParam("limit", 3)
+                .request().get(String.class);
+        JsonObject result = Json.parse(response).asObject();
+        JsonArray jsonFlows = result.get("flows").asArray();
+        assertThat(jsonFlows.size(), is(3));
+        assertThat(jsonFlows, hasFlow(flow1));
+        assertThat(jsonFlows, hasFlow(flow2));
+        assertThat(jsonFlows, hasFlow(flow3));
+        final String cursor = result.get("nextCursor").asString();
+
+        rules.get(deviceId1).add(new MockFlowEntry(deviceId1, 0));
+
+        response = wt.path("flows").queryParam("cursor", cursor).queryParam("limit", 3)
+                .request().get(String.class);
+        result = Json.parse(response).asObject();
+        assertThat(result.names(), hasSize(1));
+        jsonFlows = result.get("flows").asArray();
+        assertThat(jsonFlows.size(), is(1));
+        assertThat(jsonFlows, hasFlow(flow4));
+    }
+
+    /**
+     * Tests the result of the rest api GET filtered by device.
+     */
+    @Test
+    public void testFlowsDeviceFilter() {
+        setupMockFlows();
+        replay(mockFlowService);
+        replay(mockDeviceService);
+        final WebTarget wt = target();
+        final String response = wt.path("flows").queryParam("deviceId", deviceId2)
+                .request().get(String.class);
+        final JsonObject result = Json.parse(response).asObject();
+        final JsonArray jsonFlows = result.get("flows").asArray();
+        assertThat(jsonFlows.size(), is(2));
+        assertThat(jsonFlows, hasFlow(flow3));
+        assertThat(jsonFlows, hasFlow(flow4));
+    }
+
     /**
      * Tests the result of a rest api GET for a device.
      */
@@ -772,6 +824,74 @@ public class FlowsResourceTest extends ResourceTest {
         assertThat(location, Matchers.startsWith("/flows/of:0000000000000001/"));
     }
 
+    /**
+     * Tests creating a batch of flows with POST.
+     */
+    @Test
+    public void testPostFlows() {
+        mockFlowService.apply(anyObject());
+        expectLastCall().andAnswer(() -> {
+            FlowRuleOperations ops = (FlowRuleOperations) getCurrentArguments()[0];
+            ops.callback().onSuccess(ops);
+            return null;
+        });
+        replay(mockFlowService);
+
+        JsonObject result = postFlows("post-flows.json");
+        assertThat(result.get("flows").asArray().size(), is(2));
+        assertThat(result.get("errors").asArray().size(), is(0));
+
+        JsonArray stages = result.get("stages").asArray();
+        assertThat(stages.size(), is(1));
+        assertThat(stages.get(0).asObject().get("flows").asInt(), is(2));
+        assertThat(stages.get(0).asObject().get("state").asString(), is("APPLIED"));
+        verify(mockFlowService);
+    }
+
+    /**
+     * Tests that the failure of a stage of posted flows is reported.
+     */
+    @Test
+    public void testPostFlowsStageFailed() {
+        mockFlowService.apply(anyObject());
+        expectLastCall().andAnswer(() -> {
+            FlowRuleOperations ops = (FlowRuleOperations) getCurrentArguments()[0];
+            ops.callback().onError(ops);
+            return null;
+        });
+        replay(mockFlowService);
+
+        JsonObject result = postFlows("post-flows.json");
+        JsonArray stages = result.get("stages").asArray();
+        assertThat(stages.size(), is(1));
+        assertThat(stages.get(0).asObject().get("state").asString(), is("FAILED"));
+        verify(mockFlowService);
+    }
+
+    /**
+     * Tests that a batch of flows with an invalid flow is rejected.
+     */
+    @Test
+    public void testPostFlowsInvalid() {
+        replay(mockFlowService);
+
+        try {
+            postFlows("post-flows-invalid.json");
+            fail("Invalid flow did not fail the request");
+        } catch (BadRequestException ex) {
+            assertThat(ex.getResponse().getStatus(), is(HttpURLConnection.HTTP_BAD_REQUEST));
+        }
+        verify(mockFlowService);
+    }
+
+    private JsonObject postFlows(String resource) {
+        InputStream jsonStream = FlowsResourceTest.class.getResourceAsStream(resource);
+        String response = target().path("flows")
+                .request(MediaType.APPLICATION_JSON_TYPE)
+                .post(Entity.json(jsonStream), String.class);
+        return Json.parse(response).asObject();
+    }
+
     /**
      * Tests deleting a flow.
      */
@@ -25,6 +25,7 @@ import org.onosproject.net.intent.ConnectivityIntent;
 import org.onosproject.net.intent.Constraint;
 import org.onosproject.net.intent.HostToHostIntent;
 import org.onosproject.net.intent.Intent;
+import org.onosproject.net.intent.IntentData;
 import org.onosproject.net.intent.IntentService;
 import org.onosproject.net.intent.LinkCollectionIntent;
 import org.onosproject.net.intent.MultiPointToSinglePointIntent;
@@ -104,18 +105,20 @@ public class IntentViewMessageHandler extends UiMessageHandler {
 
         @Override
         protected void populateTable(TableModel tm, ObjectNode payload) {
+            // intent data carries the state, sparing a lookup per row
             IntentService is = get(IntentService.class);
-            for (Intent intent : is.getIntents()) {
-                populateRow(tm.addRow(), intent, is);
+            for (IntentData data : is.getIntentData()) {
+                populateRow(tm.addRow(), data);
             }
         }
 
-        private void populateRow(TableModel.Row row, Intent intent, IntentService is) {
+        private void populateRow(TableModel.Row row, IntentData data) {
+            Intent intent = data.intent();
             row.cell(APP_ID, intent.appId())
                     .cell(KEY, intent.key())
                     .cell(TYPE, intent.getClass().getSimpleName())
                     .cell(PRIORITY, intent.priority())
-                    .cell(STATE, is.getIntentState(intent.key()))
+                    .cell(STATE, data.state())
                     .cell(RESOURCES, intent)
                     .cell(DETAILS, intent);
         }
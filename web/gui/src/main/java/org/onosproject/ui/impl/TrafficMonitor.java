@@ -123,19 +123,19 @@ public class TrafficMonitor extends TrafficMonitorBase {
     @Override
     protected void sendAllFlowTraffic() {
         log.debug("sendAllFlowTraffic");
-        msgHandler.sendHighlights(trafficSummary(StatsType.FLOW_STATS));
+        sendTrafficSummary(StatsType.FLOW_STATS);
     }
 
     @Override
     protected void sendAllPortTrafficBits() {
         log.debug("sendAllPortTrafficBits");
-        msgHandler.sendHighlights(trafficSummary(StatsType.PORT_STATS));
+        sendTrafficSummary(StatsType.PORT_STATS);
     }
 
     @Override
     protected void sendAllPortTrafficPackets() {
         log.debug("sendAllPortTrafficPackets");
-        msgHandler.sendHighlights(trafficSummary(StatsType.PORT_PACKET_STATS));
+        sendTrafficSummary(StatsType.PORT_PACKET_STATS);
     }
 
     @Override
@@ -17,6 +17,7 @@
 
 package org.onosproject.ui.impl;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import org.onosproject.net.Device;
@@ -33,8 +34,6 @@ import org.onosproject.net.intent.OpticalConnectivityIntent;
 import org.onosproject.net.intent.OpticalPathIntent;
 import org.onosproject.net.intent.PathIntent;
 import org.onosproject.net.link.LinkService;
-import org.onosproject.net.statistic.PortStatisticsService.MetricType;
-import org.onosproject.net.DefaultEdgeLink;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.Link;
 import org.onosproject.net.statistic.Load;
@@ -51,7 +50,7 @@ import org.onosproject.ui.topo.HostHighlight;
 import org.onosproject.ui.topo.LinkHighlight;
 import org.onosproject.ui.topo.NodeHighlight;
 import org.onosproject.ui.topo.NodeSelection;
-import org.onosproject.ui.topo.TopoUtils;
+import org.onosproject.ui.topo.TopoJson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -66,9 +65,6 @@ import java.util.TimerTask;
 import java.util.stream.Collectors;
 
 import static org.onosproject.net.DefaultEdgeLink.createEdgeLink;
-import static org.onosproject.net.statistic.PortStatisticsService.MetricType.BYTES;
-import static org.onosproject.net.statistic.PortStatisticsService.MetricType.PACKETS;
-import static org.onosproject.net.DefaultEdgeLink.createEdgeLinks;
 import static org.onosproject.ui.impl.TrafficMonitorBase.Mode.IDLE;
 import static org.onosproject.ui.impl.TrafficMonitorBase.Mode.SELECTED_INTENT;
 
@@ -79,8 +75,6 @@ public abstract class TrafficMonitorBase extends AbstractTopoMonitor {
 
     protected final Logger log = LoggerFactory.getLogger(getClass());
 
-    // 4 Kilo Bytes as threshold
-    protected static final double BPS_THRESHOLD = 4 * TopoUtils.N_KILO;
     protected final TopoIntentFilter intentFilter;
     protected IntentSelection selectedIntents = null;
     protected final TopoologyTrafficMessageHandlerAbstract msgHandler;
@@ -306,6 +300,9 @@ public abstract class TrafficMonitorBase extends AbstractTopoMonitor {
     private final Timer timer;
     private TimerTask trafficTask = null;
 
+    // traffic summary last sent to the client, if any
+    private ObjectNode lastSummary = null;
+
     /**
      * Constructs the monitor, initializing the task period and
      * services bundle reference.
@@ -342,6 +339,7 @@ public abstract class TrafficMonitorBase extends AbstractTopoMonitor {
      */
     public synchronized void monitor(Mode mode) {
         this.mode = mode;
+        this.lastSummary = null;
 
         switch (mode) {
 
@@ -395,6 +393,7 @@ public abstract class TrafficMonitorBase extends AbstractTopoMonitor {
     public synchronized void monitor(Mode mode, NodeSelection nodeSelection) {
         log.debug("monitor: {} -- {}", mode, nodeSelection);
         this.mode = mode;
+        this.lastSummary = null;
         this.selectedNodes = nodeSelection;
 
         switch (mode) {
@@ -439,6 +438,7 @@ public abstract class TrafficMonitorBase extends AbstractTopoMonitor {
         selectedNodes = null;
         selectedIntents = new IntentSelection(intent);
         mode = SELECTED_INTENT;
+        lastSummary = null;
         scheduleTask();
         sendSelectedIntentTraffic();
     }
@@ -489,6 +489,7 @@ public abstract class TrafficMonitorBase extends AbstractTopoMonitor {
      */
     protected void clearAll() {
         this.mode = Mode.IDLE;
+        this.lastSummary = null;
         clearSelection();
         cancelTask();
         sendClearHighlights();
@@ -554,72 +555,33 @@ public abstract class TrafficMonitorBase extends AbstractTopoMonitor {
     }
 
     /**
-     * Generates a set of "traffic links" encapsulating information about the
-     * traffic on each link (that is deemed to have traffic).
+     * Returns the set of "traffic links" encapsulating information about the
+     * traffic on each link (that is deemed to have traffic). The links come
+     * from the snapshot shared by all the traffic monitors, which is
+     * refreshed at most twice per traffic period, and must not be modified.
      *
      * @param type the type of statistics to be displayed
      * @return the set of links with traffic
      */
     protected Set<TrafficLink> computeLinksWithTraffic(TrafficLink.StatsType type) {
-        TrafficLinkMap linkMap = new TrafficLinkMap();
-        compileLinks(linkMap);
-        addEdgeLinks(linkMap);
-
-        Set<TrafficLink> linksWithTraffic = new HashSet<>();
-
-        for (TrafficLink tlink : linkMap.biLinks()) {
-            if (type == TrafficLink.StatsType.FLOW_STATS) {
-                attachFlowLoad(tlink);
-            } else if (type == TrafficLink.StatsType.PORT_STATS) {
-                attachPortLoad(tlink, BYTES);
-            } else if (type == TrafficLink.StatsType.PORT_PACKET_STATS) {
-                attachPortLoad(tlink, PACKETS);
-            }
-
-            // we only want to report on links deemed to have traffic
-            if (tlink.hasTraffic()) {
-                linksWithTraffic.add(tlink);
-            }
-        }
-        return linksWithTraffic;
+        return services.sharedModel().trafficSnapshots()
+                .linksWithTraffic(type, trafficPeriod / 2);
     }
 
     /**
-     * Iterates across the set of links in the topology and generates the
-     * appropriate set of traffic links.
+     * Sends the traffic summary for the given type of statistics, unless it
+     * is identical to the summary last sent since the monitoring mode was
+     * set, in which case the client already displays it.
      *
-     * @param linkMap link map to augment with traffic links
-     */
-    protected void compileLinks(TrafficLinkMap linkMap) {
-        services.link().getLinks().forEach(linkMap::add);
-    }
-
-    /**
-     * Iterates across the set of hosts in the topology and generates the
-     * appropriate set of traffic links for the edge links.
-     *
-     * @param linkMap link map to augment with traffic links
-     */
-    protected void addEdgeLinks(TrafficLinkMap linkMap) {
-        services.host().getHosts().forEach(host -> {
-            // Ingress edge links
-            Set<DefaultEdgeLink> edgeLinks = createEdgeLinks(host, true);
-            edgeLinks.forEach(linkMap::add);
-            // Egress edge links
-            edgeLinks = createEdgeLinks(host, false);
-            edgeLinks.forEach(linkMap::add);
-        });
-    }
-
-    /**
-     * Processes the given traffic link to attach the "flow load" attributed
-     * to the underlying topology links.
-     *
-     * @param link the traffic link to process
+     * @param type the type of statistics to be displayed
      */
-    protected void attachFlowLoad(TrafficLink link) {
-        link.addLoad(getLinkFlowLoad(link.one()));
-        link.addLoad(getLinkFlowLoad(link.two()));
+    protected synchronized void sendTrafficSummary(TrafficLink.StatsType type) {
+        Highlights highlights = trafficSummary(type);
+        ObjectNode summary = TopoJson.json(highlights);
+        if (!summary.equals(lastSummary)) {
+            lastSummary = summary;
+            msgHandler.sendHighlights(highlights);
+        }
     }
 
     /**
@@ -636,42 +598,6 @@ public abstract class TrafficMonitorBase extends AbstractTopoMonitor {
         return null;
     }
 
-    /**
-     * Processes the given traffic link to attach the "port load" attributed
-     * to the underlying topology links, for the specified metric type (either
-     * bytes/sec or packets/sec).
-     *
-     * @param link       the traffic link to process
-     * @param metricType the metric type (bytes or packets)
-     */
-    protected void attachPortLoad(TrafficLink link, MetricType metricType) {
-        // For bi-directional traffic links, use
-        // the max link rate of either direction
-        // (we choose 'one' since we know that is never null)
-        Link one = link.one();
-        Load egressSrc = services.portStats().load(one.src(), metricType);
-        Load egressDst = services.portStats().load(one.dst(), metricType);
-        link.addLoad(maxLoad(egressSrc, egressDst), metricType == BYTES ? BPS_THRESHOLD : 0);
-    }
-
-    /**
-     * Returns the load with the greatest rate.
-     *
-     * @param a load a
-     * @param b load b
-     * @return the larger of the two
-     */
-    protected Load maxLoad(Load a, Load b) {
-        if (a == null) {
-            return b;
-        }
-        if (b == null) {
-            return a;
-        }
-        return a.rate() > b.rate() ? a : b;
-    }
-
-
     /**
      * Subclasses (well, Traffic2Monitor really) can override this method and
      * process the traffic links before generating the highlights object.
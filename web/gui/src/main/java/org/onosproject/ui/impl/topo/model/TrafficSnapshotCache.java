@@ -0,0 +1,192 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.ui.impl.topo.model;
+
+import com.google.common.collect.ImmutableSet;
+import org.onosproject.net.DefaultEdgeLink;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.host.HostService;
+import org.onosproject.net.link.LinkService;
+import org.onosproject.net.statistic.Load;
+import org.onosproject.net.statistic.PortStatisticsService;
+import org.onosproject.net.statistic.PortStatisticsService.MetricType;
+import org.onosproject.net.statistic.StatisticService;
+import org.onosproject.ui.impl.topo.util.TrafficLink;
+import org.onosproject.ui.impl.topo.util.TrafficLink.StatsType;
+import org.onosproject.ui.impl.topo.util.TrafficLinkMap;
+import org.onosproject.ui.topo.TopoUtils;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.onosproject.net.DefaultEdgeLink.createEdgeLinks;
+import static org.onosproject.net.statistic.PortStatisticsService.MetricType.BYTES;
+import static org.onosproject.net.statistic.PortStatisticsService.MetricType.PACKETS;
+
+/**
+ * Cache of the links deemed to have traffic, computed from the flow and
+ * port statistics. A snapshot is kept per type of statistics and is shared
+ * by all the traffic monitors, so that the statistics are aggregated at
+ * most once per refresh period no matter how many topology views are open.
+ */
+public final class TrafficSnapshotCache {
+
+    // 4 Kilo Bytes as threshold
+    private static final double BPS_THRESHOLD = 4 * TopoUtils.N_KILO;
+
+    private final LinkService linkService;
+    private final HostService hostService;
+    private final StatisticService flowStatsService;
+    private final PortStatisticsService portStatsService;
+
+    private final Map<StatsType, Snapshot> snapshots = new EnumMap<>(StatsType.class);
+
+    private long computations = 0;
+
+    /**
+     * Creates a traffic snapshot cache backed by the given services.
+     *
+     * @param linkService      link service
+     * @param hostService      host service
+     * @param flowStatsService flow statistics service
+     * @param portStatsService port statistics service
+     */
+    public TrafficSnapshotCache(LinkService linkService, HostService hostService,
+                                StatisticService flowStatsService,
+                                PortStatisticsService portStatsService) {
+        this.linkService = linkService;
+        this.hostService = hostService;
+        this.flowStatsService = flowStatsService;
+        this.portStatsService = portStatsService;
+    }
+
+    /**
+     * Returns the links deemed to have traffic for the given type of
+     * statistics. The links are recomputed only if the cached snapshot is
+     * older than the given age. The returned links must not be modified.
+     *
+     * @param type   the type of statistics
+     * @param maxAge maximum age of the snapshot in milliseconds
+     * @return the set of links with traffic
+     */
+    public synchronized Set<TrafficLink> linksWithTraffic(StatsType type, long maxAge) {
+        long now = System.currentTimeMillis();
+        Snapshot snapshot = snapshots.get(type);
+        if (snapshot == null || now - snapshot.timestamp > maxAge) {
+            snapshot = new Snapshot(computeLinksWithTraffic(type), now);
+            snapshots.put(type, snapshot);
+            computations++;
+        }
+        return snapshot.links;
+    }
+
+    /**
+     * Returns the number of snapshots computed so far.
+     *
+     * @return number of computed snapshots
+     */
+    public synchronized long computations() {
+        return computations;
+    }
+
+    /**
+     * Discards all the snapshots.
+     */
+    public synchronized void clear() {
+        snapshots.clear();
+    }
+
+    private Set<TrafficLink> computeLinksWithTraffic(StatsType type) {
+        TrafficLinkMap linkMap = new TrafficLinkMap();
+        linkService.getLinks().forEach(linkMap::add);
+        addEdgeLinks(linkMap);
+
+        Set<TrafficLink> linksWithTraffic = new HashSet<>();
+
+        for (TrafficLink tlink : linkMap.biLinks()) {
+            if (type == StatsType.FLOW_STATS) {
+                attachFlowLoad(tlink);
+            } else if (type == StatsType.PORT_STATS) {
+                attachPortLoad(tlink, BYTES);
+            } else if (type == StatsType.PORT_PACKET_STATS) {
+                attachPortLoad(tlink, PACKETS);
+            }
+
+            // we only want to report on links deemed to have traffic
+            if (tlink.hasTraffic()) {
+                linksWithTraffic.add(tlink);
+            }
+        }
+        return ImmutableSet.copyOf(linksWithTraffic);
+    }
+
+    private void addEdgeLinks(TrafficLinkMap linkMap) {
+        hostService.getHosts().forEach(host -> {
+            // Ingress edge links
+            Set<DefaultEdgeLink> edgeLinks = createEdgeLinks(host, true);
+            edgeLinks.forEach(linkMap::add);
+            // Egress edge links
+            edgeLinks = createEdgeLinks(host, false);
+            edgeLinks.forEach(linkMap::add);
+        });
+    }
+
+    private void attachFlowLoad(TrafficLink link) {
+        link.addLoad(getLinkFlowLoad(link.one()));
+        link.addLoad(getLinkFlowLoad(link.two()));
+    }
+
+    private Load getLinkFlowLoad(Link link) {
+        if (link != null && link.src().elementId() instanceof DeviceId) {
+            return flowStatsService.load(link);
+        }
+        return null;
+    }
+
+    private void attachPortLoad(TrafficLink link, MetricType metricType) {
+        // For bi-directional traffic links, use
+        // the max link rate of either direction
+        // (we choose 'one' since we know that is never null)
+        Link one = link.one();
+        Load egressSrc = portStatsService.load(one.src(), metricType);
+        Load egressDst = portStatsService.load(one.dst(), metricType);
+        link.addLoad(maxLoad(egressSrc, egressDst), metricType == BYTES ? BPS_THRESHOLD : 0);
+    }
+
+    private Load maxLoad(Load a, Load b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return a.rate() > b.rate() ? a : b;
+    }
+
+    // Links with traffic, as computed at the given time
+    private static final class Snapshot {
+        private final Set<TrafficLink> links;
+        private final long timestamp;
+
+        private Snapshot(Set<TrafficLink> links, long timestamp) {
+            this.links = links;
+            this.timestamp = timestamp;
+        }
+    }
+}
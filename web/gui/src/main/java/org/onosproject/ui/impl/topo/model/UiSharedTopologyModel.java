@@ -139,10 +139,14 @@ public final class UiSharedTopologyModel
 
     private ModelCache cache;
 
+    private TrafficSnapshotCache trafficSnapshots;
+
 
     @Activate
     void activate() {
         cache = new ModelCache(new DefaultServiceBundle(), eventDispatcher);
+        trafficSnapshots = new TrafficSnapshotCache(linkService, hostService,
+                                                    flowStatsService, portStatsService);
         eventHandler = newSingleThreadExecutor(groupedThreads("onos/ui/topo", "event-handler", log));
 
         eventDispatcher.addSink(UiModelEvent.class, listenerRegistry);
@@ -178,6 +182,7 @@ public final class UiSharedTopologyModel
 
         cache.clear();
         cache = null;
+        trafficSnapshots.clear();
 
         log.info("Stopped");
     }
@@ -233,6 +238,16 @@ public final class UiSharedTopologyModel
         cache.refresh();
     }
 
+    /**
+     * Returns the cache of links with traffic shared by all the traffic
+     * monitors.
+     *
+     * @return traffic snapshot cache
+     */
+    public TrafficSnapshotCache trafficSnapshots() {
+        return trafficSnapshots;
+    }
+
     /**
      * Returns the list of cluster members stored in the model cache.
      *
@@ -29,6 +29,7 @@ import org.onosproject.net.intent.IntentService;
 import org.onosproject.net.link.LinkService;
 import org.onosproject.net.statistic.StatisticService;
 import org.onosproject.net.topology.TopologyService;
+import org.onosproject.ui.impl.topo.model.UiSharedTopologyModel;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -52,6 +53,8 @@ public class ServicesBundle {
     private StatisticService flowStatsService;
     private PortStatisticsService portStatsService;
 
+    private UiSharedTopologyModel sharedModel;
+
 
     /**
      * Creates the services bundle, from the given directly.
@@ -75,6 +78,8 @@ public class ServicesBundle {
         flowService = directory.get(FlowRuleService.class);
         flowStatsService = directory.get(StatisticService.class);
         portStatsService = directory.get(PortStatisticsService.class);
+
+        sharedModel = directory.get(UiSharedTopologyModel.class);
     }
 
     /**
@@ -184,4 +189,13 @@ public class ServicesBundle {
     public PortStatisticsService portStats() {
         return portStatsService;
     }
+
+    /**
+     * Returns a reference to the shared topology model.
+     *
+     * @return shared topology model reference
+     */
+    public UiSharedTopologyModel sharedModel() {
+        return sharedModel;
+    }
 }
@@ -15,6 +15,7 @@
  */
 package org.onosproject.ui.impl.topo.util;
 
+import com.google.common.collect.Iterables;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
@@ -26,6 +27,7 @@ import org.onosproject.net.intent.FlowObjectiveIntent;
 import org.onosproject.net.intent.FlowRuleIntent;
 import org.onosproject.net.intent.HostToHostIntent;
 import org.onosproject.net.intent.Intent;
+import org.onosproject.net.intent.IntentData;
 import org.onosproject.net.intent.IntentService;
 import org.onosproject.net.intent.LinkCollectionIntent;
 import org.onosproject.net.intent.MultiPointToSinglePointIntent;
@@ -74,8 +76,10 @@ public class TopoIntentFilter {
     public List<Intent> findPathIntents(Set<Host> hosts,
                                         Set<Device> devices,
                                         Set<Link> links) {
-        // start with all intents
-        Iterable<Intent> sourceIntents = intentService.getIntents();
+        // start with all installed intents
+        Iterable<Intent> sourceIntents =
+                Iterables.transform(intentService.getIntentDataByState(INSTALLED),
+                                    IntentData::intent);
 
         // Derive from this the set of edge connect points.
         Set<ConnectPoint> edgePoints = getEdgePoints(hosts);
@@ -106,27 +110,25 @@ public class TopoIntentFilter {
 
         Set<OpticalConnectivityIntent> opticalIntents = new HashSet<>();
 
-        // Search through all intents and see if they are relevant to our search.
+        // Search through the intents and see if they are relevant to our search.
         for (Intent intent : sourceIntents) {
-            if (intentService.getIntentState(intent.key()) == INSTALLED) {
-                boolean isRelevant = false;
-                if (intent instanceof HostToHostIntent) {
-                    isRelevant = isIntentRelevantToHosts((HostToHostIntent) intent, hosts) &&
-                            isIntentRelevantToDevices(intent, devices) && isIntentRelevantToLinks(intent, links);
-                } else if (intent instanceof PointToPointIntent) {
-                    isRelevant = isIntentRelevant((PointToPointIntent) intent, edgePoints) &&
-                            isIntentRelevantToDevices(intent, devices) && isIntentRelevantToLinks(intent, links);
-                } else if (intent instanceof MultiPointToSinglePointIntent) {
-                    isRelevant = isIntentRelevant((MultiPointToSinglePointIntent) intent, edgePoints) &&
-                            isIntentRelevantToDevices(intent, devices) && isIntentRelevantToLinks(intent, links);
-                } else if (intent instanceof OpticalConnectivityIntent) {
-                    opticalIntents.add((OpticalConnectivityIntent) intent);
-                }
-                // TODO: add other intents, e.g. SinglePointToMultiPointIntent
+            boolean isRelevant = false;
+            if (intent instanceof HostToHostIntent) {
+                isRelevant = isIntentRelevantToHosts((HostToHostIntent) intent, hosts) &&
+                        isIntentRelevantToDevices(intent, devices) && isIntentRelevantToLinks(intent, links);
+            } else if (intent instanceof PointToPointIntent) {
+                isRelevant = isIntentRelevant((PointToPointIntent) intent, edgePoints) &&
+                        isIntentRelevantToDevices(intent, devices) && isIntentRelevantToLinks(intent, links);
+            } else if (intent instanceof MultiPointToSinglePointIntent) {
+                isRelevant = isIntentRelevant((MultiPointToSinglePointIntent) intent, edgePoints) &&
+                        isIntentRelevantToDevices(intent, devices) && isIntentRelevantToLinks(intent, links);
+            } else if (intent instanceof OpticalConnectivityIntent) {
+                opticalIntents.add((OpticalConnectivityIntent) intent);
+            }
+            // TODO: add other intents, e.g. SinglePointToMultiPointIntent
 
-                if (isRelevant) {
-                    intents.add(intent);
-                }
+            if (isRelevant) {
+                intents.add(intent);
             }
         }
 
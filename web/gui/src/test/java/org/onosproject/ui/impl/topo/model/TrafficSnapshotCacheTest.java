@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.ui.impl.topo.model;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultLink;
+import org.onosproject.net.Host;
+import org.onosproject.net.Link;
+import org.onosproject.net.host.HostServiceAdapter;
+import org.onosproject.net.link.LinkServiceAdapter;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.net.statistic.DefaultLoad;
+import org.onosproject.net.statistic.StatisticServiceAdapter;
+import org.onosproject.ui.impl.AbstractUiImplTest;
+import org.onosproject.ui.impl.topo.util.TrafficLink;
+import org.onosproject.ui.impl.topo.util.TrafficLink.StatsType;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.onosproject.net.DeviceId.deviceId;
+import static org.onosproject.net.PortNumber.portNumber;
+
+/**
+ * Unit tests for {@link TrafficSnapshotCache}.
+ */
+public class TrafficSnapshotCacheTest extends AbstractUiImplTest {
+
+    private static final ProviderId PID = new ProviderId("of", "foo");
+    private static final ConnectPoint CP1 = new ConnectPoint(deviceId("1"), portNumber(1));
+    private static final ConnectPoint CP2 = new ConnectPoint(deviceId("2"), portNumber(2));
+
+    private static final Link LINK = DefaultLink.builder()
+            .providerId(PID).src(CP1).dst(CP2).type(Link.Type.DIRECT).build();
+
+    private final AtomicInteger portLoads = new AtomicInteger();
+
+    private TrafficSnapshotCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new TrafficSnapshotCache(new TestLinkService(), new TestHostService(),
+                                         new StatisticServiceAdapter(),
+                                         cp -> {
+                                             portLoads.incrementAndGet();
+                                             return new DefaultLoad(1_000_000, 0);
+                                         });
+    }
+
+    @Test
+    public void sharedSnapshot() {
+        title("sharedSnapshot");
+
+        Set<TrafficLink> first = cache.linksWithTraffic(StatsType.PORT_STATS, 60_000);
+        Set<TrafficLink> second = cache.linksWithTraffic(StatsType.PORT_STATS, 60_000);
+        print(first);
+        assertEquals("bad link count", 1, first.size());
+        assertSame("snapshot not shared", first, second);
+        assertEquals("bad computation count", 1, cache.computations());
+        // both ends of the single link are looked up once
+        assertEquals("bad port load lookups", 2, portLoads.get());
+    }
+
+    @Test
+    public void expiredSnapshot() {
+        title("expiredSnapshot");
+
+        cache.linksWithTraffic(StatsType.PORT_STATS, 60_000);
+        cache.linksWithTraffic(StatsType.PORT_PACKET_STATS, 60_000);
+        assertEquals("bad computation count", 2, cache.computations());
+
+        cache.linksWithTraffic(StatsType.PORT_STATS, -1);
+        assertEquals("bad computation count", 3, cache.computations());
+
+        cache.clear();
+        cache.linksWithTraffic(StatsType.PORT_STATS, 60_000);
+        assertEquals("bad computation count", 4, cache.computations());
+    }
+
+    private static class TestLinkService extends LinkServiceAdapter {
+        @Override
+        public Iterable<Link> getLinks() {
+            return ImmutableList.of(LINK);
+        }
+    }
+
+    private static class TestHostService extends HostServiceAdapter {
+        @Override
+        public Iterable<Host> getHosts() {
+            return ImmutableList.of();
+        }
+    }
+}